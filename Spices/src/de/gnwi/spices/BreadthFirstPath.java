@@ -0,0 +1,209 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.Arrays;
+
+/**
+ * Shortest paths between particles of particle graphs (see ParticleGraph)
+ * with a breadth-first search. The work arrays grow on demand and are
+ * reused by all searches (also of different particle graphs), i.e. a
+ * search only allocates the returned path. Visited particles are marked
+ * with the number of the search so that the work arrays never have to be
+ * cleared.
+ * NOTE: This class is NOT thread-safe.
+ *
+ * @author agent
+ */
+public final class BreadthFirstPath {
+
+    // <editor-fold defaultstate="collapsed" desc="Private class variables">
+    /**
+     * Number of the search that visited particle i
+     */
+    private int[] visitMarks;
+
+    /**
+     * Parent particle of particle i on a shortest path to the source
+     * particle
+     */
+    private int[] parents;
+
+    /**
+     * Queue of the breadth-first search (every particle is added at most
+     * once)
+     */
+    private int[] queue;
+
+    /**
+     * Number of the current search
+     */
+    private int searchMark;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructors">
+    /**
+     * Constructor
+     */
+    public BreadthFirstPath() {
+        this(0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param aNumberOfParticles Initial number of particles of the work
+     * arrays
+     * @throws IllegalArgumentException Thrown if aNumberOfParticles is
+     * negative
+     */
+    public BreadthFirstPath(int aNumberOfParticles) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aNumberOfParticles < 0) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        this.visitMarks = new int[aNumberOfParticles];
+        this.parents = new int[aNumberOfParticles];
+        this.queue = new int[aNumberOfParticles];
+        this.searchMark = 0;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Shortest path from source particle to target particle. The neighbors
+     * of a particle are visited in the order of the particle graph.
+     *
+     * @param aParticleGraph Particle graph
+     * @param aSourceParticleIndex Index of source particle
+     * @param aTargetParticleIndex Index of target particle
+     * @return Particle indices of path from source particle to target
+     * particle or null if target particle is not reachable
+     * @throws IllegalArgumentException Thrown if argument is illegal
+     */
+    public int[] getPath(ParticleGraph aParticleGraph, int aSourceParticleIndex, int aTargetParticleIndex) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aParticleGraph == null
+            || aSourceParticleIndex < 0 || aSourceParticleIndex >= aParticleGraph.getNumberOfParticles()
+            || aTargetParticleIndex < 0 || aTargetParticleIndex >= aParticleGraph.getNumberOfParticles()) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        this.ensureCapacity(aParticleGraph.getNumberOfParticles());
+        int[] tmpOffsets = aParticleGraph.getOffsets();
+        int[] tmpNeighbors = aParticleGraph.getNeighbors();
+        int tmpMark = this.getNextSearchMark();
+        int tmpHead = 0;
+        int tmpTail = 0;
+        this.visitMarks[aSourceParticleIndex] = tmpMark;
+        this.parents[aSourceParticleIndex] = aSourceParticleIndex;
+        this.queue[tmpTail++] = aSourceParticleIndex;
+        boolean tmpIsReached = false;
+        while (tmpHead < tmpTail) {
+            int tmpParticleIndex = this.queue[tmpHead++];
+            if (tmpParticleIndex == aTargetParticleIndex) {
+                tmpIsReached = true;
+                break;
+            }
+            for (int i = tmpOffsets[tmpParticleIndex]; i < tmpOffsets[tmpParticleIndex + 1]; i++) {
+                int tmpNeighbor = tmpNeighbors[i];
+                if (this.visitMarks[tmpNeighbor] != tmpMark) {
+                    this.visitMarks[tmpNeighbor] = tmpMark;
+                    this.parents[tmpNeighbor] = tmpParticleIndex;
+                    this.queue[tmpTail++] = tmpNeighbor;
+                }
+            }
+        }
+        if (!tmpIsReached) {
+            return null;
+        }
+        // Path length
+        int tmpLength = 1;
+        for (int i = aTargetParticleIndex; i != aSourceParticleIndex; i = this.parents[i]) {
+            tmpLength++;
+        }
+        int[] tmpPath = new int[tmpLength];
+        int tmpParticleIndex = aTargetParticleIndex;
+        for (int i = tmpLength - 1; i >= 0; i--) {
+            tmpPath[i] = tmpParticleIndex;
+            tmpParticleIndex = this.parents[tmpParticleIndex];
+        }
+        return tmpPath;
+    }
+
+    /**
+     * Shortest paths between several pairs of source and target particles
+     * (see getPath())
+     *
+     * @param aParticleGraph Particle graph
+     * @param aSourceParticleIndices Indices of source particles
+     * @param aTargetParticleIndices Indices of target particles (same length
+     * as aSourceParticleIndices)
+     * @return Particle indices of path i from source particle i to target
+     * particle i (null if target particle i is not reachable)
+     * @throws IllegalArgumentException Thrown if argument is illegal
+     */
+    public int[][] getPaths(ParticleGraph aParticleGraph, int[] aSourceParticleIndices, int[] aTargetParticleIndices) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aSourceParticleIndices == null
+            || aTargetParticleIndices == null
+            || aSourceParticleIndices.length != aTargetParticleIndices.length) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        int[][] tmpPaths = new int[aSourceParticleIndices.length][];
+        for (int i = 0; i < aSourceParticleIndices.length; i++) {
+            tmpPaths[i] = this.getPath(aParticleGraph, aSourceParticleIndices[i], aTargetParticleIndices[i]);
+        }
+        return tmpPaths;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private methods">
+    /**
+     * Grows the work arrays if necessary
+     *
+     * @param aNumberOfParticles Number of particles
+     */
+    private void ensureCapacity(int aNumberOfParticles) {
+        if (this.visitMarks.length < aNumberOfParticles) {
+            this.visitMarks = new int[aNumberOfParticles];
+            this.parents = new int[aNumberOfParticles];
+            this.queue = new int[aNumberOfParticles];
+            this.searchMark = 0;
+        }
+    }
+
+    /**
+     * Next search mark (the visit marks are cleared on overflow)
+     *
+     * @return Next search mark
+     */
+    private int getNextSearchMark() {
+        if (this.searchMark == Integer.MAX_VALUE) {
+            Arrays.fill(this.visitMarks, 0);
+            this.searchMark = 0;
+        }
+        return ++this.searchMark;
+    }
+    // </editor-fold>
+
+}
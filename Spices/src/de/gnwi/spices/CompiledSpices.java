@@ -0,0 +1,1901 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compiled Spices: Immutable result of the compilation of an input
+ * structure (see compile()) with all topology arrays and the query methods
+ * of Spices. Spices is a mutable wrapper of a compiled Spices object.
+ * NOTE: This class is thread-safe, i.e. a compiled Spices object may be
+ * shared by several threads (e.g. for the parallel generation of particle
+ * coordinates or Spices matrices). Derived values are created on request
+ * and returned as copies.
+ *
+ * @author Mirco Daniel, Achim Zielesny, agent
+ */
+public final class CompiledSpices {
+
+    // <editor-fold defaultstate="collapsed" desc="Private static final class variables">
+    /**
+     * Memoized monomer names of a structure without monomers
+     */
+    private static final String[] NO_MONOMERS = new String[0];
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Instance of SpicesUtility class (stateless)
+     */
+    private final SpicesUtility spicesUtility = new SpicesUtility();
+
+    /**
+     * Input structure (null if the input structure contains illegal
+     * whitespace characters)
+     */
+    private final String inputStructure;
+
+    /**
+     * Error message
+     */
+    private final String errorMessage;
+
+    /**
+     * True: The input structure is valid, false: Otherwise
+     */
+    private final boolean isValid;
+
+    /**
+     * True: The input structure is a monomer, false: Otherwise
+     */
+    private final boolean isMonomer;
+
+    /**
+     * Structure tokens of an input structure with an invalid part (null
+     * otherwise)
+     */
+    private final String[] invalidStructureTokens;
+
+    /**
+     * Parts up to the first invalid part of an input structure with an
+     * invalid part (null otherwise)
+     */
+    private final SpicesInner[] invalidPartsOfSpices;
+
+    /**
+     * Compiled parts of part blocks (a part block consists of consecutive
+     * equal parts, e.g. of "100<A-B-C>")
+     */
+    private final SpicesInner[] partBlocks;
+
+    /**
+     * Multiplicities of part blocks (number of consecutive equal parts)
+     */
+    private final int[] partBlockMultiplicities;
+
+    /**
+     * Part offsets of part blocks (prefix sums of multiplicities): Parts of
+     * part block i are parts partBlockPartOffsets[i] to
+     * partBlockPartOffsets[i + 1] - 1.
+     */
+    private final int[] partBlockPartOffsets;
+
+    /**
+     * Particle offsets of part blocks (prefix sums of numbers of particles):
+     * Particles of part block i are particles partBlockParticleOffsets[i] to
+     * partBlockParticleOffsets[i + 1] - 1.
+     */
+    private final int[] partBlockParticleOffsets;
+
+    /**
+     * Number of disconnected structures.
+     */
+    private final int numberOfParts;
+
+    /**
+     * Number of total particles
+     */
+    private final int numberOfTotalParticles;
+
+    /**
+     * Maximum number of connections (bonds) of a single particle
+     */
+    private final int maximumNumberOfConnectionsOfSingleParticle;
+
+    /**
+     * Where there is backbone particles
+     */
+    private final boolean hasBackboneAttribute;
+
+    /**
+     * Whether there is disconnected structure in input structure
+     */
+    private final boolean hasParts;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class variables">
+    /**
+     * Part of spices (created on request, see getPartsOfSpices())
+     */
+    private volatile SpicesInner[] partOfSpices;
+
+    /**
+     * Compiled structure tokens of a valid structure (created on request,
+     * see getOuterStructureTokens())
+     */
+    private volatile String[] outerStructureTokens;
+
+    /**
+     * Structure token offsets of part blocks (prefix sums of numbers of
+     * structure tokens, created on request)
+     */
+    private volatile int[] partBlockTokenOffsets;
+
+    /**
+     * Outer particle index (zero-based position of particles in the
+     * structure tokens, created on request)
+     */
+    private volatile int[] outerParticleIndices;
+
+    /**
+     * Outer backbone index (zero-based position of particles: value
+     * corresponds to index number in input string, created on request)
+     */
+    private volatile int[] outerBackboneIndices;
+
+    /**
+     * Maximum outer backbone index (created on request, -1: Not yet
+     * determined)
+     */
+    private volatile int maxOuterBackboneIndex = -1;
+
+    /**
+     * Monomer names (created on request, see NO_MONOMERS)
+     */
+    private volatile String[] monomers;
+
+    /**
+     * Number of display particles (created on request, -1: Not yet
+     * determined)
+     */
+    private volatile int numberOfDisplayParticles = -1;
+
+    /**
+     * HashMap that maps particles of molecule to their frequencies (created
+     * on request)
+     */
+    private volatile HashMap<String, ParticleFrequency> particleToFrequencyMap;
+
+    /**
+     * Particle frequencies of molecule (created on request)
+     */
+    private volatile ParticleFrequency[] particleFrequencies;
+
+    /**
+     * Sorted particle frequencies of molecule (created on request)
+     */
+    private volatile ParticleFrequency[] sortedParticleFrequencies;
+
+    /**
+     * Connected components of all parts (created on request)
+     */
+    private volatile ParticleComponents particleComponents;
+
+    /**
+     * Map between global particle indices and (part index, local particle
+     * index) pairs (created on request)
+     */
+    private volatile ParticleIndexMap particleIndexMap;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructor">
+    /**
+     * Compiles an input structure (see compile())
+     *
+     * @param anInputStructure An input structure (may be a monomer)
+     * @param anAvailableParticles Hashmap of available particles
+     * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
+     * @param anIsParallel True: Distinct parts are compiled in parallel,
+     * false: Otherwise
+     * @param anArena Arena with the work buffers (is reset)
+     */
+    private CompiledSpices(CharSequence anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer, boolean anIsParallel,
+            SpicesArena anArena) {
+        // <editor-fold defaultstate="collapsed" desc="Initialisation">
+        anArena.reset();
+        SpicesValidator tmpValidator = anArena.getValidator();
+        HashMap<String, SpicesInner> tmpPartsHashMap = anArena.getCompiledParts();
+        String tmpInputStructure = null;
+        String tmpErrorMessage = null;
+        boolean tmpIsValid = false;
+        boolean tmpIsMonomer = false;
+        boolean tmpHasParts = false;
+        String[] tmpInvalidStructureTokens = null;
+        SpicesInner[] tmpInvalidPartsOfSpices = null;
+        SpicesInner[] tmpPartBlocks = null;
+        int[] tmpPartBlockMultiplicities = null;
+        int[] tmpPartBlockPartOffsets = null;
+        int[] tmpPartBlockParticleOffsets = null;
+        int tmpNumberOfParts = 0;
+        int tmpNumberOfTotalParticles = 0;
+        boolean tmpHasBackboneAttribute = false;
+        int tmpMaxConnectionNumber = 0;
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Check outer parts">
+        if (!tmpValidator.checkWhiteSpaces(anInputStructure)) {
+            tmpErrorMessage = tmpValidator.getErrorMessage();
+        } else {
+            tmpInputStructure = this.spicesUtility.eliminateWhiteSpaces(anInputStructure);
+            tmpIsMonomer = anIsMonomer;
+            if (!tmpValidator.checkOuterStructure(tmpInputStructure)) {
+                tmpErrorMessage = tmpValidator.getErrorMessage();
+            } else {
+                String[] tmpStructureTokens;
+                if (tmpInputStructure.length() == anInputStructure.length()) {
+                    // NOTE: Input structure without whitespaces
+                    tmpStructureTokens = this.spicesUtility.getSharedStructureTokens(tmpInputStructure);
+                } else {
+                    tmpStructureTokens = this.spicesUtility.getSharedStructureTokens(anInputStructure.toString());
+                }
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="Check inner parts">
+                // NOTE: Consecutive equal parts form a part block with a
+                // single compiled part
+                tmpHasParts = this.spicesUtility.hasPart(tmpInputStructure);
+                CompiledSpices.partStructures(tmpInputStructure, tmpHasParts, anArena);
+                String[] tmpParts = anArena.getPartStructures();
+                int tmpNumberOfPartBlocks = anArena.getNumberOfPartBlocks();
+                tmpPartBlockMultiplicities = new int[tmpNumberOfPartBlocks];
+                for (int i = 0; i < tmpNumberOfPartBlocks; i++) {
+                    tmpPartBlockMultiplicities[i] = anArena.getPartMultiplicity(i);
+                    tmpNumberOfParts += tmpPartBlockMultiplicities[i];
+                }
+                tmpPartBlocks = new SpicesInner[tmpNumberOfPartBlocks];
+                tmpPartBlockPartOffsets = new int[tmpNumberOfPartBlocks + 1];
+                tmpPartBlockParticleOffsets = new int[tmpNumberOfPartBlocks + 1];
+                // NOTE: The set of available particles is interned once for
+                // all parts
+                int tmpParticleSetId = SpicesPartPool.getParticleSetId(anAvailableParticles);
+                if (anIsParallel) {
+                    CompiledSpices.compileDistinctPartsInParallel(tmpParts, tmpNumberOfPartBlocks, tmpPartBlocks, anAvailableParticles, tmpParticleSetId, anIsMonomer);
+                }
+                tmpIsValid = true;
+                for (int i = 0; i < tmpNumberOfPartBlocks; i++) {
+                    // NOTE: Parts compiled in parallel are already set
+                    if (tmpPartBlocks[i] == null) {
+                        if (!tmpPartsHashMap.containsKey(tmpParts[i])) {
+                            tmpPartBlocks[i] = SpicesPartPool.getSharedInstance().getPart(tmpParts[i], anAvailableParticles, tmpParticleSetId, anIsMonomer);
+                        } else {
+                            tmpPartBlocks[i] = tmpPartsHashMap.get(tmpParts[i]);
+                        }
+                    }
+                    tmpPartBlockPartOffsets[i + 1] = tmpPartBlockPartOffsets[i] + tmpPartBlockMultiplicities[i];
+                    if (tmpPartBlocks[i].getErrorMessage() != null) {
+                        tmpIsValid = false;
+                        tmpErrorMessage = tmpPartBlocks[i].getErrorMessage();
+                        tmpInvalidStructureTokens = tmpStructureTokens;
+                        // Parts up to the first invalid part are set (parts
+                        // after the first invalid part are not set)
+                        tmpInvalidPartsOfSpices = new SpicesInner[tmpNumberOfParts];
+                        for (int j = 0; j < i; j++) {
+                            Arrays.fill(tmpInvalidPartsOfSpices, tmpPartBlockPartOffsets[j], tmpPartBlockPartOffsets[j + 1], tmpPartBlocks[j]);
+                        }
+                        tmpInvalidPartsOfSpices[tmpPartBlockPartOffsets[i]] = tmpPartBlocks[i];
+                        // Part blocks after the first invalid part are not
+                        // set
+                        for (int j = i + 1; j < tmpNumberOfPartBlocks; j++) {
+                            tmpPartBlocks[j] = null;
+                        }
+                        break;
+                    }
+                    if (tmpNumberOfPartBlocks > 1) {
+                        tmpPartsHashMap.put(tmpParts[i], tmpPartBlocks[i]);
+                    }
+                    tmpPartBlockParticleOffsets[i + 1] = tmpPartBlockParticleOffsets[i] + tmpPartBlockMultiplicities[i] * tmpPartBlocks[i].getNumberOfInnerParticles();
+                }
+                // </editor-fold>
+                if (tmpIsValid) {
+                    // NOTE: Compiled structure tokens, parts, particle
+                    // indices, backbone indices and monomers are created on
+                    // request
+                    tmpNumberOfTotalParticles = tmpPartBlockParticleOffsets[tmpNumberOfPartBlocks];
+                    for (SpicesInner tmpPartBlock : tmpPartBlocks) {
+                        if (tmpPartBlock.hasBackboneAttribute()) {
+                            tmpHasBackboneAttribute = true;
+                        }
+                        if (tmpMaxConnectionNumber < tmpPartBlock.getMaximumNumberOfConnectionsOfSingleParticle()) {
+                            tmpMaxConnectionNumber = tmpPartBlock.getMaximumNumberOfConnectionsOfSingleParticle();
+                        }
+                    }
+                }
+            }
+        }
+        this.inputStructure = tmpInputStructure;
+        this.errorMessage = tmpErrorMessage;
+        this.isValid = tmpIsValid;
+        this.isMonomer = tmpIsMonomer;
+        this.invalidStructureTokens = tmpInvalidStructureTokens;
+        this.invalidPartsOfSpices = tmpInvalidPartsOfSpices;
+        this.partBlocks = tmpPartBlocks;
+        this.partBlockMultiplicities = tmpPartBlockMultiplicities;
+        this.partBlockPartOffsets = tmpPartBlockPartOffsets;
+        this.partBlockParticleOffsets = tmpPartBlockParticleOffsets;
+        this.numberOfParts = tmpNumberOfParts;
+        this.numberOfTotalParticles = tmpNumberOfTotalParticles;
+        this.maximumNumberOfConnectionsOfSingleParticle = tmpMaxConnectionNumber;
+        this.hasBackboneAttribute = tmpHasBackboneAttribute;
+        this.hasParts = tmpHasParts;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public static methods">
+    /**
+     * Compiles an input structure. NOTE: anInputStructure may be a
+     * CharBuffer or a SpicesAsciiSequence (view of an ASCII byte[] or
+     * ByteBuffer slice) so that no String copy of the raw input is necessary.
+     *
+     * @param anInputStructure An input structure (NOT allowed to be a monomer
+     * or to contain monomer shortcuts)
+     * @return Compiled Spices object (see isValid() and getErrorMessage())
+     */
+    public static CompiledSpices compile(CharSequence anInputStructure) {
+        return new CompiledSpices(anInputStructure, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false, false, new SpicesArena());
+    }
+
+    /**
+     * Compiles an input structure (see compile(CharSequence))
+     *
+     * @param anInputStructure An input structure (may be a monomer)
+     * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
+     * @return Compiled Spices object (see isValid() and getErrorMessage())
+     */
+    public static CompiledSpices compile(CharSequence anInputStructure, boolean anIsMonomer) {
+        return new CompiledSpices(anInputStructure, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), anIsMonomer, false, new SpicesArena());
+    }
+
+    /**
+     * Compiles an input structure (see compile(CharSequence))
+     *
+     * @param anInputStructure An input structure (may be a monomer)
+     * @param anAvailableParticles Hashmap of available particles
+     * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
+     * @return Compiled Spices object (see isValid() and getErrorMessage())
+     */
+    public static CompiledSpices compile(CharSequence anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer) {
+        return new CompiledSpices(anInputStructure, anAvailableParticles, anIsMonomer, false, new SpicesArena());
+    }
+
+    /**
+     * Compiles an input structure (see compile(CharSequence)). The distinct
+     * parts of a multi-part structure may be compiled in parallel (fork-join
+     * common pool): The result is identical to the sequential compilation.
+     *
+     * @param anInputStructure An input structure (may be a monomer)
+     * @param anAvailableParticles Hashmap of available particles
+     * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
+     * @param anIsParallel True: Distinct parts are compiled in parallel,
+     * false: Otherwise
+     * @return Compiled Spices object (see isValid() and getErrorMessage())
+     */
+    public static CompiledSpices compile(CharSequence anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer, boolean anIsParallel) {
+        return new CompiledSpices(anInputStructure, anAvailableParticles, anIsMonomer, anIsParallel, new SpicesArena());
+    }
+
+    /**
+     * Compiles an input structure (see compile(CharSequence)) with the work
+     * buffers of an arena: The repeated compilation of (small) structures
+     * with the same arena does not allocate work buffers. NOTE: The arena is
+     * reset and is NOT allowed to be used by several threads at the same
+     * time.
+     *
+     * @param anInputStructure An input structure (may be a monomer)
+     * @param anAvailableParticles Hashmap of available particles
+     * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
+     * @param anArena Arena with the work buffers
+     * @return Compiled Spices object (see isValid() and getErrorMessage())
+     * @throws IllegalArgumentException Thrown if anArena is null
+     */
+    public static CompiledSpices compile(CharSequence anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer, SpicesArena anArena)
+            throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (anArena == null) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        return new CompiledSpices(anInputStructure, anAvailableParticles, anIsMonomer, false, anArena);
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Returns the input structure
+     *
+     * @return Input structure
+     */
+    public String getInputStructure() {
+        return this.inputStructure;
+    }
+
+    /**
+     * Returns structure tokens. NOTE: The returned array is a copy.
+     *
+     * @return Structure tokens
+     */
+    public String[] getStructureTokens() {
+        String[] tmpStructureTokens = this.getOuterStructureTokens();
+        return tmpStructureTokens == null ? null : tmpStructureTokens.clone();
+    }
+
+    /**
+     * Returns error message
+     *
+     * @return Error message
+     */
+    public String getErrorMessage() {
+        return this.errorMessage;
+    }
+
+    /**
+     * Particle index. NOTE: The returned array is a copy.
+     *
+     * @return Particle indices
+     */
+    public int[] getParticleIndices() {
+        int[] tmpOuterParticleIndices = this.outerParticleIndices;
+        if (tmpOuterParticleIndices == null && this.isValid) {
+            tmpOuterParticleIndices = new int[this.numberOfTotalParticles];
+            for (int i = 0; i < this.partBlocks.length; i++) {
+                this.fillPartBlock(this.partBlocks[i].getInnerParticleIndices(), i, tmpOuterParticleIndices);
+            }
+            this.outerParticleIndices = tmpOuterParticleIndices;
+        }
+        return tmpOuterParticleIndices == null ? null : tmpOuterParticleIndices.clone();
+    }
+
+    /**
+     * Backbone indices. NOTE: The returned array is a copy.
+     *
+     * @return Backbone indices (may be null)
+     */
+    public int[] getBackboneIndices() {
+        int[] tmpOuterBackboneIndices = this.outerBackboneIndices;
+        if (tmpOuterBackboneIndices == null && this.isValid) {
+            tmpOuterBackboneIndices = new int[this.numberOfTotalParticles];
+            for (int i = 0; i < this.partBlocks.length; i++) {
+                this.fillPartBlock(this.partBlocks[i].getInnerBackboneIndices(), i, tmpOuterBackboneIndices);
+            }
+            this.outerBackboneIndices = tmpOuterBackboneIndices;
+        }
+        return tmpOuterBackboneIndices == null ? null : tmpOuterBackboneIndices.clone();
+    }
+
+    /**
+     * Maximum backbone index
+     *
+     * @return Maximum backbone index or -1 if no backbone attribute is
+     * defined (0 for an invalid structure)
+     */
+    public int getMaxBackboneIndex() {
+        if (!this.isValid) {
+            return 0;
+        }
+        int tmpMaxOuterBackboneIndex = this.maxOuterBackboneIndex;
+        if (tmpMaxOuterBackboneIndex == -1 && this.numberOfTotalParticles > 0) {
+            // NOTE: Copies of a part have the same backbone indices
+            tmpMaxOuterBackboneIndex = Integer.MIN_VALUE;
+            for (SpicesInner tmpPartBlock : this.partBlocks) {
+                for (int tmpBackboneIndex : tmpPartBlock.getInnerBackboneIndices()) {
+                    if (tmpBackboneIndex > tmpMaxOuterBackboneIndex) {
+                        tmpMaxOuterBackboneIndex = tmpBackboneIndex;
+                    }
+                }
+            }
+            this.maxOuterBackboneIndex = tmpMaxOuterBackboneIndex;
+        }
+        return tmpMaxOuterBackboneIndex;
+    }
+
+    /**
+     * Returns Monomers. NOTE: The returned array is a copy.
+     *
+     * @return Monomers
+     */
+    public String[] getMonomers() {
+        if (!this.isValid) {
+            return null;
+        }
+        String[] tmpMonomers = this.getMemoizedMonomers();
+        if (tmpMonomers.length == 0) {
+            return null;
+        }
+        return tmpMonomers.clone();
+    }
+
+    /**
+     * Returns a new Spices matrix (see
+     * Spices.getParticlePositionsAndConnections()). The rows of a compiled
+     * part are created once and copied to all parts with this compiled part.
+     *
+     * @param aStartIndex First particle number in the Spices matrix
+     * @param aFirstParticlePositions Cartesian coordinates of first particles
+     * (may be null)
+     * @param aLastParticlePositions Cartesian coordinates of last particles
+     * @param aBondLength User defined bond length for all connections between
+     * particles
+     * @param anIsParallel True: Spices matrix is created in parallel, false:
+     * Otherwise
+     * @return Spices particle positions and connections or null if the input
+     * structure is invalid
+     */
+    public String[][] getParticlePositionsAndConnections(int aStartIndex, PointInSpace[] aFirstParticlePositions, PointInSpace[] aLastParticlePositions,
+            double aBondLength, boolean anIsParallel) {
+        if (!this.isValid) {
+            return null;
+        }
+        // <editor-fold defaultstate="collapsed" desc="Initialisation">
+        int tmpNumberOfPartBlocks = this.partBlocks.length;
+        String[][][] tmpParticlePositionsAndConnections = new String[tmpNumberOfPartBlocks][][];
+        // Index of first part block with same compiled part
+        int[] tmpFirstPartBlockIndices = new int[tmpNumberOfPartBlocks];
+        int[] tmpDistinctPartBlockIndices = new int[tmpNumberOfPartBlocks];
+        int tmpNumberOfDistinctPartBlocks = 0;
+        HashMap<SpicesInner, Integer> tmpCompiledPartToFirstIndexMap = new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+        for (int i = 0; i < tmpNumberOfPartBlocks; i++) {
+            Integer tmpFirstIndex = tmpCompiledPartToFirstIndexMap.get(this.partBlocks[i]);
+            if (tmpFirstIndex == null) {
+                tmpCompiledPartToFirstIndexMap.put(this.partBlocks[i], i);
+                tmpFirstPartBlockIndices[i] = i;
+                tmpDistinctPartBlockIndices[tmpNumberOfDistinctPartBlocks++] = i;
+            } else {
+                tmpFirstPartBlockIndices[i] = tmpFirstIndex;
+            }
+        }
+
+        // </editor-fold>
+        // NOTE: The rows of a compiled part only depend on the compiled part
+        IntStream tmpDistinctPartBlockStream = IntStream.range(0, tmpNumberOfDistinctPartBlocks);
+        if (anIsParallel) {
+            tmpDistinctPartBlockStream = tmpDistinctPartBlockStream.parallel();
+        }
+        tmpDistinctPartBlockStream.forEach(i -> {
+            int tmpPartBlockIndex = tmpDistinctPartBlockIndices[i];
+            int tmpPartIndex = this.partBlockPartOffsets[tmpPartBlockIndex];
+            if (aFirstParticlePositions == null) {
+                tmpParticlePositionsAndConnections[tmpPartBlockIndex] = this.getParticlePositionsAndConnections(tmpPartIndex, aStartIndex);
+            } else {
+                tmpParticlePositionsAndConnections[tmpPartBlockIndex] = this.getParticlePositionsAndConnections(tmpPartIndex, aStartIndex, aFirstParticlePositions, aLastParticlePositions, aBondLength);
+            }
+        });
+        for (int i = 0; i < tmpNumberOfPartBlocks; i++) {
+            tmpParticlePositionsAndConnections[i] = tmpParticlePositionsAndConnections[tmpFirstPartBlockIndices[i]];
+        }
+        int tmpNumberOfFirstParticlesPositions =  tmpParticlePositionsAndConnections[0].length / this.partBlocks[0].getNumberOfInnerParticles();
+        String[][] tmpResult = new String[this.numberOfTotalParticles * tmpNumberOfFirstParticlesPositions][];
+        // Row k of part j for first particle position i is row
+        // i * numberOfTotalParticles + (particle offset of part j) + k: The
+        // particle offset of a part follows from the particle offset of its
+        // part block
+        IntStream tmpPartStream = IntStream.range(0, this.numberOfParts);
+        if (anIsParallel) {
+            tmpPartStream = tmpPartStream.parallel();
+        }
+        tmpPartStream.forEach(j -> {
+            int tmpPartBlockIndex = this.getPartBlockIndex(j);
+            int tmpNumberOfPartParticles = this.partBlocks[tmpPartBlockIndex].getNumberOfInnerParticles();
+            int tmpPartOffset = this.partBlockParticleOffsets[tmpPartBlockIndex] + (j - this.partBlockPartOffsets[tmpPartBlockIndex]) * tmpNumberOfPartParticles;
+            String[][] tmpSourceRows = tmpParticlePositionsAndConnections[tmpPartBlockIndex];
+            for (int i = 0; i < tmpNumberOfFirstParticlesPositions; i++) {
+                for (int k = 0; k < tmpNumberOfPartParticles; k++) {
+                    int tmpTargetIndex = i * this.numberOfTotalParticles + tmpPartOffset + k;
+                    String[] tmpRow = tmpSourceRows[i * tmpNumberOfPartParticles + k].clone();
+                    // Reset number of particle in Spices matrix
+                    tmpRow[0] = Integer.toString(tmpTargetIndex + aStartIndex);
+                    tmpResult[tmpTargetIndex] = tmpRow;
+                }
+            }
+        });
+        return tmpResult;
+    }
+
+    /**
+     * Maximum number of connections (bonds) of a single particle
+     *
+     * @return Maximum number of connections (bonds) of a single particle
+     */
+    public int getMaximumNumberOfConnectionsOfSingleParticle() {
+        return this.maximumNumberOfConnectionsOfSingleParticle;
+    }
+
+    /**
+     * Parts of Spices. NOTE: The returned array is a copy.
+     *
+     * @return If the structure consists of multiple parts a FSmile of each part
+     * is returned, otherwise null is returned.
+     */
+    public SpicesInner[] getPartsOfSpices() {
+        if (!this.isValid) {
+            return this.invalidPartsOfSpices == null ? null : this.invalidPartsOfSpices.clone();
+        }
+        SpicesInner[] tmpPartOfSpices = this.partOfSpices;
+        if (tmpPartOfSpices == null) {
+            tmpPartOfSpices = new SpicesInner[this.numberOfParts];
+            for (int i = 0; i < this.partBlocks.length; i++) {
+                Arrays.fill(tmpPartOfSpices, this.partBlockPartOffsets[i], this.partBlockPartOffsets[i + 1], this.partBlocks[i]);
+            }
+            this.partOfSpices = tmpPartOfSpices;
+        }
+        return tmpPartOfSpices.clone();
+    }
+
+    /**
+     * Part of Spices (the array of all parts is NOT created, see
+     * getPartsOfSpices()). NOTE: Molecular structure MUST be valid (NO
+     * checks are performed).
+     *
+     * @param aPartIndex Index of part
+     * @return Part
+     */
+    public SpicesInner getPartOfSpices(int aPartIndex) {
+        SpicesInner[] tmpPartOfSpices = this.isValid ? this.partOfSpices : this.invalidPartsOfSpices;
+        if (tmpPartOfSpices != null) {
+            return tmpPartOfSpices[aPartIndex];
+        }
+        return this.partBlocks[this.getPartBlockIndex(aPartIndex)];
+    }
+
+    /**
+     * Number of parts
+     *
+     * @return Number of parts
+     */
+    public int getNumberOfParts() {
+        return this.numberOfParts;
+    }
+
+    /**
+     * Number of part blocks. A part block consists of consecutive equal
+     * parts (e.g. of "100<A-B-C>") that share a single compiled part. NOTE:
+     * Molecular structure MUST be valid (NO checks are performed).
+     *
+     * @return Number of part blocks
+     */
+    public int getNumberOfPartBlocks() {
+        return this.partBlocks.length;
+    }
+
+    /**
+     * Compiled part of part block. NOTE: Molecular structure MUST be valid
+     * (NO checks are performed).
+     *
+     * @param aPartBlockIndex Index of part block
+     * @return Compiled part of part block
+     */
+    public SpicesInner getPartBlock(int aPartBlockIndex) {
+        return this.partBlocks[aPartBlockIndex];
+    }
+
+    /**
+     * Multiplicity of part block (number of consecutive equal parts). NOTE:
+     * Molecular structure MUST be valid (NO checks are performed).
+     *
+     * @param aPartBlockIndex Index of part block
+     * @return Multiplicity of part block
+     */
+    public int getPartBlockMultiplicity(int aPartBlockIndex) {
+        return this.partBlockMultiplicities[aPartBlockIndex];
+    }
+
+    /**
+     * Particle offsets of part blocks: Particles of part block i are
+     * particles getPartBlockParticleOffsets()[i] to
+     * getPartBlockParticleOffsets()[i + 1] - 1. NOTE: Molecular structure
+     * MUST be valid (NO checks are performed). The returned array is a
+     * copy.
+     *
+     * @return Particle offsets of part blocks (last entry: Total number of
+     * particles)
+     */
+    public int[] getPartBlockParticleOffsets() {
+        return this.partBlockParticleOffsets.clone();
+    }
+
+    /**
+     * Particle graph of part. NOTE: Molecular structure MUST be valid (NO
+     * checks are performed).
+     *
+     * @param aPartIndex Index of part
+     * @return Particle graph of part with part-local particle indices
+     */
+    public ParticleGraph getParticleGraph(int aPartIndex) {
+        return this.getPartOfSpices(aPartIndex).getParticleGraph();
+    }
+
+    /**
+     * Smallest set of smallest rings of part (created on request and cached
+     * by the part). NOTE: Molecular structure MUST be valid (NO checks are
+     * performed).
+     *
+     * @param aPartIndex Index of part
+     * @return Smallest set of smallest rings of part with part-local
+     * particle indices
+     */
+    public ParticleRings getParticleRings(int aPartIndex) {
+        return this.getPartOfSpices(aPartIndex).getParticleRings();
+    }
+
+    /**
+     * Connected components of all parts with consecutive particle indices of
+     * the parts (every part of a valid structure is one component). NOTE:
+     * Molecular structure MUST be valid (NO checks are performed).
+     *
+     * @return Connected components of all parts
+     */
+    public ParticleComponents getParticleComponents() {
+        ParticleComponents tmpParticleComponents = this.particleComponents;
+        if (tmpParticleComponents == null) {
+            ParticleGraph[] tmpParticleGraphs = new ParticleGraph[this.numberOfParts];
+            for (int i = 0; i < this.partBlocks.length; i++) {
+                Arrays.fill(tmpParticleGraphs, this.partBlockPartOffsets[i], this.partBlockPartOffsets[i + 1], this.partBlocks[i].getParticleGraph());
+            }
+            tmpParticleComponents = new ParticleComponents(tmpParticleGraphs);
+            this.particleComponents = tmpParticleComponents;
+        }
+        return tmpParticleComponents;
+    }
+
+    /**
+     * Map between global particle indices and (part index, local particle
+     * index) pairs of all parts (backed by the prefix sums of the part blocks,
+     * i.e. multiplicities of parts are covered without per-part or
+     * per-particle arrays). NOTE: Molecular structure MUST be valid (NO
+     * checks are performed).
+     *
+     * @return Map between global particle indices and (part index, local
+     * particle index) pairs
+     */
+    public ParticleIndexMap getParticleIndexMap() {
+        ParticleIndexMap tmpParticleIndexMap = this.particleIndexMap;
+        if (tmpParticleIndexMap == null) {
+            tmpParticleIndexMap = new ParticleIndexMap(this.partBlockPartOffsets, this.partBlockParticleOffsets);
+            this.particleIndexMap = tmpParticleIndexMap;
+        }
+        return tmpParticleIndexMap;
+    }
+
+    /**
+     * Paths from START particle to END particle of all parts in one batch
+     * (the work arrays of the breadth-first search are shared by all parts).
+     * NOTE: Molecular structure MUST be valid (NO checks are performed).
+     *
+     * @return Paths from START particle to END particle of all parts (null
+     * for a part without START/END particles). NOTE: The path of a part
+     * block is searched once and copied for the further parts of the part
+     * block.
+     */
+    public int[][] getPathsStartToEnd() {
+        int tmpMaximumNumberOfParticles = 0;
+        for (SpicesInner tmpPart : this.partBlocks) {
+            tmpMaximumNumberOfParticles = Math.max(tmpMaximumNumberOfParticles, tmpPart.getParticleGraph().getNumberOfParticles());
+        }
+        BreadthFirstPath tmpBreadthFirstPath = new BreadthFirstPath(tmpMaximumNumberOfParticles);
+        int[][] tmpPaths = new int[this.numberOfParts][];
+        for (int i = 0; i < this.partBlocks.length; i++) {
+            int[] tmpPath = this.partBlocks[i].getPathStartToEnd(tmpBreadthFirstPath);
+            tmpPaths[this.partBlockPartOffsets[i]] = tmpPath;
+            if (tmpPath != null) {
+                for (int j = this.partBlockPartOffsets[i] + 1; j < this.partBlockPartOffsets[i + 1]; j++) {
+                    tmpPaths[j] = tmpPath.clone();
+                }
+            }
+        }
+        return tmpPaths;
+    }
+
+    /**
+     * HashMap that maps particles of molecule to their frequencies. NOTE:
+     * Molecular structure MUST be valid (NO checks are performed) and is NOT
+     * allowed to contain monomer shortcuts. The returned HashMap (and its
+     * particle frequencies) is a copy.
+     *
+     * @return HashMap that maps particles of molecule to their frequencies
+     */
+    public HashMap<String, ParticleFrequency> getParticleToFrequencyMap() {
+        HashMap<String, ParticleFrequency> tmpParticleToFrequencyMap = this.getMemoizedParticleToFrequencyMap();
+        // NOTE: Particles are put in iteration order so that the iteration
+        // order of the copy is unchanged
+        HashMap<String, ParticleFrequency> tmpResult = new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+        for (ParticleFrequency tmpParticleFrequency : tmpParticleToFrequencyMap.values()) {
+            tmpResult.put(tmpParticleFrequency.getParticle(), new ParticleFrequency(tmpParticleFrequency.getParticle(), tmpParticleFrequency.getFrequency()));
+        }
+        return tmpResult;
+    }
+
+    /**
+     * Returns number of different particles
+     *
+     * @return Number of different particles
+     */
+    public int getNumberOfDifferentParticles() {
+        return this.getMemoizedParticleToFrequencyMap().size();
+    }
+
+    /**
+     * Returns frequency of specified particle in molecule
+     *
+     * @param aParticle Particle
+     * @return Frequency of specified particle in molecule
+     */
+    public int getFrequencyOfSpecifiedParticle(String aParticle) {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aParticle == null || !this.getMemoizedParticleToFrequencyMap().containsKey(aParticle)) {
+            return 0;
+        }
+        // </editor-fold>
+        return this.getMemoizedParticleToFrequencyMap().get(aParticle).getFrequency();
+    }
+
+    /**
+     * Returns array of particle frequencies of molecule. NOTE: The returned
+     * array (and its particle frequencies) is a copy.
+     *
+     * @return Array of particle frequencies of molecule
+     */
+    public ParticleFrequency[] getParticleFrequencies() {
+        ParticleFrequency[] tmpParticleFrequencies = this.particleFrequencies;
+        if (tmpParticleFrequencies == null) {
+            tmpParticleFrequencies = this.getMemoizedParticleToFrequencyMap().values().toArray(new ParticleFrequency[0]);
+            this.particleFrequencies = tmpParticleFrequencies;
+        }
+        return CompiledSpices.getCopy(tmpParticleFrequencies);
+    }
+
+    /**
+     * Returns array of sorted particle frequencies of molecule. NOTE: The
+     * returned array (and its particle frequencies) is a copy.
+     *
+     * @return Array of sorted particle frequencies of molecule
+     */
+    public ParticleFrequency[] getSortedParticleFrequencies() {
+        ParticleFrequency[] tmpSortedParticleFrequencies = this.sortedParticleFrequencies;
+        if (tmpSortedParticleFrequencies == null) {
+            tmpSortedParticleFrequencies = this.getMemoizedParticleToFrequencyMap().values().toArray(new ParticleFrequency[0]);
+            Arrays.sort(tmpSortedParticleFrequencies);
+            this.sortedParticleFrequencies = tmpSortedParticleFrequencies;
+        }
+        return CompiledSpices.getCopy(tmpSortedParticleFrequencies);
+    }
+
+    /**
+     * Checks whether there is backbone particles
+     *
+     * @return True: yes, false: no
+     */
+    public boolean hasBackboneParticle() {
+        return this.hasBackboneAttribute;
+    }
+
+    /**
+     * Checks whether molecule contains particle
+     *
+     * @param aParticle Particle
+     * @return True: Molecule contains particle, false: Otherwise
+     */
+    public boolean hasParticle(String aParticle) {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aParticle == null) {
+            return false;
+        }
+        // </editor-fold>
+        return this.getMemoizedParticleToFrequencyMap().containsKey(aParticle);
+    }
+
+    /**
+     * Returns whether structure is out of substructures.
+     *
+     * @return Informations flag about the input structure has more parts then
+     * 1.
+     */
+    public boolean hasMultipleParts() {
+        return (this.numberOfParts > 1);
+    }
+
+    /**
+     * Returns array with particles of molecule
+     *
+     * @return Array with particles of molecule
+     */
+    public String[] getParticles() {
+        return this.getMemoizedParticleToFrequencyMap().keySet().toArray(new String[0]);
+    }
+
+    /**
+     * Returns particle ids of all particles of molecule in particle order
+     * (see SpicesParticleTable)
+     *
+     * @return Particle ids of all particles of molecule or null if molecule
+     * is invalid
+     */
+    public int[] getParticleIds() {
+        if (!this.isValid) {
+            return null;
+        }
+        int[] tmpParticleIds = new int[this.numberOfTotalParticles];
+        for (int i = 0; i < this.partBlocks.length; i++) {
+            this.fillPartBlock(this.partBlocks[i].getInnerParticleIds(), i, tmpParticleIds);
+        }
+        return tmpParticleIds;
+    }
+
+    /**
+     * Returns total number of particles of molecule
+     *
+     * @return Total number of particles of molecule
+     */
+    public int getTotalNumberOfParticles() {
+        return this.numberOfTotalParticles;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    // <editor-fold defaultstate="collapsed" desc="- Chain and next neighbor related methods">
+    /**
+     * Determines all available neighbors
+     *
+     * @param aSegmentLength Length of segment (2: dimer, 3: trimer etc.)
+     * @param aHasDoublet Whether doublet should be considered or not (e.g. if
+     * true "A-F" and "F-A" will be returned instead one of both)
+     * @return All available neighbors with all segment lengths until
+     * aSegmentLength: Index 0: Particles, Index 1: Dimers, Index 2: Trimes etc.
+     * up to index (aSegmentLength - 1)
+     */
+    public String[][] getNextNeighbors(int aSegmentLength, boolean aHasDoublet) {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (!this.hasOuterStructureTokens() || aSegmentLength < 1) {
+            return null;
+        }
+
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Initialisation">
+        String[][] resultString = new String[aSegmentLength][];
+        ArrayDeque<String> tmpInterimResult = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
+        final ArrayDeque<int[]> tmpArray = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
+        int tmpNumberOfPartBlocks;
+        int tmpSegmentLength = aSegmentLength;
+        boolean tmpHasNeighbors = false;
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Determine neighbor">
+        // NOTE: The neighbors of a part block are determined once and added
+        // for every part of the part block
+        tmpNumberOfPartBlocks = this.partBlocks.length;
+        final LinkedList<int[]>[] tmpLinkList = new LinkedList[tmpNumberOfPartBlocks];
+        for (int i = 0; i < tmpNumberOfPartBlocks; i++) {
+            tmpLinkList[i] = this.partBlocks[i].getNextNeighborIndex(tmpSegmentLength, this.partBlocks[i]);
+        }
+        for (int i = 0; i < tmpSegmentLength; i++) {
+            for (int j = 0; j < tmpNumberOfPartBlocks; j++) {
+                if (!tmpHasNeighbors && tmpLinkList[j].size() > 0) {
+                    tmpHasNeighbors = true;
+                }
+                final int tmpAllowedLinkLength = i + 1;
+                tmpArray.addAll(tmpLinkList[j].stream()
+                        .filter(currentLink -> currentLink.length == tmpAllowedLinkLength)
+                        .collect(Collectors.toList()));
+                if (!tmpArray.isEmpty()) {
+                    List<String> tmpParticleList = Arrays.asList(this.getParticleList(tmpArray, this.partBlockPartOffsets[j], aHasDoublet));
+                    for (int k = 0; k < this.partBlockMultiplicities[j]; k++) {
+                        tmpInterimResult.addAll(tmpParticleList);
+                    }
+                    tmpArray.clear();
+                }
+            }
+            if (tmpInterimResult.isEmpty()) {
+                resultString[i] = null;
+            } else {
+                resultString[i] = tmpInterimResult.toArray(new String[0]);
+            }
+            tmpInterimResult.clear();
+        }
+        if (!tmpHasNeighbors) {
+            return null;
+        }
+        return resultString;
+        // </editor-fold>
+    }
+    // </editor-fold>
+    // <editor-fold defaultstate="collapsed" desc="- Particle coordinates related methods">
+    /**
+     * Returns coordinates of particles
+     *
+     * @param aFirstParticleCoordinate Coordinate of the first particle
+     * @param aLastParticleCoordinate Coordinate of the last particle
+     * @param aBondLength BondLength
+     * @return Coordinates of the particles (index of particle can be examined
+     * by getParticlesIndex() method). First index is index of molecular
+     * structure, second index is index of particle. If PointInSpaceInterface is
+     * unknown or different in aFirstParticleCoordinate and
+     * aLastParticleCoordinate null is returned.
+     */
+    public PointInSpace[][] getParticleCoordinates(PointInSpace aFirstParticleCoordinate, PointInSpace aLastParticleCoordinate, double aBondLength) {
+        return this.getParticleCoordinates(new PointInSpace[]{aFirstParticleCoordinate},
+                                            new PointInSpace[]{aLastParticleCoordinate}, aBondLength);
+    }
+
+    /**
+     * Returns coordinates of particles
+     *
+     * @param aFirstParticleCoordinates Coordinates of the first particle
+     * @param aLastParticleCoordinates Coordinates of the last particle
+     * @param aBondLength BondLength
+     * @return Coordinates of the particles (index of particle can be examined
+     * by getParticlesIndex() method) First index is index of molecular
+     * structure, second index is index of particle.
+     */
+    public PointInSpace[][] getParticleCoordinates(PointInSpace[] aFirstParticleCoordinates,
+            PointInSpace[] aLastParticleCoordinates, double aBondLength) {
+        return this.getParticleCoordinates(aFirstParticleCoordinates, aLastParticleCoordinates, aBondLength, 0L, false);
+    }
+
+    /**
+     * Returns coordinates of particles where the main chain of a part
+     * without START/END particles is the exact diameter (see GraphDiameter)
+     * instead of the heuristic diameter. This is recommended for cyclic
+     * structures.
+     *
+     * @param aFirstParticleCoordinates Coordinates of the first particle
+     * @param aLastParticleCoordinates Coordinates of the last particle
+     * @param aBondLength BondLength
+     * @param aMaximumDiameterTime Maximum computation time of the exact
+     * diameter of a part in milliseconds (0: Heuristic diameter, negative:
+     * No limit)
+     * @param anIsParallelDiameter True: Exact diameter is computed in
+     * parallel, false: Otherwise
+     * @return Coordinates of the particles (index of particle can be examined
+     * by getParticlesIndex() method) First index is index of molecular
+     * structure, second index is index of particle.
+     */
+    public PointInSpace[][] getParticleCoordinates(PointInSpace[] aFirstParticleCoordinates,
+            PointInSpace[] aLastParticleCoordinates, double aBondLength, long aMaximumDiameterTime, boolean anIsParallelDiameter) {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (this.getInputStructure() == null || this.getInputStructure().isEmpty()) {
+            return null;
+        }
+
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Initialize variables">
+        int tmpPartsCount;
+        int tmpPartLength;
+        int tmpTargetIndexPosition = 0;
+        PointInSpace[][] resultCoordinates = new PointInSpace[aFirstParticleCoordinates.length][];
+        tmpPartsCount = this.numberOfParts;
+        for (int i = 0; i < aFirstParticleCoordinates.length; i++) {
+            resultCoordinates[i] = new PointInSpace[this.numberOfTotalParticles];
+        }
+
+        // </editor-fold>
+        if (this.numberOfTotalParticles == 1) {
+            // <editor-fold defaultstate="collapsed" desc="1 particle only in molecular structure">
+            for (int i = 0; i < aFirstParticleCoordinates.length; i++) {
+                resultCoordinates[i] = new PointInSpace[]{aFirstParticleCoordinates[i]};
+            }
+
+            // </editor-fold>
+        } else {
+            // <editor-fold defaultstate="collapsed" desc="Several particles in molecular structure">
+            // NOTE: Every part gets its own coordinates (PointInSpace
+            // instances are NOT shared between parts)
+            for (int i = 0; i < tmpPartsCount; i++) {
+                tmpPartLength = this.getPartOfSpices(i).getNumberOfInnerParticles();
+                for (int j = 0; j < aFirstParticleCoordinates.length; j++) {
+                    PointInSpace[] tmpInterimResult = this.getCoordinatesOfTokens(i, aFirstParticleCoordinates[j], aLastParticleCoordinates[j], aBondLength, aMaximumDiameterTime, anIsParallelDiameter);
+                    System.arraycopy(tmpInterimResult, 0, resultCoordinates[j], tmpTargetIndexPosition, tmpInterimResult.length);
+                }
+                tmpTargetIndexPosition += tmpPartLength;
+            }
+            // </editor-fold>
+        }
+        return resultCoordinates;
+    }
+
+    /**
+     * Get coordinate of tokens of a single part, e.g. for the generation of
+     * the coordinates of different parts in parallel. NOTE: No checks are
+     * performed due to performance reasons.
+     *
+     * @param aPartIndex: Index of the part
+     * @param aFirstParticleCoordinate: First particle coordinate
+     * @param aLastParticleCoordinate: Last particle coordinate
+     * @param aBondLength: Bond length
+     * @param aMaximumDiameterTime: Maximum computation time of the exact
+     * diameter in milliseconds (0: Heuristic diameter, negative: No limit)
+     * @param anIsParallelDiameter: True: Exact diameter is computed in
+     * parallel, false: Otherwise
+     * @return Coordinate: of tokens
+     */
+    public PointInSpace[] getCoordinatesOfTokens(
+            int aPartIndex,
+            IPointInSpace aFirstParticleCoordinate,
+            IPointInSpace aLastParticleCoordinate,
+            double aBondLength,
+            long aMaximumDiameterTime,
+            boolean anIsParallelDiameter) {
+        // <editor-fold defaultstate="collapsed" desc="Local variables">
+        double tmpBondLength = aBondLength;
+        double tmpDistanceOfMainChain;
+        double tmpDeltaXOfChain;
+        double tmpDeltaYOfChain;
+        double tmpDeltaZOfChain;
+        double tmpDeltaXOfBond;
+        double tmpDeltaYOfBond;
+        double tmpDeltaZOfBond;
+        SpicesInner tmpPart = this.getPartOfSpices(aPartIndex);
+        int[] tmpMainChainIndices = null;
+        int tmpNumberOfParticles = tmpPart.getNumberOfInnerParticles();
+        boolean[] tmpHasCalculatedArray = new boolean[tmpNumberOfParticles];
+        PointInSpace[] tmpParticleCoordinates = new PointInSpace[tmpNumberOfParticles];
+        ArrayDeque<Integer> tmpSeedParticleList = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
+        ParticleGraph tmpParticleGraph = tmpPart.getParticleGraph();
+        int[] tmpOffsets = tmpParticleGraph.getOffsets();
+        int[] tmpNeighbors = tmpParticleGraph.getNeighbors();
+
+        if (tmpPart.getStartParticleIndex() == -1) {
+            if (aMaximumDiameterTime == 0L) {
+                tmpMainChainIndices = tmpPart.getHeuristicDiameter();
+            } else {
+                tmpMainChainIndices = tmpPart.getExactDiameter(aMaximumDiameterTime, anIsParallelDiameter);
+            }
+        } else {
+            tmpMainChainIndices = tmpPart.getPathStartToEnd();
+        }
+        int tmpMainChainSize = tmpMainChainIndices.length;
+
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Calculate distance of first particle to last particle">
+        Arrays.fill(tmpHasCalculatedArray, false);
+        tmpDeltaXOfChain = aLastParticleCoordinate.getX() - aFirstParticleCoordinate.getX();
+        tmpDeltaYOfChain = aLastParticleCoordinate.getY() - aFirstParticleCoordinate.getY();
+        tmpDeltaZOfChain = aLastParticleCoordinate.getZ() - aFirstParticleCoordinate.getZ();
+        tmpDistanceOfMainChain = Math.sqrt(tmpDeltaXOfChain * tmpDeltaXOfChain + tmpDeltaYOfChain * tmpDeltaYOfChain + tmpDeltaZOfChain * tmpDeltaZOfChain);
+        int tmpMainChainBondSize = tmpMainChainSize - 1;
+        if (tmpDistanceOfMainChain < tmpMainChainBondSize * tmpBondLength) {
+            tmpDeltaXOfBond = tmpDeltaXOfChain / tmpMainChainBondSize;
+            tmpDeltaYOfBond = tmpDeltaYOfChain / tmpMainChainBondSize;
+            tmpDeltaZOfBond = tmpDeltaZOfChain / tmpMainChainBondSize;
+        } else {
+            tmpDeltaXOfBond = tmpDeltaXOfChain * aBondLength / tmpDistanceOfMainChain;
+            tmpDeltaYOfBond = tmpDeltaYOfChain * aBondLength / tmpDistanceOfMainChain;
+            tmpDeltaZOfBond = tmpDeltaZOfChain * aBondLength / tmpDistanceOfMainChain;
+        }
+
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Determine coordinates of main chain particles">
+        if (tmpPart.getStartParticleIndex() == -1 && tmpMainChainIndices[0] > tmpMainChainIndices[tmpMainChainSize - 1]) {
+                spicesUtility.reverseIntegerArray(tmpMainChainIndices);
+        }
+        // <editor-fold defaultstate="collapsed" desc="- aFirstParticleCoordinate is an instance of PointInSpace">
+        for (int i = 0; i < tmpMainChainSize; i++) {
+            tmpParticleCoordinates[tmpMainChainIndices[i]] = new PointInSpace(
+                    aFirstParticleCoordinate.getX() + (i) * tmpDeltaXOfBond,
+                    aFirstParticleCoordinate.getY() + (i) * tmpDeltaYOfBond,
+                    aFirstParticleCoordinate.getZ() + (i) * tmpDeltaZOfBond);
+            tmpHasCalculatedArray[tmpMainChainIndices[i]] = true;
+        }
+        // </editor-fold>
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Determine beginning of side chain">
+        for (int i = 0; i < tmpMainChainSize; i++) {
+            for (int j = tmpOffsets[tmpMainChainIndices[i]]; j < tmpOffsets[tmpMainChainIndices[i] + 1]; j++) {
+                int tmpItem = tmpNeighbors[j];
+                if (tmpMainChainIndices[i] == tmpMainChainIndices[i] && !tmpHasCalculatedArray[tmpItem]) {
+                    tmpSeedParticleList.add(tmpItem);
+                    tmpParticleCoordinates[tmpItem] = tmpParticleCoordinates[tmpMainChainIndices[i]];
+                    tmpHasCalculatedArray[tmpItem] = true;
+                }
+            }
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Determine coordinates of side chain">
+        ArrayDeque<Integer> tmpIndicesOfSideChainParticles = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
+        for (int tmpSideParticleItem : tmpSeedParticleList) {
+            this.setIndicesOfSideChainParticles(tmpSideParticleItem, tmpIndicesOfSideChainParticles, tmpHasCalculatedArray, aPartIndex);
+            for (int tmpIndexOfNeighborParticlesItem : tmpIndicesOfSideChainParticles) {
+                tmpParticleCoordinates[tmpIndexOfNeighborParticlesItem] = tmpParticleCoordinates[tmpSideParticleItem];
+                tmpHasCalculatedArray[tmpIndexOfNeighborParticlesItem] = true;
+            }
+            tmpIndicesOfSideChainParticles.clear();
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Determine coordinates of leftover particles">
+        Queue<Integer> tmpHasNotCalculatedList = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
+        int tmpActualParticleIndex ;
+        boolean tmpHasFound;
+        for (int i = 0; i < tmpHasCalculatedArray.length; i++) {
+            if (!tmpHasCalculatedArray[i]) {
+                tmpHasNotCalculatedList.add(i);
+            }
+        }
+        while (!tmpHasNotCalculatedList.isEmpty()) {
+            tmpActualParticleIndex = tmpHasNotCalculatedList.remove();
+            tmpHasFound = false;
+            for (int j = tmpOffsets[tmpActualParticleIndex]; j < tmpOffsets[tmpActualParticleIndex + 1]; j++) {
+                int tmpItem = tmpNeighbors[j];
+                if (tmpHasCalculatedArray[tmpItem]) {
+                    tmpParticleCoordinates[tmpActualParticleIndex] = tmpParticleCoordinates[tmpItem];
+                    tmpHasCalculatedArray[tmpActualParticleIndex] = true;
+                    tmpHasFound = true;
+                    break;
+                }
+            }
+            if (!tmpHasFound) {
+                tmpHasNotCalculatedList.add(tmpActualParticleIndex);
+            }
+        }
+        // </editor-fold>
+        return tmpParticleCoordinates;
+    }
+
+    /**
+     * Returns monomer names of structure
+     *
+     * @return Monomer names of structure or null if none were found
+     */
+    public String[] getMonomerList() {
+        String[] tmpMonomers = this.getMemoizedMonomers();
+        if (tmpMonomers.length == 0) {
+            return null;
+        }
+        return tmpMonomers.clone();
+    }
+    // </editor-fold>
+    // <editor-fold defaultstate="collapsed" desc="- Is methods">
+    /**
+     * Returns true if the input structure is valid, false: Otherwise
+     *
+     * @return True: Input structure is valid, false: Otherwise
+     */
+    public boolean isValid() {
+        return this.isValid;
+    }
+
+    /**
+     * Returns true if the input structure is a monomer, false: Otherwise
+     *
+     * @return True: Input structure is a monomer, false: Otherwise
+     */
+    public boolean isMonomer() {
+        return this.isMonomer;
+    }
+    // </editor-fold>
+    // <editor-fold defaultstate="collapsed" desc="- Miscellaneous methods">
+    /**
+     * Returns the number of particles for display
+     *
+     * @return Number of particles for display
+     */
+    public int getNumberOfDisplayParticles() {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (!this.hasOuterStructureTokens()) {
+            return 0;
+        }
+
+        // </editor-fold>
+        int tmpNumberOfDisplayParticles = this.numberOfDisplayParticles;
+        if (tmpNumberOfDisplayParticles < 0) {
+            tmpNumberOfDisplayParticles = this.determineNumberOfDisplayParticles();
+            this.numberOfDisplayParticles = tmpNumberOfDisplayParticles;
+        }
+        return tmpNumberOfDisplayParticles;
+    }
+    // </editor-fold>
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private methods">
+    // <editor-fold defaultstate="collapsed" desc="- Compilation related methods">
+    /**
+     * Compiles the distinct parts of the part blocks in parallel (fork-join
+     * common pool) and sets all part blocks: Equal parts share the same
+     * compiled part as in the sequential compilation.
+     *
+     * @param aParts Sub input structures of part blocks
+     * @param aNumberOfPartBlocks Number of part blocks
+     * @param aPartBlocks Compiled parts of part blocks (set by this method)
+     * @param anAvailableParticles User defined list of available particles
+     * @param aParticleSetId Particle set id of anAvailableParticles (see
+     * SpicesPartPool.getParticleSetId())
+     * @param anIsMonomer True: Parts are monomers, false: Otherwise
+     */
+    private static void compileDistinctPartsInParallel(String[] aParts, int aNumberOfPartBlocks, SpicesInner[] aPartBlocks, HashMap<String, String> anAvailableParticles,
+            int aParticleSetId, boolean anIsMonomer) {
+        int tmpNumberOfPartBlocks = aNumberOfPartBlocks;
+        HashMap<String, Integer> tmpPartToDistinctIndexMap = new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+        int[] tmpDistinctPartIndices = new int[tmpNumberOfPartBlocks];
+        int tmpNumberOfDistinctParts = 0;
+        for (int i = 0; i < tmpNumberOfPartBlocks; i++) {
+            if (!tmpPartToDistinctIndexMap.containsKey(aParts[i])) {
+                tmpPartToDistinctIndexMap.put(aParts[i], tmpNumberOfDistinctParts);
+                tmpDistinctPartIndices[tmpNumberOfDistinctParts++] = i;
+            }
+        }
+        SpicesInner[] tmpDistinctParts = new SpicesInner[tmpNumberOfDistinctParts];
+        IntStream.range(0, tmpNumberOfDistinctParts).parallel().forEach(i ->
+            tmpDistinctParts[i] = SpicesPartPool.getSharedInstance().getPart(aParts[tmpDistinctPartIndices[i]], anAvailableParticles, aParticleSetId, anIsMonomer)
+        );
+        for (int i = 0; i < tmpNumberOfPartBlocks; i++) {
+            aPartBlocks[i] = tmpDistinctParts[tmpPartToDistinctIndexMap.get(aParts[i])];
+        }
+    }
+
+    /**
+     * Finds the disconnected structures of the input structure and adds
+     * them to the part blocks of an arena. Consecutive equal parts (e.g. of
+     * "100<A-B-C>") are NOT materialized but form a single part block with a
+     * multiplicity.
+     *
+     * @param aStructure Molecular structure
+     * @param aHasParts True: aStructure contains parts, false: Otherwise
+     * @param anArena Arena for the part blocks
+     */
+    private static void partStructures(String aStructure, boolean aHasParts, SpicesArena anArena) {
+        if (!aHasParts) {
+            anArena.addPart(aStructure, 1);
+            return;
+        }
+        int tmpStructureLength = aStructure.length();
+        int tmpStartPosition = 0;
+        int tmpEndPosition = -1;
+        int tmpPartFrequency;
+        for (int i = 0; i < tmpStructureLength; i++) {
+            tmpStartPosition = aStructure.indexOf('<', tmpStartPosition);
+            if (tmpStartPosition - tmpEndPosition > 1) {
+                tmpPartFrequency = Integer.parseInt(aStructure.substring(tmpEndPosition + 1, tmpStartPosition));
+            } else {
+                tmpPartFrequency = 1;
+            }
+            tmpEndPosition = aStructure.indexOf('>', tmpStartPosition);
+            if (tmpPartFrequency > 0) {
+                anArena.addPart(aStructure.substring(tmpStartPosition + 1, tmpEndPosition), tmpPartFrequency);
+            }
+            tmpStartPosition = tmpEndPosition + 1;
+            i = tmpStartPosition;
+        }
+    }
+
+    /**
+     * Index of part block of part (binary search of part offsets of part
+     * blocks)
+     *
+     * @param aPartIndex Index of part
+     * @return Index of part block
+     */
+    private int getPartBlockIndex(int aPartIndex) {
+        int tmpIndex = Arrays.binarySearch(this.partBlockPartOffsets, 0, this.partBlocks.length, aPartIndex);
+        if (tmpIndex >= 0) {
+            return tmpIndex;
+        } else {
+            return -tmpIndex - 2;
+        }
+    }
+
+    /**
+     * Fills the values of a single part into all parts of a part block
+     *
+     * @param aPartValues Values of a single part (one value per particle)
+     * @param aPartBlockIndex Index of part block
+     * @param aValues Values of all particles
+     */
+    private void fillPartBlock(int[] aPartValues, int aPartBlockIndex, int[] aValues) {
+        int tmpTargetIndex = this.partBlockParticleOffsets[aPartBlockIndex];
+        for (int i = 0; i < this.partBlockMultiplicities[aPartBlockIndex]; i++) {
+            System.arraycopy(aPartValues, 0, aValues, tmpTargetIndex, aPartValues.length);
+            tmpTargetIndex += aPartValues.length;
+        }
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="- Token related methods">
+    /**
+     * Returns structure tokens. The compiled structure tokens of a valid
+     * structure are created with the first call.
+     *
+     * @return Structure tokens or null
+     */
+    private String[] getOuterStructureTokens() {
+        if (!this.isValid) {
+            return this.invalidStructureTokens;
+        }
+        String[] tmpStructureTokens = this.outerStructureTokens;
+        if (tmpStructureTokens == null) {
+            if (this.numberOfParts == 1) {
+                tmpStructureTokens = this.partBlocks[0].getInnerStructureTokens();
+            } else {
+                int[] tmpPartBlockTokenOffsets = this.getPartBlockTokenOffsets();
+                tmpStructureTokens = new String[tmpPartBlockTokenOffsets[this.partBlocks.length]];
+                for (int i = 0; i < this.partBlocks.length; i++) {
+                    String[] tmpInnerStructureTokens = this.partBlocks[i].getInnerStructureTokens();
+                    for (int j = 0; j < this.partBlockMultiplicities[i]; j++) {
+                        System.arraycopy(tmpInnerStructureTokens, 0, tmpStructureTokens, tmpPartBlockTokenOffsets[i] + j * tmpInnerStructureTokens.length, tmpInnerStructureTokens.length);
+                    }
+                }
+            }
+            this.outerStructureTokens = tmpStructureTokens;
+        }
+        return tmpStructureTokens;
+    }
+
+    /**
+     * Returns structure tokens if they are already available (see
+     * getOuterStructureTokens())
+     *
+     * @return Structure tokens or null if they are not yet created
+     */
+    private String[] getAvailableOuterStructureTokens() {
+        if (!this.isValid) {
+            return this.invalidStructureTokens;
+        }
+        return this.outerStructureTokens;
+    }
+
+    /**
+     * Returns single structure token (see getOuterStructureTokens()). NOTE:
+     * The structure tokens are NOT created if they are not yet created.
+     * Structure MUST be valid (NO checks are performed).
+     *
+     * @param aTokenIndex Index of structure token
+     * @return Structure token
+     */
+    private String getOuterStructureToken(int aTokenIndex) {
+        String[] tmpStructureTokens = this.outerStructureTokens;
+        if (tmpStructureTokens != null) {
+            return tmpStructureTokens[aTokenIndex];
+        }
+        int[] tmpPartBlockTokenOffsets = this.getPartBlockTokenOffsets();
+        int tmpPartBlockIndex = Arrays.binarySearch(tmpPartBlockTokenOffsets, 0, this.partBlocks.length, aTokenIndex);
+        if (tmpPartBlockIndex < 0) {
+            tmpPartBlockIndex = -tmpPartBlockIndex - 2;
+        }
+        SpicesInner tmpPartBlock = this.partBlocks[tmpPartBlockIndex];
+        return tmpPartBlock.getInnerStructureToken((aTokenIndex - tmpPartBlockTokenOffsets[tmpPartBlockIndex]) % tmpPartBlock.getNumberOfInnerStructureTokens());
+    }
+
+    /**
+     * Structure token offsets of part blocks (created on request)
+     *
+     * @return Structure token offsets of part blocks (last entry: Number of
+     * structure tokens)
+     */
+    private int[] getPartBlockTokenOffsets() {
+        int[] tmpPartBlockTokenOffsets = this.partBlockTokenOffsets;
+        if (tmpPartBlockTokenOffsets == null) {
+            tmpPartBlockTokenOffsets = new int[this.partBlocks.length + 1];
+            for (int i = 0; i < this.partBlocks.length; i++) {
+                tmpPartBlockTokenOffsets[i + 1] = tmpPartBlockTokenOffsets[i] + this.partBlockMultiplicities[i] * this.partBlocks[i].getNumberOfInnerStructureTokens();
+            }
+            this.partBlockTokenOffsets = tmpPartBlockTokenOffsets;
+        }
+        return tmpPartBlockTokenOffsets;
+    }
+
+    /**
+     * Returns outer particle index of particle (see getParticleIndices()).
+     * NOTE: The particle indices are NOT created if they are not yet
+     * created. Structure MUST be valid (NO checks are performed).
+     *
+     * @param aParticleIndex Index of particle
+     * @return Outer particle index
+     */
+    private int getOuterParticleIndex(int aParticleIndex) {
+        int[] tmpOuterParticleIndices = this.outerParticleIndices;
+        if (tmpOuterParticleIndices != null) {
+            return tmpOuterParticleIndices[aParticleIndex];
+        }
+        int tmpPartBlockIndex = Arrays.binarySearch(this.partBlockParticleOffsets, 0, this.partBlocks.length, aParticleIndex);
+        if (tmpPartBlockIndex < 0) {
+            tmpPartBlockIndex = -tmpPartBlockIndex - 2;
+        }
+        SpicesInner tmpPartBlock = this.partBlocks[tmpPartBlockIndex];
+        return tmpPartBlock.getInnerParticleIndex((aParticleIndex - this.partBlockParticleOffsets[tmpPartBlockIndex]) % tmpPartBlock.getNumberOfInnerParticles());
+    }
+
+    /**
+     * Returns true if structure tokens are available (see
+     * getOuterStructureTokens()), false: Otherwise
+     *
+     * @return True if structure tokens are available, false: Otherwise
+     */
+    private boolean hasOuterStructureTokens() {
+        return this.isValid || this.invalidStructureTokens != null;
+    }
+
+    /**
+     * Determine the particle list and delete all duplicate
+     *
+     * @param aChain List of chains (a chain is built out of particles and
+     * links)
+     * @param aPartIndex Partindexnumber
+     * @param aHasDoublet Whether doublet should be considered or not (e.g. if
+     * true "A-F" and "F-A" will be returned instead one of both)
+     * @return list of particle list without duplicates
+     */
+    private String[] getParticleList(ArrayDeque<int[]> aChain, int aPartIndex, boolean aHasDoublet) {
+        if (aChain == null || aChain.isEmpty()) {
+            return null;
+        }
+        int tmpChainSize = aChain.size();
+        int tmpNumberOfParticles = aChain.getFirst().length;
+        int[] tmpHelpingArray;
+        int[][] tmpParticleArray = aChain.toArray(new int[0][]);
+        // NOTE: Particle ids of part are identical to particle ids of outer
+        // structure tokens if there are no parts
+        SpicesInner tmpPart = this.getPartOfSpices(aPartIndex);
+        int[] tmpParticleIds = tmpPart.getInnerParticleIds();
+        // Duplicates are detected with particle id sequences so that a
+        // candidate string is only created for new particle id sequences
+        HashSet<IntBuffer> tmpParticleIdSequenceHashSet = new HashSet<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+        HashSet<String> tmpOutputParticleHashSet = new HashSet<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+        StringBuilder tmpCandidateBuilder = new StringBuilder();
+
+        for (int i = 0; i < tmpChainSize; i++) {
+            tmpHelpingArray = tmpParticleArray[i].clone();
+            // reverse the array if first Token is lexically bigger then the
+            // last Token and delete all duplicates
+            if (!aHasDoublet) {
+                if (this.hasParts) {
+                    if (tmpPart.getInnerParticle(tmpHelpingArray[0])
+                            .compareTo(this.getOuterStructureToken(this.getOuterParticleIndex(tmpHelpingArray[tmpNumberOfParticles - 1]))) > 0) {
+                        spicesUtility.reverseIntegerArray(tmpHelpingArray);
+                    }
+                } else {
+                    int tmpFirstParticleId = tmpParticleIds[tmpHelpingArray[0]];
+                    int tmpLastParticleId = tmpParticleIds[tmpHelpingArray[tmpNumberOfParticles - 1]];
+                    if (tmpFirstParticleId != tmpLastParticleId
+                            && SpicesParticleTable.getParticle(tmpFirstParticleId).compareTo(SpicesParticleTable.getParticle(tmpLastParticleId)) > 0) {
+                        spicesUtility.reverseIntegerArray(tmpHelpingArray);
+                    }
+                }
+            }
+            for (int j = 0; j < tmpNumberOfParticles; j++) {
+                tmpHelpingArray[j] = tmpParticleIds[tmpHelpingArray[j]];
+            }
+            if (tmpParticleIdSequenceHashSet.add(IntBuffer.wrap(tmpHelpingArray))) {
+                tmpCandidateBuilder.setLength(0);
+                for (int j = 0; j < tmpNumberOfParticles; j++) {
+                    if (j > 0) {
+                        tmpCandidateBuilder.append(SpicesConstants.PARTICLE_SEPARATOR);
+                    }
+                    tmpCandidateBuilder.append(SpicesParticleTable.getParticle(tmpHelpingArray[j]));
+                }
+                tmpOutputParticleHashSet.add(tmpCandidateBuilder.toString());
+            }
+        }
+        return tmpOutputParticleHashSet.toArray(new String[0]);
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="- Monomer and display particle related methods">
+    /**
+     * Returns memoized monomer names of structure
+     *
+     * @return Monomer names of structure or NO_MONOMERS if none were found
+     */
+    private String[] getMemoizedMonomers() {
+        String[] tmpMonomers = this.monomers;
+        if (tmpMonomers == null) {
+            tmpMonomers = this.determineMonomers();
+            if (tmpMonomers == null) {
+                tmpMonomers = NO_MONOMERS;
+            }
+            this.monomers = tmpMonomers;
+        }
+        return tmpMonomers;
+    }
+
+    /**
+     * Determines monomer names of structure
+     *
+     * @return Monomer names of structure or null if none were found
+     */
+    private String[] determineMonomers() {
+        HashMap<String, String> tmpMonomersHashMap = new HashMap<>();
+        String[] tmpStructureTokens = this.getAvailableOuterStructureTokens();
+        if (tmpStructureTokens != null) {
+            for (String tmpSingleToken : tmpStructureTokens) {
+                if (spicesUtility.isMonomer(tmpSingleToken) && !tmpMonomersHashMap.containsKey(tmpSingleToken)) {
+                    tmpMonomersHashMap.put(tmpSingleToken, tmpSingleToken);
+                }
+            }
+        } else {
+            // Compiled structure tokens are not created: Use token runs of
+            // parts (particle series never contain monomers)
+            for (int i = 0; i < this.partBlocks.length; i++) {
+                SpicesTokenRuns tmpTokenRuns = this.partBlocks[i].getInnerTokenRuns();
+                for (int j = 0; j < tmpTokenRuns.getNumberOfRuns(); j++) {
+                    String tmpSingleToken = tmpTokenRuns.getToken(j);
+                    if (!tmpTokenRuns.isSeries(j) && spicesUtility.isMonomer(tmpSingleToken) && !tmpMonomersHashMap.containsKey(tmpSingleToken)) {
+                        tmpMonomersHashMap.put(tmpSingleToken, tmpSingleToken);
+                    }
+                }
+            }
+        }
+        if (tmpMonomersHashMap.isEmpty()) {
+            return null;
+        } else {
+            return tmpMonomersHashMap.keySet().toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Determines the number of display particles
+     *
+     * @return Number of display particles
+     */
+    private int determineNumberOfDisplayParticles() {
+        int tmpCounter = 0;
+        String[] tmpStructureTokens = this.getAvailableOuterStructureTokens();
+        if (tmpStructureTokens != null) {
+            for (String tmpSingleStructureToken : tmpStructureTokens) {
+                if (spicesUtility.isParticle(tmpSingleStructureToken)) {
+                    tmpCounter++;
+                }
+            }
+        } else {
+            // Compiled structure tokens are not created: Use token runs of
+            // part blocks
+            for (int i = 0; i < this.partBlocks.length; i++) {
+                SpicesTokenRuns tmpTokenRuns = this.partBlocks[i].getInnerTokenRuns();
+                int tmpPartBlockCounter = 0;
+                for (int j = 0; j < tmpTokenRuns.getNumberOfRuns(); j++) {
+                    if (spicesUtility.isParticle(tmpTokenRuns.getToken(j))) {
+                        tmpPartBlockCounter += Math.max(tmpTokenRuns.getSeriesLength(j), 1);
+                    }
+                }
+                tmpCounter += this.partBlockMultiplicities[i] * tmpPartBlockCounter;
+            }
+        }
+        return tmpCounter;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="- Spices matrix related methods">
+    /**
+     * Determine all indices of side chain particles
+     *
+     * @param anActualParticleIndex The particle index of observed particle
+     * @param aHasCalculatedArray Flag information of whether a particle has
+     * been calculated or not
+     * @param aPartIndex  Part index (-1 if the particle has only one part)
+     * @return Indices of side chain particles as hashset
+     */
+    private void setIndicesOfSideChainParticles(int anActualParticleIndex, ArrayDeque<Integer> anIndicesOfSideChainParticles, boolean[] aHasCalculatedArray, int aPartIndex) {
+        ArrayDeque<Integer> tmpIndicesOfSideChainParticles = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
+        Queue<Integer> tmpIndexOfParticlesInQueue = new ArrayDeque<>();
+        boolean tmpNoParticles = false;
+        ParticleGraph tmpParticleGraph = this.getPartOfSpices(aPartIndex).getParticleGraph();
+        int[] tmpOffsets = tmpParticleGraph.getOffsets();
+        int[] tmpNeighbors = tmpParticleGraph.getNeighbors();
+        do {
+            for (int i = tmpOffsets[anActualParticleIndex]; i < tmpOffsets[anActualParticleIndex + 1]; i++) {
+                int tmpItem = tmpNeighbors[i];
+                if (!aHasCalculatedArray[tmpItem]) {
+                    tmpIndicesOfSideChainParticles.add(tmpItem);
+                    aHasCalculatedArray[tmpItem] = true;
+                }
+            }
+            if (!tmpIndicesOfSideChainParticles.isEmpty()) {
+                tmpIndexOfParticlesInQueue.addAll(tmpIndicesOfSideChainParticles);
+                tmpIndicesOfSideChainParticles.clear();
+            }
+            if (!tmpIndexOfParticlesInQueue.isEmpty()) {
+                anActualParticleIndex = tmpIndexOfParticlesInQueue.remove();
+                anIndicesOfSideChainParticles.add(anActualParticleIndex);
+            } else {
+                tmpNoParticles = true;
+            }
+
+        } while (!tmpIndexOfParticlesInQueue.isEmpty() || !tmpNoParticles);
+    }
+
+    /**
+     * Generate a matrix with coordinates and connection information of the
+     * particles
+     *
+     * @param aPart: A part of FSmile
+     * @param aStartIndex The index number of the first particle
+     * @return Matrix with connection information of the particles
+     */
+    private String[][] getParticlePositionsAndConnections(int aPartIndex, int aStartIndex) {
+        return this.getParticlePositionsAndConnections(aPartIndex, aStartIndex, new PointInSpace[]{null}, new PointInSpace[]{null}, 1);
+    }
+
+    /**
+     * Generate a matrix with coordinates and connection information of the
+     * particles
+     *
+     * @param aPart: A part of FSmile
+     * @param aStartIndex The index number of the first particle
+     * @param aFirstParticleCoordinates Coordinates of the first particle
+     * @param aLastParticleCoordinates Coordinates of the last particle
+     * @param aBondLength BondLength
+     * @return Matrix with connection and coordination information of the
+     * particles
+     */
+    private String[][] getParticlePositionsAndConnections(int aPartIndex, int aStartIndex, PointInSpace[] aFirstParticleCoordinates, PointInSpace[] aLastParticleCoordinates, double aBondLength) {
+        // <editor-fold defaultstate="collapsed" desc="Local variables">
+        SpicesInner tmpPart = this.getPartOfSpices(aPartIndex);
+        int tmpNumberOfParticles = tmpPart.getNumberOfInnerParticles();
+        int tmpParticleCoordinateSize = aFirstParticleCoordinates.length;
+        IPointInSpace[] tmpParticleCoordinates;
+        LinkedList<Integer> tmpLinkTargetList = new LinkedList<>();
+        String[][] tmpResultStrings = new String[tmpNumberOfParticles * tmpParticleCoordinateSize][];
+        int[] tmpOffsets = tmpPart.getParticleGraph().getOffsets();
+        int[] tmpNeighbors = tmpPart.getParticleGraph().getNeighbors();
+
+        // </editor-fold>
+        int[] tmpNeighborParticleSizes = tmpPart.getNumberOfConnects();
+        int tmpRow = 0;
+        int k;
+        // New format with relative connections:
+        // int tmpRows = 0;
+        for (int i = 0; i < tmpParticleCoordinateSize; i++) {
+            if (aFirstParticleCoordinates[0] != null) {
+                if (tmpNumberOfParticles == 1) {
+
+                    // <editor-fold defaultstate="collapsed" desc="1 particle only in molecular structure">
+                    tmpParticleCoordinates = new PointInSpace[]{aFirstParticleCoordinates[i]};
+
+                    // </editor-fold>
+                } else {
+
+                    // <editor-fold defaultstate="collapsed" desc="Several particles in molecular structure">
+                    tmpParticleCoordinates = this.getCoordinatesOfTokens(aPartIndex, aFirstParticleCoordinates[i], aLastParticleCoordinates[i], aBondLength, 0L, false);
+
+                    // </editor-fold>
+                }
+            } else {
+                tmpParticleCoordinates = null;
+            }
+            for (int j = 0; j < tmpNumberOfParticles; j++) {
+                tmpResultStrings[tmpRow] = new String[6 + tmpNeighborParticleSizes[j]];
+                // 1. column: Number of the particle (1-based)
+                tmpResultStrings[tmpRow][0] = Integer.toString(aStartIndex + tmpRow);
+                // 2. column: Name of the particle
+                tmpResultStrings[tmpRow][1] = tmpPart.getInnerParticle(j);
+                // 3. column: Backbone index
+                tmpResultStrings[tmpRow][2] = Integer.toString(tmpPart.getInnerBackboneIndex(j));
+                // 4-6. columns: xyz-Coordinate of the particle (if not
+                // specified it will empty)
+                tmpResultStrings[tmpRow][3] = "";
+                tmpResultStrings[tmpRow][4] = "";
+                tmpResultStrings[tmpRow][5] = "";
+                if (aFirstParticleCoordinates[0] != null) {
+                    tmpResultStrings[tmpRow][3] += tmpParticleCoordinates[j].getX();
+                    tmpResultStrings[tmpRow][4] += tmpParticleCoordinates[j].getY();
+                    tmpResultStrings[tmpRow][5] += tmpParticleCoordinates[j].getZ();
+                }
+                // >5.column: Particle number(s) which connected with aPart
+                // particle
+                for (int l = tmpOffsets[j]; l < tmpOffsets[j + 1]; l++) {
+                    tmpLinkTargetList.add(tmpNeighbors[l]);
+                }
+                Collections.sort(tmpLinkTargetList);
+                Iterator<Integer> tmpIterator = tmpLinkTargetList.iterator();
+                k = 6;
+                while (tmpIterator.hasNext()) {
+                    // New format with relative connections:
+                    tmpResultStrings[tmpRow][k] = Integer.toString(tmpIterator.next() - j);
+                    tmpIterator.remove();
+                    k++;
+                }
+                tmpRow++;
+            }
+            // New format with relative connections:
+            // tmpRows = tmpRow;
+        }
+        return tmpResultStrings;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="- Particle frequency related methods">
+    /**
+     * HashMap that maps particles of molecule to their frequencies (created
+     * on request). NOTE: Returned HashMap (and its particle frequencies) is
+     * NOT allowed to be changed.
+     *
+     * @return HashMap that maps particles of molecule to their frequencies
+     */
+    private HashMap<String, ParticleFrequency> getMemoizedParticleToFrequencyMap() {
+        HashMap<String, ParticleFrequency> tmpParticleToFrequencyMap = this.particleToFrequencyMap;
+        if (tmpParticleToFrequencyMap == null || tmpParticleToFrequencyMap.isEmpty()) {
+            tmpParticleToFrequencyMap = this.determineParticleFequenciesOfMolecularStructure();
+            this.particleToFrequencyMap = tmpParticleToFrequencyMap;
+        }
+        return tmpParticleToFrequencyMap;
+    }
+
+    /**
+     * Returns a copy of particle frequencies (the particle frequencies are
+     * copied as well)
+     *
+     * @param aParticleFrequencies Particle frequencies
+     * @return Copy of particle frequencies
+     */
+    private static ParticleFrequency[] getCopy(ParticleFrequency[] aParticleFrequencies) {
+        ParticleFrequency[] tmpResult = new ParticleFrequency[aParticleFrequencies.length];
+        for (int i = 0; i < aParticleFrequencies.length; i++) {
+            tmpResult[i] = new ParticleFrequency(aParticleFrequencies[i].getParticle(), aParticleFrequencies[i].getFrequency());
+        }
+        return tmpResult;
+    }
+
+    /**
+     * Determines particle frequencies of molecular structure. NOTE: Molecular
+     * structure MUST be valid (NO checks are performed) and is NOT allowed to
+     * contain monomer shortcuts.
+     *
+     * @return HashMap that maps particles of molecule to their frequencies
+     */
+    private HashMap<String, ParticleFrequency> determineParticleFequenciesOfMolecularStructure() {
+        // Count on particle ids: Particle ids are dense so that an array of
+        // counts up to the maximum particle id is sufficient
+        int tmpMaximumParticleId = -1;
+        for (SpicesInner partOfFSmile : this.partBlocks) {
+            for (int tmpParticleId : partOfFSmile.getInnerParticleIds()) {
+                if (tmpParticleId > tmpMaximumParticleId) {
+                    tmpMaximumParticleId = tmpParticleId;
+                }
+            }
+        }
+        int[] tmpFrequencies = new int[tmpMaximumParticleId + 1];
+        // Particle ids in order of first occurrence
+        int[] tmpFirstOccurrenceParticleIds = new int[tmpMaximumParticleId + 1];
+        int tmpNumberOfDifferentParticles = 0;
+        // NOTE: Frequencies of a part block are its frequencies of a single
+        // part multiplied by its multiplicity
+        for (int i = 0; i < this.partBlocks.length; i++) {
+            for (int tmpParticleId : this.partBlocks[i].getInnerParticleIds()) {
+                if (tmpFrequencies[tmpParticleId] == 0) {
+                    tmpFirstOccurrenceParticleIds[tmpNumberOfDifferentParticles++] = tmpParticleId;
+                }
+                tmpFrequencies[tmpParticleId] += this.partBlockMultiplicities[i];
+            }
+        }
+        // NOTE: Particles are put in order of first occurrence so that the
+        // iteration order of the HashMap is unchanged
+        HashMap<String, ParticleFrequency> tmpParticleToFrequencyMap = new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+        for (int i = 0; i < tmpNumberOfDifferentParticles; i++) {
+            String tmpParticle = SpicesParticleTable.getParticle(tmpFirstOccurrenceParticleIds[i]);
+            tmpParticleToFrequencyMap.put(tmpParticle, new ParticleFrequency(tmpParticle, tmpFrequencies[tmpFirstOccurrenceParticleIds[i]]));
+        }
+        return tmpParticleToFrequencyMap;
+    }
+    // </editor-fold>
+    // </editor-fold>
+
+}
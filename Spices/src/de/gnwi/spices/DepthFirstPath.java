@@ -19,11 +19,14 @@
  */
 package de.gnwi.spices;
 
-import java.util.Stack;
+import java.util.Arrays;
 
 /**
  * Class, which generates a DepthFirstPath object
  * 	Reference: Robert Sedgewick, Kevin Wayne; Algorithms; Addison-Wesley Professional; 4th edition (2011)
+ * 	NOTE: The depth first search uses an explicit stack (no recursion) and its work 
+ * 	arrays are reused by search() so that very long chains neither overflow the 
+ * 	call stack nor allocate per search.
  * 
  * @author Mirco Daniel, Achim Zielesny
  */
@@ -32,8 +35,10 @@ public class DepthFirstPath {
 	private boolean[] visited;
 	private int[] edgeTo;
 	private int[] distanceToStart;
+	private int[] particleStack;
+	private int[] neighborPositionStack;
 	private int[] diameterPath;
-	private int[][] adjacentArray;
+	private ParticleGraph particleGraph;
 	private int startParticleIndex;
 	private int endParticleIndex;
 	private int numberOfParticles;
@@ -49,11 +54,14 @@ public class DepthFirstPath {
 	}
 
 	/**
-	 * Path between start and farthest particle 
+	 * Path between start and farthest particle (created on request)
          * 
          * @return diameter path 
 	 */
 	public int[] getDiameterPath() {
+		if (this.diameterPath == null && this.numberOfParticles > 0) {
+			this.diameterPath = this.getPathFarthestParticleToStart();
+		}
 		return this.diameterPath;
 	}
 	
@@ -65,51 +73,88 @@ public class DepthFirstPath {
 	 * @param aStartParticleIndex start particle index.
 	 */
 	public DepthFirstPath(int[][] aAdjacentArray, int aStartParticleIndex) {
-		this.initialize(aAdjacentArray, aStartParticleIndex);
+		this.initialize(ParticleGraph.fromAdjacentArray(aAdjacentArray), aStartParticleIndex);
+	}
+	
+	/**
+	 * Constructor 
+	 * 
+	 * @param aParticleGraph a particle graph.
+	 * @param aStartParticleIndex start particle index.
+	 */
+	public DepthFirstPath(ParticleGraph aParticleGraph, int aStartParticleIndex) {
+		this.initialize(aParticleGraph, aStartParticleIndex);
+	}
+	
+	/**
+	 * Repeats the search from another start particle (the work arrays are 
+	 * reused)
+	 * 
+	 * @param aStartParticleIndex start particle index.
+	 */
+	public void search(int aStartParticleIndex) {
+		if (this.numberOfParticles == 0) {
+			return;
+		}
+		Arrays.fill(this.visited, false);
+		Arrays.fill(this.distanceToStart, 0);
+		this.startParticleIndex = aStartParticleIndex;
+		this.depthFirstSearch(aStartParticleIndex);
+		this.endParticleIndex = this.getFarthestParticleIndex();
+		this.diameterPath = null;
 	}
 	
 	/**
 	 * Initialize method
 	 * 
-	 * @param aAdjacentArray an adjacent array. First index gives the index number of the previous particle.
-	 * 			Second index gives the position of each neighbor particle indices.
+	 * @param aParticleGraph a particle graph.
 	 * @param aStartParticleIndex aStartParticleIndex start particle index.
 	 */
-	private void initialize(int[][] aAdjacentArray, int aStartParticleIndex) {
-		if (aAdjacentArray.length == 0) {
-			this.adjacentArray = aAdjacentArray.clone();
-			this.numberOfParticles = 0;
-			this.visited = new boolean[this.numberOfParticles];
-			this.edgeTo = new int[this.numberOfParticles];
-			this.distanceToStart = new int[this.numberOfParticles];
+	private void initialize(ParticleGraph aParticleGraph, int aStartParticleIndex) {
+		this.particleGraph = aParticleGraph;
+		this.numberOfParticles = aParticleGraph.getNumberOfParticles();
+		this.visited = new boolean[this.numberOfParticles];
+		this.edgeTo = new int[this.numberOfParticles];
+		this.distanceToStart = new int[this.numberOfParticles];
+		this.particleStack = new int[this.numberOfParticles];
+		this.neighborPositionStack = new int[this.numberOfParticles];
+		if (this.numberOfParticles == 0) {
 			this.startParticleIndex = 0;
 			this.endParticleIndex = 0;
 			this.diameterPath = null;
 			return;
 		}
-		this.adjacentArray = aAdjacentArray.clone();
-		this.numberOfParticles = aAdjacentArray.length;
-		this.visited = new boolean[this.numberOfParticles];
-		this.edgeTo = new int[this.numberOfParticles];
-		this.distanceToStart = new int[this.numberOfParticles];
-		this.startParticleIndex = aStartParticleIndex;
-		this.depthFirstSearch(aStartParticleIndex);
-		this.endParticleIndex = this.getFarthestParticleIndex();
-		this.diameterPath = this.getPathFarthestParticleToStart();
+		this.search(aStartParticleIndex);
 	}
 
 	/**
-	 * Depth first search algorithm (recursive)
+	 * Depth first search algorithm (explicit stack, the particles are visited 
+	 * in the same order as with recursion)
 	 * 
-	 * @param aPreviousParticleIndex Index of the previous particle.
+	 * @param aStartParticleIndex Index of the start particle.
 	 */
-	private void depthFirstSearch(int aPreviousParticleIndex) {
-		this.visited[aPreviousParticleIndex] = true;
-		for (int tmpNextParticleIndex : this.adjacentArray[aPreviousParticleIndex]) {
+	private void depthFirstSearch(int aStartParticleIndex) {
+		int[] tmpOffsets = this.particleGraph.getOffsets();
+		int[] tmpNeighbors = this.particleGraph.getNeighbors();
+		int tmpStackSize = 0;
+		this.visited[aStartParticleIndex] = true;
+		this.particleStack[tmpStackSize] = aStartParticleIndex;
+		this.neighborPositionStack[tmpStackSize++] = tmpOffsets[aStartParticleIndex];
+		while (tmpStackSize > 0) {
+			int tmpPreviousParticleIndex = this.particleStack[tmpStackSize - 1];
+			int tmpNeighborPosition = this.neighborPositionStack[tmpStackSize - 1];
+			if (tmpNeighborPosition == tmpOffsets[tmpPreviousParticleIndex + 1]) {
+				tmpStackSize--;
+				continue;
+			}
+			this.neighborPositionStack[tmpStackSize - 1] = tmpNeighborPosition + 1;
+			int tmpNextParticleIndex = tmpNeighbors[tmpNeighborPosition];
 			if (!this.visited[tmpNextParticleIndex]) {
-				this.edgeTo[tmpNextParticleIndex] = aPreviousParticleIndex;
-				this.distanceToStart[tmpNextParticleIndex] = this.distanceToStart[aPreviousParticleIndex] + 1;
-				this.depthFirstSearch(tmpNextParticleIndex);
+				this.edgeTo[tmpNextParticleIndex] = tmpPreviousParticleIndex;
+				this.distanceToStart[tmpNextParticleIndex] = this.distanceToStart[tmpPreviousParticleIndex] + 1;
+				this.visited[tmpNextParticleIndex] = true;
+				this.particleStack[tmpStackSize] = tmpNextParticleIndex;
+				this.neighborPositionStack[tmpStackSize++] = tmpOffsets[tmpNextParticleIndex];
 			}
 		}
 	}
@@ -138,25 +183,16 @@ public class DepthFirstPath {
 	 * @return Particleindices list from start to farthes particle
 	 */
 	private int[] getPathFarthestParticleToStart() {
-		Stack<Integer> tmpPath = new Stack<>();
-		int tmpParticleIndex;
-		int tmpIndex = 0;
-		boolean tmpFoundStart = false;
-		int[] tmpResult;
-		
-		tmpParticleIndex = this.endParticleIndex;
-		while (!tmpFoundStart) {
-			tmpPath.push(tmpParticleIndex);
-			tmpParticleIndex = this.edgeTo[tmpParticleIndex];
-			if (tmpParticleIndex == this.startParticleIndex) {
-				tmpPath.push(tmpParticleIndex);
-				tmpFoundStart = true;
-			}
+		if (this.endParticleIndex == this.startParticleIndex) {
+			// NOTE: Start particle without neighbors
+			return new int[] {this.startParticleIndex, this.startParticleIndex};
 		}
-		tmpResult = new int[tmpPath.size()];
-		while (!tmpPath.empty()) {
-			tmpResult[tmpIndex] = tmpPath.pop();
-			tmpIndex++;
+		// The path length is the distance of the farthest particle plus 1
+		int[] tmpResult = new int[this.distanceToStart[this.endParticleIndex] + 1];
+		int tmpParticleIndex = this.endParticleIndex;
+		for (int i = tmpResult.length - 1; i >= 0; i--) {
+			tmpResult[i] = tmpParticleIndex;
+			tmpParticleIndex = this.edgeTo[tmpParticleIndex];
 		}
 		return tmpResult;
 	}
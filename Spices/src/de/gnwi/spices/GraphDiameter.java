@@ -0,0 +1,474 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Exact diameter (longest shortest path) and eccentricities of a particle
+ * graph (see ParticleGraph), also for cyclic structures. The diameter is
+ * determined with the iFUB algorithm (iterative fringe upper bound): A
+ * breadth-first search from a central particle defines the fringes (levels)
+ * and only the eccentricities of the particles of the outermost fringes
+ * are computed until the lower bound reaches the upper bound of the
+ * remaining fringes. Eccentricities are computed with bit-parallel
+ * breadth-first searches (64 start particles per search) and optionally in
+ * parallel (fork-join common pool). If the maximum computation time is
+ * exceeded the longest path found so far is returned (see isExact()).
+ * NOTE: Only the component of particle 0 is regarded.
+ * Reference: P. Crescenzi, R. Grossi, M. Habib, L. Lanzi, A. Marino; On
+ * computing the diameter of real-world undirected graphs; Theoretical
+ * Computer Science 514 (2013) 84-95
+ *
+ * @author agent
+ */
+public final class GraphDiameter {
+
+    // <editor-fold defaultstate="collapsed" desc="Private static final class variables">
+    /**
+     * Number of start particles of a bit-parallel breadth-first search
+     */
+    private static final int BATCH_SIZE = Long.SIZE;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Particle graph
+     */
+    private final ParticleGraph particleGraph;
+
+    /**
+     * Maximum computation time in milliseconds (less or equal 0: No limit)
+     */
+    private final long maximumTime;
+
+    /**
+     * True: Eccentricities are computed in parallel, false: Otherwise
+     */
+    private final boolean isParallel;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class variables">
+    /**
+     * Diameter
+     */
+    private int diameter;
+
+    /**
+     * Particle indices of a (shortest) path of length diameter
+     */
+    private int[] diameterPath;
+
+    /**
+     * True: Diameter is exact, false: Maximum computation time was exceeded
+     */
+    private boolean isExact;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructor">
+    /**
+     * Constructor (the diameter is determined)
+     *
+     * @param aParticleGraph Particle graph
+     * @param aMaximumTime Maximum computation time in milliseconds (less or
+     * equal 0: No limit)
+     * @param anIsParallel True: Eccentricities are computed in parallel,
+     * false: Otherwise
+     * @throws IllegalArgumentException Thrown if aParticleGraph is null
+     */
+    public GraphDiameter(ParticleGraph aParticleGraph, long aMaximumTime, boolean anIsParallel) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aParticleGraph == null) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        this.particleGraph = aParticleGraph;
+        this.maximumTime = aMaximumTime;
+        this.isParallel = anIsParallel;
+        this.determineDiameter();
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Eccentricities of all particles, i.e. the maximum distance of a
+     * particle to any particle of its component (a new computation with the
+     * same maximum computation time)
+     *
+     * @return New array with eccentricities of all particles or null if the
+     * maximum computation time was exceeded
+     */
+    public int[] getEccentricities() {
+        int tmpNumberOfParticles = this.particleGraph.getNumberOfParticles();
+        int[] tmpSources = new int[tmpNumberOfParticles];
+        for (int i = 0; i < tmpNumberOfParticles; i++) {
+            tmpSources[i] = i;
+        }
+        int[] tmpResult = new int[tmpNumberOfParticles];
+        if (!this.setEccentricities(tmpSources, 0, tmpNumberOfParticles, tmpResult, this.getDeadline())) {
+            return null;
+        }
+        return tmpResult;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Diameter (number of bonds of the longest shortest path)
+     *
+     * @return Diameter
+     */
+    public int getDiameter() {
+        return this.diameter;
+    }
+
+    /**
+     * Particle indices of a (shortest) path of length diameter from one end
+     * to the other.
+     * NOTE: Returned array is NOT allowed to be changed.
+     *
+     * @return Particle indices of path (empty for empty particle graph)
+     */
+    public int[] getDiameterPath() {
+        return this.diameterPath;
+    }
+
+    /**
+     * True: Diameter is exact, false: Maximum computation time was exceeded
+     * and diameter is a lower bound
+     *
+     * @return True: Diameter is exact, false: Otherwise
+     */
+    public boolean isExact() {
+        return this.isExact;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private methods">
+    /**
+     * Determines diameter, diameter path and exactness with iFUB
+     */
+    private void determineDiameter() {
+        int tmpNumberOfParticles = this.particleGraph.getNumberOfParticles();
+        if (tmpNumberOfParticles == 0) {
+            this.diameter = 0;
+            this.diameterPath = new int[0];
+            this.isExact = true;
+            return;
+        }
+        long tmpDeadline = this.getDeadline();
+        int[] tmpDistances = new int[tmpNumberOfParticles];
+        int[] tmpParents = new int[tmpNumberOfParticles];
+        int[] tmpQueue = new int[tmpNumberOfParticles];
+        // <editor-fold defaultstate="collapsed" desc="Lower bound with double sweep and central particle">
+        int tmpFirstParticleIndex = this.breadthFirstSearch(0, tmpDistances, tmpParents, tmpQueue);
+        int tmpSecondParticleIndex = this.breadthFirstSearch(tmpFirstParticleIndex, tmpDistances, tmpParents, tmpQueue);
+        int tmpLowerBound = tmpDistances[tmpSecondParticleIndex];
+        int tmpCentralParticleIndex = tmpSecondParticleIndex;
+        for (int i = 0; i < tmpLowerBound / 2; i++) {
+            tmpCentralParticleIndex = tmpParents[tmpCentralParticleIndex];
+        }
+        int tmpFarthestParticleIndex = this.breadthFirstSearch(tmpCentralParticleIndex, tmpDistances, tmpParents, tmpQueue);
+        int tmpEccentricity = tmpDistances[tmpFarthestParticleIndex];
+        if (tmpEccentricity > tmpLowerBound) {
+            tmpLowerBound = tmpEccentricity;
+            tmpFirstParticleIndex = tmpCentralParticleIndex;
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Fringes of central particle">
+        // Particles of the component in order of their distance to the central
+        // particle (see queue of breadth-first search)
+        int tmpNumberOfReachedParticles = 0;
+        int[] tmpFringeOffsets = new int[tmpEccentricity + 2];
+        for (int i = 0; i < tmpNumberOfParticles; i++) {
+            if (tmpDistances[i] >= 0) {
+                tmpFringeOffsets[tmpDistances[i] + 1]++;
+                tmpNumberOfReachedParticles++;
+            }
+        }
+        for (int i = 0; i <= tmpEccentricity; i++) {
+            tmpFringeOffsets[i + 1] += tmpFringeOffsets[i];
+        }
+        int[] tmpFringeParticles = new int[tmpNumberOfReachedParticles];
+        System.arraycopy(tmpQueue, 0, tmpFringeParticles, 0, tmpNumberOfReachedParticles);
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="iFUB">
+        int[] tmpEccentricities = new int[tmpNumberOfReachedParticles];
+        this.isExact = true;
+        for (int i = tmpEccentricity; i > 0; i--) {
+            // NOTE: Two particles with distance to the central particle less
+            // or equal i have a distance less or equal 2 * i
+            if (tmpLowerBound >= 2 * i) {
+                break;
+            }
+            int tmpFrom = tmpFringeOffsets[i];
+            int tmpTo = tmpFringeOffsets[i + 1];
+            if (!this.setEccentricities(tmpFringeParticles, tmpFrom, tmpTo, tmpEccentricities, tmpDeadline)) {
+                this.isExact = false;
+                break;
+            }
+            for (int j = tmpFrom; j < tmpTo; j++) {
+                if (tmpEccentricities[j] > tmpLowerBound) {
+                    tmpLowerBound = tmpEccentricities[j];
+                    tmpFirstParticleIndex = tmpFringeParticles[j];
+                }
+            }
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Diameter path">
+        tmpSecondParticleIndex = this.breadthFirstSearch(tmpFirstParticleIndex, tmpDistances, tmpParents, tmpQueue);
+        this.diameter = tmpDistances[tmpSecondParticleIndex];
+        this.diameterPath = new int[this.diameter + 1];
+        int tmpParticleIndex = tmpSecondParticleIndex;
+        for (int i = this.diameter; i >= 0; i--) {
+            this.diameterPath[i] = tmpParticleIndex;
+            tmpParticleIndex = tmpParents[tmpParticleIndex];
+        }
+        // </editor-fold>
+    }
+
+    /**
+     * Deadline for System.nanoTime()
+     *
+     * @return Deadline
+     */
+    private long getDeadline() {
+        if (this.maximumTime <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return System.nanoTime() + this.maximumTime * 1000000L;
+    }
+
+    /**
+     * Breadth-first search
+     *
+     * @param aStartParticleIndex Index of start particle
+     * @param aDistances Distances to start particle (-1: Not reached)
+     * @param aParents Parent particle on a shortest path to start particle
+     * @param aQueue Queue: Reached particles in order of their distance
+     * @return Index of (last) farthest particle
+     */
+    private int breadthFirstSearch(int aStartParticleIndex, int[] aDistances, int[] aParents, int[] aQueue) {
+        int[] tmpOffsets = this.particleGraph.getOffsets();
+        int[] tmpNeighbors = this.particleGraph.getNeighbors();
+        Arrays.fill(aDistances, -1);
+        int tmpHead = 0;
+        int tmpTail = 0;
+        aDistances[aStartParticleIndex] = 0;
+        aParents[aStartParticleIndex] = aStartParticleIndex;
+        aQueue[tmpTail++] = aStartParticleIndex;
+        int tmpParticleIndex = aStartParticleIndex;
+        while (tmpHead < tmpTail) {
+            tmpParticleIndex = aQueue[tmpHead++];
+            for (int i = tmpOffsets[tmpParticleIndex]; i < tmpOffsets[tmpParticleIndex + 1]; i++) {
+                int tmpNeighbor = tmpNeighbors[i];
+                if (aDistances[tmpNeighbor] < 0) {
+                    aDistances[tmpNeighbor] = aDistances[tmpParticleIndex] + 1;
+                    aParents[tmpNeighbor] = tmpParticleIndex;
+                    aQueue[tmpTail++] = tmpNeighbor;
+                }
+            }
+        }
+        return tmpParticleIndex;
+    }
+
+    /**
+     * Sets eccentricities of particles with bit-parallel breadth-first
+     * searches
+     *
+     * @param aParticleIndices Particle indices
+     * @param aFrom Index of first particle index in aParticleIndices
+     * @param aTo Index after last particle index in aParticleIndices
+     * @param anEccentricities Eccentricities (same indices as
+     * aParticleIndices)
+     * @param aDeadline Deadline for System.nanoTime()
+     * @return True: All eccentricities are set, false: Deadline was exceeded
+     */
+    private boolean setEccentricities(int[] aParticleIndices, int aFrom, int aTo, int[] anEccentricities, long aDeadline) {
+        int tmpNumberOfBatches = (aTo - aFrom + BATCH_SIZE - 1) / BATCH_SIZE;
+        if (!this.isParallel || tmpNumberOfBatches < 2) {
+            BatchWork tmpWork = new BatchWork(this.particleGraph.getNumberOfParticles());
+            for (int i = 0; i < tmpNumberOfBatches; i++) {
+                if (System.nanoTime() - aDeadline > 0) {
+                    return false;
+                }
+                int tmpFrom = aFrom + i * BATCH_SIZE;
+                this.setBatchEccentricities(aParticleIndices, tmpFrom, Math.min(tmpFrom + BATCH_SIZE, aTo), anEccentricities, tmpWork);
+            }
+            return true;
+        }
+        // NOTE: Work arrays are reused by the batches of a worker thread and
+        // every batch sets different eccentricities
+        ConcurrentLinkedQueue<BatchWork> tmpWorkPool = new ConcurrentLinkedQueue<>();
+        AtomicBoolean tmpIsDeadlineExceeded = new AtomicBoolean(false);
+        IntStream.range(0, tmpNumberOfBatches).parallel().forEach(i -> {
+            if (tmpIsDeadlineExceeded.get() || System.nanoTime() - aDeadline > 0) {
+                tmpIsDeadlineExceeded.set(true);
+                return;
+            }
+            BatchWork tmpWork = tmpWorkPool.poll();
+            if (tmpWork == null) {
+                tmpWork = new BatchWork(this.particleGraph.getNumberOfParticles());
+            }
+            int tmpFrom = aFrom + i * BATCH_SIZE;
+            this.setBatchEccentricities(aParticleIndices, tmpFrom, Math.min(tmpFrom + BATCH_SIZE, aTo), anEccentricities, tmpWork);
+            tmpWorkPool.add(tmpWork);
+        });
+        return !tmpIsDeadlineExceeded.get();
+    }
+
+    /**
+     * Sets eccentricities of at most 64 particles with a single
+     * bit-parallel breadth-first search: Bit j of the masks belongs to
+     * particle aParticleIndices[aFrom + j].
+     *
+     * @param aParticleIndices Particle indices
+     * @param aFrom Index of first particle index in aParticleIndices
+     * @param aTo Index after last particle index in aParticleIndices
+     * @param anEccentricities Eccentricities (same indices as
+     * aParticleIndices)
+     * @param aWork Work arrays (cleared on return)
+     */
+    private void setBatchEccentricities(int[] aParticleIndices, int aFrom, int aTo, int[] anEccentricities, BatchWork aWork) {
+        int[] tmpOffsets = this.particleGraph.getOffsets();
+        int[] tmpNeighbors = this.particleGraph.getNeighbors();
+        long[] tmpSeen = aWork.seen;
+        long[] tmpFrontier = aWork.frontier;
+        long[] tmpNext = aWork.next;
+        int[] tmpCurrentParticles = aWork.currentParticles;
+        int[] tmpNextParticles = aWork.nextParticles;
+        int tmpNumberOfCurrentParticles = 0;
+        int tmpNumberOfTouchedParticles = 0;
+        for (int j = aFrom; j < aTo; j++) {
+            int tmpParticleIndex = aParticleIndices[j];
+            long tmpBit = 1L << (j - aFrom);
+            if (tmpSeen[tmpParticleIndex] == 0L) {
+                aWork.touchedParticles[tmpNumberOfTouchedParticles++] = tmpParticleIndex;
+                tmpCurrentParticles[tmpNumberOfCurrentParticles++] = tmpParticleIndex;
+            }
+            tmpSeen[tmpParticleIndex] |= tmpBit;
+            tmpFrontier[tmpParticleIndex] |= tmpBit;
+            anEccentricities[j] = 0;
+        }
+        int tmpDistance = 0;
+        while (tmpNumberOfCurrentParticles > 0) {
+            int tmpNumberOfNextParticles = 0;
+            for (int k = 0; k < tmpNumberOfCurrentParticles; k++) {
+                int tmpParticleIndex = tmpCurrentParticles[k];
+                long tmpMask = tmpFrontier[tmpParticleIndex];
+                tmpFrontier[tmpParticleIndex] = 0L;
+                for (int l = tmpOffsets[tmpParticleIndex]; l < tmpOffsets[tmpParticleIndex + 1]; l++) {
+                    int tmpNeighbor = tmpNeighbors[l];
+                    long tmpNewBits = tmpMask & ~tmpSeen[tmpNeighbor];
+                    if (tmpNewBits != 0L) {
+                        if (tmpSeen[tmpNeighbor] == 0L) {
+                            aWork.touchedParticles[tmpNumberOfTouchedParticles++] = tmpNeighbor;
+                        }
+                        tmpSeen[tmpNeighbor] |= tmpNewBits;
+                        if (tmpNext[tmpNeighbor] == 0L) {
+                            tmpNextParticles[tmpNumberOfNextParticles++] = tmpNeighbor;
+                        }
+                        tmpNext[tmpNeighbor] |= tmpNewBits;
+                    }
+                }
+            }
+            if (tmpNumberOfNextParticles == 0) {
+                break;
+            }
+            tmpDistance++;
+            long tmpLevelBits = 0L;
+            for (int k = 0; k < tmpNumberOfNextParticles; k++) {
+                int tmpParticleIndex = tmpNextParticles[k];
+                tmpFrontier[tmpParticleIndex] = tmpNext[tmpParticleIndex];
+                tmpLevelBits |= tmpNext[tmpParticleIndex];
+                tmpNext[tmpParticleIndex] = 0L;
+            }
+            while (tmpLevelBits != 0L) {
+                anEccentricities[aFrom + Long.numberOfTrailingZeros(tmpLevelBits)] = tmpDistance;
+                tmpLevelBits &= tmpLevelBits - 1L;
+            }
+            int[] tmpParticles = tmpCurrentParticles;
+            tmpCurrentParticles = tmpNextParticles;
+            tmpNextParticles = tmpParticles;
+            tmpNumberOfCurrentParticles = tmpNumberOfNextParticles;
+        }
+        for (int k = 0; k < tmpNumberOfTouchedParticles; k++) {
+            tmpSeen[aWork.touchedParticles[k]] = 0L;
+        }
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class BatchWork">
+    /**
+     * Work arrays of a bit-parallel breadth-first search
+     */
+    private static final class BatchWork {
+
+        /**
+         * Bit j: Particle was reached from start particle j
+         */
+        final long[] seen;
+
+        /**
+         * Bit j: Particle is in current fringe of start particle j
+         */
+        final long[] frontier;
+
+        /**
+         * Bit j: Particle is in next fringe of start particle j
+         */
+        final long[] next;
+
+        /**
+         * Particles of current fringe
+         */
+        final int[] currentParticles;
+
+        /**
+         * Particles of next fringe
+         */
+        final int[] nextParticles;
+
+        /**
+         * Reached particles (for clearing)
+         */
+        final int[] touchedParticles;
+
+        /**
+         * Constructor
+         *
+         * @param aNumberOfParticles Number of particles
+         */
+        BatchWork(int aNumberOfParticles) {
+            this.seen = new long[aNumberOfParticles];
+            this.frontier = new long[aNumberOfParticles];
+            this.next = new long[aNumberOfParticles];
+            this.currentParticles = new int[aNumberOfParticles];
+            this.nextParticles = new int[aNumberOfParticles];
+            this.touchedParticles = new int[aNumberOfParticles];
+        }
+
+    }
+    // </editor-fold>
+
+}
@@ -0,0 +1,223 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.Arrays;
+
+/**
+ * Immutable connected components of one or more particle graphs (see
+ * ParticleGraph). The components are labeled 0 to (number of components -
+ * 1) in the order of their smallest particle index. The particles of
+ * several particle graphs (e.g. the parts of a multi-part structure) are
+ * indexed consecutively.
+ *
+ * @author agent
+ */
+public final class ParticleComponents {
+
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Component label of particle i
+     */
+    private final int[] componentLabels;
+
+    /**
+     * Offsets of the particles of component i in particleIndices (length is
+     * number of components + 1)
+     */
+    private final int[] componentOffsets;
+
+    /**
+     * Particle indices of all components in ascending order per component
+     * (see componentOffsets)
+     */
+    private final int[] particleIndices;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructors">
+    /**
+     * Constructor
+     *
+     * @param aParticleGraph Particle graph
+     * @throws IllegalArgumentException Thrown if aParticleGraph is null
+     */
+    public ParticleComponents(ParticleGraph aParticleGraph) throws IllegalArgumentException {
+        this(new ParticleGraph[] {aParticleGraph});
+    }
+
+    /**
+     * Constructor
+     *
+     * @param aParticleGraphs Particle graphs whose particles are indexed
+     * consecutively
+     * @throws IllegalArgumentException Thrown if aParticleGraphs is null or
+     * contains null
+     */
+    public ParticleComponents(ParticleGraph[] aParticleGraphs) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aParticleGraphs == null) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        int tmpNumberOfParticles = 0;
+        for (ParticleGraph tmpParticleGraph : aParticleGraphs) {
+            if (tmpParticleGraph == null) {
+                throw new IllegalArgumentException("An argument is illegal.");
+            }
+            tmpNumberOfParticles += tmpParticleGraph.getNumberOfParticles();
+        }
+        // </editor-fold>
+        UnionFind tmpUnionFind = new UnionFind(tmpNumberOfParticles);
+        int tmpFirstParticleIndex = 0;
+        for (ParticleGraph tmpParticleGraph : aParticleGraphs) {
+            int[] tmpOffsets = tmpParticleGraph.getOffsets();
+            int[] tmpNeighbors = tmpParticleGraph.getNeighbors();
+            for (int i = 0; i < tmpParticleGraph.getNumberOfParticles(); i++) {
+                for (int j = tmpOffsets[i]; j < tmpOffsets[i + 1]; j++) {
+                    // NOTE: Every bond is contained twice
+                    if (tmpNeighbors[j] > i) {
+                        tmpUnionFind.union(tmpFirstParticleIndex + i, tmpFirstParticleIndex + tmpNeighbors[j]);
+                    }
+                }
+            }
+            tmpFirstParticleIndex += tmpParticleGraph.getNumberOfParticles();
+        }
+        // Label components in the order of their smallest particle index
+        int tmpNumberOfComponents = tmpUnionFind.getNumberOfSets();
+        int[] tmpRootLabels = new int[tmpNumberOfParticles];
+        Arrays.fill(tmpRootLabels, -1);
+        this.componentLabels = new int[tmpNumberOfParticles];
+        this.componentOffsets = new int[tmpNumberOfComponents + 1];
+        int tmpNextLabel = 0;
+        for (int i = 0; i < tmpNumberOfParticles; i++) {
+            int tmpRoot = tmpUnionFind.find(i);
+            if (tmpRootLabels[tmpRoot] == -1) {
+                tmpRootLabels[tmpRoot] = tmpNextLabel++;
+            }
+            this.componentLabels[i] = tmpRootLabels[tmpRoot];
+            this.componentOffsets[this.componentLabels[i] + 1]++;
+        }
+        for (int i = 0; i < tmpNumberOfComponents; i++) {
+            this.componentOffsets[i + 1] += this.componentOffsets[i];
+        }
+        int[] tmpPositions = Arrays.copyOf(this.componentOffsets, tmpNumberOfComponents);
+        this.particleIndices = new int[tmpNumberOfParticles];
+        for (int i = 0; i < tmpNumberOfParticles; i++) {
+            this.particleIndices[tmpPositions[this.componentLabels[i]]++] = i;
+        }
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Particle indices of component
+     *
+     * @param aComponentLabel Component label
+     * @return New array with particle indices of component in ascending
+     * order
+     */
+    public int[] getParticleIndices(int aComponentLabel) {
+        return Arrays.copyOfRange(this.particleIndices, this.componentOffsets[aComponentLabel], this.componentOffsets[aComponentLabel + 1]);
+    }
+
+    /**
+     * True: Particles are in the same component, false: Otherwise
+     *
+     * @param aFirstParticleIndex Index of first particle
+     * @param aSecondParticleIndex Index of second particle
+     * @return True: Particles are in the same component, false: Otherwise
+     */
+    public boolean isConnected(int aFirstParticleIndex, int aSecondParticleIndex) {
+        return this.componentLabels[aFirstParticleIndex] == this.componentLabels[aSecondParticleIndex];
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * True: There is at most one component, false: Otherwise
+     *
+     * @return True: There is at most one component, false: Otherwise
+     */
+    public boolean isConnected() {
+        return this.componentOffsets.length <= 2;
+    }
+
+    /**
+     * Number of particles
+     *
+     * @return Number of particles
+     */
+    public int getNumberOfParticles() {
+        return this.componentLabels.length;
+    }
+
+    /**
+     * Number of components
+     *
+     * @return Number of components
+     */
+    public int getNumberOfComponents() {
+        return this.componentOffsets.length - 1;
+    }
+
+    /**
+     * Component label of particle
+     *
+     * @param aParticleIndex Particle index
+     * @return Component label of particle
+     */
+    public int getComponentLabel(int aParticleIndex) {
+        return this.componentLabels[aParticleIndex];
+    }
+
+    /**
+     * Component labels of all particles.
+     * NOTE: Returned array is NOT allowed to be changed.
+     *
+     * @return Component labels
+     */
+    public int[] getComponentLabels() {
+        return this.componentLabels;
+    }
+
+    /**
+     * Number of particles of component
+     *
+     * @param aComponentLabel Component label
+     * @return Number of particles of component
+     */
+    public int getComponentSize(int aComponentLabel) {
+        return this.componentOffsets[aComponentLabel + 1] - this.componentOffsets[aComponentLabel];
+    }
+
+    /**
+     * Numbers of particles of all components
+     *
+     * @return New array with numbers of particles of all components
+     */
+    public int[] getComponentSizes() {
+        int[] tmpResult = new int[this.componentOffsets.length - 1];
+        for (int i = 0; i < tmpResult.length; i++) {
+            tmpResult[i] = this.componentOffsets[i + 1] - this.componentOffsets[i];
+        }
+        return tmpResult;
+    }
+    // </editor-fold>
+
+}
@@ -0,0 +1,278 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.Arrays;
+
+/**
+ * Immutable particle graph in compressed sparse row (CSR) format: The
+ * neighbors of particle i are getNeighbors()[getOffsets()[i]] to
+ * getNeighbors()[getOffsets()[i + 1] - 1]. Every bond is contained twice,
+ * i.e. if particle j is a neighbor of particle i then particle i is a
+ * neighbor of particle j.
+ *
+ * @author agent
+ */
+public final class ParticleGraph {
+
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Offsets of the neighbors of particle i in neighbors (length is number
+     * of particles + 1)
+     */
+    private final int[] offsets;
+
+    /**
+     * Neighbor particle indices of all particles (see offsets)
+     */
+    private final int[] neighbors;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructor">
+    /**
+     * Constructor
+     * NOTE: The arrays are copied, i.e. they may be changed afterwards.
+     *
+     * @param anOffsets Offsets of the neighbors of particle i in aNeighbors
+     * (length is number of particles + 1, first offset is 0, last offset is
+     * length of aNeighbors)
+     * @param aNeighbors Neighbor particle indices of all particles
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    public ParticleGraph(int[] anOffsets, int[] aNeighbors) throws IllegalArgumentException {
+        this(
+            anOffsets == null ? null : anOffsets.clone(), 
+            aNeighbors == null ? null : aNeighbors.clone(), 
+            true
+        );
+    }
+
+    /**
+     * Constructor
+     * NOTE: The arrays are NOT copied and must NOT be changed afterwards.
+     *
+     * @param anOffsets Offsets of the neighbors of particle i in aNeighbors
+     * @param aNeighbors Neighbor particle indices of all particles
+     * @param anIsOwner True: Arrays are owned by this instance (only used to
+     * distinguish this constructor from the public one)
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    private ParticleGraph(int[] anOffsets, int[] aNeighbors, boolean anIsOwner) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (anOffsets == null || anOffsets.length == 0 || aNeighbors == null) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        if (anOffsets[0] != 0 || anOffsets[anOffsets.length - 1] != aNeighbors.length) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        for (int i = 1; i < anOffsets.length; i++) {
+            if (anOffsets[i] < anOffsets[i - 1]) {
+                throw new IllegalArgumentException("An argument is illegal.");
+            }
+        }
+        for (int tmpNeighbor : aNeighbors) {
+            if (tmpNeighbor < 0 || tmpNeighbor >= anOffsets.length - 1) {
+                throw new IllegalArgumentException("An argument is illegal.");
+            }
+        }
+        // </editor-fold>
+        this.offsets = anOffsets;
+        this.neighbors = aNeighbors;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public static methods">
+    /**
+     * Creates particle graph from adjacent array
+     *
+     * @param anAdjacentArray Adjacent array: First index is particle index,
+     * second index is position of neighbor particle index (a null row means
+     * no neighbors)
+     * @return Particle graph
+     * @throws IllegalArgumentException Thrown if anAdjacentArray is null or
+     * contains an illegal particle index
+     */
+    public static ParticleGraph fromAdjacentArray(int[][] anAdjacentArray) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (anAdjacentArray == null) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        int[] tmpOffsets = new int[anAdjacentArray.length + 1];
+        for (int i = 0; i < anAdjacentArray.length; i++) {
+            tmpOffsets[i + 1] = tmpOffsets[i] + (anAdjacentArray[i] == null ? 0 : anAdjacentArray[i].length);
+        }
+        int[] tmpNeighbors = new int[tmpOffsets[anAdjacentArray.length]];
+        for (int i = 0; i < anAdjacentArray.length; i++) {
+            if (anAdjacentArray[i] != null) {
+                System.arraycopy(anAdjacentArray[i], 0, tmpNeighbors, tmpOffsets[i], anAdjacentArray[i].length);
+            }
+        }
+        return new ParticleGraph(tmpOffsets, tmpNeighbors, true);
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Package-private static methods">
+    /**
+     * Creates particle graph that takes ownership of the arrays
+     * NOTE: The arrays are NOT copied and must NOT be changed afterwards.
+     *
+     * @param anOffsets Offsets of the neighbors of particle i in aNeighbors
+     * (see public constructor)
+     * @param aNeighbors Neighbor particle indices of all particles
+     * @return Particle graph
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    static ParticleGraph wrap(int[] anOffsets, int[] aNeighbors) throws IllegalArgumentException {
+        return new ParticleGraph(anOffsets, aNeighbors, true);
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Adjacent array: First index is particle index, second index is
+     * position of neighbor particle index
+     *
+     * @return New adjacent array (a particle without neighbors has an empty
+     * row)
+     */
+    public int[][] getAdjacentArray() {
+        int tmpNumberOfParticles = this.offsets.length - 1;
+        int[][] tmpResult = new int[tmpNumberOfParticles][];
+        for (int i = 0; i < tmpNumberOfParticles; i++) {
+            tmpResult[i] = Arrays.copyOfRange(this.neighbors, this.offsets[i], this.offsets[i + 1]);
+        }
+        return tmpResult;
+    }
+
+    /**
+     * Neighbor particle indices of particle
+     *
+     * @param aParticleIndex Particle index
+     * @return New array with neighbor particle indices
+     */
+    public int[] getNeighbors(int aParticleIndex) {
+        return Arrays.copyOfRange(this.neighbors, this.offsets[aParticleIndex], this.offsets[aParticleIndex + 1]);
+    }
+
+    /**
+     * True: Particles are neighbors, false: Otherwise
+     *
+     * @param aFirstParticleIndex Index of first particle
+     * @param aSecondParticleIndex Index of second particle
+     * @return True: Particles are neighbors, false: Otherwise
+     */
+    public boolean isNeighbor(int aFirstParticleIndex, int aSecondParticleIndex) {
+        for (int i = this.offsets[aFirstParticleIndex]; i < this.offsets[aFirstParticleIndex + 1]; i++) {
+            if (this.neighbors[i] == aSecondParticleIndex) {
+                return true;
+            }
+        }
+        return false;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Number of particles
+     *
+     * @return Number of particles
+     */
+    public int getNumberOfParticles() {
+        return this.offsets.length - 1;
+    }
+
+    /**
+     * Number of bonds (every bond is counted once)
+     *
+     * @return Number of bonds
+     */
+    public int getNumberOfBonds() {
+        return this.neighbors.length / 2;
+    }
+
+    /**
+     * Number of neighbors (valence) of particle
+     *
+     * @param aParticleIndex Particle index
+     * @return Number of neighbors
+     */
+    public int getDegree(int aParticleIndex) {
+        return this.offsets[aParticleIndex + 1] - this.offsets[aParticleIndex];
+    }
+
+    /**
+     * Neighbor particle index of particle at position
+     *
+     * @param aParticleIndex Particle index
+     * @param aPosition Position of neighbor (0 to
+     * getDegree(aParticleIndex) - 1)
+     * @return Neighbor particle index
+     * @throws IndexOutOfBoundsException Thrown if aPosition is out of bounds
+     */
+    public int getNeighbor(int aParticleIndex, int aPosition) throws IndexOutOfBoundsException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aPosition < 0 || aPosition >= this.offsets[aParticleIndex + 1] - this.offsets[aParticleIndex]) {
+            throw new IndexOutOfBoundsException("aPosition is out of bounds.");
+        }
+        // </editor-fold>
+        return this.neighbors[this.offsets[aParticleIndex] + aPosition];
+    }
+
+    /**
+     * Maximum number of neighbors (valence) of a single particle
+     *
+     * @return Maximum number of neighbors
+     */
+    public int getMaximumDegree() {
+        int tmpResult = 0;
+        for (int i = 0; i < this.offsets.length - 1; i++) {
+            tmpResult = Math.max(tmpResult, this.offsets[i + 1] - this.offsets[i]);
+        }
+        return tmpResult;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Package-private properties">
+    /**
+     * Offsets of the neighbors of particle i in getNeighbors() (length is
+     * number of particles + 1).
+     * NOTE: Returned array is the internal array and is NOT allowed to be
+     * changed.
+     *
+     * @return Offsets
+     */
+    int[] getOffsets() {
+        return this.offsets;
+    }
+
+    /**
+     * Neighbor particle indices of all particles (see getOffsets()).
+     * NOTE: Returned array is the internal array and is NOT allowed to be
+     * changed.
+     *
+     * @return Neighbor particle indices
+     */
+    int[] getNeighbors() {
+        return this.neighbors;
+    }
+    // </editor-fold>
+
+}
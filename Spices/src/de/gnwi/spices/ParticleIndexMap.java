@@ -0,0 +1,250 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.Arrays;
+
+/**
+ * Immutable map between global particle indices and (part index, local
+ * particle index) pairs of a multi-part structure. The map is backed by the
+ * prefix sums of the part blocks (a part block consists of consecutive equal
+ * parts, e.g. of "100<A-B-C>"), i.e. its size is independent of the number
+ * of parts and particles: A global particle index is mapped to its part and
+ * local particle index (and vice versa) with a binary search of the part
+ * blocks and constant-time arithmetic within a part block. For a single part
+ * block (e.g. "1000<O-H>") both directions are constant-time.
+ * NOTE: No index checks are performed.
+ *
+ * @author agent
+ */
+public final class ParticleIndexMap {
+
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Part offsets of part blocks (prefix sums of multiplicities, length is
+     * number of part blocks + 1)
+     */
+    private final int[] partBlockPartOffsets;
+
+    /**
+     * Particle offsets of part blocks (prefix sums of numbers of particles,
+     * length is number of part blocks + 1)
+     */
+    private final int[] partBlockParticleOffsets;
+
+    /**
+     * Number of particles of a single part of part block i
+     */
+    private final int[] partBlockPartParticles;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructors">
+    /**
+     * Constructor
+     *
+     * @param aPartBlockPartOffsets Part offsets of part blocks (parts of part
+     * block i are parts aPartBlockPartOffsets[i] to aPartBlockPartOffsets[i +
+     * 1] - 1, first entry: 0)
+     * @param aPartBlockParticleOffsets Particle offsets of part blocks
+     * (particles of part block i are particles aPartBlockParticleOffsets[i]
+     * to aPartBlockParticleOffsets[i + 1] - 1, first entry: 0)
+     * @throws IllegalArgumentException Thrown if an argument is null, the
+     * lengths differ, an offset array is not strictly increasing from 0 or the
+     * particles of a part block are not evenly distributed over its parts
+     */
+    public ParticleIndexMap(int[] aPartBlockPartOffsets, int[] aPartBlockParticleOffsets) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aPartBlockPartOffsets == null
+            || aPartBlockParticleOffsets == null
+            || aPartBlockPartOffsets.length == 0
+            || aPartBlockPartOffsets.length != aPartBlockParticleOffsets.length
+            || aPartBlockPartOffsets[0] != 0
+            || aPartBlockParticleOffsets[0] != 0) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        int tmpNumberOfPartBlocks = aPartBlockPartOffsets.length - 1;
+        this.partBlockPartOffsets = Arrays.copyOf(aPartBlockPartOffsets, aPartBlockPartOffsets.length);
+        this.partBlockParticleOffsets = Arrays.copyOf(aPartBlockParticleOffsets, aPartBlockParticleOffsets.length);
+        this.partBlockPartParticles = new int[tmpNumberOfPartBlocks];
+        for (int i = 0; i < tmpNumberOfPartBlocks; i++) {
+            int tmpMultiplicity = this.partBlockPartOffsets[i + 1] - this.partBlockPartOffsets[i];
+            int tmpNumberOfParticles = this.partBlockParticleOffsets[i + 1] - this.partBlockParticleOffsets[i];
+            if (tmpMultiplicity <= 0 || tmpNumberOfParticles <= 0 || tmpNumberOfParticles % tmpMultiplicity != 0) {
+                throw new IllegalArgumentException("An argument is illegal.");
+            }
+            this.partBlockPartParticles[i] = tmpNumberOfParticles / tmpMultiplicity;
+        }
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Index of part block of particle (binary search of particle offsets of
+     * part blocks)
+     *
+     * @param aParticleIndex Global particle index
+     * @return Index of part block of particle
+     */
+    public int getPartBlockIndexOfParticle(int aParticleIndex) {
+        return ParticleIndexMap.getBlockIndex(this.partBlockParticleOffsets, aParticleIndex);
+    }
+
+    /**
+     * Index of part block of part (binary search of part offsets of part
+     * blocks)
+     *
+     * @param aPartIndex Index of part
+     * @return Index of part block of part
+     */
+    public int getPartBlockIndexOfPart(int aPartIndex) {
+        return ParticleIndexMap.getBlockIndex(this.partBlockPartOffsets, aPartIndex);
+    }
+
+    /**
+     * Index of part of particle
+     *
+     * @param aParticleIndex Global particle index
+     * @return Index of part of particle
+     */
+    public int getPartIndex(int aParticleIndex) {
+        int tmpPartBlockIndex = this.getPartBlockIndexOfParticle(aParticleIndex);
+        return this.partBlockPartOffsets[tmpPartBlockIndex]
+            + (aParticleIndex - this.partBlockParticleOffsets[tmpPartBlockIndex]) / this.partBlockPartParticles[tmpPartBlockIndex];
+    }
+
+    /**
+     * Local particle index of particle within its part (see getPartIndex())
+     *
+     * @param aParticleIndex Global particle index
+     * @return Local particle index of particle within its part
+     */
+    public int getLocalParticleIndex(int aParticleIndex) {
+        int tmpPartBlockIndex = this.getPartBlockIndexOfParticle(aParticleIndex);
+        return (aParticleIndex - this.partBlockParticleOffsets[tmpPartBlockIndex]) % this.partBlockPartParticles[tmpPartBlockIndex];
+    }
+
+    /**
+     * Global particle index of local particle of part
+     *
+     * @param aPartIndex Index of part
+     * @param aLocalParticleIndex Local particle index within part
+     * @return Global particle index
+     */
+    public int getParticleIndex(int aPartIndex, int aLocalParticleIndex) {
+        return this.getFirstParticleIndex(aPartIndex) + aLocalParticleIndex;
+    }
+
+    /**
+     * Global particle index of first particle of part
+     *
+     * @param aPartIndex Index of part
+     * @return Global particle index of first particle of part
+     */
+    public int getFirstParticleIndex(int aPartIndex) {
+        int tmpPartBlockIndex = this.getPartBlockIndexOfPart(aPartIndex);
+        return this.partBlockParticleOffsets[tmpPartBlockIndex]
+            + (aPartIndex - this.partBlockPartOffsets[tmpPartBlockIndex]) * this.partBlockPartParticles[tmpPartBlockIndex];
+    }
+
+    /**
+     * Number of particles of part
+     *
+     * @param aPartIndex Index of part
+     * @return Number of particles of part
+     */
+    public int getNumberOfParticlesOfPart(int aPartIndex) {
+        return this.partBlockPartParticles[this.getPartBlockIndexOfPart(aPartIndex)];
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Number of particles
+     *
+     * @return Number of particles
+     */
+    public int getNumberOfParticles() {
+        return this.partBlockParticleOffsets[this.partBlockParticleOffsets.length - 1];
+    }
+
+    /**
+     * Number of parts
+     *
+     * @return Number of parts
+     */
+    public int getNumberOfParts() {
+        return this.partBlockPartOffsets[this.partBlockPartOffsets.length - 1];
+    }
+
+    /**
+     * Number of part blocks
+     *
+     * @return Number of part blocks
+     */
+    public int getNumberOfPartBlocks() {
+        return this.partBlockPartParticles.length;
+    }
+
+    /**
+     * Number of particles of a single part of part block
+     *
+     * @param aPartBlockIndex Index of part block
+     * @return Number of particles of a single part of part block
+     */
+    public int getNumberOfParticlesOfPartBlockPart(int aPartBlockIndex) {
+        return this.partBlockPartParticles[aPartBlockIndex];
+    }
+
+    /**
+     * Multiplicity of part block (number of consecutive equal parts)
+     *
+     * @param aPartBlockIndex Index of part block
+     * @return Multiplicity of part block
+     */
+    public int getPartBlockMultiplicity(int aPartBlockIndex) {
+        return this.partBlockPartOffsets[aPartBlockIndex + 1] - this.partBlockPartOffsets[aPartBlockIndex];
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private static methods">
+    /**
+     * Index of block that contains value (binary search of strictly
+     * increasing offsets)
+     *
+     * @param anOffsets Offsets of blocks (length is number of blocks + 1)
+     * @param aValue Value
+     * @return Index of block
+     */
+    private static int getBlockIndex(int[] anOffsets, int aValue) {
+        if (anOffsets.length == 2) {
+            // Single block
+            return 0;
+        }
+        int tmpIndex = Arrays.binarySearch(anOffsets, 0, anOffsets.length - 1, aValue);
+        if (tmpIndex >= 0) {
+            return tmpIndex;
+        } else {
+            return -tmpIndex - 2;
+        }
+    }
+    // </editor-fold>
+
+}
@@ -0,0 +1,550 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.Arrays;
+
+/**
+ * Immutable smallest set of smallest rings (SSSR, i.e. a minimum cycle
+ * basis) of a particle graph (see ParticleGraph). Chain particles are
+ * removed first (2-core) so that acyclic structures and the chains of
+ * cyclic structures cost linear time only. Ring candidates are Horton
+ * cycles whose smallest particle index is the root of the breadth-first
+ * search (Vismara prototypes) and are selected in the order of their size
+ * with Gaussian elimination over the bonds (bit sets). The rings are
+ * labeled 0 to (number of rings - 1) in ascending order of their size.
+ * NOTE: Multiple bonds between the same particles count as one bond.
+ * References: J.D. Horton; A polynomial-time algorithm to find the
+ * shortest cycle basis of a graph; SIAM Journal on Computing 16 (1987)
+ * 358-366. P. Vismara; Union of all the minimum cycle bases of a graph;
+ * The Electronic Journal of Combinatorics 4 (1997) R9
+ *
+ * @author agent
+ */
+public final class ParticleRings {
+
+    // <editor-fold defaultstate="collapsed" desc="Private static final class variables">
+    /**
+     * Maximum ring size of the first round of ring candidates
+     */
+    private static final int INITIAL_MAXIMUM_RING_SIZE = 8;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Offsets of the particles of ring i in ringParticleIndices (length is
+     * number of rings + 1)
+     */
+    private final int[] ringOffsets;
+
+    /**
+     * Particle indices of all rings in ring order per ring (see
+     * ringOffsets)
+     */
+    private final int[] ringParticleIndices;
+
+    /**
+     * Offsets of the rings of particle i in particleRingIndices (length is
+     * number of particles + 1)
+     */
+    private final int[] particleRingOffsets;
+
+    /**
+     * Ring indices of all particles in ascending order per particle (see
+     * particleRingOffsets)
+     */
+    private final int[] particleRingIndices;
+
+    /**
+     * Size of the smallest ring of particle i (0: No ring particle)
+     */
+    private final int[] smallestRingSizes;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructor">
+    /**
+     * Constructor (the rings are perceived)
+     *
+     * @param aParticleGraph Particle graph
+     * @throws IllegalArgumentException Thrown if aParticleGraph is null
+     */
+    public ParticleRings(ParticleGraph aParticleGraph) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aParticleGraph == null) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        int tmpNumberOfParticles = aParticleGraph.getNumberOfParticles();
+        int[] tmpOffsets = aParticleGraph.getOffsets();
+        int[] tmpNeighbors = aParticleGraph.getNeighbors();
+        // <editor-fold defaultstate="collapsed" desc="2-core: Remove chain particles">
+        boolean[] tmpIsCoreParticle = new boolean[tmpNumberOfParticles];
+        int[] tmpDegrees = new int[tmpNumberOfParticles];
+        int[] tmpQueue = new int[tmpNumberOfParticles];
+        int tmpTail = 0;
+        for (int i = 0; i < tmpNumberOfParticles; i++) {
+            tmpIsCoreParticle[i] = true;
+            for (int j = tmpOffsets[i]; j < tmpOffsets[i + 1]; j++) {
+                if (tmpNeighbors[j] != i) {
+                    tmpDegrees[i]++;
+                }
+            }
+            if (tmpDegrees[i] < 2) {
+                tmpIsCoreParticle[i] = false;
+                tmpQueue[tmpTail++] = i;
+            }
+        }
+        for (int tmpHead = 0; tmpHead < tmpTail; tmpHead++) {
+            int tmpParticleIndex = tmpQueue[tmpHead];
+            for (int j = tmpOffsets[tmpParticleIndex]; j < tmpOffsets[tmpParticleIndex + 1]; j++) {
+                int tmpNeighbor = tmpNeighbors[j];
+                if (tmpIsCoreParticle[tmpNeighbor] && --tmpDegrees[tmpNeighbor] < 2) {
+                    tmpIsCoreParticle[tmpNeighbor] = false;
+                    tmpQueue[tmpTail++] = tmpNeighbor;
+                }
+            }
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Bonds of 2-core">
+        // Bond index of neighbor position (-1: No bond of 2-core)
+        int[] tmpBondIndices = new int[tmpNeighbors.length];
+        Arrays.fill(tmpBondIndices, -1);
+        int tmpNumberOfBonds = 0;
+        int tmpNumberOfCoreParticles = 0;
+        for (int i = 0; i < tmpNumberOfParticles; i++) {
+            if (tmpIsCoreParticle[i]) {
+                tmpNumberOfCoreParticles++;
+                for (int j = tmpOffsets[i]; j < tmpOffsets[i + 1]; j++) {
+                    int tmpNeighbor = tmpNeighbors[j];
+                    if (tmpNeighbor > i && tmpIsCoreParticle[tmpNeighbor]) {
+                        int tmpBondIndex = getBondIndex(tmpOffsets, tmpNeighbors, tmpBondIndices, i, tmpNeighbor);
+                        tmpBondIndices[j] = tmpBondIndex >= 0 ? tmpBondIndex : tmpNumberOfBonds++;
+                    }
+                }
+            }
+        }
+        setReverseBondIndices(tmpOffsets, tmpNeighbors, tmpBondIndices);
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Remove bridges between ring systems">
+        // NOTE: Bridges are in no ring. Without bridges the breadth-first
+        // searches for ring candidates are confined to single ring systems.
+        boolean[] tmpIsBridge = getBridges(tmpOffsets, tmpNeighbors, tmpBondIndices, tmpNumberOfBonds);
+        int[] tmpNewBondIndices = new int[tmpNumberOfBonds];
+        int tmpNumberOfRingBonds = 0;
+        for (int i = 0; i < tmpNumberOfBonds; i++) {
+            tmpNewBondIndices[i] = tmpIsBridge[i] ? -1 : tmpNumberOfRingBonds++;
+        }
+        UnionFind tmpUnionFind = new UnionFind(tmpNumberOfParticles);
+        for (int i = 0; i < tmpNumberOfParticles; i++) {
+            for (int j = tmpOffsets[i]; j < tmpOffsets[i + 1]; j++) {
+                if (tmpBondIndices[j] >= 0) {
+                    tmpBondIndices[j] = tmpNewBondIndices[tmpBondIndices[j]];
+                    if (tmpBondIndices[j] >= 0) {
+                        tmpUnionFind.union(i, tmpNeighbors[j]);
+                    }
+                }
+            }
+        }
+        tmpNumberOfBonds = tmpNumberOfRingBonds;
+        // NOTE: Particles that are not in the 2-core are single sets
+        int tmpNumberOfCoreComponents = tmpUnionFind.getNumberOfSets() - (tmpNumberOfParticles - tmpNumberOfCoreParticles);
+        int tmpNumberOfRings = tmpNumberOfBonds - tmpNumberOfCoreParticles + tmpNumberOfCoreComponents;
+        // </editor-fold>
+        int[] tmpRings = new int[0];
+        int[] tmpRingOffsets = new int[tmpNumberOfRings + 1];
+        int tmpNumberOfAcceptedRings = 0;
+        if (tmpNumberOfRings > 0) {
+            int[] tmpCandidates = new int[4 * tmpNumberOfCoreParticles];
+            int[] tmpCandidateOffsets = new int[tmpNumberOfRings + 1];
+            int[] tmpDistances = new int[tmpNumberOfParticles];
+            int[] tmpParents = new int[tmpNumberOfParticles];
+            int[] tmpBranches = new int[tmpNumberOfParticles];
+            int[] tmpVisitMarks = new int[tmpNumberOfParticles];
+            int tmpMark = 0;
+            int tmpNumberOfWords = (tmpNumberOfBonds + Long.SIZE - 1) / Long.SIZE;
+            long[][] tmpPivotRows = new long[tmpNumberOfBonds][];
+            long[] tmpBitSet = new long[tmpNumberOfWords];
+            tmpRings = new int[4 * tmpNumberOfRings];
+            // NOTE: Candidates are generated in rounds of increasing maximum
+            // ring size so that the breadth-first searches of the first
+            // round only cover the neighborhood of their root (most rings
+            // are small).
+            int tmpMinimumSize = 0;
+            int tmpMaximumSize = INITIAL_MAXIMUM_RING_SIZE;
+            while (true) {
+                // <editor-fold defaultstate="collapsed" desc="Ring candidates">
+                int tmpNumberOfCandidates = 0;
+                int tmpMaximumDistance = tmpMaximumSize / 2;
+                for (int r = 0; r < tmpNumberOfParticles; r++) {
+                    if (!tmpIsCoreParticle[r]) {
+                        continue;
+                    }
+                    // Breadth-first search on the core particles with index
+                    // greater or equal r
+                    tmpMark++;
+                    tmpTail = 0;
+                    tmpVisitMarks[r] = tmpMark;
+                    tmpDistances[r] = 0;
+                    tmpParents[r] = r;
+                    tmpBranches[r] = r;
+                    tmpQueue[tmpTail++] = r;
+                    for (int tmpHead = 0; tmpHead < tmpTail; tmpHead++) {
+                        int tmpParticleIndex = tmpQueue[tmpHead];
+                        if (tmpDistances[tmpParticleIndex] == tmpMaximumDistance) {
+                            break;
+                        }
+                        for (int j = tmpOffsets[tmpParticleIndex]; j < tmpOffsets[tmpParticleIndex + 1]; j++) {
+                            int tmpNeighbor = tmpNeighbors[j];
+                            if (tmpBondIndices[j] >= 0 && tmpNeighbor > r && tmpVisitMarks[tmpNeighbor] != tmpMark) {
+                                tmpVisitMarks[tmpNeighbor] = tmpMark;
+                                tmpDistances[tmpNeighbor] = tmpDistances[tmpParticleIndex] + 1;
+                                tmpParents[tmpNeighbor] = tmpParticleIndex;
+                                tmpBranches[tmpNeighbor] = tmpParticleIndex == r ? tmpNeighbor : tmpBranches[tmpParticleIndex];
+                                tmpQueue[tmpTail++] = tmpNeighbor;
+                            }
+                        }
+                    }
+                    // Non-tree bonds between different branches close a ring
+                    // through r
+                    for (int i = 0; i < tmpTail; i++) {
+                        int tmpFirst = tmpQueue[i];
+                        for (int j = tmpOffsets[tmpFirst]; j < tmpOffsets[tmpFirst + 1]; j++) {
+                            int tmpSecond = tmpNeighbors[j];
+                            if (tmpBondIndices[j] < 0
+                                || tmpSecond < tmpFirst
+                                || tmpVisitMarks[tmpSecond] != tmpMark
+                                || tmpParents[tmpSecond] == tmpFirst
+                                || tmpParents[tmpFirst] == tmpSecond
+                                || tmpBranches[tmpFirst] == tmpBranches[tmpSecond]) {
+                                continue;
+                            }
+                            int tmpSize = tmpDistances[tmpFirst] + tmpDistances[tmpSecond] + 1;
+                            if (tmpSize <= tmpMinimumSize || tmpSize > tmpMaximumSize) {
+                                continue;
+                            }
+                            int tmpStart = tmpCandidateOffsets[tmpNumberOfCandidates];
+                            if (tmpNumberOfCandidates + 1 == tmpCandidateOffsets.length) {
+                                tmpCandidateOffsets = Arrays.copyOf(tmpCandidateOffsets, 2 * tmpCandidateOffsets.length);
+                            }
+                            if (tmpStart + tmpSize > tmpCandidates.length) {
+                                tmpCandidates = Arrays.copyOf(tmpCandidates, Math.max(2 * tmpCandidates.length, tmpStart + tmpSize));
+                            }
+                            // Ring order: r, ..., first, second, ..., child of r
+                            int tmpPosition = tmpStart + tmpDistances[tmpFirst];
+                            for (int k = tmpFirst; k != r; k = tmpParents[k]) {
+                                tmpCandidates[tmpPosition--] = k;
+                            }
+                            tmpCandidates[tmpStart] = r;
+                            tmpPosition = tmpStart + tmpDistances[tmpFirst] + 1;
+                            for (int k = tmpSecond; k != r; k = tmpParents[k]) {
+                                tmpCandidates[tmpPosition++] = k;
+                            }
+                            tmpCandidateOffsets[++tmpNumberOfCandidates] = tmpStart + tmpSize;
+                        }
+                    }
+                }
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="Candidates in ascending order of size (counting sort)">
+                int tmpSizeRange = Math.min(tmpMaximumSize, tmpNumberOfCoreParticles) - tmpMinimumSize;
+                int[] tmpSizeCounts = new int[Math.max(tmpSizeRange, 0) + 2];
+                for (int i = 0; i < tmpNumberOfCandidates; i++) {
+                    tmpSizeCounts[tmpCandidateOffsets[i + 1] - tmpCandidateOffsets[i] - tmpMinimumSize]++;
+                }
+                for (int i = 1; i < tmpSizeCounts.length; i++) {
+                    tmpSizeCounts[i] += tmpSizeCounts[i - 1];
+                }
+                int[] tmpSortedCandidates = new int[tmpNumberOfCandidates];
+                for (int i = 0; i < tmpNumberOfCandidates; i++) {
+                    tmpSortedCandidates[tmpSizeCounts[tmpCandidateOffsets[i + 1] - tmpCandidateOffsets[i] - tmpMinimumSize - 1]++] = i;
+                }
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="Gaussian elimination over the bonds">
+                for (int i = 0; i < tmpNumberOfCandidates && tmpNumberOfAcceptedRings < tmpNumberOfRings; i++) {
+                    int tmpCandidate = tmpSortedCandidates[i];
+                    int tmpStart = tmpCandidateOffsets[tmpCandidate];
+                    int tmpEnd = tmpCandidateOffsets[tmpCandidate + 1];
+                    Arrays.fill(tmpBitSet, 0L);
+                    for (int j = tmpStart; j < tmpEnd; j++) {
+                        int tmpFirst = tmpCandidates[j];
+                        int tmpSecond = tmpCandidates[j + 1 < tmpEnd ? j + 1 : tmpStart];
+                        int tmpBondIndex = getBondIndex(tmpOffsets, tmpNeighbors, tmpBondIndices, tmpFirst, tmpSecond);
+                        tmpBitSet[tmpBondIndex >>> 6] ^= 1L << tmpBondIndex;
+                    }
+                    for (int j = 0; j < tmpNumberOfWords; j++) {
+                        while (tmpBitSet[j] != 0L) {
+                            int tmpPivot = (j << 6) + Long.numberOfTrailingZeros(tmpBitSet[j]);
+                            long[] tmpPivotRow = tmpPivotRows[tmpPivot];
+                            if (tmpPivotRow == null) {
+                                // Independent ring
+                                tmpPivotRows[tmpPivot] = tmpBitSet.clone();
+                                int tmpRingStart = tmpRingOffsets[tmpNumberOfAcceptedRings];
+                                if (tmpRingStart + tmpEnd - tmpStart > tmpRings.length) {
+                                    tmpRings = Arrays.copyOf(tmpRings, Math.max(2 * tmpRings.length, tmpRingStart + tmpEnd - tmpStart));
+                                }
+                                System.arraycopy(tmpCandidates, tmpStart, tmpRings, tmpRingStart, tmpEnd - tmpStart);
+                                tmpRingOffsets[++tmpNumberOfAcceptedRings] = tmpRingStart + tmpEnd - tmpStart;
+                                Arrays.fill(tmpBitSet, 0L);
+                                break;
+                            }
+                            for (int k = j; k < tmpNumberOfWords; k++) {
+                                tmpBitSet[k] ^= tmpPivotRow[k];
+                            }
+                        }
+                    }
+                }
+                // </editor-fold>
+                if (tmpNumberOfAcceptedRings == tmpNumberOfRings || tmpMaximumSize >= tmpNumberOfCoreParticles) {
+                    break;
+                }
+                tmpMinimumSize = tmpMaximumSize;
+                tmpMaximumSize = Math.min(2 * tmpMaximumSize, tmpNumberOfCoreParticles);
+            }
+        }
+        tmpRingOffsets = Arrays.copyOf(tmpRingOffsets, tmpNumberOfAcceptedRings + 1);
+        tmpRings = Arrays.copyOf(tmpRings, tmpRingOffsets[tmpNumberOfAcceptedRings]);
+        this.ringOffsets = tmpRingOffsets;
+        this.ringParticleIndices = tmpRings;
+        // <editor-fold defaultstate="collapsed" desc="Rings of particles">
+        this.particleRingOffsets = new int[tmpNumberOfParticles + 1];
+        for (int tmpParticleIndex : this.ringParticleIndices) {
+            this.particleRingOffsets[tmpParticleIndex + 1]++;
+        }
+        for (int i = 0; i < tmpNumberOfParticles; i++) {
+            this.particleRingOffsets[i + 1] += this.particleRingOffsets[i];
+        }
+        int[] tmpPositions = Arrays.copyOf(this.particleRingOffsets, tmpNumberOfParticles);
+        this.particleRingIndices = new int[this.ringParticleIndices.length];
+        this.smallestRingSizes = new int[tmpNumberOfParticles];
+        for (int i = 0; i < tmpNumberOfAcceptedRings; i++) {
+            int tmpSize = this.ringOffsets[i + 1] - this.ringOffsets[i];
+            for (int j = this.ringOffsets[i]; j < this.ringOffsets[i + 1]; j++) {
+                int tmpParticleIndex = this.ringParticleIndices[j];
+                this.particleRingIndices[tmpPositions[tmpParticleIndex]++] = i;
+                // NOTE: Rings are in ascending order of their size
+                if (this.smallestRingSizes[tmpParticleIndex] == 0) {
+                    this.smallestRingSizes[tmpParticleIndex] = tmpSize;
+                }
+            }
+        }
+        // </editor-fold>
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Particle indices of ring
+     *
+     * @param aRingIndex Ring index
+     * @return New array with particle indices of ring in ring order
+     */
+    public int[] getRing(int aRingIndex) {
+        return Arrays.copyOfRange(this.ringParticleIndices, this.ringOffsets[aRingIndex], this.ringOffsets[aRingIndex + 1]);
+    }
+
+    /**
+     * Number of particles of ring
+     *
+     * @param aRingIndex Ring index
+     * @return Number of particles of ring
+     */
+    public int getRingSize(int aRingIndex) {
+        return this.ringOffsets[aRingIndex + 1] - this.ringOffsets[aRingIndex];
+    }
+
+    /**
+     * Ring indices of particle
+     *
+     * @param aParticleIndex Particle index
+     * @return New array with ring indices of particle in ascending order
+     */
+    public int[] getRingIndices(int aParticleIndex) {
+        return Arrays.copyOfRange(this.particleRingIndices, this.particleRingOffsets[aParticleIndex], this.particleRingOffsets[aParticleIndex + 1]);
+    }
+
+    /**
+     * Number of rings of particle
+     *
+     * @param aParticleIndex Particle index
+     * @return Number of rings of particle
+     */
+    public int getNumberOfRings(int aParticleIndex) {
+        return this.particleRingOffsets[aParticleIndex + 1] - this.particleRingOffsets[aParticleIndex];
+    }
+
+    /**
+     * True: Particle is member of a ring, false: Otherwise
+     *
+     * @param aParticleIndex Particle index
+     * @return True: Particle is member of a ring, false: Otherwise
+     */
+    public boolean isRingParticle(int aParticleIndex) {
+        return this.smallestRingSizes[aParticleIndex] > 0;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Number of rings
+     *
+     * @return Number of rings
+     */
+    public int getNumberOfRings() {
+        return this.ringOffsets.length - 1;
+    }
+
+    /**
+     * Offsets of the particles of ring i in getRingParticleIndices() (length
+     * is number of rings + 1).
+     * NOTE: Returned array is NOT allowed to be changed.
+     *
+     * @return Ring offsets
+     */
+    public int[] getRingOffsets() {
+        return this.ringOffsets;
+    }
+
+    /**
+     * Particle indices of all rings in ring order per ring (see
+     * getRingOffsets()).
+     * NOTE: Returned array is NOT allowed to be changed.
+     *
+     * @return Particle indices of all rings
+     */
+    public int[] getRingParticleIndices() {
+        return this.ringParticleIndices;
+    }
+
+    /**
+     * Size of the smallest ring of every particle (0: No ring particle).
+     * NOTE: Returned array is NOT allowed to be changed.
+     *
+     * @return Sizes of smallest rings
+     */
+    public int[] getSmallestRingSizes() {
+        return this.smallestRingSizes;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private static methods">
+    /**
+     * Sets the bond indices of the neighbor positions with a smaller
+     * neighbor particle index from the reverse neighbor positions
+     *
+     * @param anOffsets Neighbor offsets
+     * @param aNeighbors Neighbors
+     * @param aBondIndices Bond indices of neighbor positions
+     */
+    private static void setReverseBondIndices(int[] anOffsets, int[] aNeighbors, int[] aBondIndices) {
+        for (int i = 0; i < anOffsets.length - 1; i++) {
+            for (int j = anOffsets[i]; j < anOffsets[i + 1]; j++) {
+                int tmpNeighbor = aNeighbors[j];
+                if (tmpNeighbor < i) {
+                    aBondIndices[j] = getBondIndex(anOffsets, aNeighbors, aBondIndices, tmpNeighbor, i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Bridges (bonds whose removal disconnects their particles) with an
+     * iterative depth-first search (Tarjan)
+     *
+     * @param anOffsets Neighbor offsets
+     * @param aNeighbors Neighbors
+     * @param aBondIndices Bond indices of neighbor positions (-1: No bond)
+     * @param aNumberOfBonds Number of bonds
+     * @return Flags: True: Bond i is a bridge, false: Otherwise
+     */
+    private static boolean[] getBridges(int[] anOffsets, int[] aNeighbors, int[] aBondIndices, int aNumberOfBonds) {
+        int tmpNumberOfParticles = anOffsets.length - 1;
+        boolean[] tmpIsBridge = new boolean[aNumberOfBonds];
+        // Discovery time (0: Not visited) and lowest reachable discovery time
+        int[] tmpTimes = new int[tmpNumberOfParticles];
+        int[] tmpLows = new int[tmpNumberOfParticles];
+        int[] tmpParticleStack = new int[tmpNumberOfParticles];
+        int[] tmpPositionStack = new int[tmpNumberOfParticles];
+        int[] tmpParentBondStack = new int[tmpNumberOfParticles];
+        int tmpTime = 0;
+        for (int i = 0; i < tmpNumberOfParticles; i++) {
+            if (tmpTimes[i] != 0) {
+                continue;
+            }
+            int tmpTop = 0;
+            tmpTimes[i] = tmpLows[i] = ++tmpTime;
+            tmpParticleStack[0] = i;
+            tmpPositionStack[0] = anOffsets[i];
+            tmpParentBondStack[0] = -1;
+            while (tmpTop >= 0) {
+                int tmpParticleIndex = tmpParticleStack[tmpTop];
+                int tmpPosition = tmpPositionStack[tmpTop];
+                if (tmpPosition < anOffsets[tmpParticleIndex + 1]) {
+                    tmpPositionStack[tmpTop]++;
+                    int tmpBondIndex = aBondIndices[tmpPosition];
+                    if (tmpBondIndex < 0 || tmpBondIndex == tmpParentBondStack[tmpTop]) {
+                        continue;
+                    }
+                    int tmpNeighbor = aNeighbors[tmpPosition];
+                    if (tmpTimes[tmpNeighbor] == 0) {
+                        tmpTimes[tmpNeighbor] = tmpLows[tmpNeighbor] = ++tmpTime;
+                        tmpTop++;
+                        tmpParticleStack[tmpTop] = tmpNeighbor;
+                        tmpPositionStack[tmpTop] = anOffsets[tmpNeighbor];
+                        tmpParentBondStack[tmpTop] = tmpBondIndex;
+                    } else {
+                        tmpLows[tmpParticleIndex] = Math.min(tmpLows[tmpParticleIndex], tmpTimes[tmpNeighbor]);
+                    }
+                } else {
+                    tmpTop--;
+                    if (tmpTop >= 0) {
+                        int tmpParent = tmpParticleStack[tmpTop];
+                        tmpLows[tmpParent] = Math.min(tmpLows[tmpParent], tmpLows[tmpParticleIndex]);
+                        if (tmpLows[tmpParticleIndex] > tmpTimes[tmpParent]) {
+                            tmpIsBridge[tmpParentBondStack[tmpTop + 1]] = true;
+                        }
+                    }
+                }
+            }
+        }
+        return tmpIsBridge;
+    }
+
+    /**
+     * Bond index between two particles
+     *
+     * @param anOffsets Neighbor offsets
+     * @param aNeighbors Neighbors
+     * @param aBondIndices Bond indices of neighbor positions
+     * @param aFirstParticleIndex Index of first particle
+     * @param aSecondParticleIndex Index of second particle
+     * @return Bond index of first neighbor position of aSecondParticleIndex
+     * in the neighbors of aFirstParticleIndex with bond index or -1 if there
+     * is none
+     */
+    private static int getBondIndex(int[] anOffsets, int[] aNeighbors, int[] aBondIndices, int aFirstParticleIndex, int aSecondParticleIndex) {
+        for (int i = anOffsets[aFirstParticleIndex]; i < anOffsets[aFirstParticleIndex + 1]; i++) {
+            if (aNeighbors[i] == aSecondParticleIndex && aBondIndices[i] >= 0) {
+                return aBondIndices[i];
+            }
+        }
+        return -1;
+    }
+    // </editor-fold>
+
+}
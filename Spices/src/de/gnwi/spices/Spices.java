@@ -19,45 +19,26 @@
  */
 package de.gnwi.spices;
 
-import java.util.ArrayDeque;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.stream.Collectors;
 
 /**
- * Spices
+ * Spices: Mutable wrapper of a compiled Spices object (see CompiledSpices)
+ * with the parameters and the memoized Spices matrix. NOTE: The compiled
+ * Spices object (see getCompiledSpices()) is immutable and may be shared by
+ * several threads. The former protected class variables inputStructure,
+ * partOfSpices, numberOfTotalParticles and outerStructureTokens are
+ * removed: Subclasses use getInputStructure(), getPartsOfSpices(),
+ * getTotalNumberOfParticles() and getStructureTokens() instead.
  *
  * @author Mirco Daniel, Achim Zielesny
  */
 public class Spices {
 
-    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
-    /**
-     * Instance of SpicesUtility class
-     */
-    private final SpicesUtility spicesUtility = new SpicesUtility();
-    // </editor-fold>
-    //
     // <editor-fold defaultstate="collapsed" desc="Private class variables">
     /**
-     * Error message
+     * Compiled Spices object
      */
-    private String errorMessage;
-
-    /**
-     * Monomer names
-     */
-    private String[] monomers;
-
-    /**
-     * Sub input structures.
-     */
-    private String[] parts;
+    private CompiledSpices compiledSpices;
 
     /**
      * This matrix is structured as follows: 1. column: Particle number
@@ -65,87 +46,47 @@ public class Spices {
      * (if no coordinate information is specified: Beginning with 3rd column
      * connected particle numbers are listed), 4. column: Y-coordinate of the
      * particle, 5. column: Z-coordinate of the particle, 6ff. column: Particle
-     * numbers of the particles which are connected to this particle
+     * numbers of the particles which are connected to this particle (created
+     * on request)
      */
-    private String[][] particlePositionsAndConnections;
+    private volatile String[][] particlePositionsAndConnections;
 
     /**
-     * Maximum number of connections (bonds) of a single particle
+     * True: Spices matrix was destroyed (see destroySpicesMatrix()), false:
+     * Otherwise
      */
-    private int maximumNumberOfConnectionsOfSingleParticle;
+    private volatile boolean isSpicesMatrixDestroyed;
 
     /**
-     * Number of disconnected structures.
+     * First particle number in the Spices matrix
      */
-    private int numberOfParts;
-    
-    /**
-     * Outer particle index (zero-based position of particles in this.structureTokens)
-     */
-    private int[] outerParticleIndices;
-    
-    /**
-     * Outer backbone index (zero-based position of particles: value corresponds to index number in input string)
-     */
-    private int[] outerBackboneIndices;
-    
-    /**
-     * Maximum outer backbone index
-     */
-    private int maxOuterBackboneIndex;
-    
-    /**
-     * Valence numbers of a particle
-     */
-    private int[] numberOfConnects;
+    private int startIndex;
 
     /**
-     * True: The input structure is valid, false: Otherwise
+     * Cartesian coordinates of first particles for the Spices matrix
      */
-    private boolean isValid;
+    private PointInSpace[] firstParticlePositions;
 
     /**
-     * True: The input structure is a monomer, false: Otherwise. False is
-     * default value.
+     * Cartesian coordinates of last particles for the Spices matrix
      */
-    private boolean isMonomer;
+    private PointInSpace[] lastParticlePositions;
 
     /**
-     * Where there is backbone particles
-     */
-    private boolean hasBackboneAttribute;
-    
-    /**
-     * Whether there is disconnected structure in input structure
+     * Bond length for the Spices matrix
      */
-    private boolean hasParts;
+    private double bondLength;
 
     /**
-     * HashMap that maps particles of molecule to their frequencies
+     * True: Spices matrix is created in parallel, false: Otherwise
      */
-    private HashMap<String, ParticleFrequency> particleToFrequencyMap;
-    // </editor-fold>
-    //
-    // <editor-fold defaultstate="collapsed" desc="Protected class variables">
-    /**
-     * Input structure
-     */
-    protected String inputStructure;
-
-    /**
-     * Part of spices
-     */
-    protected SpicesInner[] partOfSpices;
-
-    /**
-     * Number of total particles
-     */
-    protected int numberOfTotalParticles;
+    private boolean isParallel;
 
     /**
-     * Structure tokens
+     * Arena with the work buffers of the compilation in reuse mode (null:
+     * No reuse mode, see setReuseMode())
      */
-    protected String[] outerStructureTokens;
+    private SpicesArena arena;
     // </editor-fold>
     //
     // <editor-fold defaultstate="collapsed" desc="Constructors">
@@ -156,7 +97,7 @@ public class Spices {
      * or to contain monomer shortcuts)
      */
     public Spices(String anInputStructure) {
-        this.initialize(anInputStructure, false, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY));
+        this.initialize(anInputStructure, false, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
     }
 
     /**
@@ -167,7 +108,7 @@ public class Spices {
      * @param anAvailableParticles Available particles
      */
     public Spices(String anInputStructure, HashMap<String, String> anAvailableParticles) {
-        this.initialize(anInputStructure, false, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, anAvailableParticles);
+        this.initialize(anInputStructure, false, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, anAvailableParticles, false);
     }
 
     /**
@@ -177,7 +118,7 @@ public class Spices {
      * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
      */
     public Spices(String anInputStructure, boolean anIsMonomer) {
-        this.initialize(anInputStructure, anIsMonomer, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY));
+        this.initialize(anInputStructure, anIsMonomer, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
     }
 
     /**
@@ -188,7 +129,7 @@ public class Spices {
      * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
      */
     public Spices(String anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer) {
-        this.initialize(anInputStructure, anIsMonomer, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, anAvailableParticles);
+        this.initialize(anInputStructure, anIsMonomer, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, anAvailableParticles, false);
     }
 
     /**
@@ -200,7 +141,7 @@ public class Spices {
      * 1)
      */
     public Spices(String anInputStructure, boolean anIsMonomer, int aStartIndex) {
-        this.initialize(anInputStructure, anIsMonomer, aStartIndex, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY));
+        this.initialize(anInputStructure, anIsMonomer, aStartIndex, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
     }
 
     /**
@@ -213,7 +154,7 @@ public class Spices {
      * 1)
      */
     public Spices(String anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer, int aStartIndex) {
-        this.initialize(anInputStructure, anIsMonomer, aStartIndex, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, anAvailableParticles);
+        this.initialize(anInputStructure, anIsMonomer, aStartIndex, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, anAvailableParticles, false);
     }
 
     /**
@@ -231,7 +172,7 @@ public class Spices {
      */
     public Spices(String anInputStructure, boolean anIsMonomer, int aStartIndex, PointInSpace aFirstParticle, PointInSpace aLastParticle, double aBondLength) {
         this.initialize(anInputStructure, anIsMonomer, aStartIndex, new PointInSpace[]{aFirstParticle}, new PointInSpace[]{aLastParticle}, aBondLength,
-                new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY));
+                new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
     }
 
     /**
@@ -251,7 +192,24 @@ public class Spices {
     public Spices(String anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer, int aStartIndex, PointInSpace aFirstParticle,
             PointInSpace aLastParticle, double aBondLength) {
         this.initialize(anInputStructure, anIsMonomer, aStartIndex, new PointInSpace[]{aFirstParticle}, new PointInSpace[]{aLastParticle}, aBondLength,
-                anAvailableParticles);
+                anAvailableParticles, false);
+    }
+
+    /**
+     * * Sets all properties of a Spices object. The distinct parts of a
+     * multi-part structure may be compiled in parallel (fork-join common
+     * pool): The result is identical to the sequential construction.
+     *
+     * @param anInputStructure An input structure (may be a monomer)
+     * @param anAvailableParticles Hashmap of available particles
+     * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
+     * @param aStartIndex First particle number in the Spices matrix (default:
+     * 1)
+     * @param anIsParallel True: Distinct parts are compiled in parallel,
+     * false: Otherwise (default: false)
+     */
+    public Spices(String anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer, int aStartIndex, boolean anIsParallel) {
+        this.initialize(anInputStructure, anIsMonomer, aStartIndex, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, anAvailableParticles, anIsParallel);
     }
 
     /**
@@ -267,7 +225,7 @@ public class Spices {
      * particles
      */
     public Spices(String anInputStructure, int aStartIndex, PointInSpace[] aFirstParticle, PointInSpace[] aLastParticle, double aBondLength) {
-        this.initialize(anInputStructure, false, aStartIndex, aFirstParticle, aLastParticle, aBondLength, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY));
+        this.initialize(anInputStructure, false, aStartIndex, aFirstParticle, aLastParticle, aBondLength, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
     }
 
     /**
@@ -285,7 +243,7 @@ public class Spices {
      */
     public Spices(String anInputStructure, boolean anIsMonomer, int aStartIndex, PointInSpace[] aFirstParticle, PointInSpace[] aLastParticle,
             double aBondLength) {
-        this.initialize(anInputStructure, anIsMonomer, aStartIndex, aFirstParticle, aLastParticle, aBondLength, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY));
+        this.initialize(anInputStructure, anIsMonomer, aStartIndex, aFirstParticle, aLastParticle, aBondLength, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
     }
 
     /**
@@ -304,7 +262,67 @@ public class Spices {
      */
     public Spices(String anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer, int aStartIndex, PointInSpace[] aFirstParticle,
             PointInSpace[] aLastParticle, double aBondLength) {
-        this.initialize(anInputStructure, anIsMonomer, aStartIndex, aFirstParticle, aLastParticle, aBondLength, anAvailableParticles);
+        this.initialize(anInputStructure, anIsMonomer, aStartIndex, aFirstParticle, aLastParticle, aBondLength, anAvailableParticles, false);
+    }
+
+    /**
+     * * Sets all properties of a Spices object. NOTE: anInputStructure may be
+     * a CharBuffer or a SpicesAsciiSequence (view of an ASCII byte[] or
+     * ByteBuffer slice) so that no String copy of the raw input is necessary.
+     *
+     * @param anInputStructure An input structure (NOT allowed to be a monomer
+     * or to contain monomer shortcuts)
+     */
+    public Spices(CharSequence anInputStructure) {
+        this.initialize(anInputStructure, false, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
+    }
+
+    /**
+     * * Sets all properties of a Spices object. NOTE: anInputStructure may be
+     * a CharBuffer or a SpicesAsciiSequence (view of an ASCII byte[] or
+     * ByteBuffer slice) so that no String copy of the raw input is necessary.
+     *
+     * @param anInputStructure An input structure (may be a monomer)
+     * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
+     */
+    public Spices(CharSequence anInputStructure, boolean anIsMonomer) {
+        this.initialize(anInputStructure, anIsMonomer, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
+    }
+
+    /**
+     * * Sets all properties of a Spices object. NOTE: anInputStructure may be
+     * a CharBuffer or a SpicesAsciiSequence (view of an ASCII byte[] or
+     * ByteBuffer slice) so that no String copy of the raw input is necessary.
+     *
+     * @param anInputStructure An input structure (may be a monomer)
+     * @param anAvailableParticles Hashmap of available particles
+     * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
+     */
+    public Spices(CharSequence anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer) {
+        this.initialize(anInputStructure, anIsMonomer, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, anAvailableParticles, false);
+    }
+
+    /**
+     * * Sets all properties of a Spices object with a compiled Spices object
+     * (see CompiledSpices) that may be shared with other Spices objects.
+     *
+     * @param aCompiledSpices Compiled Spices object
+     * @param aStartIndex First particle number in the Spices matrix (default:
+     * 1)
+     * @param aFirstParticle Cartesian coordinates of first particles
+     * @param aLastParticle Cartesian coordinates of last particles
+     * @param aBondLength User defined bond length for all connections between
+     * particles
+     * @throws IllegalArgumentException Thrown if argument is illegal
+     */
+    public Spices(CompiledSpices aCompiledSpices, int aStartIndex, PointInSpace[] aFirstParticle, PointInSpace[] aLastParticle, double aBondLength)
+            throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aCompiledSpices == null) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        this.setCompiledSpices(aCompiledSpices, aStartIndex, aFirstParticle, aLastParticle, aBondLength, false);
     }
 
     // </editor-fold>
@@ -314,10 +332,105 @@ public class Spices {
      * Destructor method for spicesMatrix
      */
     public void destroySpicesMatrix() {
+        this.isSpicesMatrixDestroyed = true;
         this.particlePositionsAndConnections = null;
     }
     // </editor-fold>
     //
+    // <editor-fold defaultstate="collapsed" desc="Public static methods">
+    /**
+     * Validates an input structure without creating a Spices object, i.e.
+     * without compiling tokens, neighbor lists, adjacency arrays or the
+     * Spices matrix.
+     *
+     * @param anInputStructure An input structure (NOT allowed to be a monomer
+     * or to contain monomer shortcuts)
+     * @return Validation result with the error key and position (as for
+     * isValid() and getErrorMessage() of a Spices object) and the total
+     * number of particles
+     */
+    public static SpicesValidationResult validate(CharSequence anInputStructure) {
+        return Spices.validate(anInputStructure, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
+    }
+
+    /**
+     * Validates an input structure without creating a Spices object, i.e.
+     * without compiling tokens, neighbor lists, adjacency arrays or the
+     * Spices matrix.
+     *
+     * @param anInputStructure An input structure (NOT allowed to be a monomer
+     * or to contain monomer shortcuts)
+     * @param anAvailableParticles Available particles
+     * @return Validation result with the error key and position (as for
+     * isValid() and getErrorMessage() of a Spices object) and the total
+     * number of particles
+     */
+    public static SpicesValidationResult validate(CharSequence anInputStructure, HashMap<String, String> anAvailableParticles) {
+        return Spices.validate(anInputStructure, anAvailableParticles, false);
+    }
+
+    /**
+     * Validates an input structure without creating a Spices object, i.e.
+     * without compiling tokens, neighbor lists, adjacency arrays or the
+     * Spices matrix.
+     *
+     * @param anInputStructure An input structure (may be a monomer)
+     * @param anAvailableParticles Available particles
+     * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
+     * @return Validation result with the error key and position (as for
+     * isValid() and getErrorMessage() of a Spices object) and the total
+     * number of particles
+     * @throws NumberFormatException Thrown if a frequency exceeds the
+     * integer range (as for a Spices object)
+     */
+    public static SpicesValidationResult validate(CharSequence anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer)
+            throws NumberFormatException {
+        SpicesValidator tmpValidator = new SpicesValidator();
+        if (!tmpValidator.checkWhiteSpaces(anInputStructure)) {
+            return new SpicesValidationResult(tmpValidator.getErrorKey(), tmpValidator.getErrorPosition(), 0L);
+        }
+        String tmpStructure = new SpicesUtility().eliminateWhiteSpaces(anInputStructure);
+        if (!tmpValidator.checkOuterStructure(tmpStructure)) {
+            return new SpicesValidationResult(tmpValidator.getErrorKey(),
+                    Spices.getInputStructurePosition(anInputStructure, tmpStructure, tmpValidator.getErrorPosition()), 0L);
+        }
+        if (tmpStructure.indexOf('<') == -1) {
+            if (!tmpValidator.checkPartStructure(tmpStructure, anIsMonomer, anAvailableParticles)) {
+                return new SpicesValidationResult(tmpValidator.getErrorKey(),
+                        Spices.getInputStructurePosition(anInputStructure, tmpStructure, tmpValidator.getErrorPosition()), 0L);
+            }
+            return new SpicesValidationResult(null, -1, tmpValidator.getNumberOfParticles());
+        }
+        // NOTE: All part frequencies are parsed before the parts are checked
+        // and the parts are checked in the same order as by partStructures()
+        int tmpEndPosition = -1;
+        int tmpStartPosition;
+        while ((tmpStartPosition = tmpStructure.indexOf('<', tmpEndPosition + 1)) > -1) {
+            if (tmpStartPosition - tmpEndPosition > 1) {
+                Integer.parseInt(tmpStructure.substring(tmpEndPosition + 1, tmpStartPosition));
+            }
+            tmpEndPosition = tmpStructure.indexOf('>', tmpStartPosition);
+        }
+        long tmpNumberOfParticles = 0L;
+        tmpEndPosition = -1;
+        while ((tmpStartPosition = tmpStructure.indexOf('<', tmpEndPosition + 1)) > -1) {
+            int tmpPartFrequency = 1;
+            if (tmpStartPosition - tmpEndPosition > 1) {
+                tmpPartFrequency = Integer.parseInt(tmpStructure.substring(tmpEndPosition + 1, tmpStartPosition));
+            }
+            tmpEndPosition = tmpStructure.indexOf('>', tmpStartPosition);
+            if (tmpPartFrequency > 0) {
+                if (!tmpValidator.checkPartStructure(tmpStructure.substring(tmpStartPosition + 1, tmpEndPosition), anIsMonomer, anAvailableParticles)) {
+                    return new SpicesValidationResult(tmpValidator.getErrorKey(),
+                            Spices.getInputStructurePosition(anInputStructure, tmpStructure, tmpStartPosition + 1 + tmpValidator.getErrorPosition()), 0L);
+                }
+                tmpNumberOfParticles += tmpPartFrequency * tmpValidator.getNumberOfParticles();
+            }
+        }
+        return new SpicesValidationResult(null, -1, tmpNumberOfParticles);
+    }
+    // </editor-fold>
+    //
     // <editor-fold defaultstate="collapsed" desc="Public properties">
     /**
      * Sets the input structure and reinitializes all properties
@@ -326,8 +439,7 @@ public class Spices {
      * or to contain monomer shortcuts)
      */
     public void setInputStructure(String anInputStructure) {
-        this.resetProperty();
-        this.initialize(anInputStructure, false, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY));
+        this.initialize(anInputStructure, false, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
     }
 
     /**
@@ -337,8 +449,7 @@ public class Spices {
      * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
      */
     public void setInputStructure(String anInputStructure, boolean anIsMonomer) {
-        this.resetProperty();
-        this.initialize(anInputStructure, anIsMonomer, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY));
+        this.initialize(anInputStructure, anIsMonomer, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
     }
 
     /**
@@ -349,8 +460,79 @@ public class Spices {
      * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
      */
     public void setInputStructure(String anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer) {
-        this.resetProperty();
-        this.initialize(anInputStructure, anIsMonomer, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, anAvailableParticles);
+        this.initialize(anInputStructure, anIsMonomer, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, anAvailableParticles, false);
+    }
+
+    /**
+     * Sets the input structure and reinitializes all properties. NOTE:
+     * anInputStructure may be a CharBuffer or a SpicesAsciiSequence (view of
+     * an ASCII byte[] or ByteBuffer slice).
+     *
+     * @param anInputStructure An input structure (NOT allowed to be a monomer
+     * or to contain monomer shortcuts)
+     */
+    public void setInputStructure(CharSequence anInputStructure) {
+        this.initialize(anInputStructure, false, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
+    }
+
+    /**
+     * Sets the input structure and reinitializes all properties. NOTE:
+     * anInputStructure may be a CharBuffer or a SpicesAsciiSequence (view of
+     * an ASCII byte[] or ByteBuffer slice).
+     *
+     * @param anInputStructure An input structure (may be a monomer)
+     * @param anAvailableParticles Hashmap of available particles
+     * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
+     */
+    public void setInputStructure(CharSequence anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer) {
+        this.initialize(anInputStructure, anIsMonomer, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, anAvailableParticles, false);
+    }
+
+    /**
+     * Sets the input structure and reinitializes all properties with the
+     * work buffers of a caller-provided arena (see SpicesArena): The arena
+     * is reset for the input structure so that the repeated setting of
+     * (small) input structures does not allocate work buffers.
+     *
+     * @param anInputStructure An input structure (may be a monomer)
+     * @param anAvailableParticles Hashmap of available particles
+     * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
+     * @param anArena Arena with the work buffers (NOT allowed to be used by
+     * several threads at the same time)
+     * @throws IllegalArgumentException Thrown if anArena is null
+     */
+    public void setInputStructure(CharSequence anInputStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer, SpicesArena anArena)
+            throws IllegalArgumentException {
+        this.setCompiledSpices(CompiledSpices.compile(anInputStructure, anAvailableParticles, anIsMonomer, anArena), 1, new PointInSpace[]{null},
+                new PointInSpace[]{null}, 0.0, false);
+    }
+
+    /**
+     * Sets the reuse mode: In reuse mode this Spices object keeps an arena
+     * with the work buffers of the compilation (see SpicesArena) between
+     * calls of setInputStructure() and setCoordinates(). NOTE: A Spices
+     * object in reuse mode is NOT allowed to be reinitialized by several
+     * threads at the same time.
+     *
+     * @param anIsReuseMode True: Reuse mode, false: Otherwise (default:
+     * false)
+     */
+    public void setReuseMode(boolean anIsReuseMode) {
+        if (!anIsReuseMode) {
+            this.arena = null;
+        } else if (this.arena == null) {
+            this.arena = new SpicesArena();
+        }
+    }
+
+    /**
+     * Returns true if this Spices object is in reuse mode (see
+     * setReuseMode()), false: Otherwise
+     *
+     * @return True: Reuse mode, false: Otherwise
+     */
+    public boolean isReuseMode() {
+        return this.arena != null;
     }
 
     /**
@@ -362,19 +544,30 @@ public class Spices {
      * @param aBondLength Bond length
      */
     public void setCoordinates(int aStartIndex, PointInSpace[] aFirstParticlePositions, PointInSpace[] aLastParticlePositions, double aBondLength) {
-        if (this.inputStructure == null || this.inputStructure.isEmpty()) {
+        String tmpInputStructure = this.compiledSpices.getInputStructure();
+        if (tmpInputStructure == null || tmpInputStructure.isEmpty()) {
             return;
         }
-        this.initialize(this.inputStructure, false, aStartIndex, aFirstParticlePositions, aLastParticlePositions, aBondLength, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY));
+        this.initialize(tmpInputStructure, false, aStartIndex, aFirstParticlePositions, aLastParticlePositions, aBondLength, new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY), false);
     }
-    
+
+    /**
+     * Returns the compiled Spices object (immutable and thread-safe, see
+     * CompiledSpices)
+     *
+     * @return Compiled Spices object
+     */
+    public CompiledSpices getCompiledSpices() {
+        return this.compiledSpices;
+    }
+
     /**
      * Returns the input structure
      *
      * @return Input structure
      */
     public String getInputStructure() {
-        return this.inputStructure;
+        return this.compiledSpices.getInputStructure();
     }
 
     /**
@@ -383,7 +576,7 @@ public class Spices {
      * @return Structure tokens
      */
     public String[] getStructureTokens() {
-        return this.outerStructureTokens;
+        return this.compiledSpices.getStructureTokens();
     }
 
     /**
@@ -392,7 +585,7 @@ public class Spices {
      * @return Error message
      */
     public String getErrorMessage() {
-        return this.errorMessage;
+        return this.compiledSpices.getErrorMessage();
     }
 
     /**
@@ -401,7 +594,7 @@ public class Spices {
      * @return Particle indices
      */
     public int[] getParticleIndices() {
-        return this.outerParticleIndices;
+        return this.compiledSpices.getParticleIndices();
     }
 
     /**
@@ -410,7 +603,7 @@ public class Spices {
      * @return Backbone indices (may be null)
      */
     public int[] getBackboneIndices() {
-        return this.outerBackboneIndices;
+        return this.compiledSpices.getBackboneIndices();
     }
 
     /**
@@ -419,17 +612,7 @@ public class Spices {
      * @return Maximum backbone index or -1 if no backbone attribute is defined
      */
     public int getMaxBackboneIndex() {
-        if (this.maxOuterBackboneIndex == -1) {
-            if (this.outerBackboneIndices != null && this.outerBackboneIndices.length > 0) {
-                this.maxOuterBackboneIndex = this.outerBackboneIndices[0];
-                for (int i = 1; i < this.outerBackboneIndices.length; i++) {
-                    if (this.outerBackboneIndices[i] > this.maxOuterBackboneIndex) {
-                        this.maxOuterBackboneIndex = this.outerBackboneIndices[i];
-                    }
-                }
-            }
-        }
-        return this.maxOuterBackboneIndex;
+        return this.compiledSpices.getMaxBackboneIndex();
     }
     
     /**
@@ -438,7 +621,7 @@ public class Spices {
      * @return Monomers
      */
     public String[] getMonomers() {
-        return this.monomers;
+        return this.compiledSpices.getMonomers();
     }
 
     /**
@@ -460,7 +643,13 @@ public class Spices {
      * @return Spices particle positions and connections
      */
     public String[][] getParticlePositionsAndConnections() {
-        return this.particlePositionsAndConnections;
+        String[][] tmpParticlePositionsAndConnections = this.particlePositionsAndConnections;
+        if (tmpParticlePositionsAndConnections == null && !this.isSpicesMatrixDestroyed) {
+            tmpParticlePositionsAndConnections = this.compiledSpices.getParticlePositionsAndConnections(this.startIndex, this.firstParticlePositions,
+                    this.lastParticlePositions, this.bondLength, this.isParallel);
+            this.particlePositionsAndConnections = tmpParticlePositionsAndConnections;
+        }
+        return tmpParticlePositionsAndConnections;
     }
 
     /**
@@ -469,7 +658,7 @@ public class Spices {
      * @return Maximum number of connections (bonds) of a single particle
      */
     public int getMaximumNumberOfConnectionsOfSingleParticle() {
-        return this.maximumNumberOfConnectionsOfSingleParticle;
+        return this.compiledSpices.getMaximumNumberOfConnectionsOfSingleParticle();
     }
 
     /**
@@ -479,21 +668,148 @@ public class Spices {
      * is returned, otherwise null is returned.
      */
     public SpicesInner[] getPartsOfSpices() {
-        return this.partOfSpices;
+        return this.compiledSpices.getPartsOfSpices();
+    }
+
+    /**
+     * Part of Spices (the array of all parts is NOT created, see
+     * getPartsOfSpices()). NOTE: Molecular structure MUST be valid (NO
+     * checks are performed).
+     *
+     * @param aPartIndex Index of part
+     * @return Part
+     */
+    public SpicesInner getPartOfSpices(int aPartIndex) {
+        return this.compiledSpices.getPartOfSpices(aPartIndex);
+    }
+
+    /**
+     * Number of parts
+     *
+     * @return Number of parts
+     */
+    public int getNumberOfParts() {
+        return this.compiledSpices.getNumberOfParts();
+    }
+
+    /**
+     * Number of part blocks. A part block consists of consecutive equal
+     * parts (e.g. of "100<A-B-C>") that share a single compiled part. NOTE:
+     * Molecular structure MUST be valid (NO checks are performed).
+     *
+     * @return Number of part blocks
+     */
+    public int getNumberOfPartBlocks() {
+        return this.compiledSpices.getNumberOfPartBlocks();
+    }
+
+    /**
+     * Compiled part of part block. NOTE: Molecular structure MUST be valid
+     * (NO checks are performed).
+     *
+     * @param aPartBlockIndex Index of part block
+     * @return Compiled part of part block
+     */
+    public SpicesInner getPartBlock(int aPartBlockIndex) {
+        return this.compiledSpices.getPartBlock(aPartBlockIndex);
+    }
+
+    /**
+     * Multiplicity of part block (number of consecutive equal parts). NOTE:
+     * Molecular structure MUST be valid (NO checks are performed).
+     *
+     * @param aPartBlockIndex Index of part block
+     * @return Multiplicity of part block
+     */
+    public int getPartBlockMultiplicity(int aPartBlockIndex) {
+        return this.compiledSpices.getPartBlockMultiplicity(aPartBlockIndex);
+    }
+
+    /**
+     * Particle offsets of part blocks: Particles of part block i are
+     * particles getPartBlockParticleOffsets()[i] to
+     * getPartBlockParticleOffsets()[i + 1] - 1. NOTE: Molecular structure
+     * MUST be valid (NO checks are performed). The returned array is a
+     * copy.
+     *
+     * @return Particle offsets of part blocks (last entry: Total number of
+     * particles)
+     */
+    public int[] getPartBlockParticleOffsets() {
+        return this.compiledSpices.getPartBlockParticleOffsets();
+    }
+
+    /**
+     * Particle graph of part. NOTE: Molecular structure MUST be valid (NO
+     * checks are performed).
+     *
+     * @param aPartIndex Index of part
+     * @return Particle graph of part with part-local particle indices
+     */
+    public ParticleGraph getParticleGraph(int aPartIndex) {
+        return this.compiledSpices.getParticleGraph(aPartIndex);
+    }
+
+    /**
+     * Smallest set of smallest rings of part (created on request and cached
+     * by the part). NOTE: Molecular structure MUST be valid (NO checks are
+     * performed).
+     *
+     * @param aPartIndex Index of part
+     * @return Smallest set of smallest rings of part with part-local
+     * particle indices
+     */
+    public ParticleRings getParticleRings(int aPartIndex) {
+        return this.compiledSpices.getParticleRings(aPartIndex);
+    }
+
+    /**
+     * Connected components of all parts with consecutive particle indices of
+     * the parts (every part of a valid structure is one component). NOTE:
+     * Molecular structure MUST be valid (NO checks are performed).
+     *
+     * @return Connected components of all parts
+     */
+    public ParticleComponents getParticleComponents() {
+        return this.compiledSpices.getParticleComponents();
+    }
+
+    /**
+     * Map between global particle indices and (part index, local particle
+     * index) pairs of all parts (see ParticleIndexMap). NOTE: Molecular
+     * structure MUST be valid (NO checks are performed).
+     *
+     * @return Map between global particle indices and (part index, local
+     * particle index) pairs
+     */
+    public ParticleIndexMap getParticleIndexMap() {
+        return this.compiledSpices.getParticleIndexMap();
+    }
+
+    /**
+     * Paths from START particle to END particle of all parts in one batch
+     * (the work arrays of the breadth-first search are shared by all parts).
+     * NOTE: Molecular structure MUST be valid (NO checks are performed).
+     *
+     * @return Paths from START particle to END particle of all parts (null
+     * for a part without START/END particles). NOTE: The path of a part
+     * block is searched once and copied for the further parts of the part
+     * block.
+     */
+    public int[][] getPathsStartToEnd() {
+        return this.compiledSpices.getPathsStartToEnd();
     }
 
     /**
      * HashMap that maps particles of molecule to their frequencies. NOTE:
      * Molecular structure MUST be valid (NO checks are performed) and is NOT
-     * allowed to contain monomer shortcuts.
+     * allowed to contain monomer shortcuts. The returned HashMap (and its
+     * particle frequencies) is a copy.
      *
      * @return HashMap that maps particles of molecule to their frequencies
      */
     public HashMap<String, ParticleFrequency> getParticleToFrequencyMap() {
-        if (this.particleToFrequencyMap == null || this.particleToFrequencyMap.isEmpty()) {
-            this.determineParticleFequenciesOfMolecularStructure();
-        }
-        return this.particleToFrequencyMap;
+        return this.compiledSpices.getParticleToFrequencyMap();
     }
 
     /**
@@ -502,7 +818,7 @@ public class Spices {
      * @return Number of different particles
      */
     public int getNumberOfDifferentParticles() {
-        return this.getParticleToFrequencyMap().size();
+        return this.compiledSpices.getNumberOfDifferentParticles();
     }
 
     /**
@@ -512,12 +828,7 @@ public class Spices {
      * @return Frequency of specified particle in molecule
      */
     public int getFrequencyOfSpecifiedParticle(String aParticle) {
-        // <editor-fold defaultstate="collapsed" desc="Checks">
-        if (aParticle == null || !this.getParticleToFrequencyMap().containsKey(aParticle)) {
-            return 0;
-        }
-        // </editor-fold>
-        return this.getParticleToFrequencyMap().get(aParticle).getFrequency();
+        return this.compiledSpices.getFrequencyOfSpecifiedParticle(aParticle);
     }
 
     /**
@@ -526,7 +837,7 @@ public class Spices {
      * @return Array of particle frequencies of molecule
      */
     public ParticleFrequency[] getParticleFrequencies() {
-        return this.getParticleToFrequencyMap().values().toArray(new ParticleFrequency[0]);
+        return this.compiledSpices.getParticleFrequencies();
     }
 
     /**
@@ -535,9 +846,7 @@ public class Spices {
      * @return Array of sorted particle frequencies of molecule
      */
     public ParticleFrequency[] getSortedParticleFrequencies() {
-        ParticleFrequency[] tmpParticleFrequencies = this.getParticleToFrequencyMap().values().toArray(new ParticleFrequency[0]);
-        Arrays.sort(tmpParticleFrequencies);
-        return tmpParticleFrequencies;
+        return this.compiledSpices.getSortedParticleFrequencies();
     }
 
     /**
@@ -546,7 +855,7 @@ public class Spices {
      * @return True: yes, false: no
      */
     public boolean hasBackboneParticle() {
-        return this.hasBackboneAttribute;
+        return this.compiledSpices.hasBackboneParticle();
     }
     
     /**
@@ -556,12 +865,7 @@ public class Spices {
      * @return True: Molecule contains particle, false: Otherwise
      */
     public boolean hasParticle(String aParticle) {
-        // <editor-fold defaultstate="collapsed" desc="Checks">
-        if (aParticle == null) {
-            return false;
-        }
-        // </editor-fold>
-        return this.getParticleToFrequencyMap().containsKey(aParticle);
+        return this.compiledSpices.hasParticle(aParticle);
     }
 
     /**
@@ -571,7 +875,7 @@ public class Spices {
      * 1.
      */
     public boolean hasMultipleParts() {
-        return (this.parts.length > 1);
+        return this.compiledSpices.hasMultipleParts();
     }
     
     /**
@@ -580,7 +884,18 @@ public class Spices {
      * @return Array with particles of molecule
      */
     public String[] getParticles() {
-        return this.getParticleToFrequencyMap().keySet().toArray(new String[0]);
+        return this.compiledSpices.getParticles();
+    }
+
+    /**
+     * Returns particle ids of all particles of molecule in particle order
+     * (see SpicesParticleTable)
+     *
+     * @return Particle ids of all particles of molecule or null if molecule
+     * is invalid
+     */
+    public int[] getParticleIds() {
+        return this.compiledSpices.getParticleIds();
     }
 
     /**
@@ -589,7 +904,7 @@ public class Spices {
      * @return Total number of particles of molecule
      */
     public int getTotalNumberOfParticles() {
-        return this.numberOfTotalParticles;
+        return this.compiledSpices.getTotalNumberOfParticles();
     }
     // </editor-fold>
     //
@@ -606,52 +921,7 @@ public class Spices {
      * up to index (aSegmentLength - 1)
      */
     public String[][] getNextNeighbors(int aSegmentLength, boolean aHasDoublet) {
-        // <editor-fold defaultstate="collapsed" desc="Checks">
-        if (this.outerStructureTokens == null || aSegmentLength < 1) {
-            return null;
-        }
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Initialisation">
-        String[][] resultString = new String[aSegmentLength][];
-        ArrayDeque<String> tmpInterimResult = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        final ArrayDeque<int[]> tmpArray = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        int tmpPartsLength;
-        int tmpSegmentLength = aSegmentLength;
-        boolean tmpHasNeighbors = false;
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Determine neighbor">
-        tmpPartsLength = this.numberOfParts;
-        final LinkedList<int[]>[] tmpLinkList = new LinkedList[tmpPartsLength];
-        for (int i = 0; i < tmpPartsLength; i++) {
-            tmpLinkList[i] = this.partOfSpices[i].getNextNeighborIndex(tmpSegmentLength, this.partOfSpices[i]);
-        }
-        for (int i = 0; i < tmpSegmentLength; i++) {
-            for (int j = 0; j < tmpPartsLength; j++) {
-                if (!tmpHasNeighbors && tmpLinkList[j].size() > 0) {
-                    tmpHasNeighbors = true;
-                }
-                final int tmpAllowedLinkLength = i + 1;
-                tmpArray.addAll(tmpLinkList[j].stream()
-                        .filter(currentLink -> currentLink.length == tmpAllowedLinkLength)
-                        .collect(Collectors.toList()));
-                if (!tmpArray.isEmpty()) {
-                    tmpInterimResult.addAll((Arrays.asList(this.getParticleList(tmpArray, j, aHasDoublet))));
-                    tmpArray.clear();
-                }
-            }
-            if (tmpInterimResult.isEmpty()) {
-                resultString[i] = null;
-            } else {
-                resultString[i] = tmpInterimResult.toArray(new String[0]);
-            }
-            tmpInterimResult.clear();
-        }
-        if (!tmpHasNeighbors) {
-            return null;
-        }
-        return resultString;
-        // </editor-fold>
+        return this.compiledSpices.getNextNeighbors(aSegmentLength, aHasDoublet);
     }
     // </editor-fold>
     // <editor-fold defaultstate="collapsed" desc="- Particle coordinates related methods">
@@ -668,8 +938,7 @@ public class Spices {
      * aLastParticleCoordinate null is returned.
      */
     public PointInSpace[][] getParticleCoordinates(PointInSpace aFirstParticleCoordinate, PointInSpace aLastParticleCoordinate, double aBondLength) {
-        return this.getParticleCoordinates(new PointInSpace[]{aFirstParticleCoordinate},
-                                            new PointInSpace[]{aLastParticleCoordinate}, aBondLength);
+        return this.compiledSpices.getParticleCoordinates(aFirstParticleCoordinate, aLastParticleCoordinate, aBondLength);
     }
     
     /**
@@ -684,43 +953,30 @@ public class Spices {
      */
     public PointInSpace[][] getParticleCoordinates(PointInSpace[] aFirstParticleCoordinates,
             PointInSpace[] aLastParticleCoordinates, double aBondLength) {
-        // <editor-fold defaultstate="collapsed" desc="Checks">
-        if (this.getInputStructure() == null || this.getInputStructure().isEmpty()) {
-            return null;
-        }
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Initialize variables">
-        int tmpPartsCount;
-        int tmpPartLength;
-        int tmpTargetIndexPosition = 0;
-        PointInSpace[][] resultCoordinates = new PointInSpace[aFirstParticleCoordinates.length][];
-        tmpPartsCount = this.partOfSpices.length;
-        for (int i = 0; i < aFirstParticleCoordinates.length; i++) {
-            resultCoordinates[i] = new PointInSpace[this.numberOfTotalParticles];
-        }
-
-        // </editor-fold>
-        if (this.numberOfTotalParticles == 1) {
-            // <editor-fold defaultstate="collapsed" desc="1 particle only in molecular structure">
-            for (int i = 0; i < aFirstParticleCoordinates.length; i++) {
-                resultCoordinates[i] = new PointInSpace[]{aFirstParticleCoordinates[i]};
-            }
+        return this.compiledSpices.getParticleCoordinates(aFirstParticleCoordinates, aLastParticleCoordinates, aBondLength);
+    }
 
-            // </editor-fold>
-        } else {
-            // <editor-fold defaultstate="collapsed" desc="Several particles in molecular structure">
-            for (int i = 0; i < tmpPartsCount; i++) {
-                tmpPartLength = this.partOfSpices[i].getInnerParticles().length;
-                for (int j = 0; j < aFirstParticleCoordinates.length; j++) {
-                    PointInSpace[] tmpInterimResult = this.getCoordinatesOfTokens(this, i, aFirstParticleCoordinates[j], aLastParticleCoordinates[j], aBondLength);
-                    System.arraycopy(tmpInterimResult, 0, resultCoordinates[j], tmpTargetIndexPosition, tmpInterimResult.length);
-                }
-                tmpTargetIndexPosition += tmpPartLength;
-            }
-            // </editor-fold>
-        }
-        return resultCoordinates;
+    /**
+     * Returns coordinates of particles where the main chain of a part
+     * without START/END particles is the exact diameter (see GraphDiameter)
+     * instead of the heuristic diameter. This is recommended for cyclic
+     * structures.
+     *
+     * @param aFirstParticleCoordinates Coordinates of the first particle
+     * @param aLastParticleCoordinates Coordinates of the last particle
+     * @param aBondLength BondLength
+     * @param aMaximumDiameterTime Maximum computation time of the exact
+     * diameter of a part in milliseconds (0: Heuristic diameter, negative:
+     * No limit)
+     * @param anIsParallelDiameter True: Exact diameter is computed in
+     * parallel, false: Otherwise
+     * @return Coordinates of the particles (index of particle can be examined
+     * by getParticlesIndex() method) First index is index of molecular
+     * structure, second index is index of particle.
+     */
+    public PointInSpace[][] getParticleCoordinates(PointInSpace[] aFirstParticleCoordinates,
+            PointInSpace[] aLastParticleCoordinates, double aBondLength, long aMaximumDiameterTime, boolean anIsParallelDiameter) {
+        return this.compiledSpices.getParticleCoordinates(aFirstParticleCoordinates, aLastParticleCoordinates, aBondLength, aMaximumDiameterTime, anIsParallelDiameter);
     }
 
     /**
@@ -729,19 +985,8 @@ public class Spices {
      * @return Monomer names of structure or null if none were found
      */
     public String[] getMonomerList() {
-        HashMap<String, String> tmpMonomersHashMap = new HashMap<>();
-        for (String tmpSingleToken : this.outerStructureTokens) {
-            if (spicesUtility.isMonomer(tmpSingleToken) && !tmpMonomersHashMap.containsKey(tmpSingleToken)) {
-                tmpMonomersHashMap.put(tmpSingleToken, tmpSingleToken);
-            }
-        }
-        if (tmpMonomersHashMap.isEmpty()) {
-            return null;
-        } else {
-            return tmpMonomersHashMap.keySet().toArray(new String[0]);
-        }
+        return this.compiledSpices.getMonomerList();
     }
-
     // </editor-fold>
     // <editor-fold defaultstate="collapsed" desc="- Is methods">
     /**
@@ -750,7 +995,7 @@ public class Spices {
      * @return True: Input structure is valid, false: Otherwise
      */
     public boolean isValid() {
-        return this.isValid;
+        return this.compiledSpices.isValid();
     }
 
     /**
@@ -759,7 +1004,7 @@ public class Spices {
      * @return True: Input structure is a monomer, false: Otherwise
      */
     public boolean isMonomer() {
-        return this.isMonomer;
+        return this.compiledSpices.isMonomer();
     }
     // </editor-fold>
     // <editor-fold defaultstate="collapsed" desc="- Miscellaneous methods">
@@ -769,19 +1014,7 @@ public class Spices {
      * @return Number of particles for display
      */
     public int getNumberOfDisplayParticles() {
-        // <editor-fold defaultstate="collapsed" desc="Checks">
-        if (this.outerStructureTokens == null) {
-            return 0;
-        }
-
-        // </editor-fold>
-        int tmpCounter = 0;
-        for (String tmpSingleStructureToken : this.outerStructureTokens) {
-            if (spicesUtility.isParticle(tmpSingleStructureToken)) {
-                tmpCounter++;
-            }
-        }
-        return tmpCounter;
+        return this.compiledSpices.getNumberOfDisplayParticles();
     }
     // </editor-fold>
     // </editor-fold>
@@ -804,120 +1037,42 @@ public class Spices {
             IPointInSpace aFirstParticleCoordinate, 
             IPointInSpace aLastParticleCoordinate,
             double aBondLength) {
-        // <editor-fold defaultstate="collapsed" desc="Local variables">
-        double tmpBondLength = aBondLength;
-        double tmpDistanceOfMainChain;
-        double tmpDeltaXOfChain;
-        double tmpDeltaYOfChain;
-        double tmpDeltaZOfChain;
-        double tmpDeltaXOfBond;
-        double tmpDeltaYOfBond;
-        double tmpDeltaZOfBond;
-        int[] tmpParticleIndices = aSpicesBase.partOfSpices[aPartIndex].getInnerParticleIndices();
-        int[] tmpMainChainIndices = null;
-        int tmpNumberOfParticles = tmpParticleIndices.length;
-        boolean[] tmpHasCalculatedArray = new boolean[tmpNumberOfParticles];
-        PointInSpace[] tmpParticleCoordinates = new PointInSpace[tmpNumberOfParticles];
-        ArrayDeque<Integer> tmpSeedParticleList = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        
-        if (aSpicesBase.partOfSpices[aPartIndex].getStartParticleIndex() == -1) {
-            tmpMainChainIndices = aSpicesBase.partOfSpices[aPartIndex].getHeuristicDiameter();
-        } else {
-            tmpMainChainIndices = aSpicesBase.partOfSpices[aPartIndex].getPathStartToEnd();
-        }
-        int tmpMainChainSize = tmpMainChainIndices.length;
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Calculate distance of first particle to last particle">
-        Arrays.fill(tmpHasCalculatedArray, false);
-        tmpDeltaXOfChain = aLastParticleCoordinate.getX() - aFirstParticleCoordinate.getX();
-        tmpDeltaYOfChain = aLastParticleCoordinate.getY() - aFirstParticleCoordinate.getY();
-        tmpDeltaZOfChain = aLastParticleCoordinate.getZ() - aFirstParticleCoordinate.getZ();
-        tmpDistanceOfMainChain = Math.sqrt(tmpDeltaXOfChain * tmpDeltaXOfChain + tmpDeltaYOfChain * tmpDeltaYOfChain + tmpDeltaZOfChain * tmpDeltaZOfChain);
-        int tmpMainChainBondSize = tmpMainChainSize - 1;
-        if (tmpDistanceOfMainChain < tmpMainChainBondSize * tmpBondLength) {
-            tmpDeltaXOfBond = tmpDeltaXOfChain / tmpMainChainBondSize;
-            tmpDeltaYOfBond = tmpDeltaYOfChain / tmpMainChainBondSize;
-            tmpDeltaZOfBond = tmpDeltaZOfChain / tmpMainChainBondSize;
-        } else {
-            tmpDeltaXOfBond = tmpDeltaXOfChain * aBondLength / tmpDistanceOfMainChain;
-            tmpDeltaYOfBond = tmpDeltaYOfChain * aBondLength / tmpDistanceOfMainChain;
-            tmpDeltaZOfBond = tmpDeltaZOfChain * aBondLength / tmpDistanceOfMainChain;
-        }
+        return aSpicesBase.compiledSpices.getCoordinatesOfTokens(aPartIndex, aFirstParticleCoordinate, aLastParticleCoordinate, aBondLength, 0L, false);
+    }
 
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Determine coordinates of main chain particles">
-        if (aSpicesBase.partOfSpices[aPartIndex].getStartParticleIndex() == -1 && tmpMainChainIndices[0] > tmpMainChainIndices[tmpMainChainSize - 1]) {
-                spicesUtility.reverseIntegerArray(tmpMainChainIndices);
-        }
-        // <editor-fold defaultstate="collapsed" desc="- aFirstParticleCoordinate is an instance of PointInSpace">
-        for (int i = 0; i < tmpMainChainSize; i++) {
-            tmpParticleCoordinates[tmpMainChainIndices[i]] = new PointInSpace(
-                    aFirstParticleCoordinate.getX() + (i) * tmpDeltaXOfBond,
-                    aFirstParticleCoordinate.getY() + (i) * tmpDeltaYOfBond, 
-                    aFirstParticleCoordinate.getZ() + (i) * tmpDeltaZOfBond);
-            tmpHasCalculatedArray[tmpMainChainIndices[i]] = true;
-        }
-        // </editor-fold>
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Determine beginning of side chain">
-        for (int i = 0; i < tmpMainChainSize; i++) {
-            for (int tmpItem : aSpicesBase.partOfSpices[aPartIndex].getAdjacentArray()[tmpMainChainIndices[i]]) {
-                if (tmpMainChainIndices[i] == tmpMainChainIndices[i] && !tmpHasCalculatedArray[tmpItem]) {
-                    tmpSeedParticleList.add(tmpItem);
-                    tmpParticleCoordinates[tmpItem] = tmpParticleCoordinates[tmpMainChainIndices[i]];
-                    tmpHasCalculatedArray[tmpItem] = true;
-                }
-            }
-        }
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Determine coordinates of side chain">
-        ArrayDeque<Integer> tmpIndicesOfSideChainParticles = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        for (int tmpSideParticleItem : tmpSeedParticleList) {
-            this.setIndicesOfSideChainParticles(tmpSideParticleItem, tmpIndicesOfSideChainParticles, tmpHasCalculatedArray, aPartIndex);
-            for (int tmpIndexOfNeighborParticlesItem : tmpIndicesOfSideChainParticles) {
-                tmpParticleCoordinates[tmpIndexOfNeighborParticlesItem] = tmpParticleCoordinates[tmpSideParticleItem];
-                tmpHasCalculatedArray[tmpIndexOfNeighborParticlesItem] = true;
-            }
-            tmpIndicesOfSideChainParticles.clear();
-        }
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Determine coordinates of leftover particles">
-        Queue<Integer> tmpHasNotCalculatedList = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        int tmpActualParticleIndex ;
-        boolean tmpHasFound;
-        for (int i = 0; i < tmpHasCalculatedArray.length; i++) {
-            if (!tmpHasCalculatedArray[i]) {
-                tmpHasNotCalculatedList.add(i);
-            }
-        }
-        while (!tmpHasNotCalculatedList.isEmpty()) {
-            tmpActualParticleIndex = tmpHasNotCalculatedList.remove();
-            tmpHasFound = false;
-            for (int tmpItem : aSpicesBase.partOfSpices[aPartIndex].getAdjacentArray()[tmpActualParticleIndex]) {
-                if (tmpHasCalculatedArray[tmpItem]) {
-                    tmpParticleCoordinates[tmpActualParticleIndex] = tmpParticleCoordinates[tmpItem];
-                    tmpHasCalculatedArray[tmpActualParticleIndex] = true;
-                    tmpHasFound = true;
-                    break;
-                }
-            }
-            if (!tmpHasFound) {
-                tmpHasNotCalculatedList.add(tmpActualParticleIndex);
-            }
-        }
-        // </editor-fold>
-        return tmpParticleCoordinates;
+    /**
+     * Get coordinate of tokens. NOTE: No checks are performed due to
+     * performance reasons.
+     *
+     * @param aSpicesBase: A part of Spices
+     * @param aPartIndex: Index of the part
+     * @param aFirstParticleCoordinate: First particle coordinate
+     * @param aLastParticleCoordinate: Last particle coordinate
+     * @param aBondLength: Bond length
+     * @param aMaximumDiameterTime: Maximum computation time of the exact
+     * diameter in milliseconds (0: Heuristic diameter, negative: No limit)
+     * @param anIsParallelDiameter: True: Exact diameter is computed in
+     * parallel, false: Otherwise
+     * @return Coordinate: of tokens
+     */
+    protected PointInSpace[] getCoordinatesOfTokens(
+            Spices aSpicesBase, 
+            int aPartIndex, 
+            IPointInSpace aFirstParticleCoordinate, 
+            IPointInSpace aLastParticleCoordinate,
+            double aBondLength,
+            long aMaximumDiameterTime,
+            boolean anIsParallelDiameter) {
+        return aSpicesBase.compiledSpices.getCoordinatesOfTokens(aPartIndex, aFirstParticleCoordinate, aLastParticleCoordinate, aBondLength, aMaximumDiameterTime, anIsParallelDiameter);
     }
     // </editor-fold>
     //
     // <editor-fold defaultstate="collapsed" desc="Private methods">
-    // <editor-fold defaultstate="collapsed" desc="- Initialize and reset methods">
+    // <editor-fold defaultstate="collapsed" desc="- Initialize methods">
     /**
      * Initialize method
      *
      * @param anInputStructure An input structure
-     * @param aParticleToDescriptionMap Descriptions for the particles
      * @param anIsMonomer True: anInputStructure is a monomer, false: Otherwise
      * (default: false)
      * @param aStartIndex First particle number in the Spices matrix (default:
@@ -927,543 +1082,69 @@ public class Spices {
      * @param aBondLength User defined bond length for all connections between
      * particles
      * @param anAvailableParticles User defined list of available particles
-     */
-    private void initialize(String anInputStructure, boolean anIsMonomer, int aStartIndex, PointInSpace[] aFirstParticlePositions, PointInSpace[] aLastParticlePositions,
-            double aBondLength, HashMap<String, String> anAvailableParticles) {
-        // <editor-fold defaultstate="collapsed" desc="Initialisation">
-        String tmpCheckMessage;
-        HashMap<String, SpicesInner> tmpPartsHashMap = new HashMap<>(SpicesConstants.DEFAULT_NUMBER_OF_PARTICLES);
-        ArrayDeque<String> tmpStructureTokens = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        int tmpTotalParticlesCount = 0;
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Check outer parts">
-        tmpCheckMessage = this.preCheckInputStructure(anInputStructure);
-        if (!tmpCheckMessage.isEmpty()) {
-            this.isValid = false;
-            this.errorMessage = tmpCheckMessage;
-            return;
-        }
-        this.inputStructure = this.spicesUtility.eliminateWhiteSpaces(anInputStructure);
-        this.isMonomer = anIsMonomer;
-        tmpCheckMessage = this.checkOuterParts(this.inputStructure);
-        if (!tmpCheckMessage.isEmpty()) {
-            this.isValid = false;
-            this.errorMessage = tmpCheckMessage;
-            return;
-        }
-        this.outerStructureTokens = spicesUtility.getStructureTokens(anInputStructure);
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Check inner parts">
-        this.parts = this.partStructures(this.inputStructure);
-        this.partOfSpices = new SpicesInner[this.numberOfParts];
-        for (int i = 0; i < this.numberOfParts; i++) {
-            if (!tmpPartsHashMap.containsKey(this.parts[i])) {
-                this.partOfSpices[i] = new SpicesInner(this.parts[i], anAvailableParticles, anIsMonomer, aStartIndex,
-                        aFirstParticlePositions, aLastParticlePositions, aBondLength);
-            } else {
-                this.partOfSpices[i] = tmpPartsHashMap.get(this.parts[i]);
-            }
-            if (this.partOfSpices[i].getErrorMessage() != null) {
-                this.isValid = false;
-                this.errorMessage = this.partOfSpices[i].getErrorMessage();
-                return;
-            }
-            tmpPartsHashMap.put(this.parts[i], this.partOfSpices[i]);
-            tmpTotalParticlesCount += this.partOfSpices[i].getInnerParticles().length;
-        }
-        if (this.parts.length == 1) {
-            this.outerStructureTokens = this.partOfSpices[0].getInnerStructureTokens();
+     * @param anIsParallel True: Distinct parts are compiled in parallel,
+     * false: Otherwise
+     */
+    private void initialize(CharSequence anInputStructure, boolean anIsMonomer, int aStartIndex, PointInSpace[] aFirstParticlePositions, PointInSpace[] aLastParticlePositions,
+            double aBondLength, HashMap<String, String> anAvailableParticles, boolean anIsParallel) {
+        CompiledSpices tmpCompiledSpices;
+        if (this.arena != null && !anIsParallel) {
+            // Reuse mode: Work buffers of arena
+            tmpCompiledSpices = CompiledSpices.compile(anInputStructure, anAvailableParticles, anIsMonomer, this.arena);
         } else {
-            for (int i = 0; i < parts.length; i++) {
-                tmpStructureTokens.addAll(Arrays.asList(this.partOfSpices[i].getInnerStructureTokens()));
-            }
-            this.outerStructureTokens = tmpStructureTokens.toArray(new String[0]);
+            tmpCompiledSpices = CompiledSpices.compile(anInputStructure, anAvailableParticles, anIsMonomer, anIsParallel);
         }
-        this.isValid = true;
-        this.errorMessage = null;
-        // </editor-fold>
-        this.numberOfTotalParticles = tmpTotalParticlesCount;
-        this.outerParticleIndices = new int[tmpTotalParticlesCount];
-        this.outerBackboneIndices = new int[tmpTotalParticlesCount];
-        this.maxOuterBackboneIndex = -1;
-        this.monomers = this.getMonomerList();
-        this.hasBackboneAttribute = false;
-        this.initializePartsOfSpicesBase(aStartIndex, aFirstParticlePositions, aLastParticlePositions, aBondLength);
-        int tmpMaxConnectionNumber = this.partOfSpices[0].getMaximumNumberOfConnectionsOfSingleParticle();
-        for (int i = 1; i < this.partOfSpices.length; i++) {
-            if (tmpMaxConnectionNumber < this.partOfSpices[i].getMaximumNumberOfConnectionsOfSingleParticle()) {
-                tmpMaxConnectionNumber = this.partOfSpices[i].getMaximumNumberOfConnectionsOfSingleParticle();
-            }
-        }
-        this.maximumNumberOfConnectionsOfSingleParticle = tmpMaxConnectionNumber;
+        this.setCompiledSpices(tmpCompiledSpices, aStartIndex, aFirstParticlePositions, aLastParticlePositions, aBondLength, anIsParallel);
     }
 
     /**
-     * Initialize method for structures with sub structures
-     */
-    private void initializePartsOfSpicesBase(int aStartIndex, 
-            PointInSpace[] aFirstParticlePositions, PointInSpace[] aLastParticlePositions, double aBondLength) {
-        // <editor-fold defaultstate="collapsed" desc="Initialisation">
-        int tmpPartsCount = this.parts.length;
-        int tmpSourceIndex = 0;
-        int tmpTargetIndex = 0;
-        int tmpMatrixDimension = 0;
-        int tmpIndex = 0;
-        int tmpFirstParticlesPosition;
-        String[][][] tmpParticlePositionsAndConnections = new String[tmpPartsCount][][];
-
-        // </editor-fold>
-        if (aFirstParticlePositions == null) {
-            for (int i = 0; i < tmpPartsCount; i++) {
-                tmpParticlePositionsAndConnections[i] = this.getParticlePositionsAndConnections(i, aStartIndex);
-            }
-        } else{
-            for (int i = 0; i < tmpPartsCount; i++) {
-                tmpParticlePositionsAndConnections[i] = this.getParticlePositionsAndConnections(i, aStartIndex, aFirstParticlePositions, aLastParticlePositions, aBondLength);
-            }
-        }
-        tmpFirstParticlesPosition =  tmpParticlePositionsAndConnections[0].length / this.partOfSpices[0].getInnerParticles().length;
-        this.numberOfConnects = new int[this.numberOfTotalParticles];
-        for (int i = 0; i < tmpPartsCount; i++) {
-            System.arraycopy(this.partOfSpices[i].getNumberOfConnects(), 0, this.numberOfConnects, tmpTargetIndex, this.partOfSpices[i].getNumberOfConnects().length);
-            tmpTargetIndex += this.partOfSpices[i].getInnerParticles().length;
-        }
-        for (int i = 0; i < tmpPartsCount; i++) {
-            if (this.partOfSpices[i].hasBackboneAttribute()) {
-                this.hasBackboneAttribute = true;
-                break;
-            }
-        }
-        tmpTargetIndex = 0;
-        int tmpTotalParticlePositions = this.numberOfTotalParticles * tmpFirstParticlesPosition;
-        this.particlePositionsAndConnections = new String[tmpTotalParticlePositions][];
-        for (int i = 0; i < tmpFirstParticlesPosition; i++) {
-            for (int j = 0; j < this.numberOfTotalParticles; j++) {
-                tmpMatrixDimension = this.numberOfConnects[j] + 6;
-                this.particlePositionsAndConnections[tmpIndex] = new String[tmpMatrixDimension];
-                tmpIndex++;
-            }
-        }
-        for (int i = 0; i < tmpPartsCount; i++) {
-            System.arraycopy(this.partOfSpices[i].getInnerParticleIndices(), 0, this.outerParticleIndices, tmpTargetIndex, this.partOfSpices[i].getInnerParticleIndices().length);
-            System.arraycopy(this.partOfSpices[i].getInnerBackboneIndices(), 0, this.outerBackboneIndices, tmpTargetIndex, this.partOfSpices[i].getInnerBackboneIndices().length);
-            tmpTargetIndex += this.partOfSpices[i].getInnerParticles().length;
-        }
-        this.maxOuterBackboneIndex = -1;
-        tmpTargetIndex = 0;
-        for (int i = 0; i < tmpFirstParticlesPosition; i++) {
-            for (int j = 0; j < tmpPartsCount; j++) {
-                for (int k = 0; k < this.partOfSpices[j].getInnerParticles().length; k++) {
-                    tmpSourceIndex = i * this.partOfSpices[j].getInnerParticles().length + k;
-                    System.arraycopy(tmpParticlePositionsAndConnections[j][tmpSourceIndex], 0, this.particlePositionsAndConnections[tmpTargetIndex], 0,
-                            tmpParticlePositionsAndConnections[j][tmpSourceIndex].length);
-                    tmpTargetIndex++;
-                }
-            }
-        }
-
-        // Reset number of particles in spicesMatrix
-        int tmpParticleIndex = 0;
-        for (int i = 0; i < tmpFirstParticlesPosition; i++) {
-            for (int j = 0; j < this.numberOfTotalParticles; j++) {
-                this.particlePositionsAndConnections[tmpParticleIndex][0] = Integer.toString(tmpParticleIndex + aStartIndex);
-                tmpParticleIndex++;
-            }
-        }
-    }
-
-    /**
-     * Reset property method
+     * Sets the compiled Spices object and the parameters of the Spices
+     * matrix (the Spices matrix is created on request)
+     *
+     * @param aCompiledSpices Compiled Spices object
+     * @param aStartIndex First particle number in the Spices matrix
+     * @param aFirstParticlePositions Cartesian coordinates of first particles
+     * @param aLastParticlePositions Cartesian coordinates of last particles
+     * @param aBondLength User defined bond length for all connections between
+     * particles
+     * @param anIsParallel True: Spices matrix is created in parallel, false:
+     * Otherwise
      */
-    private void resetProperty() {
-        this.errorMessage = null;
-        this.inputStructure = null;
-        this.particleToFrequencyMap = null;
-        this.outerStructureTokens = null;
-        this.outerParticleIndices = null;
-        this.monomers = null;
+    private void setCompiledSpices(CompiledSpices aCompiledSpices, int aStartIndex, PointInSpace[] aFirstParticlePositions, PointInSpace[] aLastParticlePositions,
+            double aBondLength, boolean anIsParallel) {
+        this.compiledSpices = aCompiledSpices;
         this.particlePositionsAndConnections = null;
-        this.isValid = false;
-        this.isMonomer = false;
-        this.maximumNumberOfConnectionsOfSingleParticle = 0;
-        this.numberOfParts = 0;
-        this.numberOfTotalParticles = 0;
-        this.hasParts = false;
-        this.partOfSpices = null;
+        this.isSpicesMatrixDestroyed = false;
+        this.startIndex = aStartIndex;
+        this.firstParticlePositions = aFirstParticlePositions;
+        this.lastParticlePositions = aLastParticlePositions;
+        this.bondLength = aBondLength;
+        this.isParallel = anIsParallel;
     }
-
     // </editor-fold>
     //
     // <editor-fold defaultstate="collapsed" desc="- Structure check related methods">
-    
-    /**
-     * precheck methode for inputStructure
-     * @param aStructure Molecular structure
-     * @return Error message or ""
-     */
-    private String preCheckInputStructure (String aStructure) {
-        if (aStructure == null || aStructure.isEmpty()) {
-            return "";
-        }
-        if (aStructure.length() < 3) {
-            return "";
-        }
-        char[] tmpStructureCharArray = aStructure.toCharArray();
-        for (int i = 1; i < tmpStructureCharArray.length - 1; i++) {
-            if (Character.isWhitespace(tmpStructureCharArray[i])) {
-                if (Character.isLetterOrDigit(tmpStructureCharArray[i - 1]) && Character.isLetterOrDigit(tmpStructureCharArray[i + 1])) {
-                    return MessageSpices.getString("StructureCheck.InvalidWhiteSpace");
-                }
-            }
-        }
-        return "";
-    }
-    
-    /**
-     * Checks the outer parts of the input structure
-     *
-     * @return Error message or null
-     */
-    private String checkOuterParts(String aInputStructure) {
-        // <editor-fold defaultstate="collapsed" desc="Simple check">
-        if (aInputStructure == null || aInputStructure.isEmpty()) {
-            return MessageSpices.getString("StructureCheck.NoTokens");
-        }
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Initial settings">
-        int tmpNumberOfOpeningAngleBrackets = spicesUtility.getFrequencyOfCharacterInString(this.inputStructure, "<");
-        int tmpNumberOfClosingAngleBrackets = spicesUtility.getFrequencyOfCharacterInString(this.inputStructure, ">");
-        int tmpIndexOfOpeningAngleBracket = 0;
-        int tmpIndexOfClosingAngleBracket = -1;
-        int tmpIndexOfLastClosingAnbleBracket;
-        boolean tmpIsOddNumbersOfDelimiter;
-        boolean tmpHasAngleBracket = tmpNumberOfOpeningAngleBrackets + tmpNumberOfClosingAngleBrackets > 0;
-        char[] tmpInputStructure = aInputStructure.toCharArray();
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Checks number of angle brackets">
-        if (tmpHasAngleBracket) {
-            tmpIsOddNumbersOfDelimiter = false;
-            for (int i = 0; i < tmpInputStructure.length; i++) {
-                if (tmpInputStructure[i] == '<') {
-                    if (tmpIsOddNumbersOfDelimiter) {
-                        return MessageSpices.getString("StructureCheck.MissingClosingAngleBracket");
-                    } else {
-                        tmpIsOddNumbersOfDelimiter = true;
-                    }
-                } else if (tmpInputStructure[i] == '>') {
-                    if (tmpIsOddNumbersOfDelimiter) {
-                        tmpIsOddNumbersOfDelimiter = false;
-                    } else {
-                        return MessageSpices.getString("StructureCheck.MissingOpeningAngleBracket");
-                    }
-                }
-            }
-            if (tmpIsOddNumbersOfDelimiter) {
-                return MessageSpices.getString("StructureCheck.MissingClosingAngleBracket");
-            }
-            // Checks whether an empty angle bracket exists
-            if (this.inputStructure.contains("<>")) {
-                return MessageSpices.getString("StructureCheck.EmptyAngleBrackets");
-            }
-            // Checks whether an character, except numbers and whitespaces, outside bracket exists
-            for (int i = 0; i < tmpInputStructure.length; i++) {
-                tmpIndexOfOpeningAngleBracket = this.inputStructure.indexOf("<", tmpIndexOfClosingAngleBracket + 1);
-                if (tmpIndexOfOpeningAngleBracket == -1) {
-                    break;
-                }
-                if (tmpIndexOfOpeningAngleBracket > tmpIndexOfClosingAngleBracket + 1) {
-                    for (int j = tmpIndexOfClosingAngleBracket + 1; j < tmpIndexOfOpeningAngleBracket; j++) {
-                        if (!Character.isDigit(tmpInputStructure[j])) {
-                            return MessageSpices.getString("StructureCheck.InvalidCharacterPriorAngularBracket");
-                        }
-                    }
-                }
-                tmpIndexOfClosingAngleBracket = this.inputStructure.indexOf(">", tmpIndexOfOpeningAngleBracket + 1);
-            }
-            tmpIndexOfLastClosingAnbleBracket = this.inputStructure.lastIndexOf(">");
-            if (tmpIndexOfLastClosingAnbleBracket + 1 < tmpInputStructure.length) {
-                return MessageSpices.getString("StructureCheck.InvalidParticleAfterAngleClosingBracket");
-            }
-        }
-        // </editor-fold>
-
-        return "";
-    }
-
-    /**
-     * Checks whether there is disconnected structure in the input structure,
-     * set hasDisconnectedStructure flag and find the disconnectedstrucutres
-     *
-     * @param aSubStrucutre Molecular substrucuture
-     * @return Disconnected Substructure
-     */
-    private String[] partStructures(String aStructure) {
-        if (aStructure == null || aStructure.isEmpty()) {
-            return null;
-        }
-
-        int tmpStructureLength = aStructure.length();
-        int tmpStartPosition = 0;
-        int tmpEndPosition = -1;
-        int tmpPartFrequency = 0;
-        ArrayDeque<String> tmpPartStructure = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        String tmpSubstring;
-        //String[] tmpResultString;
-
-        if (spicesUtility.hasPart(aStructure)) {
-            this.hasParts = true;
-            for (int i = 0; i < tmpStructureLength; i++) {
-                tmpStartPosition = aStructure.indexOf("<", tmpStartPosition);
-                if (tmpStartPosition - tmpEndPosition > 1) {
-                    tmpPartFrequency = Integer.parseInt(aStructure.substring(tmpEndPosition + 1, tmpStartPosition));
-                } else {
-                    tmpPartFrequency = 1;
-                }
-                tmpEndPosition = aStructure.indexOf(">", tmpStartPosition);
-                tmpSubstring = aStructure.substring(tmpStartPosition + 1, tmpEndPosition);
-                for (int j = 0; j < tmpPartFrequency; j++) {
-                    tmpPartStructure.add(tmpSubstring);
-                }
-                tmpStartPosition = tmpEndPosition + 1;
-                i = tmpStartPosition;
-            }
-        } else {
-            this.hasParts = false;
-            this.numberOfParts = 1;
-            return new String[] {aStructure};
-        }
-        this.numberOfParts = tmpPartStructure.size();
-        return tmpPartStructure.toArray(new String[0]);
-    }
-
-    // </editor-fold>
-    //
-    // <editor-fold defaultstate="collapsed" desc="- Token related methods">
-    /**
-     * Determine the particle list and delete all duplicate
-     *
-     * @param aChain List of chains (a chain is built out of particles and
-     * links)
-     * @param aPartIndex Partindexnumber
-     * @param aHasDoublet Whether doublet should be considered or not (e.g. if
-     * true "A-F" and "F-A" will be returned instead one of both)
-     * @return list of particle list without duplicates
-     */
-    private String[] getParticleList(ArrayDeque<int[]> aChain, int aPartIndex, boolean aHasDoublet) {
-        if (aChain == null || aChain.isEmpty()) {
-            return null;
-        }
-        int tmpChainSize = aChain.size();
-        int tmpNumberOfParticles = aChain.getFirst().length;
-        int[] tmpHelpingArray = new int[tmpChainSize];
-        int[][] tmpParticleArray = aChain.toArray(new int[0][]);
-        HashSet<String> tmpOutputParticleHashSet = new HashSet<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
-        String tmpCandidate;
-
-        for (int i = 0; i < tmpChainSize; i++) {
-            tmpCandidate = "";
-            tmpHelpingArray = tmpParticleArray[i].clone();
-            // reverse the array if first Token is lexically bigger then the
-            // last Token and delete all duplicates
-            if (!aHasDoublet) {
-                if (this.hasParts) {
-                    if (this.partOfSpices[aPartIndex].getInnerStructureTokens()[this.partOfSpices[aPartIndex].getInnerParticleIndices()[tmpHelpingArray[0]]]
-                            .compareTo(this.outerStructureTokens[this.outerParticleIndices[tmpHelpingArray[tmpNumberOfParticles - 1]]]) > 0) {
-                        spicesUtility.reverseIntegerArray(tmpHelpingArray);
-                    }
-                } else {
-                    if (this.outerStructureTokens[this.outerParticleIndices[tmpHelpingArray[0]]]
-                            .compareTo(this.outerStructureTokens[this.outerParticleIndices[tmpHelpingArray[tmpNumberOfParticles - 1]]]) > 0) {
-                        spicesUtility.reverseIntegerArray(tmpHelpingArray);
-                    }
-                }
-            }
-            for (int j = 0; j < tmpNumberOfParticles; j++) {
-                if (this.hasParts) {
-                    if (j < tmpNumberOfParticles - 1) {
-                        tmpCandidate += this.partOfSpices[aPartIndex].getInnerStructureTokens()[this.partOfSpices[aPartIndex].getInnerParticleIndices()[tmpHelpingArray[j]]] + SpicesConstants.PARTICLE_SEPARATOR;
-                    } else {
-                        tmpCandidate += this.partOfSpices[aPartIndex].getInnerStructureTokens()[this.partOfSpices[aPartIndex].getInnerParticleIndices()[tmpHelpingArray[j]]];
-                    }
-                } else {
-                    if (j < tmpNumberOfParticles - 1) {
-                        tmpCandidate += this.outerStructureTokens[this.outerParticleIndices[tmpHelpingArray[j]]] + SpicesConstants.PARTICLE_SEPARATOR;
-                    } else {
-                        tmpCandidate += this.outerStructureTokens[this.outerParticleIndices[tmpHelpingArray[j]]];
-                    }
-                }
-            }
-            if (!(tmpOutputParticleHashSet.contains(tmpCandidate))) {
-                tmpOutputParticleHashSet.add(tmpCandidate);
-            }
-        }
-        return tmpOutputParticleHashSet.toArray(new String[0]);
-    }
-
-    // </editor-fold>
-    //
-    // <editor-fold defaultstate="collapsed" desc="- getParticleCoordinates">
-    /**
-     * Determine all indices of side chain particles
-     * 
-     * @param anActualParticleIndex The particle index of observed particle
-     * @param aHasCalculatedArray Flag information of whether a particle has
-     * been calculated or not
-     * @param aPartIndex  Part index (-1 if the particle has only one part)
-     * @return Indices of side chain particles as hashset
-     */    
-    private void setIndicesOfSideChainParticles(int anActualParticleIndex, ArrayDeque<Integer> anIndicesOfSideChainParticles, boolean[] aHasCalculatedArray, int aPartIndex) {
-        ArrayDeque<Integer> tmpIndicesOfSideChainParticles = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        Queue<Integer> tmpIndexOfParticlesInQueue = new ArrayDeque<>();
-        boolean tmpNoParticles = false;
-        do {
-            for (int tmpItem : this.partOfSpices[aPartIndex].getAdjacentArray()[anActualParticleIndex]) {
-                if (!aHasCalculatedArray[tmpItem]) {
-                    tmpIndicesOfSideChainParticles.add(tmpItem);
-                    aHasCalculatedArray[tmpItem] = true;
-                }
-            }
-            if (!tmpIndicesOfSideChainParticles.isEmpty()) {
-                tmpIndexOfParticlesInQueue.addAll(tmpIndicesOfSideChainParticles);
-                tmpIndicesOfSideChainParticles.clear();
-            }
-            if (!tmpIndexOfParticlesInQueue.isEmpty()) {
-                anActualParticleIndex = tmpIndexOfParticlesInQueue.remove();
-                anIndicesOfSideChainParticles.add(anActualParticleIndex);
-            } else {
-                tmpNoParticles = true;
-            }
-                
-        } while (!tmpIndexOfParticlesInQueue.isEmpty() || !tmpNoParticles);
-    }
-   
-    /**
-     * Generate a matrix with coordinates and connection information of the
-     * particles
-     *
-     * @param aPart: A part of FSmile
-     * @param aStartIndex The index number of the first particle
-     * @return Matrix with connection information of the particles
-     */
-    private String[][] getParticlePositionsAndConnections(int aPartIndex, int aStartIndex) {
-        return this.getParticlePositionsAndConnections(aPartIndex, aStartIndex, new PointInSpace[]{null}, new PointInSpace[]{null}, 1);
-    }
-
     /**
-     * Generate a matrix with coordinates and connection information of the
-     * particles
+     * Returns the position in an input structure that corresponds to a
+     * position in the input structure without whitespace characters
      *
-     * @param aPart: A part of FSmile
-     * @param aStartIndex The index number of the first particle
-     * @param aFirstParticleCoordinates Coordinates of the first particle
-     * @param aLastParticleCoordinates Coordinates of the last particle
-     * @param aBondLength BondLength
-     * @return Matrix with connection and coordination information of the
-     * particles
-     */
-    private String[][] getParticlePositionsAndConnections(int aPartIndex, int aStartIndex, PointInSpace[] aFirstParticleCoordinates, PointInSpace[] aLastParticleCoordinates, double aBondLength) {
-        // <editor-fold defaultstate="collapsed" desc="Local variables">
-        int tmpNumberOfParticles = this.partOfSpices[aPartIndex].getInnerParticleIndices().length;
-        int tmpParticleCoordinateSize = aFirstParticleCoordinates.length;
-        int tmpCurrentStructureTokenIndex = 0;
-        IPointInSpace[] tmpParticleCoordinates;
-        LinkedList<Integer> tmpLinkTargetList = new LinkedList<>();
-        String[][] tmpResultStrings = new String[tmpNumberOfParticles * tmpParticleCoordinateSize][];
-
-        // </editor-fold>
-        int[] tmpNeighborParticleSizes = this.partOfSpices[aPartIndex].getNumberOfConnects();
-        // Initialize aPart.maximumNumberOfConnectionsOfSingleParticle
-        this.partOfSpices[aPartIndex].setMaximumNumberOfConnectionsOfSingleParticle(0);
-        int tmpRow = 0;
-        int k;
-        // New format with relative connections:
-        // int tmpRows = 0;
-        for (int i = 0; i < tmpParticleCoordinateSize; i++) {
-            if (aFirstParticleCoordinates[0] != null) {
-                if (tmpNumberOfParticles == 1) {
-
-                    // <editor-fold defaultstate="collapsed" desc="1 particle only in molecular structure">
-                    tmpParticleCoordinates = new PointInSpace[]{aFirstParticleCoordinates[i]};
-
-                    // </editor-fold>
-                } else {
-
-                    // <editor-fold defaultstate="collapsed" desc="Several particles in molecular structure">
-                    tmpParticleCoordinates = this.getCoordinatesOfTokens(this, aPartIndex, aFirstParticleCoordinates[i], aLastParticleCoordinates[i], aBondLength);
-
-                    // </editor-fold>
-                }
-            } else {
-                tmpParticleCoordinates = null;
-            }
-            for (int j = 0; j < tmpNumberOfParticles; j++) {
-                tmpResultStrings[tmpRow] = new String[6 + tmpNeighborParticleSizes[j]];
-                // 1. column: Number of the particle (1-based)
-                tmpResultStrings[tmpRow][0] = Integer.toString(aStartIndex + tmpRow);
-                // 2. column: Name of the particle
-                tmpCurrentStructureTokenIndex = this.partOfSpices[aPartIndex].getInnerParticleIndices()[j];
-                tmpResultStrings[tmpRow][1] = this.partOfSpices[aPartIndex].getInnerStructureTokens()[tmpCurrentStructureTokenIndex];
-                // 3. column: Backbone index
-                tmpResultStrings[tmpRow][2] = Integer.toString(this.partOfSpices[aPartIndex].getBackboneIndices()[j]);
-                // 4-6. columns: xyz-Coordinate of the particle (if not
-                // specified it will empty)
-                tmpResultStrings[tmpRow][3] = "";
-                tmpResultStrings[tmpRow][4] = "";
-                tmpResultStrings[tmpRow][5] = "";
-                if (aFirstParticleCoordinates[0] != null) {
-                    tmpResultStrings[tmpRow][3] += tmpParticleCoordinates[j].getX();
-                    tmpResultStrings[tmpRow][4] += tmpParticleCoordinates[j].getY();
-                    tmpResultStrings[tmpRow][5] += tmpParticleCoordinates[j].getZ();
-                }
-                // >5.column: Particle number(s) which connected with aPart
-                // particle
-                if (this.partOfSpices[aPartIndex].getAdjacentArray() != null) {
-                    for (int tmpItem : this.partOfSpices[aPartIndex].getAdjacentArray()[j]) {
-                        tmpLinkTargetList.add(tmpItem);
-                    }
-                }
-                // Set aPart.maximumNumberOfConnectionsOfSingleParticle
-                if (tmpLinkTargetList.size() > this.partOfSpices[aPartIndex].getMaximumNumberOfConnectionsOfSingleParticle()) {
-                    this.partOfSpices[aPartIndex].setMaximumNumberOfConnectionsOfSingleParticle(tmpLinkTargetList.size());
-                }
-                Collections.sort(tmpLinkTargetList);
-                Iterator<Integer> tmpIterator = tmpLinkTargetList.iterator();
-                k = 6;
-                while (tmpIterator.hasNext()) {
-                    // New format with relative connections:
-                    tmpResultStrings[tmpRow][k] = Integer.toString(tmpIterator.next() - j);
-                    tmpIterator.remove();
-                    k++;
-                }
-                tmpRow++;
-            }
-            // New format with relative connections:
-            // tmpRows = tmpRow;
+     * @param anInputStructure Input structure
+     * @param aStructure Input structure without whitespace characters
+     * @param aPosition Position in aStructure
+     * @return Position in anInputStructure
+     */
+    private static int getInputStructurePosition(CharSequence anInputStructure, String aStructure, int aPosition) {
+        if (anInputStructure == null || aStructure == null || anInputStructure.length() == aStructure.length()) {
+            return aPosition;
         }
-        return tmpResultStrings;
-    }
-    // </editor-fold>
-    //
-    // <editor-fold defaultstate="collapsed" desc="- Particle frequency related methods">
-    /**
-     * Determines particle frequencies of molecular structure. NOTE: Molecular
-     * structure MUST be valid (NO checks are performed) and is NOT allowed to
-     * contain monomer shortcuts.
-     */
-    private void determineParticleFequenciesOfMolecularStructure() {
-        HashMap<String, ParticleFrequency> tmpParticleToFrequencyMap = new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
-        for (SpicesInner partOfFSmile : this.partOfSpices) {
-            for (String innerParticle : partOfFSmile.getInnerParticles()) {
-                if (tmpParticleToFrequencyMap.containsKey(innerParticle)) {
-                    tmpParticleToFrequencyMap.get(innerParticle).addFrequency(1);
-                } else {
-                    tmpParticleToFrequencyMap.put(innerParticle, new ParticleFrequency(innerParticle, 1));
-                }
+        int tmpLength = anInputStructure.length();
+        int tmpPosition = -1;
+        for (int i = 0; i < tmpLength; i++) {
+            if (!Character.isWhitespace(anInputStructure.charAt(i)) && ++tmpPosition == aPosition) {
+                return i;
             }
         }
-        this.particleToFrequencyMap = tmpParticleToFrequencyMap;
+        return aPosition;
     }
 
     // </editor-fold>
@@ -0,0 +1,195 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Arena with the work buffers of the compilation of input structures (see
+ * CompiledSpices): The work buffers grow on demand and are reused by all
+ * compilations with this arena, i.e. the repeated compilation of small
+ * structures (e.g. with Spices.setInputStructure() in reuse mode) does not
+ * allocate work buffers. The arena is reset by every compilation (see
+ * reset()). The compiled Spices object does NOT refer to the work buffers.
+ * NOTE: This class is NOT thread-safe.
+ *
+ * @author agent
+ */
+public final class SpicesArena {
+
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Structure validator (see SpicesValidator, every check resets the
+     * validator)
+     */
+    private final SpicesValidator validator;
+
+    /**
+     * Compiled parts of the sub input structures of the current structure
+     */
+    private final HashMap<String, SpicesInner> compiledParts;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class variables">
+    /**
+     * Sub input structures of part blocks of the current structure
+     */
+    private String[] partStructures;
+
+    /**
+     * Multiplicities of part blocks of the current structure
+     */
+    private int[] partMultiplicities;
+
+    /**
+     * Number of part blocks of the current structure
+     */
+    private int numberOfPartBlocks;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructors">
+    /**
+     * Constructor
+     */
+    public SpicesArena() {
+        this(SpicesConstants.DEFAULT_ARENA_INITIAL_NUMBER_OF_PART_BLOCKS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param aNumberOfPartBlocks Initial number of part blocks of the work
+     * buffers
+     * @throws IllegalArgumentException Thrown if aNumberOfPartBlocks is
+     * negative
+     */
+    public SpicesArena(int aNumberOfPartBlocks) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aNumberOfPartBlocks < 0) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        this.validator = new SpicesValidator();
+        this.compiledParts = new HashMap<>(SpicesConstants.DEFAULT_ARENA_INITIAL_NUMBER_OF_PART_BLOCKS);
+        this.partStructures = new String[aNumberOfPartBlocks];
+        this.partMultiplicities = new int[aNumberOfPartBlocks];
+        this.numberOfPartBlocks = 0;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Structure validator
+     *
+     * @return Structure validator
+     */
+    public SpicesValidator getValidator() {
+        return this.validator;
+    }
+
+    /**
+     * Compiled parts of the sub input structures of the current structure
+     * (cleared by reset())
+     *
+     * @return Compiled parts of the sub input structures
+     */
+    public HashMap<String, SpicesInner> getCompiledParts() {
+        return this.compiledParts;
+    }
+
+    /**
+     * Number of part blocks of the current structure
+     *
+     * @return Number of part blocks
+     */
+    public int getNumberOfPartBlocks() {
+        return this.numberOfPartBlocks;
+    }
+
+    /**
+     * Sub input structures of part blocks of the current structure. NOTE:
+     * Only the first getNumberOfPartBlocks() entries are valid. Returned
+     * array is NOT allowed to be changed.
+     *
+     * @return Sub input structures of part blocks
+     */
+    public String[] getPartStructures() {
+        return this.partStructures;
+    }
+
+    /**
+     * Multiplicity of part block of the current structure
+     *
+     * @param aPartBlockIndex Index of part block
+     * @return Multiplicity of part block
+     */
+    public int getPartMultiplicity(int aPartBlockIndex) {
+        return this.partMultiplicities[aPartBlockIndex];
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Resets the arena for a new structure (the work buffers are kept)
+     */
+    public void reset() {
+        // Release the sub input structures of the previous structure
+        Arrays.fill(this.partStructures, 0, this.numberOfPartBlocks, null);
+        this.numberOfPartBlocks = 0;
+        this.compiledParts.clear();
+    }
+
+    /**
+     * Adds a part with its frequency to the part blocks of the current
+     * structure: A part that is equal to the part of the last part block
+     * increases the multiplicity of the last part block.
+     *
+     * @param aPartStructure Sub input structure of part
+     * @param aFrequency Frequency of part (greater 0)
+     */
+    public void addPart(String aPartStructure, int aFrequency) {
+        if (this.numberOfPartBlocks > 0 && this.partStructures[this.numberOfPartBlocks - 1].equals(aPartStructure)) {
+            this.partMultiplicities[this.numberOfPartBlocks - 1] += aFrequency;
+        } else {
+            this.ensureCapacity(this.numberOfPartBlocks + 1);
+            this.partStructures[this.numberOfPartBlocks] = aPartStructure;
+            this.partMultiplicities[this.numberOfPartBlocks] = aFrequency;
+            this.numberOfPartBlocks++;
+        }
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private methods">
+    /**
+     * Grows the work buffers if necessary
+     *
+     * @param aNumberOfPartBlocks Number of part blocks
+     */
+    private void ensureCapacity(int aNumberOfPartBlocks) {
+        if (this.partStructures.length < aNumberOfPartBlocks) {
+            int tmpLength = Math.max(aNumberOfPartBlocks, 2 * this.partStructures.length);
+            this.partStructures = Arrays.copyOf(this.partStructures, tmpLength);
+            this.partMultiplicities = Arrays.copyOf(this.partMultiplicities, tmpLength);
+        }
+    }
+    // </editor-fold>
+
+}
@@ -0,0 +1,195 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only CharSequence view of an ASCII encoded byte[] or ByteBuffer slice
+ * (e.g. a region of a memory-mapped file) that may be passed as an input
+ * structure to Spices without copying the bytes into a String first. Every
+ * byte is mapped to the char with the same (unsigned) value. NOTE: The
+ * underlying bytes are NOT copied and must not be changed while the view is
+ * used.
+ *
+ * @author agent
+ */
+public final class SpicesAsciiSequence implements CharSequence {
+
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Byte array (null if byteBuffer is used)
+     */
+    private final byte[] bytes;
+
+    /**
+     * Byte buffer (null if bytes is used)
+     */
+    private final ByteBuffer byteBuffer;
+
+    /**
+     * Offset of first byte of slice
+     */
+    private final int offset;
+
+    /**
+     * Length of slice
+     */
+    private final int length;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructors">
+    /**
+     * Constructor for a byte[] slice
+     *
+     * @param aBytes Bytes
+     * @param anOffset Offset of first byte of slice
+     * @param aLength Length of slice
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    public SpicesAsciiSequence(byte[] aBytes, int anOffset, int aLength) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aBytes == null || anOffset < 0 || aLength < 0 || anOffset > aBytes.length - aLength) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        this.bytes = aBytes;
+        this.byteBuffer = null;
+        this.offset = anOffset;
+        this.length = aLength;
+    }
+
+    /**
+     * Constructor for a complete byte[]
+     *
+     * @param aBytes Bytes
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    public SpicesAsciiSequence(byte[] aBytes) throws IllegalArgumentException {
+        this(aBytes, 0, aBytes == null ? 0 : aBytes.length);
+    }
+
+    /**
+     * Constructor for the remaining bytes of a ByteBuffer (between its
+     * position and its limit). NOTE: Position and limit of aByteBuffer are
+     * NOT changed.
+     *
+     * @param aByteBuffer Byte buffer
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    public SpicesAsciiSequence(ByteBuffer aByteBuffer) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aByteBuffer == null) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        this.bytes = null;
+        this.byteBuffer = aByteBuffer;
+        this.offset = aByteBuffer.position();
+        this.length = aByteBuffer.remaining();
+    }
+
+    /**
+     * Constructor for a ByteBuffer slice
+     *
+     * @param aByteBuffer Byte buffer
+     * @param anOffset Absolute index of first byte of slice
+     * @param aLength Length of slice
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    public SpicesAsciiSequence(ByteBuffer aByteBuffer, int anOffset, int aLength) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aByteBuffer == null || anOffset < 0 || aLength < 0 || anOffset > aByteBuffer.limit() - aLength) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        this.bytes = null;
+        this.byteBuffer = aByteBuffer;
+        this.offset = anOffset;
+        this.length = aLength;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Length of slice
+     *
+     * @return Length of slice
+     */
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Char at index
+     *
+     * @param anIndex Index
+     * @return Char at index
+     * @throws IndexOutOfBoundsException Thrown if anIndex is out of bounds
+     */
+    @Override
+    public char charAt(int anIndex) throws IndexOutOfBoundsException {
+        if (anIndex < 0 || anIndex >= this.length) {
+            throw new IndexOutOfBoundsException("anIndex is out of bounds.");
+        }
+        if (this.bytes != null) {
+            return (char) (this.bytes[this.offset + anIndex] & 0xFF);
+        } else {
+            return (char) (this.byteBuffer.get(this.offset + anIndex) & 0xFF);
+        }
+    }
+
+    /**
+     * Sub sequence (view without copy)
+     *
+     * @param aStart Start index (inclusive)
+     * @param anEnd End index (exclusive)
+     * @return Sub sequence
+     * @throws IndexOutOfBoundsException Thrown if an index is out of bounds
+     */
+    @Override
+    public CharSequence subSequence(int aStart, int anEnd) throws IndexOutOfBoundsException {
+        if (aStart < 0 || anEnd > this.length || aStart > anEnd) {
+            throw new IndexOutOfBoundsException("An index is out of bounds.");
+        }
+        if (this.bytes != null) {
+            return new SpicesAsciiSequence(this.bytes, this.offset + aStart, anEnd - aStart);
+        } else {
+            return new SpicesAsciiSequence(this.byteBuffer, this.offset + aStart, anEnd - aStart);
+        }
+    }
+
+    /**
+     * String of slice
+     *
+     * @return String of slice
+     */
+    @Override
+    public String toString() {
+        char[] tmpChars = new char[this.length];
+        for (int i = 0; i < this.length; i++) {
+            tmpChars[i] = this.charAt(i);
+        }
+        return new String(tmpChars);
+    }
+    // </editor-fold>
+
+}
@@ -0,0 +1,592 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe and bounded cache for structure tokens, syntax trees (see
+ * SpicesNode) and adjacent arrays with structure string as key. A single
+ * shared instance is used by all Spices and SpicesInner instances of the
+ * process (see getSharedInstance()).
+ * The cache is bounded by a maximum number of entries and a maximum
+ * (estimated) number of bytes. Entries are evicted with a second chance
+ * (clock) strategy: Entries that were accessed since the last eviction
+ * sweep are retained once.
+ * NOTE: Cached arrays are shared and must NOT be modified.
+ *
+ * @author agent
+ */
+public final class SpicesCache {
+
+    // <editor-fold defaultstate="collapsed" desc="Private static final class variables">
+    /**
+     * Shared instance
+     */
+    private static final SpicesCache SHARED_INSTANCE = new SpicesCache(SpicesConstants.DEFAULT_STRUCTURE_CACHE_MAXIMUM_NUMBER_OF_ENTRIES,
+            SpicesConstants.DEFAULT_STRUCTURE_CACHE_MAXIMUM_NUMBER_OF_BYTES);
+
+    /**
+     * Estimated number of bytes of an object header
+     */
+    private static final int OBJECT_HEADER_BYTES = 16;
+
+    /**
+     * Estimated number of bytes of a reference
+     */
+    private static final int REFERENCE_BYTES = 4;
+
+    /**
+     * Estimated number of bytes of a String instance without characters
+     */
+    private static final int STRING_BYTES = 40;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Structure string to cache entry map
+     */
+    private final ConcurrentHashMap<String, CacheEntry> structureToEntryMap;
+
+    /**
+     * Clock queue of cache entries for eviction
+     */
+    private final ConcurrentLinkedQueue<CacheEntry> evictionQueue;
+
+    /**
+     * Estimated number of bytes of all cache entries
+     */
+    private final AtomicLong numberOfBytes;
+
+    /**
+     * Number of cache hits
+     */
+    private final AtomicLong numberOfHits;
+
+    /**
+     * Number of cache misses
+     */
+    private final AtomicLong numberOfMisses;
+
+    /**
+     * Number of evicted cache entries
+     */
+    private final AtomicLong numberOfEvictions;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class variables">
+    /**
+     * Maximum number of cache entries
+     */
+    private volatile int maximumNumberOfEntries;
+
+    /**
+     * Maximum (estimated) number of bytes of all cache entries
+     */
+    private volatile long maximumNumberOfBytes;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructor">
+    /**
+     * Constructor
+     *
+     * @param aMaximumNumberOfEntries Maximum number of cache entries (0
+     * disables caching)
+     * @param aMaximumNumberOfBytes Maximum (estimated) number of bytes of
+     * all cache entries (0 disables caching)
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    public SpicesCache(int aMaximumNumberOfEntries, long aMaximumNumberOfBytes) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aMaximumNumberOfEntries < 0 || aMaximumNumberOfBytes < 0) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        this.structureToEntryMap = new ConcurrentHashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+        this.evictionQueue = new ConcurrentLinkedQueue<>();
+        this.numberOfBytes = new AtomicLong();
+        this.numberOfHits = new AtomicLong();
+        this.numberOfMisses = new AtomicLong();
+        this.numberOfEvictions = new AtomicLong();
+        this.maximumNumberOfEntries = aMaximumNumberOfEntries;
+        this.maximumNumberOfBytes = aMaximumNumberOfBytes;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public static methods">
+    /**
+     * Shared instance that is used by all Spices and SpicesInner instances
+     *
+     * @return Shared instance
+     */
+    public static SpicesCache getSharedInstance() {
+        return SpicesCache.SHARED_INSTANCE;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Returns cached structure tokens
+     *
+     * @param aStructure Structure string
+     * @return Cached structure tokens (must NOT be modified) or null if
+     * none are cached
+     */
+    public String[] getStructureTokens(String aStructure) {
+        CacheEntry tmpEntry = this.getEntry(aStructure);
+        String[] tmpResult = tmpEntry == null ? null : tmpEntry.structureTokens;
+        this.countAccess(tmpEntry, tmpResult != null);
+        return tmpResult;
+    }
+
+    /**
+     * Caches structure tokens
+     *
+     * @param aStructure Structure string
+     * @param aStructureTokens Structure tokens (must NOT be modified after
+     * this call)
+     */
+    public void putStructureTokens(String aStructure, String[] aStructureTokens) {
+        CacheEntry tmpEntry = this.getOrCreateEntry(aStructure);
+        if (tmpEntry == null || aStructureTokens == null) {
+            return;
+        }
+        synchronized (tmpEntry) {
+            if (tmpEntry.structureTokens != null) {
+                return;
+            }
+            tmpEntry.structureTokens = aStructureTokens;
+        }
+        this.addBytes(tmpEntry, SpicesCache.getNumberOfBytes(aStructureTokens));
+        this.evict();
+    }
+
+    /**
+     * Returns cached root node of syntax tree
+     *
+     * @param aStructure Structure string
+     * @return Cached root node of syntax tree or null if none is cached
+     */
+    public SpicesNode getStructureNode(String aStructure) {
+        CacheEntry tmpEntry = this.getEntry(aStructure);
+        SpicesNode tmpResult = tmpEntry == null ? null : tmpEntry.structureNode;
+        this.countAccess(tmpEntry, tmpResult != null);
+        return tmpResult;
+    }
+
+    /**
+     * Caches root node of syntax tree
+     *
+     * @param aStructure Structure string
+     * @param aStructureNode Root node of syntax tree
+     */
+    public void putStructureNode(String aStructure, SpicesNode aStructureNode) {
+        CacheEntry tmpEntry = this.getOrCreateEntry(aStructure);
+        if (tmpEntry == null || aStructureNode == null) {
+            return;
+        }
+        synchronized (tmpEntry) {
+            if (tmpEntry.structureNode != null) {
+                return;
+            }
+            tmpEntry.structureNode = aStructureNode;
+        }
+        this.addBytes(tmpEntry, SpicesCache.getNumberOfBytes(aStructureNode));
+        this.evict();
+    }
+
+    /**
+     * Returns cached adjacent array
+     *
+     * @param aStructure Structure string
+     * @return Cached adjacent array (must NOT be modified) or null if none
+     * is cached
+     */
+    public int[][] getAdjacentArray(String aStructure) {
+        CacheEntry tmpEntry = this.getEntry(aStructure);
+        int[][] tmpResult = tmpEntry == null ? null : tmpEntry.adjacentArray;
+        this.countAccess(tmpEntry, tmpResult != null);
+        return tmpResult;
+    }
+
+    /**
+     * Caches adjacent array
+     *
+     * @param aStructure Structure string
+     * @param anAdjacentArray Adjacent array (must NOT be modified after this
+     * call)
+     */
+    public void putAdjacentArray(String aStructure, int[][] anAdjacentArray) {
+        CacheEntry tmpEntry = this.getOrCreateEntry(aStructure);
+        if (tmpEntry == null || anAdjacentArray == null) {
+            return;
+        }
+        synchronized (tmpEntry) {
+            if (tmpEntry.adjacentArray != null) {
+                return;
+            }
+            tmpEntry.adjacentArray = anAdjacentArray;
+        }
+        this.addBytes(tmpEntry, SpicesCache.getNumberOfBytes(anAdjacentArray));
+        this.evict();
+    }
+
+    /**
+     * Removes all cache entries. NOTE: Counters are not reset.
+     */
+    public void clear() {
+        // NOTE: Every entry is marked as removed (see removeEntry()) so that
+        // a concurrent addBytes() does not change the total number of bytes
+        for (CacheEntry tmpEntry : this.structureToEntryMap.values()) {
+            this.removeEntry(tmpEntry);
+        }
+        // NOTE: Entries that were added concurrently remain in the eviction
+        // queue
+        this.evictionQueue.removeIf(anEntry -> this.structureToEntryMap.get(anEntry.structure) != anEntry);
+    }
+
+    /**
+     * Resets hit, miss and eviction counters
+     */
+    public void resetCounters() {
+        this.numberOfHits.set(0L);
+        this.numberOfMisses.set(0L);
+        this.numberOfEvictions.set(0L);
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Maximum number of cache entries
+     *
+     * @return Maximum number of cache entries
+     */
+    public int getMaximumNumberOfEntries() {
+        return this.maximumNumberOfEntries;
+    }
+
+    /**
+     * Maximum number of cache entries. NOTE: Surplus entries are evicted.
+     *
+     * @param aValue Maximum number of cache entries (0 disables caching)
+     * @throws IllegalArgumentException Thrown if aValue is negative
+     */
+    public void setMaximumNumberOfEntries(int aValue) throws IllegalArgumentException {
+        if (aValue < 0) {
+            throw new IllegalArgumentException("aValue is negative.");
+        }
+        this.maximumNumberOfEntries = aValue;
+        this.evict();
+    }
+
+    /**
+     * Maximum (estimated) number of bytes of all cache entries
+     *
+     * @return Maximum number of bytes
+     */
+    public long getMaximumNumberOfBytes() {
+        return this.maximumNumberOfBytes;
+    }
+
+    /**
+     * Maximum (estimated) number of bytes of all cache entries. NOTE:
+     * Surplus entries are evicted.
+     *
+     * @param aValue Maximum number of bytes (0 disables caching)
+     * @throws IllegalArgumentException Thrown if aValue is negative
+     */
+    public void setMaximumNumberOfBytes(long aValue) throws IllegalArgumentException {
+        if (aValue < 0) {
+            throw new IllegalArgumentException("aValue is negative.");
+        }
+        this.maximumNumberOfBytes = aValue;
+        this.evict();
+    }
+
+    /**
+     * Number of cache entries
+     *
+     * @return Number of cache entries
+     */
+    public int getNumberOfEntries() {
+        return this.structureToEntryMap.size();
+    }
+
+    /**
+     * Estimated number of bytes of all cache entries
+     *
+     * @return Estimated number of bytes
+     */
+    public long getNumberOfBytes() {
+        return this.numberOfBytes.get();
+    }
+
+    /**
+     * Number of cache hits
+     *
+     * @return Number of cache hits
+     */
+    public long getNumberOfHits() {
+        return this.numberOfHits.get();
+    }
+
+    /**
+     * Number of cache misses
+     *
+     * @return Number of cache misses
+     */
+    public long getNumberOfMisses() {
+        return this.numberOfMisses.get();
+    }
+
+    /**
+     * Number of evicted cache entries
+     *
+     * @return Number of evicted cache entries
+     */
+    public long getNumberOfEvictions() {
+        return this.numberOfEvictions.get();
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private methods">
+    /**
+     * Returns cache entry
+     *
+     * @param aStructure Structure string
+     * @return Cache entry or null
+     */
+    private CacheEntry getEntry(String aStructure) {
+        if (aStructure == null) {
+            return null;
+        }
+        return this.structureToEntryMap.get(aStructure);
+    }
+
+    /**
+     * Returns existing or new cache entry
+     *
+     * @param aStructure Structure string
+     * @return Cache entry or null if caching is disabled
+     */
+    private CacheEntry getOrCreateEntry(String aStructure) {
+        if (aStructure == null || this.maximumNumberOfEntries == 0 || this.maximumNumberOfBytes == 0L) {
+            return null;
+        }
+        CacheEntry tmpEntry = this.structureToEntryMap.get(aStructure);
+        if (tmpEntry == null) {
+            CacheEntry tmpNewEntry = new CacheEntry(aStructure);
+            tmpEntry = this.structureToEntryMap.putIfAbsent(aStructure, tmpNewEntry);
+            if (tmpEntry == null) {
+                tmpEntry = tmpNewEntry;
+                this.evictionQueue.offer(tmpEntry);
+                this.addBytes(tmpEntry, SpicesCache.getNumberOfBytes(aStructure) + OBJECT_HEADER_BYTES + 5 * REFERENCE_BYTES);
+            }
+        }
+        return tmpEntry;
+    }
+
+    /**
+     * Counts a cache access
+     *
+     * @param anEntry Cache entry (may be null)
+     * @param anIsHit True: Cache hit, false: Cache miss
+     */
+    private void countAccess(CacheEntry anEntry, boolean anIsHit) {
+        if (anIsHit) {
+            anEntry.isReferenced = true;
+            this.numberOfHits.incrementAndGet();
+        } else {
+            this.numberOfMisses.incrementAndGet();
+        }
+    }
+
+    /**
+     * Adds bytes to entry and total number of bytes
+     *
+     * @param anEntry Cache entry
+     * @param aNumberOfBytes Number of bytes
+     */
+    private void addBytes(CacheEntry anEntry, long aNumberOfBytes) {
+        synchronized (anEntry) {
+            anEntry.numberOfBytes += aNumberOfBytes;
+            if (anEntry.isRemoved) {
+                return;
+            }
+        }
+        this.numberOfBytes.addAndGet(aNumberOfBytes);
+    }
+
+    /**
+     * Evicts cache entries until cache bounds are met. Entries that were
+     * accessed since last sweep get a second chance.
+     */
+    private void evict() {
+        // Each entry is visited at most twice (second chance)
+        int tmpMaximumNumberOfVisits = 2 * this.structureToEntryMap.size() + 1;
+        for (int i = 0; i < tmpMaximumNumberOfVisits; i++) {
+            if (this.structureToEntryMap.size() <= this.maximumNumberOfEntries && this.numberOfBytes.get() <= this.maximumNumberOfBytes) {
+                return;
+            }
+            CacheEntry tmpEntry = this.evictionQueue.poll();
+            if (tmpEntry == null) {
+                return;
+            }
+            if (tmpEntry.isReferenced) {
+                tmpEntry.isReferenced = false;
+                this.evictionQueue.offer(tmpEntry);
+            } else if (this.removeEntry(tmpEntry)) {
+                this.numberOfEvictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes entry from cache and subtracts its bytes from the total number
+     * of bytes. NOTE: The entry is marked as removed under the same lock as
+     * in addBytes().
+     *
+     * @param anEntry Cache entry
+     * @return True: Entry was removed, false: Entry was already removed
+     */
+    private boolean removeEntry(CacheEntry anEntry) {
+        if (!this.structureToEntryMap.remove(anEntry.structure, anEntry)) {
+            return false;
+        }
+        long tmpNumberOfBytes;
+        synchronized (anEntry) {
+            anEntry.isRemoved = true;
+            tmpNumberOfBytes = anEntry.numberOfBytes;
+        }
+        this.numberOfBytes.addAndGet(-tmpNumberOfBytes);
+        return true;
+    }
+
+    /**
+     * Estimated number of bytes of a string
+     *
+     * @param aString String
+     * @return Estimated number of bytes
+     */
+    private static long getNumberOfBytes(String aString) {
+        return STRING_BYTES + 2L * aString.length();
+    }
+
+    /**
+     * Estimated number of bytes of a string array
+     *
+     * @param aStrings String array
+     * @return Estimated number of bytes
+     */
+    private static long getNumberOfBytes(String[] aStrings) {
+        long tmpResult = OBJECT_HEADER_BYTES + (long) REFERENCE_BYTES * aStrings.length;
+        for (String tmpString : aStrings) {
+            if (tmpString != null) {
+                tmpResult += SpicesCache.getNumberOfBytes(tmpString);
+            }
+        }
+        return tmpResult;
+    }
+
+    /**
+     * Estimated number of bytes of a syntax tree. NOTE: Shared nodes are
+     * counted for each occurrence.
+     *
+     * @param aStructureNode Root node of syntax tree
+     * @return Estimated number of bytes
+     */
+    private static long getNumberOfBytes(SpicesNode aStructureNode) {
+        return (long) aStructureNode.getNumberOfNodes() * (2L * OBJECT_HEADER_BYTES + 4L * REFERENCE_BYTES);
+    }
+
+    /**
+     * Estimated number of bytes of an adjacent array
+     *
+     * @param anAdjacentArray Adjacent array
+     * @return Estimated number of bytes
+     */
+    private static long getNumberOfBytes(int[][] anAdjacentArray) {
+        long tmpResult = OBJECT_HEADER_BYTES + (long) REFERENCE_BYTES * anAdjacentArray.length;
+        for (int[] tmpNeighbors : anAdjacentArray) {
+            if (tmpNeighbors != null) {
+                tmpResult += OBJECT_HEADER_BYTES + 4L * tmpNeighbors.length;
+            }
+        }
+        return tmpResult;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class CacheEntry">
+    /**
+     * Cache entry
+     */
+    private static final class CacheEntry {
+
+        /**
+         * Structure string (key)
+         */
+        final String structure;
+
+        /**
+         * Structure tokens
+         */
+        volatile String[] structureTokens;
+
+        /**
+         * Root node of syntax tree
+         */
+        volatile SpicesNode structureNode;
+
+        /**
+         * Adjacent array
+         */
+        volatile int[][] adjacentArray;
+
+        /**
+         * True: Entry was accessed since last eviction sweep, false:
+         * Otherwise
+         */
+        volatile boolean isReferenced;
+
+        /**
+         * True: Entry is removed from cache, false: Otherwise
+         */
+        boolean isRemoved;
+
+        /**
+         * Estimated number of bytes of entry
+         */
+        long numberOfBytes;
+
+        /**
+         * Constructor
+         *
+         * @param aStructure Structure string
+         */
+        CacheEntry(String aStructure) {
+            this.structure = aStructure;
+        }
+
+    }
+    // </editor-fold>
+
+}
@@ -43,6 +43,41 @@ public final class SpicesConstants {
      */
     public static final int DEFAULT_NUMBER_OF_PARTICLES = 100;
 
+    /**
+     * Default maximum number of entries of the shared structure cache
+     */
+    public static final int DEFAULT_STRUCTURE_CACHE_MAXIMUM_NUMBER_OF_ENTRIES = 10000;
+
+    /**
+     * Default maximum (estimated) number of bytes of the shared structure
+     * cache
+     */
+    public static final long DEFAULT_STRUCTURE_CACHE_MAXIMUM_NUMBER_OF_BYTES = 64L * 1024L * 1024L;
+
+    /**
+     * Default maximum number of nodes of the shared node pool (see
+     * SpicesNode)
+     */
+    public static final int DEFAULT_NODE_POOL_MAXIMUM_NUMBER_OF_NODES = 100000;
+
+    /**
+     * Default maximum number of compiled parts of the shared part pool (see
+     * SpicesPartPool)
+     */
+    public static final int DEFAULT_PART_POOL_MAXIMUM_NUMBER_OF_PARTS = 10000;
+
+    /**
+     * Maximum number of interned sets of available particles (see
+     * SpicesPartPool.getParticleSetId())
+     */
+    public static final int PARTICLE_SET_MAXIMUM_NUMBER_OF_SETS = 1000;
+
+    /**
+     * Default initial number of part blocks of the work buffers of an arena
+     * (see SpicesArena)
+     */
+    public static final int DEFAULT_ARENA_INITIAL_NUMBER_OF_PART_BLOCKS = 16;
+
     /**
      * Separator string for particles
      */
@@ -62,5 +97,145 @@ public final class SpicesConstants {
      * Pattern for input structure to match
      */
     public static final Pattern INPUTSTRUCTURE_PATTERN = Pattern.compile("[0-9a-zA-Z\\{\\}\\#\\(\\)\\[\\]\\<\\>\\-\\'\\s]+");
-    
+
+    // <editor-fold defaultstate="collapsed" desc="Token kinds">
+    /**
+     * Token kind: Unknown token (none of the kinds below)
+     */
+    public static final byte TOKEN_KIND_UNKNOWN = 0;
+
+    /**
+     * Token kind: Particle, e.g. "H2O"
+     */
+    public static final byte TOKEN_KIND_PARTICLE = 1;
+
+    /**
+     * Token kind: Monomer, e.g. "#Hugo"
+     */
+    public static final byte TOKEN_KIND_MONOMER = 2;
+
+    /**
+     * Token kind: Integer number (frequency), e.g. "3"
+     */
+    public static final byte TOKEN_KIND_NUMBER = 3;
+
+    /**
+     * Token kind: Connection "-"
+     */
+    public static final byte TOKEN_KIND_CONNECTION = 4;
+
+    /**
+     * Token kind: Normal opening bracket "("
+     */
+    public static final byte TOKEN_KIND_NORMAL_BRACKET_OPEN = 5;
+
+    /**
+     * Token kind: Normal closing bracket ")"
+     */
+    public static final byte TOKEN_KIND_NORMAL_BRACKET_CLOSE = 6;
+
+    /**
+     * Token kind: Curly opening bracket "{"
+     */
+    public static final byte TOKEN_KIND_CURLY_BRACKET_OPEN = 7;
+
+    /**
+     * Token kind: Curly closing bracket "}"
+     */
+    public static final byte TOKEN_KIND_CURLY_BRACKET_CLOSE = 8;
+
+    /**
+     * Token kind: Angle opening bracket "&lt;"
+     */
+    public static final byte TOKEN_KIND_ANGLE_BRACKET_OPEN = 9;
+
+    /**
+     * Token kind: Angle closing bracket "&gt;"
+     */
+    public static final byte TOKEN_KIND_ANGLE_BRACKET_CLOSE = 10;
+
+    /**
+     * Token kind: Ring closure, e.g. "[1]"
+     */
+    public static final byte TOKEN_KIND_RING_CLOSURE = 11;
+
+    /**
+     * Token kind: HEAD tag "[HEAD]"
+     */
+    public static final byte TOKEN_KIND_HEAD = 12;
+
+    /**
+     * Token kind: TAIL tag "[TAIL]"
+     */
+    public static final byte TOKEN_KIND_TAIL = 13;
+
+    /**
+     * Token kind: START tag "[START]"
+     */
+    public static final byte TOKEN_KIND_START = 14;
+
+    /**
+     * Token kind: END tag "[END]"
+     */
+    public static final byte TOKEN_KIND_END = 15;
+
+    /**
+     * Token kind: Backbone index, e.g. "'1'"
+     */
+    public static final byte TOKEN_KIND_BACKBONE_INDEX = 16;
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Node kinds">
+    /**
+     * Node kind: Part (root node), e.g. "A-B(C)-D"
+     */
+    public static final byte NODE_KIND_PART = 1;
+
+    /**
+     * Node kind: Branch in normal brackets, e.g. "(C)"
+     */
+    public static final byte NODE_KIND_BRANCH = 2;
+
+    /**
+     * Node kind: Repeated curly bracket block, e.g. "3{A[HEAD]-B[TAIL]}"
+     */
+    public static final byte NODE_KIND_REPEAT = 3;
+
+    /**
+     * Node kind: Monomer block in curly brackets without repeat count, e.g.
+     * "{A[HEAD]-B[TAIL]}"
+     */
+    public static final byte NODE_KIND_MONOMER_BLOCK = 4;
+
+    /**
+     * Node kind: Particle with optional frequency, e.g. "A" or "5A"
+     */
+    public static final byte NODE_KIND_PARTICLE = 5;
+
+    /**
+     * Node kind: Monomer with optional frequency, e.g. "#Hugo" or "2#Hugo"
+     */
+    public static final byte NODE_KIND_MONOMER = 6;
+
+    /**
+     * Node kind: Connection "-"
+     */
+    public static final byte NODE_KIND_CONNECTION = 7;
+
+    /**
+     * Node kind: Ring closure, e.g. "[1]"
+     */
+    public static final byte NODE_KIND_RING_CLOSURE = 8;
+
+    /**
+     * Node kind: Tag, e.g. "[HEAD]", "[TAIL]", "[START]", "[END]" or "'1'"
+     */
+    public static final byte NODE_KIND_TAG = 9;
+
+    /**
+     * Node kind: Any other token (none of the kinds above)
+     */
+    public static final byte NODE_KIND_TOKEN = 10;
+    // </editor-fold>
+
 }
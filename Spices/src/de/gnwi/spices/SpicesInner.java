@@ -26,15 +26,42 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.Queue;
 
 /**
- * Inner Spices
+ * Inner Spices. NOTE: A compiled SpicesInner instance is immutable (derived
+ * properties are created on request) and may be shared by several Spices
+ * instances (see SpicesPartPool).
  * 
  * @author Mirco Daniel, Achim Zielesny
  */
 public class SpicesInner {
 
+    // <editor-fold defaultstate="collapsed" desc="Private static final class variables">
+    /**
+     * Particle index of START/END particle that is not yet determined
+     */
+    private static final int UNKNOWN_PARTICLE_INDEX = -2;
+
+    /**
+     * Template event of a repeat group (see setNeighborParticles()): Bond
+     * of two particles of the template copy
+     */
+    private static final int TEMPLATE_EVENT_BOND = 0;
+
+    /**
+     * Template event of a repeat group (see setNeighborParticles()): Curly
+     * opening bracket without left particle, i.e. link of TAIL particle to
+     * next particle
+     */
+    private static final int TEMPLATE_EVENT_TAIL = 1;
+
+    /**
+     * Template event of a repeat group (see setNeighborParticles()): Link
+     * of a particle to the HEAD particle of a curly opening bracket
+     */
+    private static final int TEMPLATE_EVENT_HEAD = 2;
+    // </editor-fold>
+    //
     // <editor-fold defaultstate="collapsed" desc="Private final class variables">
     /**
      * Instance of SpicesUtility class
@@ -54,9 +81,33 @@ public class SpicesInner {
     private String inputStructure;
 
     /**
-     * Inner structure tokens
+     * Inner structure tokens. NOTE: The compiled tokens of a valid structure
+     * are only created on request (see getInnerStructureTokens()).
+     */
+    private volatile String[] innerStructureTokens;
+
+    /**
+     * Root node of the (shared) syntax tree of the part structure
      */
-    private String[] innerStructureTokens;
+    private SpicesNode partNode;
+
+    /**
+     * Compiled inner structure tokens as runs (particle series are NOT
+     * expanded to single tokens)
+     */
+    private SpicesTokenRuns innerTokenRuns;
+
+    /**
+     * Kinds of inner structure tokens (see SpicesConstants.TOKEN_KIND_...)
+     */
+    private byte[] innerTokenKinds;
+
+    /**
+     * Pre-parsed numbers of inner structure tokens: Repeat count of number
+     * tokens, ring closure number of ring closure tokens, backbone index of
+     * backbone index tokens and 0 for all other tokens
+     */
+    private int[] innerTokenNumbers;
 
     /**
      * State information whether this structure has START/END attribute
@@ -68,11 +119,6 @@ public class SpicesInner {
      */
     private boolean hasBackboneAttribute;
 
-    /**
-     * State information whether a Token is a particle or not.
-     */
-    private boolean[] isInnerParticleList;
-
     /**
      * Inner particle index (zero-based position of particles in
      * this.structureTokens)
@@ -80,24 +126,20 @@ public class SpicesInner {
     private int[] innerParticleIndices;
 
     /**
-     * Backbone index (zero-based position of particles with backbone index flag)
+     * Backbone index (zero-based position of particles with backbone index
+     * flag, created on request)
      */
-    private int[] innerBackboneIndices;
+    private volatile int[] innerBackboneIndices;
 
     /**
-     * HashMap that maps particles of molecule to their frequencies
+     * Monomers (created on request, empty array: No monomers)
      */
-    private HashMap<String, ParticleFrequency> particleToFrequencyMap;
+    private volatile String[] monomers;
 
     /**
-     * Monomers
+     * Adjacent array (connection between two particles, created on request)
      */
-    private String[] monomers;
-
-    /**
-     * Adjacent array (connection between two particles)
-     */
-    private int[][] adjacentArray;
+    private volatile int[][] adjacentArray;
 
     /**
      * Numbers of terminal particles
@@ -107,41 +149,57 @@ public class SpicesInner {
     /**
      * Index number of start particle in the particle list. Not confuse with
      * index number of an token list. It is 0-based and -1 means no
-     * [START]-tag exists.
+     * [START]-tag exists (created on request, see UNKNOWN_PARTICLE_INDEX).
      */
-    private int startParticleIndex;
+    private volatile int startParticleIndex = UNKNOWN_PARTICLE_INDEX;
 
     /**
      * Index number of end particle in the particle list. Not confuse with
      * index number of an token list. It is 0-based and -1 means no
-     * [END]-tag exists.
+     * [END]-tag exists (created on request, see UNKNOWN_PARTICLE_INDEX).
      */
-    private int endParticleIndex;
+    private volatile int endParticleIndex = UNKNOWN_PARTICLE_INDEX;
 
     /**
-     * Valence number of a particle
+     * Valence number of a particle (created on request)
      */
-    private int[] numberOfConnects;
+    private volatile int[] numberOfConnects;
 
     /**
-     * Connected particles (zero-based number of two connected particles)
+     * Particle graph (neighbor particles of all particles)
      */
-    private LinkedList<int[]> connectedParticlesList;
+    private ParticleGraph particleGraph;
 
     /**
-     * Maximum number of connections (bonds) of a single particle
+     * Connected components of particle graph (created on request)
+     */
+    private volatile ParticleComponents particleComponents;
+
+    /**
+     * Smallest set of smallest rings of particle graph (created on request)
      */
-    private int maximumNumberOfConnectionsOfSingleParticle;
+    private volatile ParticleRings particleRings;
 
     /**
-     * Terminal particle flag
+     * Maximum number of connections (bonds) of a single particle (created
+     * on request, -1: Not yet created)
      */
-    private boolean[] terminalParticleFlag;
+    private volatile int maximumNumberOfConnectionsOfSingleParticle = -1;
+
+    /**
+     * Terminal particle flag (created on request)
+     */
+    private volatile boolean[] terminalParticleFlag;
 
     /**
      * Particles
      */
     private String[] innerParticles;
+
+    /**
+     * Particle ids of inner particles (see SpicesParticleTable)
+     */
+    private int[] innerParticleIds;
     // </editor-fold>
     //
     // <editor-fold defaultstate="collapsed" desc="Constructors">
@@ -184,30 +242,152 @@ public class SpicesInner {
     }
 
     /**
-     * Returns the innerstructuretokens
+     * Returns the innerstructuretokens. NOTE: The returned array is a copy
+     * (see getInnerStructureToken()).
      * 
      * @return inputInnerStructureTokens
      */
     public String[] getInnerStructureTokens() {
-        return this.innerStructureTokens;
+        String[] tmpInnerStructureTokens = this.getInnerStructureTokenArray();
+        return tmpInnerStructureTokens == null ? null : tmpInnerStructureTokens.clone();
+    }
+
+    /**
+     * Returns the number of inner structure tokens
+     *
+     * @return Number of inner structure tokens
+     */
+    public int getNumberOfInnerStructureTokens() {
+        return this.getInnerStructureTokenArray().length;
+    }
+
+    /**
+     * Returns a single inner structure token
+     *
+     * @param aTokenIndex Index of inner structure token
+     * @return Inner structure token
+     */
+    public String getInnerStructureToken(int aTokenIndex) {
+        return this.getInnerStructureTokenArray()[aTokenIndex];
+    }
+
+    /**
+     * Returns the compiled inner structure tokens as runs.
+     * NOTE: Returned runs are NOT allowed to be changed.
+     *
+     * @return Compiled inner structure tokens as runs or null
+     */
+    public SpicesTokenRuns getInnerTokenRuns() {
+        return this.innerTokenRuns;
+    }
+
+    /**
+     * Returns the root node of the (shared and immutable) syntax tree of the
+     * part structure
+     *
+     * @return Root node of syntax tree or null if the part structure is
+     * invalid
+     */
+    public SpicesNode getPartNode() {
+        return this.partNode;
+    }
+
+    /**
+     * Returns the kinds of the inner structure tokens
+     *
+     * @return Kinds of inner structure tokens (see
+     * SpicesConstants.TOKEN_KIND_...) or null
+     */
+    public byte[] getInnerTokenKinds() {
+        if (this.innerTokenKinds == null && this.innerTokenRuns != null) {
+            this.innerTokenKinds = this.innerTokenRuns.getTokenKinds();
+        }
+        return this.innerTokenKinds == null ? null : this.innerTokenKinds.clone();
+    }
+
+    /**
+     * Returns the pre-parsed numbers of the inner structure tokens: Repeat
+     * count of number tokens, ring closure number of ring closure tokens,
+     * backbone index of backbone index tokens and 0 for all other tokens
+     *
+     * @return Pre-parsed numbers of inner structure tokens or null
+     */
+    public int[] getInnerTokenNumbers() {
+        if (this.innerTokenNumbers == null && this.innerTokenRuns != null) {
+            this.innerTokenNumbers = this.innerTokenRuns.getTokenNumbers();
+        }
+        return this.innerTokenNumbers == null ? null : this.innerTokenNumbers.clone();
     }
 
     /**
-     * Returns inner particles
+     * Returns inner particles. NOTE: The returned array is a copy (see
+     * getInnerParticle()).
      *
      * @return Inner particles
      */
     public String[] getInnerParticles() {
-        return this.innerParticles;
+        return this.innerParticles == null ? null : this.innerParticles.clone();
+    }
+
+    /**
+     * Returns the number of inner particles
+     *
+     * @return Number of inner particles
+     */
+    public int getNumberOfInnerParticles() {
+        return this.innerParticles.length;
+    }
+
+    /**
+     * Returns a single inner particle
+     *
+     * @param aParticleIndex Index of inner particle
+     * @return Inner particle
+     */
+    public String getInnerParticle(int aParticleIndex) {
+        return this.innerParticles[aParticleIndex];
+    }
+
+    /**
+     * Returns particle ids of inner particles (see SpicesParticleTable).
+     * NOTE: The returned array is a copy (see getInnerParticleId()).
+     *
+     * @return Particle ids of inner particles
+     */
+    public int[] getInnerParticleIds() {
+        return this.innerParticleIds == null ? null : this.innerParticleIds.clone();
+    }
+
+    /**
+     * Returns particle id of a single inner particle (see
+     * SpicesParticleTable)
+     *
+     * @param aParticleIndex Index of inner particle
+     * @return Particle id of inner particle
+     */
+    public int getInnerParticleId(int aParticleIndex) {
+        return this.innerParticleIds[aParticleIndex];
     }
 
     /**
-     * Particle index
+     * Particle index. NOTE: The returned array is a copy (see
+     * getInnerParticleIndex()).
      *
      * @return Particle indices
      */
     public int[] getInnerParticleIndices() {
-        return this.innerParticleIndices;
+        return this.innerParticleIndices == null ? null : this.innerParticleIndices.clone();
+    }
+
+    /**
+     * Particle index of a single inner particle (zero-based position of
+     * particle in inner structure tokens)
+     *
+     * @param aParticleIndex Index of inner particle
+     * @return Particle index
+     */
+    public int getInnerParticleIndex(int aParticleIndex) {
+        return this.innerParticleIndices[aParticleIndex];
     }
 
     /**
@@ -218,7 +398,12 @@ public class SpicesInner {
      * @return Index number of start particle 
      */
     public int getStartParticleIndex() {
-        return this.startParticleIndex;
+        int tmpStartParticleIndex = this.startParticleIndex;
+        if (tmpStartParticleIndex == UNKNOWN_PARTICLE_INDEX) {
+            tmpStartParticleIndex = this.getStartTagParticleIndex();
+            this.startParticleIndex = tmpStartParticleIndex;
+        }
+        return tmpStartParticleIndex;
     }
     
     /**
@@ -227,16 +412,76 @@ public class SpicesInner {
      * @return 0-based index number of particle with "END"-tag
      */
     public int getEndParticleIndex() {
-        return this.endParticleIndex;
+        int tmpEndParticleIndex = this.endParticleIndex;
+        if (tmpEndParticleIndex == UNKNOWN_PARTICLE_INDEX) {
+            tmpEndParticleIndex = this.getEndTagParticleIndex();
+            this.endParticleIndex = tmpEndParticleIndex;
+        }
+        return tmpEndParticleIndex;
     }
 
     /**
-     * Adjacent array (connection between two particles)
+     * Adjacent array (connection between two particles). NOTE: The returned
+     * array is a copy (see getParticleGraph()).
      * 
      * @return Adjacent array
      */
     public int[][] getAdjacentArray() {
-        return this.adjacentArray;
+        int[][] tmpAdjacentArray = this.adjacentArray;
+        if (tmpAdjacentArray == null && this.particleGraph != null) {
+            tmpAdjacentArray = spicesUtility.getSharedAdjacentArray(this.inputStructure, this.particleGraph);
+            this.adjacentArray = tmpAdjacentArray;
+        }
+        if (tmpAdjacentArray == null) {
+            return null;
+        }
+        int[][] tmpResult = new int[tmpAdjacentArray.length][];
+        for (int i = 0; i < tmpAdjacentArray.length; i++) {
+            if (tmpAdjacentArray[i] != null) {
+                tmpResult[i] = tmpAdjacentArray[i].clone();
+            }
+        }
+        return tmpResult;
+    }
+
+    /**
+     * Particle graph (neighbor particles of all particles)
+     * 
+     * @return Particle graph
+     */
+    public ParticleGraph getParticleGraph() {
+        return this.particleGraph;
+    }
+
+    /**
+     * Connected components of particle graph (a valid part has one
+     * component)
+     * 
+     * @return Connected components of particle graph or null if there is no
+     * particle graph
+     */
+    public ParticleComponents getParticleComponents() {
+        ParticleComponents tmpParticleComponents = this.particleComponents;
+        if (tmpParticleComponents == null && this.particleGraph != null) {
+            tmpParticleComponents = new ParticleComponents(this.particleGraph);
+            this.particleComponents = tmpParticleComponents;
+        }
+        return tmpParticleComponents;
+    }
+
+    /**
+     * Smallest set of smallest rings of particle graph (ring closures)
+     *
+     * @return Smallest set of smallest rings of particle graph or null if
+     * there is no particle graph
+     */
+    public ParticleRings getParticleRings() {
+        ParticleRings tmpParticleRings = this.particleRings;
+        if (tmpParticleRings == null && this.particleGraph != null) {
+            tmpParticleRings = new ParticleRings(this.particleGraph);
+            this.particleRings = tmpParticleRings;
+        }
+        return tmpParticleRings;
     }
     
     /**
@@ -254,25 +499,77 @@ public class SpicesInner {
      * @return Maximum number of connections
      */
     public int getMaximumNumberOfConnectionsOfSingleParticle() {
-        return this.maximumNumberOfConnectionsOfSingleParticle;
+        int tmpMaximumNumberOfConnections = this.maximumNumberOfConnectionsOfSingleParticle;
+        if (tmpMaximumNumberOfConnections < 0) {
+            tmpMaximumNumberOfConnections = 0;
+            int[] tmpNumberOfConnects = this.getNumberOfConnectsArray();
+            if (tmpNumberOfConnects != null) {
+                for (int tmpNumberOfConnect : tmpNumberOfConnects) {
+                    if (tmpNumberOfConnect > tmpMaximumNumberOfConnections) {
+                        tmpMaximumNumberOfConnections = tmpNumberOfConnect;
+                    }
+                }
+            }
+            this.maximumNumberOfConnectionsOfSingleParticle = tmpMaximumNumberOfConnections;
+        }
+        return tmpMaximumNumberOfConnections;
     }
 
     /**
-     * Maximum number of connections (bonds) of a single particle
-     * 
-     * @param aValue Value
+     * Maximum number of connections (bonds) of a single particle. NOTE: This
+     * method does nothing since the maximum number of connections is
+     * determined on request from the particle graph of the part (see
+     * getMaximumNumberOfConnectionsOfSingleParticle()).
+     *
+     * @param aValue Value (ignored)
+     * @deprecated Compiled parts are immutable and shared process-wide (see
+     * SpicesPartPool): Calls of this method may be removed without
+     * replacement
      */
+    @Deprecated
     public void setMaximumNumberOfConnectionsOfSingleParticle(int aValue) {
-        this.maximumNumberOfConnectionsOfSingleParticle = aValue;
+        // Nothing to do: Value is derived from particle graph
     }
-    
+
     /**
-     * Valence number of a particle
+     * Valence number of a particle. NOTE: The returned array is a copy.
      * 
      * @return Valence number of a particle
      */
     public int[] getNumberOfConnects() {
-        return this.numberOfConnects;
+        int[] tmpNumberOfConnects = this.getNumberOfConnectsArray();
+        return tmpNumberOfConnects == null ? null : tmpNumberOfConnects.clone();
+    }
+
+    /**
+     * Terminal particle flags (particles with exactly one neighbor). NOTE:
+     * The returned array is a copy.
+     * 
+     * @return Terminal particle flags
+     */
+    public boolean[] getTerminalParticleFlags() {
+        boolean[] tmpTerminalParticleFlag = this.getTerminalParticleFlagArray();
+        return tmpTerminalParticleFlag == null ? null : tmpTerminalParticleFlag.clone();
+    }
+
+    /**
+     * Monomers of part. NOTE: The returned array is a copy.
+     * 
+     * @return Monomers of part or null if there are none
+     */
+    public String[] getMonomers() {
+        String[] tmpMonomers = this.monomers;
+        if (tmpMonomers == null && this.innerTokenRuns != null) {
+            tmpMonomers = this.getMonomerList();
+            if (tmpMonomers == null) {
+                tmpMonomers = new String[0];
+            }
+            this.monomers = tmpMonomers;
+        }
+        if (tmpMonomers == null || tmpMonomers.length == 0) {
+            return null;
+        }
+        return tmpMonomers.clone();
     }
 
     /**
@@ -285,12 +582,25 @@ public class SpicesInner {
     }
     
     /**
-     * Inner backbone indices (zero-based position of particles with backbone index flag)
+     * Inner backbone indices (zero-based position of particles with backbone
+     * index flag).
+     * NOTE: The returned array is a copy (see getInnerBackboneIndex()).
      * 
      * @return Inner backbone indices
      */
     public int[] getInnerBackboneIndices() {
-        return this.innerBackboneIndices;
+        int[] tmpInnerBackboneIndices = this.getInnerBackboneIndexArray();
+        return tmpInnerBackboneIndices == null ? null : tmpInnerBackboneIndices.clone();
+    }
+
+    /**
+     * Backbone index of a single inner particle
+     *
+     * @param aParticleIndex Index of inner particle
+     * @return Backbone index of inner particle (0: No backbone index)
+     */
+    public int getInnerBackboneIndex(int aParticleIndex) {
+        return this.getInnerBackboneIndexArray()[aParticleIndex];
     }
     // </editor-fold>
     //
@@ -308,11 +618,11 @@ public class SpicesInner {
 
         // <editor-fold defaultstate="collapsed" desc="Local variable">
         LinkedList<int[]> tmpResultChainList = new LinkedList<>();
-        int[][] tmpConnectedParticleArray = aPart.connectedParticlesList.toArray(new int[0][]);
+        LinkedList<int[]> tmpConnectedParticlesList = aPart.getConnectedParticlesList();
 
         // </editor-fold>
         // <editor-fold defaultstate="collapsed" desc="Simple check">
-        if (aPart.getInnerStructureTokens() == null || aPart.getInnerStructureTokens().length == 0 || aPart.connectedParticlesList == null) {
+        if (aPart.innerTokenRuns == null || aPart.innerTokenRuns.getNumberOfTokens() == 0 || tmpConnectedParticlesList == null) {
             return null;
         }
 
@@ -328,44 +638,44 @@ public class SpicesInner {
         // </editor-fold>
         // <editor-fold defaultstate="collapsed" desc="Extend neighbor searching">
         int tmpExtendParticleCandidate;
-        int tmpNumberOfLink = tmpConnectedParticleArray.length;
-        tmpResultChainList.addAll(aPart.connectedParticlesList);
+        tmpResultChainList.addAll(tmpConnectedParticlesList);
 
         if (aSegmentLength == 2) {
             return tmpResultChainList;
         } else {
             int tmpCompareParticleIndex = 1;
             int tmpCompareParticle = 0;
-            LinkedList<int[]> tmpMultiChainList = new LinkedList<>(aPart.connectedParticlesList);
+            LinkedList<int[]> tmpMultiChainList = new LinkedList<>(tmpConnectedParticlesList);
             ArrayDeque<int[]> tmpHelpingChainList = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
             int tmpMultiChainParticleSize = 3;
+            boolean[] tmpTerminalParticleFlags = aPart.getTerminalParticleFlagArray();
+            int[] tmpOffsets = aPart.particleGraph.getOffsets();
+            int[] tmpNeighbors = aPart.particleGraph.getNeighbors();
             for (int i = 0; i < aSegmentLength - 2; i++) {
                 Iterator<int[]> tmpIterator = tmpMultiChainList.iterator();
                 // Delete all Chains with terminal particle - they can not be
                 // extended
                 while (tmpIterator.hasNext()) {
-                    if (aPart.terminalParticleFlag[tmpIterator.next()[tmpMultiChainParticleSize - 2]]) {
+                    if (tmpTerminalParticleFlags[tmpIterator.next()[tmpMultiChainParticleSize - 2]]) {
                         tmpIterator.remove();
                     }
                 }
                 for (int[] tmpMultiChainListItem : tmpMultiChainList) {
                     tmpCompareParticle = tmpMultiChainListItem[tmpCompareParticleIndex];
                     int[] tmpExtendedLinks = Arrays.copyOf(tmpMultiChainListItem, tmpMultiChainParticleSize);
-                    for (int j = 0; j < tmpNumberOfLink; j++) {
-                        if (tmpCompareParticle == tmpConnectedParticleArray[j][0]) {
-                            tmpExtendParticleCandidate = tmpConnectedParticleArray[j][1];
-                            boolean tmpIsCandidatePositive = true;
-                            for (int k = tmpMultiChainParticleSize - 3; k >= 0; k--) {
-                                if (tmpExtendedLinks[k] == tmpExtendParticleCandidate) {
-                                    tmpIsCandidatePositive = false;
-                                    break;
-                                }
-                            }
-                            if (tmpIsCandidatePositive) {
-                                tmpExtendedLinks[tmpMultiChainParticleSize - 1] = tmpExtendParticleCandidate;
-                                tmpHelpingChainList.add(tmpExtendedLinks.clone());
+                    for (int j = tmpOffsets[tmpCompareParticle]; j < tmpOffsets[tmpCompareParticle + 1]; j++) {
+                        tmpExtendParticleCandidate = tmpNeighbors[j];
+                        boolean tmpIsCandidatePositive = true;
+                        for (int k = tmpMultiChainParticleSize - 3; k >= 0; k--) {
+                            if (tmpExtendedLinks[k] == tmpExtendParticleCandidate) {
+                                tmpIsCandidatePositive = false;
+                                break;
                             }
                         }
+                        if (tmpIsCandidatePositive) {
+                            tmpExtendedLinks[tmpMultiChainParticleSize - 1] = tmpExtendParticleCandidate;
+                            tmpHelpingChainList.add(tmpExtendedLinks.clone());
+                        }
                     }
                 }
                 tmpCompareParticleIndex++;
@@ -396,6 +706,31 @@ public class SpicesInner {
         return this.getHeuristicDiameter(this);
     }
 
+    /**
+     * Determines the exact diameter (also for cyclic structures) with a
+     * maximum computation time (see GraphDiameter). If the maximum
+     * computation time is exceeded the longest path found so far is
+     * returned which is at least as long as the heuristic diameter.
+     *
+     * @param aMaximumTime Maximum computation time in milliseconds (less or
+     * equal 0: No limit)
+     * @param anIsParallel True: Eccentricities are computed in parallel,
+     * false: Otherwise
+     * @return Array of particles from one end of the diameter to the other.
+     */
+    public int[] getExactDiameter(long aMaximumTime, boolean anIsParallel) {
+        GraphDiameter tmpGraphDiameter = new GraphDiameter(this.particleGraph, aMaximumTime, anIsParallel);
+        if (tmpGraphDiameter.isExact() || this.particleGraph.getNumberOfParticles() < 2) {
+            return tmpGraphDiameter.getDiameterPath();
+        }
+        int[] tmpHeuristicDiameter = this.getHeuristicDiameter(this);
+        if (tmpHeuristicDiameter.length > tmpGraphDiameter.getDiameterPath().length) {
+            return tmpHeuristicDiameter;
+        } else {
+            return tmpGraphDiameter.getDiameterPath();
+        }
+    }
+
     /**
      * Determines the path from START particle to END particle. The path is
      * not necessarely the longest possible.
@@ -403,8 +738,21 @@ public class SpicesInner {
      * @return Array of particles from START-particle to END-particle.
      */
     public int[] getPathStartToEnd() {
+        return this.getPathStartToEnd(new BreadthFirstPath(this.particleGraph.getNumberOfParticles()));
+    }
+
+    /**
+     * Determines the path from START particle to END particle with a given
+     * breadth-first path finder whose work arrays are reused, e.g. for the
+     * parts of a multi-part structure (see Spices.getPathsStartToEnd()).
+     *
+     * @param aBreadthFirstPath Breadth-first path finder
+     * @return Array of particles from START-particle to END-particle or null
+     * if there are no START/END particles.
+     */
+    public int[] getPathStartToEnd(BreadthFirstPath aBreadthFirstPath) {
         if(this.hasStartEndAttribute) {
-            return this.getPathStartToEnd(this);
+            return this.getPathStartToEnd(this, aBreadthFirstPath);
         } else {
             return null;
         }
@@ -416,21 +764,15 @@ public class SpicesInner {
      * @return 0-based index number of particle with backbone-tag
      */
     public int[] getBackboneIndices() {
-        String tmpTestToken = "";
         int tmpBackboneParticleIndex = 0;
         int[] tmpResult = new int[this.innerParticleIndices.length];
         Arrays.fill(tmpResult, 0);
         if (this.hasBackboneAttribute) {
-            for (int i = 0; i < this.getInnerStructureTokens().length; i++) {
-                tmpTestToken = this.getInnerStructureTokens()[i];
-                if (spicesUtility.isBackboneIndex(tmpTestToken)) {
-                    tmpBackboneParticleIndex = Integer.parseInt(tmpTestToken.substring(1, tmpTestToken.length() - 1));
-                    for (int j = this.innerParticleIndices.length - 1; j >= 0; j--) {
-                        if (i > this.innerParticleIndices[j]) {
-                            tmpResult[j] = tmpBackboneParticleIndex;
-                            break;
-                        }
-                    }
+            for (int tmpRunIndex : this.innerTokenRuns.getRunIndicesOfKind(SpicesConstants.TOKEN_KIND_BACKBONE_INDEX)) {
+                tmpBackboneParticleIndex = this.innerTokenRuns.getNumber(tmpRunIndex);
+                // Last particle before backbone index token
+                if (this.innerTokenRuns.getParticleOffset(tmpRunIndex) > 0) {
+                    tmpResult[this.innerTokenRuns.getParticleOffset(tmpRunIndex) - 1] = tmpBackboneParticleIndex;
                 }
             }
         }
@@ -439,6 +781,71 @@ public class SpicesInner {
     // </editor-fold>
     //
     // <editor-fold defaultstate="collapsed" desc="Private methods">
+    // <editor-fold defaultstate="collapsed" desc="- Shared array related methods">
+    /**
+     * Inner structure tokens (created on request). NOTE: Returned array is
+     * shared with all users of this (pooled) part and is NOT allowed to be
+     * changed.
+     *
+     * @return Inner structure tokens
+     */
+    private String[] getInnerStructureTokenArray() {
+        String[] tmpInnerStructureTokens = this.innerStructureTokens;
+        if (tmpInnerStructureTokens == null && this.innerTokenRuns != null) {
+            tmpInnerStructureTokens = this.innerTokenRuns.getTokens();
+            this.innerStructureTokens = tmpInnerStructureTokens;
+        }
+        return tmpInnerStructureTokens;
+    }
+
+    /**
+     * Valence numbers of particles (created on request). NOTE: Returned
+     * array is shared with all users of this (pooled) part and is NOT
+     * allowed to be changed.
+     *
+     * @return Valence numbers of particles
+     */
+    private int[] getNumberOfConnectsArray() {
+        int[] tmpNumberOfConnects = this.numberOfConnects;
+        if (tmpNumberOfConnects == null && this.particleGraph != null) {
+            tmpNumberOfConnects = this.getFrequencyOfNeighborParticles();
+            this.numberOfConnects = tmpNumberOfConnects;
+        }
+        return tmpNumberOfConnects;
+    }
+
+    /**
+     * Terminal particle flags (created on request). NOTE: Returned array is
+     * shared with all users of this (pooled) part and is NOT allowed to be
+     * changed.
+     *
+     * @return Terminal particle flags
+     */
+    private boolean[] getTerminalParticleFlagArray() {
+        boolean[] tmpTerminalParticleFlag = this.terminalParticleFlag;
+        if (tmpTerminalParticleFlag == null && this.particleGraph != null) {
+            tmpTerminalParticleFlag = this.isTerminalParticle();
+            this.terminalParticleFlag = tmpTerminalParticleFlag;
+        }
+        return tmpTerminalParticleFlag;
+    }
+
+    /**
+     * Inner backbone indices (created on request). NOTE: Returned array is
+     * shared with all users of this (pooled) part and is NOT allowed to be
+     * changed.
+     *
+     * @return Inner backbone indices
+     */
+    private int[] getInnerBackboneIndexArray() {
+        int[] tmpInnerBackboneIndices = this.innerBackboneIndices;
+        if (tmpInnerBackboneIndices == null && this.innerTokenRuns != null) {
+            tmpInnerBackboneIndices = this.getBackboneIndices();
+            this.innerBackboneIndices = tmpInnerBackboneIndices;
+        }
+        return tmpInnerBackboneIndices;
+    }
+    // </editor-fold>
     // <editor-fold defaultstate="collapsed" desc="- Initialize methods">
     /**
      * Innerinitialize method
@@ -452,13 +859,16 @@ public class SpicesInner {
     private void initialize(String aPartStructure, boolean anIsMonomer, HashMap<String, String> anAvailableParticles) {
 
         this.inputStructure = aPartStructure;
-        this.innerStructureTokens = spicesUtility.getStructureTokens(aPartStructure);
+        this.innerStructureTokens = spicesUtility.getSharedStructureTokens(aPartStructure);
         this.errorMessage = this.checkInputStructure(aPartStructure, anIsMonomer, anAvailableParticles);
         if (this.errorMessage != null) {
             return;
         }
-        this.innerStructureTokens = this.getSpicesCompilerTokenList();
-        this.innerParticleIndices = this.determineInnerParticleIndices();
+        this.partNode = spicesUtility.getSharedStructureNode(aPartStructure);
+        this.innerTokenRuns = this.getSpicesCompilerTokenRuns(this.partNode);
+        // NOTE: Compiled token arrays are created on request
+        this.innerStructureTokens = null;
+        this.innerParticleIndices = this.innerTokenRuns.getParticleTokenIndices();
         this.setInnerParticles();
         if (spicesUtility.hasStartTag(this.inputStructure)) {
             this.hasStartEndAttribute = true;
@@ -466,1202 +876,505 @@ public class SpicesInner {
         if (spicesUtility.hasBackboneTag(this.inputStructure)) {
             this.hasBackboneAttribute = true;
         }
-        this.innerBackboneIndices = this.getBackboneIndices();
-        this.monomers = this.getMonomerList();
-        this.connectedParticlesList = this.getNeighborParticles(true);
-        this.adjacentArray = spicesUtility.getAdjacentArray(this.inputStructure, this.connectedParticlesList, this.innerParticleIndices.length);
-        this.numberOfConnects = this.getFrequencyOfNeighborParticles();
-        this.terminalParticleFlag = this.isTerminalParticle();
-        this.startParticleIndex = this.getStartTagParticleIndex();
-        this.endParticleIndex = this.getEndTagParticleIndex();
-        this.particleToFrequencyMap = new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+        this.setNeighborParticles();
+        // NOTE: All particles of a part must be connected
+        if (!this.getParticleComponents().isConnected()) {
+            this.innerStructureTokens = spicesUtility.getSharedStructureTokens(aPartStructure);
+            this.errorMessage = MessageSpices.getString("StructureCheck.StructureNotOnePart");
+            return;
+        }
+        // NOTE: Backbone indices, monomers, adjacent array, numbers of
+        // connects, terminal particle flags and START/END particle indices
+        // are created on request
     }
     // </editor-fold>
     //
     // <editor-fold defaultstate="collapsed" desc="- Structure check related methods">
     /**
-     * Checks the input structure
+     * Checks the input structure (see SpicesValidator)
      *
-     * @aStructure Structure of a part
-     * @Param anIsMonomer Weather aMolecularStructureString is only monomer
-     * or not (monomer is partial quantity of structure)
+     * @param aStructure Structure of a part
+     * @param anIsMonomer Weather aStructure is only monomer or not (monomer
+     * is partial quantity of structure)
      * @param anAvailableParticles Available particles
      * @return Error message or null
      */
-    private String checkInputStructure(String aStructure, Boolean anIsMonomer, HashMap<String, String> anAvailableParticles) {
-        // <editor-fold defaultstate="collapsed" desc="Initial settings">
-        int tmpNumberOfOpeningCurlyBrackets = spicesUtility.getFrequencyOfCharacterInString(aStructure, "{");
-        int tmpNumberOfClosingCurlyBrackets = spicesUtility.getFrequencyOfCharacterInString(aStructure, "}");
-        boolean tmpHasCurlyBracket = tmpNumberOfOpeningCurlyBrackets + tmpNumberOfClosingCurlyBrackets > 0;
-        boolean tmpIsOddNumbersOfDelimiter;
-        char[] tmpCharArrayStructure;
-        String tmpNotification;
+    private String checkInputStructure(String aStructure, boolean anIsMonomer, HashMap<String, String> anAvailableParticles) {
+        SpicesValidator tmpValidator = new SpicesValidator();
+        tmpValidator.checkPartStructure(aStructure, anIsMonomer, anAvailableParticles);
+        return tmpValidator.getErrorMessage();
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="- Particle neighbor related methods">
+    /**
+     * Determines all neighbor particles in a chemical structure that are
+     * connected by a bond and sets the particle graph. For
+     * instance the structure "A-B-C" has two connections, namely "A-B" and
+     * "B-C" or expressed as particle index (don't mixed up with token index)
+     * "0-1" and "1-2": The neighbors of particle 0 are {1}, of particle 1
+     * {0, 2} and of particle 2 {1}.
+     * NOTE: The token runs are swept once: For every token run the next
+     * particle or closing bracket on the same branch level and the next curly
+     * bracket are precomputed so that the right particle of a link is found
+     * without scanning. The links of a copy of a repeat group (e.g. 4{...})
+     * are recorded and stamped onto the following copies without visiting
+     * their runs. The bonds are sorted by a counting sort: The
+     * neighbors of a particle are its right particles in the order of their
+     * detection followed by its left particles in the order of their
+     * detection.
+     */
+    private void setNeighborParticles() {
 
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Checks monomer">
-        if (anIsMonomer) {
-            if (!(aStructure.startsWith("{") && aStructure.endsWith("}"))) {
-                return MessageSpices.getString("StructureCheck.NoMonomer");
-            }
-        }
+        // <editor-fold defaultstate="collapsed" desc="Initialisation">
+        SpicesTokenRuns tmpRuns = this.innerTokenRuns;
+        int tmpNumberOfRuns = tmpRuns.getNumberOfRuns();
+        int tmpNumberOfParticles = this.innerParticleIndices.length;
+        // Bonds as pairs of particle indices: bond i is (tmpBonds[2 * i],
+        // tmpBonds[2 * i + 1])
+        int[] tmpBonds = new int[2 * Math.max(tmpNumberOfParticles, 1)];
+        int tmpNumberOfBonds = 0;
+        boolean tmpHasRingClosure = false;
 
         // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Simple checks">
-        if (aStructure == null || aStructure.length() == 0) {
-            return MessageSpices.getString("StructureCheck.NoTokens");
+        // <editor-fold defaultstate="collapsed" desc="Branch levels and stop indices">
+        // NOTE: Stop indices are determined for the stored runs (i.e. for
+        // the first copy of a repeat group only) and are mapped to the copy
+        // of a run (see SpicesTokenRuns.getRunIndex())
+        int tmpNumberOfStoredRuns = tmpRuns.getNumberOfStoredRuns();
+        int tmpMinimumBranchLevel = 0;
+        int tmpMaximumBranchLevel = 0;
+        for (int i = 1; i <= tmpNumberOfStoredRuns; i++) {
+            int tmpBranchLevel = tmpRuns.getBranchLevel(tmpRuns.getRunIndex(i));
+            tmpMinimumBranchLevel = Math.min(tmpMinimumBranchLevel, tmpBranchLevel);
+            tmpMaximumBranchLevel = Math.max(tmpMaximumBranchLevel, tmpBranchLevel);
+        }
+        // Matching closing bracket of opening normal bracket at stored run i
+        int[] tmpClosingBracketIndices = new int[tmpNumberOfStoredRuns];
+        int[] tmpOpeningBracketStack = new int[tmpMaximumBranchLevel - tmpMinimumBranchLevel + 1];
+        int tmpStackSize = 0;
+        for (int i = 0; i < tmpNumberOfStoredRuns; i++) {
+            byte tmpTokenKind = tmpRuns.getKind(tmpRuns.getRunIndex(i));
+            if (tmpTokenKind == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN) {
+                tmpClosingBracketIndices[i] = tmpNumberOfStoredRuns;
+                tmpOpeningBracketStack[tmpStackSize++] = i;
+            } else if (tmpTokenKind == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE && tmpStackSize > 0) {
+                tmpClosingBracketIndices[tmpOpeningBracketStack[--tmpStackSize]] = i;
+            }
         }
-
-        // Checks whether an invalid character has been used
-        if (!SpicesConstants.INPUTSTRUCTURE_PATTERN.matcher(aStructure).matches()) {
-            return MessageSpices.getString("StructureCheck.InvalidCharacter");
+        // Next stored run with index >= i that is a particle or a closing
+        // normal bracket on the same branch level as stored run i (level
+        // stop) and next stored run with index >= i that is a curly bracket
+        // (curly stop)
+        int[] tmpLevelStopIndices = new int[tmpNumberOfStoredRuns];
+        int[] tmpCurlyStopIndices = new int[tmpNumberOfStoredRuns];
+        int[] tmpNextLevelStopIndices = new int[tmpMaximumBranchLevel - tmpMinimumBranchLevel + 1];
+        Arrays.fill(tmpNextLevelStopIndices, tmpNumberOfStoredRuns);
+        int tmpNextCurlyStopIndex = tmpNumberOfStoredRuns;
+        for (int i = tmpNumberOfStoredRuns - 1; i >= 0; i--) {
+            int tmpRunIndex = tmpRuns.getRunIndex(i);
+            byte tmpTokenKind = tmpRuns.getKind(tmpRunIndex);
+            int tmpBranchLevel = tmpRuns.getBranchLevel(tmpRunIndex);
+            if (tmpRuns.isParticle(tmpRunIndex) || tmpTokenKind == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE) {
+                tmpNextLevelStopIndices[tmpBranchLevel - tmpMinimumBranchLevel] = i;
+            } else if (tmpTokenKind == SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN || tmpTokenKind == SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE) {
+                tmpNextCurlyStopIndex = i;
+            }
+            tmpLevelStopIndices[i] = tmpNextLevelStopIndices[tmpBranchLevel - tmpMinimumBranchLevel];
+            tmpCurlyStopIndices[i] = tmpNextCurlyStopIndex;
         }
 
         // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Checks number of curly brackets">
-        tmpCharArrayStructure = aStructure.toCharArray();
-        if (tmpHasCurlyBracket) {
-            tmpIsOddNumbersOfDelimiter = false;
-            for (int i = 0; i < tmpCharArrayStructure.length; i++) {
-                if (tmpCharArrayStructure[i] == '{') {
-                    if (tmpIsOddNumbersOfDelimiter) {
-                        return MessageSpices.getString("StructureCheck.MissingClosingCurlyBracket");
-                    } else {
-                        tmpIsOddNumbersOfDelimiter = true;
+        // <editor-fold defaultstate="collapsed" desc="Particles, normal brackets, curly brackets">
+        int tmpLeftParticleIndex = 0;
+        boolean tmpHasLeftParticle = false;
+        // Repeat groups (e.g. 4{...}): The links of a copy are recorded as
+        // template events and stamped onto the following copies without
+        // visiting their runs (see TEMPLATE_EVENT_...)
+        int tmpRepeatGroupIndex = 0;
+        int tmpTemplateEndIndex = -1;
+        int tmpTemplateCopy = 0;
+        boolean tmpTemplateHasRingClosure = false;
+        int[] tmpTemplateEvents = new int[3 * SpicesConstants.DEFAULT_NUMBER_OF_PARTICLES];
+        int tmpNumberOfTemplateEvents = 0;
+
+        // Determine first particle of a link
+        for (int i = 0; i < tmpNumberOfRuns; i++) {
+            // <editor-fold defaultstate="collapsed" desc="Repeat groups">
+            if (i == tmpTemplateEndIndex) {
+                int tmpNumberOfCopies = tmpRuns.getRepeatGroupCopies(tmpRepeatGroupIndex);
+                int tmpNumberOfRunsPerCopy = tmpRuns.getRepeatGroupLength(tmpRepeatGroupIndex);
+                tmpTemplateEndIndex = -1;
+                if (!tmpHasLeftParticle && tmpHasRingClosure == tmpTemplateHasRingClosure) {
+                    // State after template copy is identical to state before
+                    // template copy: The links of all following copies are
+                    // the shifted links of the template copy
+                    int tmpNumberOfParticlesPerCopy = tmpRuns.getRepeatGroupParticles(tmpRepeatGroupIndex);
+                    for (int j = 1; j < tmpNumberOfCopies - tmpTemplateCopy; j++) {
+                        int tmpParticleShift = j * tmpNumberOfParticlesPerCopy;
+                        int tmpRunShift = j * tmpNumberOfRunsPerCopy;
+                        for (int k = 0; k < 3 * tmpNumberOfTemplateEvents; k += 3) {
+                            switch (tmpTemplateEvents[k]) {
+                                case TEMPLATE_EVENT_BOND:
+                                    tmpBonds = this.addBond(tmpBonds, tmpNumberOfBonds++, tmpTemplateEvents[k + 1] + tmpParticleShift, tmpTemplateEvents[k + 2] + tmpParticleShift);
+                                    break;
+                                case TEMPLATE_EVENT_TAIL:
+                                    int tmpTailParticleIndex = this.getTagParticleIndex(SpicesConstants.TOKEN_KIND_TAIL, tmpTemplateEvents[k + 1] + tmpRunShift);
+                                    for (int tmpParticleToTailIndex : this.getParticlesConnectWithTailIndices(tmpTemplateEvents[k + 1] + tmpRunShift)) {
+                                        tmpBonds = this.addBond(tmpBonds, tmpNumberOfBonds++, tmpTailParticleIndex, tmpParticleToTailIndex);
+                                    }
+                                    break;
+                                case TEMPLATE_EVENT_HEAD:
+                                    tmpBonds = this.addBond(tmpBonds, tmpNumberOfBonds++, tmpTemplateEvents[k + 1] + tmpParticleShift, this.getTagParticleIndex(SpicesConstants.TOKEN_KIND_HEAD, tmpTemplateEvents[k + 2] + tmpRunShift));
+                                    break;
+                            }
+                        }
                     }
-                } else if (tmpCharArrayStructure[i] == '}') {
-                    if (tmpIsOddNumbersOfDelimiter) {
-                        tmpIsOddNumbersOfDelimiter = false;
-                    } else {
-                        return MessageSpices.getString("StructureCheck.MissingOpeningCurlyBracket");
+                    // Continue after last copy
+                    i += (tmpNumberOfCopies - tmpTemplateCopy - 1) * tmpNumberOfRunsPerCopy;
+                    tmpRepeatGroupIndex++;
+                    if (i == tmpNumberOfRuns) {
+                        break;
                     }
+                } else if (!tmpHasLeftParticle && tmpTemplateCopy + 2 < tmpNumberOfCopies) {
+                    // The first ring closure of the structure is in the
+                    // template copy: The next copy is the template copy
+                    tmpTemplateCopy++;
+                    tmpTemplateEndIndex = i + tmpNumberOfRunsPerCopy;
+                    tmpTemplateHasRingClosure = tmpHasRingClosure;
+                    tmpNumberOfTemplateEvents = 0;
+                } else {
+                    // The following copies are visited
+                    tmpRepeatGroupIndex++;
                 }
             }
-            if (tmpIsOddNumbersOfDelimiter) {
-                return MessageSpices.getString("StructureCheck.MissingClosingCurlyBracket");
-            }
-            // Checks whether an empty curly bracket exists
-            if (aStructure.contains("{}")) {
-                return MessageSpices.getString("StructureCheck.EmptyCurlyBrackets");
-            }
-        }
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Determine monomers and body">
-        String tmpBody = "";
-        String tmpMonomer = "";
-        tmpNotification = null;
-        int tmpIndexOfLeftLimit = 0;
-        int tmpIndexOfRightLimit = 0;
-        boolean tmpHasReached = false;
-        if (tmpHasCurlyBracket) {
-            while (!tmpHasReached) {
-                tmpIndexOfLeftLimit = aStructure.indexOf('{', tmpIndexOfLeftLimit);
-                if (tmpIndexOfLeftLimit == -1) {
-                    tmpHasReached = true;
-                    tmpBody += aStructure.substring(tmpIndexOfRightLimit - 1, aStructure.length());
-                } else if (tmpIndexOfLeftLimit == 0) {
-                    tmpBody = "{}";
+            if (tmpRepeatGroupIndex < tmpRuns.getNumberOfRepeatGroups() && i == tmpRuns.getRepeatGroupStart(tmpRepeatGroupIndex)) {
+                if (tmpHasLeftParticle) {
+                    // The copies are visited
+                    tmpRepeatGroupIndex++;
                 } else {
-                    tmpBody += aStructure.substring(tmpIndexOfRightLimit, tmpIndexOfLeftLimit + 1) + "}";
+                    tmpTemplateEndIndex = i + tmpRuns.getRepeatGroupLength(tmpRepeatGroupIndex);
+                    tmpTemplateCopy = 0;
+                    tmpTemplateHasRingClosure = tmpHasRingClosure;
+                    tmpNumberOfTemplateEvents = 0;
                 }
-                if (!tmpHasReached) {
-                    tmpIndexOfRightLimit = aStructure.indexOf('}', tmpIndexOfLeftLimit);
-                    tmpMonomer = aStructure.substring(tmpIndexOfLeftLimit + 1, tmpIndexOfRightLimit);
-                    tmpNotification = checkSubStructure(tmpMonomer, true, anAvailableParticles);
-                    if (tmpNotification != null) {
-                        return tmpNotification;
+            }
+            boolean tmpIsTemplate = tmpTemplateEndIndex >= 0;
+
+            // </editor-fold>
+            // <editor-fold defaultstate="collapsed" desc="Particle series">
+            if (tmpRuns.isSeries(i)) {
+                // Every particle of a series is connected to its successor:
+                // These bonds are implied and need not to be searched
+                int tmpFirstParticleIndex = tmpRuns.getParticleOffset(i);
+                int tmpLastParticleIndex = tmpFirstParticleIndex + tmpRuns.getSeriesLength(i) - 1;
+                if (tmpHasLeftParticle) {
+                    tmpBonds = this.addBond(tmpBonds, tmpNumberOfBonds++, tmpLeftParticleIndex, tmpFirstParticleIndex);
+                    if (tmpIsTemplate) {
+                        tmpTemplateEvents = this.addTemplateEvent(tmpTemplateEvents, tmpNumberOfTemplateEvents++, TEMPLATE_EVENT_BOND, tmpLeftParticleIndex, tmpFirstParticleIndex);
                     }
-                    tmpIndexOfLeftLimit = tmpIndexOfRightLimit + 1;
-                    tmpIndexOfRightLimit = tmpIndexOfLeftLimit;
-                    if (tmpIndexOfRightLimit >= aStructure.length() - 1) {
-                        tmpHasReached = true;
+                }
+                for (int j = tmpFirstParticleIndex; j < tmpLastParticleIndex; j++) {
+                    tmpBonds = this.addBond(tmpBonds, tmpNumberOfBonds++, j, j + 1);
+                    if (tmpIsTemplate) {
+                        tmpTemplateEvents = this.addTemplateEvent(tmpTemplateEvents, tmpNumberOfTemplateEvents++, TEMPLATE_EVENT_BOND, j, j + 1);
                     }
                 }
+                tmpLeftParticleIndex = tmpLastParticleIndex;
+                tmpHasLeftParticle = true;
+                continue;
             }
-        } else {
-            tmpBody = aStructure;
-            if (spicesUtility.isParticle(tmpBody) && spicesUtility.isAvailableParticle(tmpBody, anAvailableParticles)) {
-                return null;
-            }
-        }
-        tmpNotification = checkSubStructure(tmpBody, false, anAvailableParticles);
-        if (tmpNotification != null) {
-            return tmpNotification;
-        }
-
-        // </editor-fold>
-        return null;
-    }
-
-    /**
-     * Checks the input substructure
-     *
-     * @param aSubtructure Molecular substructure
-     * @param anIsMonomer Whether the substructure is a monomer or not
-     * @param anAvailableParticles Available Particles
-     * @param anIndexOffset Index offset from aSubStructure to original
-     * structure
-     * @return Error message or null
-     */
-    private String checkSubStructure(String aSubtructure, Boolean anIsMonomer, HashMap<String, String> anAvailableParticles) {
-        // <editor-fold defaultstate="collapsed" desc="Initial settings">
-        int tmpNumberOfOpeningAngularBrackets = spicesUtility.getFrequencyOfCharacterInString(aSubtructure, "[");
-        int tmpNumberOfClosingAngularBrackets = spicesUtility.getFrequencyOfCharacterInString(aSubtructure, "]");
-        int tmpNumberOfOpeningNormalBrackets = spicesUtility.getFrequencyOfCharacterInString(aSubtructure, "(");
-        int tmpNumberOfClosingNormalBrackets = spicesUtility.getFrequencyOfCharacterInString(aSubtructure, ")");
-        int tmpNumberOfOpeningBackboneIndices = spicesUtility.getFrequencyOfCharacterInString(aSubtructure, "'");
-        int tmpNumberOfBackboneIndexCandidat;
-        boolean tmpHasAngularBracket = tmpNumberOfOpeningAngularBrackets + tmpNumberOfClosingAngularBrackets > 0;
-        boolean tmpHasNormalBracket = tmpNumberOfOpeningNormalBrackets + tmpNumberOfClosingNormalBrackets > 0;
-        ArrayDeque<String> tmpNumberOfRingClosure = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        HashSet<Integer> tmpNumberOfBackboneIndex = new HashSet<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
-        String[] tmpTokenOfSubstructure = spicesUtility.getStructureTokens(aSubtructure);
-        int tmpNumberOfTokens = tmpTokenOfSubstructure.length;
-        char[] tmpCharsOfSubStructure = aSubtructure.toCharArray();
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Checks whether the first character is not valid">
-        if (aSubtructure.startsWith("0") || aSubtructure.startsWith("[") || aSubtructure.startsWith("]") || aSubtructure.startsWith("-")
-                || aSubtructure.startsWith(")") || aSubtructure.startsWith("'")) {
-            if (anIsMonomer) {
-                return MessageSpices.getString("StructureCheck.InvalidFirstCharacterOfMonomer");
-            } else {
-                return MessageSpices.getString("StructureCheck.InvalidFirstCharacterOfStructure");
-            }
-        }
 
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Checks whether the last character is not valid">
-        if (aSubtructure.endsWith("[") || aSubtructure.endsWith("-") || aSubtructure.endsWith("(")) {
-            if (anIsMonomer) {
-                return MessageSpices.getString("StructureCheck.InvalidLastCharacterOfMonomer");
-            } else {
-                return MessageSpices.getString("StructureCheck.InvalidLastCharacterOfStructure");
-            }
-        }
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Checks whether the structure is like (A-B)A and (A-B)-">
-        if (aSubtructure.charAt(0) == '(' && aSubtructure.matches("([(].+[)])+[A-Za-z\\-\\[\\]]+")) {
-            return MessageSpices.getString("StructureCheck.InvalidParticleAfterNormalClosingBracket");
-        }
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Checks whether there is a backbone index in monomer structure">
-        if (anIsMonomer && aSubtructure.contains("'")) {
-            return MessageSpices.getString("StructureCheck.BackboneIndexInMonomer");
-        }
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Checks of legal using of angular brackets">
-        if (tmpHasAngularBracket) {
-            boolean tmpIsOddNumbersOfDelimiter = false;
-
-            int tmpIndexOfLeftLimit = 0;
-            int tmpIndexOfRightLimit = 0;
-            int tmpNumberOfHead = 0;
-            int tmpNumberOfTail = 0;
-            int tmpNumberOfStartTag = 0;
-            int tmpNumberOfEndTag = 0;
-            String tmpStringBetweenAngularBrackets;
-            for (int i = 0; i < tmpCharsOfSubStructure.length; i++) {
-                if (tmpCharsOfSubStructure[i] == '[') {
-                    if (tmpIsOddNumbersOfDelimiter) {
-                        return MessageSpices.getString("StructureCheck.MissingClosingAngularBracket");
-                    } else {
-                        tmpIsOddNumbersOfDelimiter = true;
-                    }
-                } else if (tmpCharsOfSubStructure[i] == ']') {
-                    if (tmpIsOddNumbersOfDelimiter) {
-                        tmpIsOddNumbersOfDelimiter = false;
-                    } else {
-                        return MessageSpices.getString("StructureCheck.MissingOpeningAngularBracket");
-                    }
-                }
-            }
-            if (tmpIsOddNumbersOfDelimiter) {
-                return MessageSpices.getString("StructureCheck.MissingClosingAngularBracket");
-            }
-            for (int i = 0; i < tmpNumberOfOpeningAngularBrackets; i++) {
-                tmpIndexOfLeftLimit = aSubtructure.indexOf('[', tmpIndexOfLeftLimit);
-                tmpIndexOfRightLimit = aSubtructure.indexOf(']', tmpIndexOfRightLimit);
-                tmpStringBetweenAngularBrackets = aSubtructure.substring(tmpIndexOfLeftLimit + 1, tmpIndexOfRightLimit);
-                if (anIsMonomer) {
-                    if (tmpStringBetweenAngularBrackets.equals("HEAD")) {
-                        tmpNumberOfHead++;
-                    } else if (tmpStringBetweenAngularBrackets.equals("TAIL")) {
-                        tmpNumberOfTail++;
-                    } else if (spicesUtility.isIntegerNumber(tmpStringBetweenAngularBrackets)) {
-                        tmpNumberOfRingClosure.add(tmpStringBetweenAngularBrackets);
-                    } else if (tmpStringBetweenAngularBrackets.equals("START")) {
-                        return MessageSpices.getString("StructureCheck.StartAttributeInMonomer");
-                    } else if (tmpStringBetweenAngularBrackets.equals("END")) {
-                        return MessageSpices.getString("StructureCheck.EndAttributeInMonomer");
-                    } else {
-                        return MessageSpices.getString("StructureCheck.InvalidCharacterBetweenAngularBrackets");
-                    }
-                } else {
-                    if (tmpStringBetweenAngularBrackets.equals("HEAD") || tmpStringBetweenAngularBrackets.equals("TAIL")) {
-                        return MessageSpices.getString("StructureCheck.IllegalUsingOfHeadOrTail");
-                    } else if (spicesUtility.isIntegerNumber(tmpStringBetweenAngularBrackets)) {
-                        tmpNumberOfRingClosure.add(tmpStringBetweenAngularBrackets);
-                    } else if (tmpStringBetweenAngularBrackets.equals("START")) {
-                        tmpNumberOfStartTag++;
-                    } else if (tmpStringBetweenAngularBrackets.equals("END")) {
-                        tmpNumberOfEndTag++;
-                    } else {
-                        return MessageSpices.getString("StructureCheck.InvalidCharacterBetweenAngularBrackets");
-                    }
-                }
-                tmpIndexOfLeftLimit = tmpIndexOfRightLimit + 1;
-                tmpIndexOfRightLimit = tmpIndexOfLeftLimit;
-            }
-            if (tmpNumberOfStartTag > 1) {
-                return MessageSpices.getString("StructureCheck.TooManyStartTag");
-            }
-            if (tmpNumberOfEndTag > 1) {
-                return MessageSpices.getString("StructureCheck.TooManyEndTag");
-            }
-            if (tmpNumberOfStartTag == 1 && tmpNumberOfEndTag == 0) {
-                return MessageSpices.getString("StructureCheck.MissingEndAttribute");
-            }
-            if (tmpNumberOfStartTag == 0 && tmpNumberOfEndTag == 1) {
-                return MessageSpices.getString("StructureCheck.MissingStartAttribute");
-            }
-            if (anIsMonomer) {
-                if (tmpNumberOfHead == 0) {
-                    return MessageSpices.getString("StructureCheck.MissingHeadAttribute");
-                } else if (tmpNumberOfHead > 1) {
-                    return MessageSpices.getString("StructureCheck.TooManyHead");
-                }
-                if (tmpNumberOfTail == 0) {
-                    return MessageSpices.getString("StructureCheck.MissingTailAttribute");
-                } else if (tmpNumberOfTail > 1) {
-                    return MessageSpices.getString("StructureCheck.TooManyTail");
-                }
-            }
-        } else {
-            if (anIsMonomer) {
-                return MessageSpices.getString("StructureCheck.MissingHeadOrTailAttribute");
-            }
-        }
-
-        // Checks whether number of ring closure is not 2
-        int tmpCountRingClosure = tmpNumberOfRingClosure.size();
-        String[] tmpNumberOfRingClosureArray = tmpNumberOfRingClosure.toArray(new String[0]);
-        boolean tmpHasTwo = false;
-        int tmpActualIndex = 0;
-        if (tmpCountRingClosure > 0) {
-            Arrays.sort(tmpNumberOfRingClosureArray);
-        }
-        if (tmpCountRingClosure == 1) {
-            return MessageSpices.getString("StructureCheck.MissingRingClosure");
-        } else if (tmpCountRingClosure > 1) {
-            while (tmpActualIndex < tmpCountRingClosure) {
-                if (tmpActualIndex + 1 < tmpCountRingClosure) {
-                    if (tmpNumberOfRingClosureArray[tmpActualIndex].equals(tmpNumberOfRingClosureArray[tmpActualIndex + 1])) {
-                        tmpHasTwo = true;
-                    } else {
-                        return MessageSpices.getString("StructureCheck.MissingRingClosure");
-                    }
-                } else if (tmpActualIndex + 1 == tmpCountRingClosure) {
-                    return MessageSpices.getString("StructureCheck.MissingRingClosure");
-                }
-                if (tmpHasTwo == true && tmpActualIndex + 2 < tmpCountRingClosure) {
-                    if (tmpNumberOfRingClosureArray[tmpActualIndex].equals(tmpNumberOfRingClosureArray[tmpActualIndex + 2])) {
-                        return MessageSpices.getString("StructureCheck.TooManyRingClosures");
-                    }
-                }
-                tmpActualIndex += 2;
-                tmpHasTwo = false;
-            }
-        }
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Checks of legal using of normal brackets">
-        if (tmpHasNormalBracket) {
-            int tmpNumberOfUnclosedBrackets = 0;
-
-            // Checks whether all normal brackets have been closed
-            if (tmpNumberOfOpeningNormalBrackets - tmpNumberOfClosingNormalBrackets > 0) {
-                return MessageSpices.getString("StructureCheck.MissingClosingNormalBracket");
-            } else if (tmpNumberOfClosingNormalBrackets - tmpNumberOfOpeningNormalBrackets > 0) {
-                return MessageSpices.getString("StructureCheck.MissingOpeningNormalBracket");
-            }
-
-            // Checks whether a normal bracket begins with opening bracket
-            for (int i = 0; i < tmpCharsOfSubStructure.length; i++) {
-                if (tmpCharsOfSubStructure[i] == '(') {
-                    tmpNumberOfUnclosedBrackets++;
-                } else if (tmpCharsOfSubStructure[i] == ')') {
-                    tmpNumberOfUnclosedBrackets--;
-                }
-                if (tmpNumberOfUnclosedBrackets < 0) {
-                    return MessageSpices.getString("StructureCheck.MissingOpeningNormalBracket");
-                }
-            }
-        }
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Checks of legal using of backbone index">
-        boolean tmpIsBackboneIndexOn = false;
-        if (this.hasBackboneAttribute) {
-
-        }
-        if (aSubtructure.contains("''")) {
-            return MessageSpices.getString("StructureCheck.IllegalBackboneIndexFormat");
-        }
-        if (tmpNumberOfOpeningBackboneIndices % 2 != 0) {
-            return MessageSpices.getString("StructureCheck.MissingBackboneIndex");
-        }
-        if (tmpNumberOfOpeningBackboneIndices == 2) {
-            return MessageSpices.getString("StructureCheck.TooLessBackboneindex");
-        }
-        for (int i = 0; i < tmpCharsOfSubStructure.length; i++) {
-            if (tmpCharsOfSubStructure[i] == '\'') {
-                tmpIsBackboneIndexOn = !tmpIsBackboneIndexOn;
-                continue;
-            } else if (tmpIsBackboneIndexOn && !Character.isDigit(tmpCharsOfSubStructure[i])) {
-                return MessageSpices.getString("StructureCheck.IllegalBackboneIndexFormat");
-            }
-        }
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Checks tokens">
-        String tmpCurrentToken;
-        String tmpNextToken;
-        Boolean tmpIsRepeatParticle = false;
-        if (tmpTokenOfSubstructure.length == 1) {
-            if (spicesUtility.isIntegerNumber(tmpTokenOfSubstructure[0])) {
-                return MessageSpices.getString("StructureCheck.InvalidParticlename");
-            } else if (spicesUtility.isMonomer(tmpTokenOfSubstructure[0])) {
-                return null;
-            } else if (spicesUtility.isParticle(tmpTokenOfSubstructure[0])) {
-                return null;
-            } else if (!(spicesUtility.isAvailableParticle(tmpTokenOfSubstructure[0], anAvailableParticles)
-                && spicesUtility.isParticle(tmpTokenOfSubstructure[0]))) {
-                    return MessageSpices.getString("StructureCheck.InvalidParticlename");
-            } else {
-                return MessageSpices.getString("StructureCheck.InvalidParticlename");
-            }
-        }
-        for (int i = 0; i < tmpNumberOfTokens - 1; i++) {
-            tmpCurrentToken = tmpTokenOfSubstructure[i];
-            tmpNextToken = tmpTokenOfSubstructure[i + 1];
-
-            // <editor-fold defaultstate="collapsed" desc="Particle">
-            if (spicesUtility.isParticle(tmpCurrentToken) && spicesUtility.isAvailableParticle(tmpCurrentToken, anAvailableParticles)) {
-                if (spicesUtility.isNormalBracketOpen(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isNormalBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isRingClosure(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isCurlyBracketOpen(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAConnectionPriorCurlyOpeningBracket");
-                } else if (spicesUtility.isCurlyBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isConnection(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isHead(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isTail(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isStart(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isEnd(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isMonomer(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isIntegerNumber(tmpNextToken)) {
-                    continue; // this number always belong to the prior Particle
-                } else if (spicesUtility.isAngleBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isBackboneIndex(tmpNextToken)) {
-                    continue; // legal expression
-                } else {
-                    return MessageSpices.getString("StructureCheck.InvalidParticleAfterParticle");
-                }
-            } // </editor-fold>
-            // <editor-fold defaultstate="collapsed" desc="Number">
-            else if (spicesUtility.isIntegerNumber(tmpCurrentToken)) {
-                if (Integer.parseInt(tmpCurrentToken) == 0) {
-                    return MessageSpices.getString("StructureCheck.IllegalFrequency");
-                }
-                if (spicesUtility.isParticle(tmpNextToken) && spicesUtility.isAvailableParticle(tmpNextToken, anAvailableParticles)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isNormalBracketOpen(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.InvalidParticlePriorNormalBracket");
-                } else if (spicesUtility.isNormalBracketClose(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAParticlePriorNormalClosingBracket");
-                } else if (spicesUtility.isRingClosure(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingParticleAfterNumber");
-                } else if (spicesUtility.isCurlyBracketOpen(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isCurlyBracketClose(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingParticleAfterNumber");
-                } else if (spicesUtility.isConnection(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingParticlePriorConnection");
-                } else if (spicesUtility.isHeadTail(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingParticleAfterNumber");
-                } else if (spicesUtility.isMonomer(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isBackboneIndex(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.InvalidPositionOfBackboneIndex");
-                } else {
-                    return MessageSpices.getString("StructureCheck.InvalidParticlename");
-                }
-            } // </editor-fold>
-            // <editor-fold defaultstate="collapsed" desc="NormalBracketOpen">
-            else if (spicesUtility.isNormalBracketOpen(tmpCurrentToken)) {
-                if (spicesUtility.isIntegerNumber(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isNormalBracketOpen(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.InSeriesOfNormalOpeningBrackets");
-                } else if (spicesUtility.isNormalBracketClose(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.EmptyNormalBrackets");
-                } else if (spicesUtility.isRingClosure(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAParticlePriorRingClosure");
-                } else if (spicesUtility.isCurlyBracketOpen(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isCurlyBracketClose(tmpNextToken)) {
-                    continue; // already checked
-                } else if (spicesUtility.isConnection(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAParticlePriorConnection");
-                } else if (spicesUtility.isHeadTail(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAParticlePriorHeadOrTail");
-                } else if (spicesUtility.isMonomer(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isBackboneIndex(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.InvalidPositionOfBackboneIndex");
-                } else {
-                    return MessageSpices.getString("StructureCheck.InvalidParticleAfterNormalOpeningBracket");
-                }
-            } // </editor-fold>
-            // <editor-fold defaultstate="collapsed" desc="NormalBracketClose">
-            else if (spicesUtility.isNormalBracketClose(tmpCurrentToken)) {
-                if (spicesUtility.isNormalBracketOpen(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isNormalBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isRingClosure(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAParticlePriorRingClosure");
-                } else if (spicesUtility.isCurlyBracketOpen(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAConnectionAfterNormalClosingBracket");
-                } else if (spicesUtility.isCurlyBracketClose(tmpNextToken)) {
-                    continue; // already checked
-                } else if (spicesUtility.isConnection(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isHeadTail(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAParticlePriorHeadOrTail");
-                } else if (spicesUtility.isMonomer(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAConnectionAfterNormalClosingBracket");
-                } else if (spicesUtility.isIntegerNumber(tmpNextToken)) {
-                    if (!spicesUtility.isNormalBracketOpen(this.getInnerStructureTokens()[0])
-                            && !(spicesUtility.isIntegerNumber(this.getInnerStructureTokens()[0])
-                            && spicesUtility.isNormalBracketOpen(this.getInnerStructureTokens()[1]))) {
-                        return MessageSpices.getString("StructureCheck.MissingAConnectionAfterNormalClosingBracket");
-                    }
-                } else if (spicesUtility.isAngleBracketClose(tmpNextToken)) {
-                    // legal expression
-                } else if (spicesUtility.isBackboneIndex(tmpNextToken)) {
-                    continue; // legal expression        
-                } else {
-                    return MessageSpices.getString("StructureCheck.InvalidParticleAfterNormalClosingBracket");
-                }
-            } // </editor-fold>
-            // <editor-fold defaultstate="collapsed" desc="RingClosure">
-            else if (spicesUtility.isRingClosure(tmpCurrentToken)) {
-                if (spicesUtility.isNormalBracketOpen(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isNormalBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isRingClosure(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isCurlyBracketOpen(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isCurlyBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isConnection(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isHeadTail(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isMonomer(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isIntegerNumber(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isStart(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isEnd(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isAngleBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isBackboneIndex(tmpNextToken)) {
-                    continue; // legal expression        
-                } else {
-                    return MessageSpices.getString("StructureCheck.InvalidParticleAfterRingClosure");
-                }
-            } // </editor-fold>
-            // <editor-fold defaultstate="collapsed" desc="CurlyBracketOpen">
-            else if (spicesUtility.isCurlyBracketOpen(tmpCurrentToken)) {
-                if (spicesUtility.isNormalBracketOpen(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isNormalBracketClose(tmpNextToken)) {
-                    continue; // already checked - Structure or monomer begins
-                } // with an invalid character exception will be
-                // thrown
-                else if (spicesUtility.isRingClosure(tmpNextToken)) {
-                    continue; // already checked - Structure or monomer begins
-                } // with an invalid character exception will be
-                // thrown
-                else if (spicesUtility.isParticle(tmpNextToken) && spicesUtility.isAvailableParticle(tmpNextToken, anAvailableParticles)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isCurlyBracketOpen(tmpNextToken)) {
-                    continue; // already checked - A closing curly bracket is
-                } // missing exception will be thrown
-                else if (spicesUtility.isCurlyBracketClose(tmpNextToken)) {
-                    continue; // legal expression - it's a monomer.
-                } else if (spicesUtility.isConnection(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAParticlePriorConnection");
-                } else if (spicesUtility.isHeadTail(tmpNextToken)) {
-                    continue; // already checked - Structure or monomer begins
-                } // with an invalid character exception will be
-                // thrown
-                else if (spicesUtility.isMonomer(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MonomerInsideOfCurlyBracket");
-                } else if (spicesUtility.isIntegerNumber(tmpNextToken)) {
-                    continue; // legal expression
-                } else {
-                    return MessageSpices.getString("StructureCheck.InvalidParticleAfterCurlyOpeningBracket");
-                }
-            } // </editor-fold>
-            // <editor-fold defaultstate="collapsed" desc="CurlyBracketClose">
-            else if (spicesUtility.isCurlyBracketClose(tmpCurrentToken)) {
-                if (spicesUtility.isNormalBracketOpen(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isNormalBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isRingClosure(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAParticlePriorRingClosure");
-                } else if (spicesUtility.isParticle(tmpNextToken) && spicesUtility.isAvailableParticle(tmpNextToken, anAvailableParticles)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isCurlyBracketOpen(tmpNextToken)) {
-                    continue; // already checked - A closing curly bracket is
-                } // missing exception will be thrown
-                else if (spicesUtility.isCurlyBracketClose(tmpNextToken)) {
-                    continue; // legal expression - it's a monomer.
-                } else if (spicesUtility.isConnection(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isHeadTail(tmpNextToken)) {
-                    continue; // already checked - Structure or monomer begins
-                } else if (spicesUtility.isIntegerNumber(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isAngleBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isBackboneIndex(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.InvalidPositionOfBackboneIndex");
-                } else {
-                    return MessageSpices.getString("StructureCheck.InvalidParticleAfterCurlyClosingBracket");
-                }
-            } // </editor-fold>
-            // <editor-fold defaultstate="collapsed" desc="Connection">
-            else if (spicesUtility.isConnection(tmpCurrentToken)) {
-                if (tmpIsRepeatParticle) {
-                    tmpIsRepeatParticle = false;
-                }
-                if (spicesUtility.isNormalBracketOpen(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingParticleBetweenConnectionAndNormalOpeningBracket");
-                } else if (spicesUtility.isNormalBracketClose(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingParticleBetweenConnectionAndNormalClosingBracket");
-                } else if (spicesUtility.isRingClosure(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingParticleBetweenConnectionAndRingClosure");
-                } else if (spicesUtility.isCurlyBracketOpen(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isCurlyBracketClose(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.InvalidLastCharacter");
-                } else if (spicesUtility.isConnection(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingParticleBetweenTwoConnections");
-                } else if (spicesUtility.isHeadTail(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingParticleBetweenConnectionAndHeadOrTail");
-                } else if (spicesUtility.isMonomer(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isIntegerNumber(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isBackboneIndex(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.InvalidPositionOfBackboneIndex");
-                } else {
-                    return MessageSpices.getString("StructureCheck.InvalidParticleAfterConnection");
-                }
-            } // </editor-fold>
-            // <editor-fold defaultstate="collapsed" desc="Head or Tail">
-            else if (spicesUtility.isHeadTail(tmpCurrentToken)) {
-                if (spicesUtility.isNormalBracketOpen(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isNormalBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isRingClosure(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isCurlyBracketOpen(tmpNextToken)) {
-                    continue; // already checked
-                } else if (spicesUtility.isCurlyBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isConnection(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isHeadTail(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isMonomer(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MonomerAfterHeadOrTail");
-                } else if (spicesUtility.isIntegerNumber(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAConnectionAfterHeadOrTail");
-                } else if (spicesUtility.isBackboneIndex(tmpNextToken)) {
-                    continue; // legal expression
-                } else {
-                    return MessageSpices.getString("StructureCheck.InvalidParticleAfterHeadTail");
-                }
-            } // </editor-fold>
-            // <editor-fold defaultstate="collapsed" desc="START or END">
-            else if (spicesUtility.isStartEnd(tmpCurrentToken)) {
-                if (spicesUtility.isNormalBracketOpen(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isNormalBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isRingClosure(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isCurlyBracketOpen(tmpNextToken)) {
-                    continue; // already checked
-                } else if (spicesUtility.isCurlyBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isConnection(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isHeadTail(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isStartEnd(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isAngleBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isBackboneIndex(tmpNextToken)) {
-                    continue; // legal expression    
-                } else {
-                    return MessageSpices.getString("StructureCheck.InvalidParticleAfterStartEnd");
-                }
-            } // </editor-fold>
-            // <editor-fold defaultstate="collapsed" desc="Monomer">
-            else if (spicesUtility.isMonomer(tmpCurrentToken)) {
-                if (anIsMonomer) {
-                    return MessageSpices.getString("StructureCheck.MonomerInMonomer");
-                }
-                if (spicesUtility.isNormalBracketOpen(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isNormalBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isRingClosure(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isCurlyBracketOpen(tmpNextToken)) {
-                    continue; // already checked
-                } else if (spicesUtility.isCurlyBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isConnection(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isHeadTail(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.InvalidParticleAfterMonomer");
-                } else if (spicesUtility.isMonomer(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MonomerAfterMonomer");
-                } else if (spicesUtility.isIntegerNumber(tmpNextToken)) {
-                    continue; // belongs to monomer
-                } else if (spicesUtility.isAngleBracketClose(tmpNextToken)) {
-                    continue; // legal expression
-                } else if (spicesUtility.isBackboneIndex(tmpNextToken)) {
-                    continue; // legal expression
-                } else {
-                    return MessageSpices.getString("StructureCheck.InvalidParticleAfterMonomer");
-                }
-            } // </editor-fold>
-            // <editor-fold defaultstate="collapsed" desc="Backbone index">
-            else if (spicesUtility.isBackboneIndex(tmpCurrentToken)) {
-                tmpNumberOfBackboneIndexCandidat = Integer.parseInt(tmpCurrentToken.substring(1, tmpCurrentToken.length() - 1));
-                if (tmpNumberOfBackboneIndexCandidat == 0) {
-                    return MessageSpices.getString("StructureCheck.ZeroInBackboneindex");
-                }
-                if (!tmpNumberOfBackboneIndex.contains(tmpNumberOfBackboneIndexCandidat)) {
-                    tmpNumberOfBackboneIndex.add(tmpNumberOfBackboneIndexCandidat);
-                } else {
-                    return MessageSpices.getString("StructureCheck.RedundancyOfBackboneIndices");
-                }
-                if (spicesUtility.isParticle(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAConnectionAfterBackboneIndex");
-                } else if (spicesUtility.isMonomer(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAConnectionAfterBackboneIndex");
-                } else if (spicesUtility.isIntegerNumber(tmpNextToken)) {
-                    return MessageSpices.getString("StructureCheck.MissingAConnectionAfterBackboneIndex");
-                } else if (spicesUtility.isBackboneIndex(tmpNextToken)) {
-                    MessageSpices.getString("StructureCheck.MultipleBackboneIndices");
-                }
-            } // </editor-fold> 
-            else {
-                return MessageSpices.getString("StructureCheck.InvalidParticlename");
-            }
-        }
-        // checks last token
-        if (spicesUtility.isIntegerNumber(tmpTokenOfSubstructure[tmpNumberOfTokens - 1])) {
-            return MessageSpices.getString("StructureCheck.MissingParticleAfterNumber");
-        }
-        if (spicesUtility.isMonomer(tmpTokenOfSubstructure[tmpNumberOfTokens - 1]) && anIsMonomer) {
-            return MessageSpices.getString("StructureCheck.MonomerInMonomer");
-        }
-        if (spicesUtility.isBackboneIndex(tmpTokenOfSubstructure[tmpNumberOfTokens - 1])) {
-            tmpNumberOfBackboneIndexCandidat = Integer.parseInt(tmpTokenOfSubstructure[tmpNumberOfTokens - 1].
-                substring(1, tmpTokenOfSubstructure[tmpNumberOfTokens - 1].length() - 1));
-            if (!tmpNumberOfBackboneIndex.contains(tmpNumberOfBackboneIndexCandidat)) {
-                tmpNumberOfBackboneIndex.add(tmpNumberOfBackboneIndexCandidat);
-            } else {
-                return MessageSpices.getString("StructureCheck.RedundancyOfBackboneIndices");
-            }
-        }
-        if (tmpNumberOfBackboneIndex.size() > 0 && tmpNumberOfBackboneIndex.size() < Collections.max(tmpNumberOfBackboneIndex)) {
-            return MessageSpices.getString("StructureCheck.MissingBackboneIndex");
-        }
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Checks whether the structure is out of one part">
-        int tmpDepthLevel = 1;
-        int tmpNumberOfRegions = 1;
-        if (aSubtructure.startsWith("(")) {
-            for (int i = 1; i < this.getInnerStructureTokens().length; i++) {
-                if (spicesUtility.isNormalBracketOpen(this.getInnerStructureTokens()[i])) {
-                    if (tmpDepthLevel == 0) {
-                        tmpNumberOfRegions++;
-                    }
-                    tmpDepthLevel++;
-                    continue;
-                } else if (spicesUtility.isNormalBracketClose(this.getInnerStructureTokens()[i])) {
-                    tmpDepthLevel--;
-                }
-            }
-            String[] tmpStructureRegions = new String[tmpNumberOfRegions];
-            int tmpStartPosition = 0;
-            int tmpEndPosition = 0;
-            tmpDepthLevel = 0;
-            int tmpActualPart = 0;
-            for (int i = 0; i < tmpNumberOfTokens; i++) {
-                if (spicesUtility.isNormalBracketOpen(this.getInnerStructureTokens()[i])) {
-                    if (tmpDepthLevel == 0) {
-                        tmpStartPosition = i + 1;
-                    }
-                    tmpDepthLevel++;
-                    continue;
-                } else if (spicesUtility.isNormalBracketClose(this.getInnerStructureTokens()[i])) {
-                    tmpDepthLevel--;
-                    if (tmpDepthLevel == 0) {
-                        tmpEndPosition = i - 1;
-                        StringBuilder tmpStructure = new StringBuilder();
-                        for (int j = tmpStartPosition; j <= tmpEndPosition; j++) {
-                            tmpStructure.append(this.getInnerStructureTokens()[j]);
-                        }
-                        tmpStructureRegions[tmpActualPart] = tmpStructure.toString();
-                        tmpActualPart++;
-                    }
-                }
-            }
-            int tmpNumberOfAngularBrackets = 0;
-            int tmpIndexOfLeftLimit;
-            int tmpIndexOfRightLimit;
-            int tmpStructureRegionsLength = 0;
-            String tmpStringBetweenAngularBrackets;
-            int[][] tmpPartConnection = new int[tmpStructureRegions.length][];
-            for (int i = 0; i < tmpNumberOfRegions; i++) {
-                tmpNumberOfAngularBrackets = spicesUtility.getFrequencyOfCharacterInString(tmpStructureRegions[i], "[");
-                if (tmpNumberOfAngularBrackets == 0) {
-                    return MessageSpices.getString("StructureCheck.MissingConnection");
-                }
-                tmpPartConnection[i] = new int[tmpNumberOfAngularBrackets];
-                tmpStructureRegionsLength = tmpStructureRegions[i].length();
-                tmpIndexOfLeftLimit = 0;
-                tmpIndexOfRightLimit = 0;
-                for (int j = 0; j < tmpStructureRegionsLength; j++) {
-                    tmpIndexOfLeftLimit = tmpStructureRegions[i].indexOf('[', tmpIndexOfLeftLimit);
-                    if (tmpIndexOfLeftLimit == -1) {
-                        break;
-                    }
-                    tmpIndexOfRightLimit = tmpStructureRegions[i].indexOf(']', tmpIndexOfRightLimit);
-                    tmpStringBetweenAngularBrackets = tmpStructureRegions[i].substring(tmpIndexOfLeftLimit + 1, tmpIndexOfRightLimit);
-                    if (spicesUtility.isIntegerNumber(tmpStringBetweenAngularBrackets)) {
-                        tmpPartConnection[i][j] = Integer.valueOf(tmpStringBetweenAngularBrackets);
-                    }
-                    tmpIndexOfLeftLimit = tmpIndexOfRightLimit + 1;
-                    tmpIndexOfRightLimit = tmpIndexOfLeftLimit;
-                }
-            }
-            if (tmpPartConnection.length > 1) {
-                if (!this.isOnePart(tmpPartConnection)) {
-                    return MessageSpices.getString("StructureCheck.StructureNotOnePart");
-                }
-            }
-        }
-
-        // </editor-fold>
-        return null;
-    }
-    // </editor-fold>
-    //
-    // <editor-fold defaultstate="collapsed" desc="- Particle neighbor related methods">
-    /**
-     * Determines all neighbor particles in a chemical structure represented
-     * by aTokens that are connected by a bond
-     *
-     * @param anIsReverseSequenceIncluded True: Return list of sequences
-     * also contains reverse sequences, i.e. if sequence {A, B} is in return
-     * list the sequence {B, A} will also be added, false: Otherwise (no
-     * redundant information)
-     * @return List of sequences. A sequence is an integer array of length 2
-     * and consists of indices of particles that are connected by a bond in
-     * the chemical structure that aTokens represents. For instance the
-     * structure "A-B-C" has two connections, namely "A-B" and "B-C" or
-     * expressed as particle index (don't mixed up with token index) "0-1"
-     * and "1-2". The result of this example is 0, 1 and 1, 2.
-     */
-    private LinkedList<int[]> getNeighborParticles(boolean anIsReverseSequenceIncluded) {
-
-        // <editor-fold defaultstate="collapsed" desc="Initialisation">
-        LinkedList<int[]> tmpSequenceList = new LinkedList<>();
-        int[] tmpSequence = new int[2];
-        int[] tmpHeadParticleIndices = null;
-        int[] tmpTailParticleIndices = null;
-        boolean tmpHasRingClosure = false;
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Particles, normal brackets, curly brackets">
-        int tmpRightParticleIndex = 0;
-        int tmpLeftParticleIndex = 0;
-        int tmpLeftBranchLevel = 0;
-        int tmpRightBranchLevel = 0;
-        int[] tmpTokenRepeatsNotInSeries = getTotalNumberOfParticleRepetitions(false);
-        boolean tmpHasLeftParticle = false;
-        boolean[] tmpIsParticleFlags = this.isInnerParticleList;
-        String[] tmpInnerStructureTokens =  this.getInnerStructureTokens();
-
-        // Determine first particle of a link
-        for (int i = 0; i < tmpInnerStructureTokens.length; i++) {
+            // </editor-fold>
             // <editor-fold defaultstate="collapsed" desc="Token">
-
-            if (!tmpHasLeftParticle && (tmpIsParticleFlags[i] || spicesUtility.isMonomer(tmpInnerStructureTokens[i]))) {
-                while (this.innerParticleIndices[tmpLeftParticleIndex] < i) {
-                    tmpLeftParticleIndex++;
-                }
+            byte tmpTokenKind = tmpRuns.getKind(i);
+            if (!tmpHasLeftParticle && tmpRuns.isParticle(i)) {
+                tmpLeftParticleIndex = tmpRuns.getParticleOffset(i);
                 tmpHasLeftParticle = true;
-            } else if (spicesUtility.isCurlyBracketOpen(tmpInnerStructureTokens[i])) {
-                tmpHeadParticleIndices = getIndexOfParticles("[HEAD]", i);
-                tmpTailParticleIndices = getIndexOfParticles("[TAIL]", i);
+            } else if (tmpTokenKind == SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN) {
                 if (!tmpHasLeftParticle) {
-                    tmpSequence[0] = tmpTailParticleIndices[0];
-                    // search for next Particle which is connected with last
+                    int tmpTailParticleIndex = this.getTagParticleIndex(SpicesConstants.TOKEN_KIND_TAIL, i);
+                    // search for particles which are connected with last
                     // TAIL particle
-                    int tmpParticleToTailIndex = this.getNextParticleConnectWithTailIndex(i);
-                    if (tmpParticleToTailIndex != -1) {
-                        tmpSequence[1] = tmpParticleToTailIndex;
-                        tmpSequenceList.add(tmpSequence.clone());
+                    for (int tmpParticleToTailIndex : this.getParticlesConnectWithTailIndices(i)) {
+                        tmpBonds = this.addBond(tmpBonds, tmpNumberOfBonds++, tmpTailParticleIndex, tmpParticleToTailIndex);
+                    }
+                    if (tmpIsTemplate) {
+                        tmpTemplateEvents = this.addTemplateEvent(tmpTemplateEvents, tmpNumberOfTemplateEvents++, TEMPLATE_EVENT_TAIL, i, 0);
                     }
                 }
-            } else if (!tmpHasLeftParticle && spicesUtility.isNormalBracketClose(tmpInnerStructureTokens[i])) {
-                tmpLeftBranchLevel--;
-            } else if (!tmpHasLeftParticle && spicesUtility.isNormalBracketOpen(tmpInnerStructureTokens[i])) {
-                tmpLeftBranchLevel++;
-            } else if (!tmpHasRingClosure && spicesUtility.isRingClosure(tmpInnerStructureTokens[i])) {
+            } else if (!tmpHasLeftParticle && (tmpTokenKind == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE || tmpTokenKind == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN)) {
+                // Branch levels are precomputed
+            } else if (!tmpHasRingClosure && tmpTokenKind == SpicesConstants.TOKEN_KIND_RING_CLOSURE) {
                 tmpHasRingClosure = true;
             } else if (tmpHasLeftParticle) {
-                // Determine the right particle of a link
-                tmpRightBranchLevel = tmpLeftBranchLevel;
-                for (int j = i; j < tmpInnerStructureTokens.length; j++) {
-                    if (spicesUtility.isConnection(tmpInnerStructureTokens[j])) {
-                        // legal expression
-                    } else if (spicesUtility.isCurlyBracketOpen(tmpInnerStructureTokens[j])) {
-                        tmpHeadParticleIndices = getIndexOfParticles("[HEAD]", j);
-                        tmpTailParticleIndices = getIndexOfParticles("[TAIL]", j);
-                        tmpSequence[0] = tmpLeftParticleIndex;
-                        tmpSequence[1] = tmpHeadParticleIndices[0];
-                        tmpSequenceList.add(tmpSequence.clone());
-                        break;
-                    } else if (spicesUtility.isCurlyBracketClose(tmpInnerStructureTokens[j])) {
-                        break;
-                    } else if (spicesUtility.isNormalBracketOpen(tmpInnerStructureTokens[j])) {
-                        tmpRightBranchLevel++;
-                    } else if (spicesUtility.isNormalBracketClose(tmpInnerStructureTokens[j])) {
-                        tmpRightBranchLevel--;
-                        if (tmpRightBranchLevel < tmpLeftBranchLevel) {
-                            tmpLeftBranchLevel--;
-                            break;
+                // Determine the right particles of a link: The first
+                // particle of every branch that is opened on the branch
+                // level of run i up to the stop index and the particle or
+                // HEAD particle at the stop index. NOTE: Only the first
+                // particle of a particle series may be a right particle.
+                int tmpStoredIndex = tmpRuns.getStoredRunIndex(i);
+                int tmpStopIndex = Math.min(tmpRuns.getRunIndex(tmpLevelStopIndices[tmpStoredIndex], i), tmpRuns.getRunIndex(tmpCurlyStopIndices[tmpStoredIndex], i));
+                int j = i;
+                while (j < tmpStopIndex) {
+                    if (tmpRuns.getKind(j) == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN) {
+                        int k = j + 1;
+                        while (k < tmpStopIndex && !tmpRuns.isSeries(k) && tmpRuns.getKind(k) == SpicesConstants.TOKEN_KIND_NUMBER) {
+                            k++;
                         }
-                    } else if (tmpIsParticleFlags[j] || spicesUtility.isMonomer(tmpInnerStructureTokens[j])) {
-                        if (tmpLeftBranchLevel == tmpRightBranchLevel || (tmpLeftBranchLevel == tmpRightBranchLevel - 1 && isTokenAfterNormalBracketOpen(j))) {
-                            while (this.innerParticleIndices[tmpRightParticleIndex] < j) {
-                                tmpRightParticleIndex++;
-                            }
-                            int tmpLeftRepeat = tmpTokenRepeatsNotInSeries[this.innerParticleIndices[tmpLeftParticleIndex]];
-                            int tmpRightRepeat = tmpTokenRepeatsNotInSeries[this.innerParticleIndices[tmpRightParticleIndex]] / tmpLeftRepeat;
-                            for (int ii = 0; ii < tmpLeftRepeat; ii++) {
-                                tmpSequence[0] = tmpLeftParticleIndex + ii;
-                                for (int jj = 0; jj < tmpRightRepeat; jj++) {
-                                    tmpSequence[1] = tmpRightParticleIndex + ii * (tmpRightRepeat) + jj;
-                                    tmpSequenceList.add(tmpSequence.clone());
-                                }
-                            }
-                            if (tmpLeftBranchLevel == tmpRightBranchLevel) {
-                                break;
+                        if (k < tmpStopIndex && tmpRuns.isParticle(k)) {
+                            tmpBonds = this.addBond(tmpBonds, tmpNumberOfBonds++, tmpLeftParticleIndex, tmpRuns.getParticleOffset(k));
+                            if (tmpIsTemplate) {
+                                tmpTemplateEvents = this.addTemplateEvent(tmpTemplateEvents, tmpNumberOfTemplateEvents++, TEMPLATE_EVENT_BOND, tmpLeftParticleIndex, tmpRuns.getParticleOffset(k));
                             }
                         }
+                        // Skip branch
+                        j = tmpRuns.getRunIndex(tmpClosingBracketIndices[tmpRuns.getStoredRunIndex(j)], j) + 1;
+                    } else {
+                        j++;
+                    }
+                }
+                if (tmpStopIndex < tmpNumberOfRuns) {
+                    if (tmpRuns.isParticle(tmpStopIndex)) {
+                        tmpBonds = this.addBond(tmpBonds, tmpNumberOfBonds++, tmpLeftParticleIndex, tmpRuns.getParticleOffset(tmpStopIndex));
+                        if (tmpIsTemplate) {
+                            tmpTemplateEvents = this.addTemplateEvent(tmpTemplateEvents, tmpNumberOfTemplateEvents++, TEMPLATE_EVENT_BOND, tmpLeftParticleIndex, tmpRuns.getParticleOffset(tmpStopIndex));
+                        }
+                    } else if (tmpRuns.getKind(tmpStopIndex) == SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN) {
+                        tmpBonds = this.addBond(tmpBonds, tmpNumberOfBonds++, tmpLeftParticleIndex, this.getTagParticleIndex(SpicesConstants.TOKEN_KIND_HEAD, tmpStopIndex));
+                        if (tmpIsTemplate) {
+                            tmpTemplateEvents = this.addTemplateEvent(tmpTemplateEvents, tmpNumberOfTemplateEvents++, TEMPLATE_EVENT_HEAD, tmpLeftParticleIndex, tmpStopIndex);
+                        }
                     }
                 }
-                tmpHasLeftParticle = false;
-                tmpRightParticleIndex = tmpLeftParticleIndex + 1;
+                if (tmpStopIndex == i && tmpRuns.isParticle(i)) {
+                    // Particle directly after particle (e.g. monomer
+                    // shortcut in "H#O-Me"): The particle of run i is the
+                    // first particle of the next link
+                    tmpLeftParticleIndex = tmpRuns.getParticleOffset(i);
+                } else {
+                    tmpHasLeftParticle = false;
+                }
             }
 
             // </editor-fold>
         }
 
         // <editor-fold defaultstate="collapsed" desc="- Ring closure">
-        int[][] tmpRingClosureParticleIndex = this.getRingClosureParticleIndices();
         if (tmpHasRingClosure) {
+            int[][] tmpRingClosureParticleIndex = this.getRingClosureParticleIndices();
+            HashSet<Long> tmpBondHashSet = new HashSet<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+            for (int i = 0; i < tmpNumberOfBonds; i++) {
+                tmpBondHashSet.add(this.getBondKey(tmpBonds[2 * i], tmpBonds[2 * i + 1]));
+            }
             for (int i = 0; i < tmpRingClosureParticleIndex.length; i += 2) {
-                tmpSequence[0] = tmpRingClosureParticleIndex[i][1];
-                tmpSequence[1] = tmpRingClosureParticleIndex[i + 1][1];
-                if (!tmpSequenceList.stream().anyMatch(a -> Arrays.equals(a, tmpSequence))) {
-                    tmpSequenceList.add(tmpSequence.clone());
+                int tmpFirstParticleIndex = tmpRingClosureParticleIndex[i][1];
+                int tmpSecondParticleIndex = tmpRingClosureParticleIndex[i + 1][1];
+                if (tmpBondHashSet.add(this.getBondKey(tmpFirstParticleIndex, tmpSecondParticleIndex))) {
+                    tmpBonds = this.addBond(tmpBonds, tmpNumberOfBonds++, tmpFirstParticleIndex, tmpSecondParticleIndex);
                 }
             }
         }
 
         // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="- Sort sequence list">
-
-        if (anIsReverseSequenceIncluded) {
-            int[][] tmpSequenceArray = tmpSequenceList.toArray(new int[0][]);
-            int tmpLinkSize = tmpSequenceList.size();
-            for (int i = 0; i < tmpLinkSize; i++) {
-                tmpSequence[0] = tmpSequenceArray[i][1];
-                tmpSequence[1] = tmpSequenceArray[i][0];
-                tmpSequenceList.add(tmpSequence.clone());
-            }
+        // <editor-fold defaultstate="collapsed" desc="- Counting sort of bonds and reverse bonds">
+        int[] tmpNeighborOffsets = new int[tmpNumberOfParticles + 1];
+        for (int i = 0; i < 2 * tmpNumberOfBonds; i++) {
+            tmpNeighborOffsets[tmpBonds[i] + 1]++;
+        }
+        for (int i = 0; i < tmpNumberOfParticles; i++) {
+            tmpNeighborOffsets[i + 1] += tmpNeighborOffsets[i];
+        }
+        int[] tmpNeighborPositions = Arrays.copyOf(tmpNeighborOffsets, tmpNumberOfParticles);
+        int[] tmpNeighborIndices = new int[2 * tmpNumberOfBonds];
+        for (int i = 0; i < tmpNumberOfBonds; i++) {
+            tmpNeighborIndices[tmpNeighborPositions[tmpBonds[2 * i]]++] = tmpBonds[2 * i + 1];
         }
-        tmpSequenceList.sort(new ComparatorFirstIndex());
+        for (int i = 0; i < tmpNumberOfBonds; i++) {
+            tmpNeighborIndices[tmpNeighborPositions[tmpBonds[2 * i + 1]]++] = tmpBonds[2 * i];
+        }
+        this.particleGraph = ParticleGraph.wrap(tmpNeighborOffsets, tmpNeighborIndices);
         // </editor-fold>
         // </editor-fold>
-        return tmpSequenceList;
     }
-    // </editor-fold>
-    //
-    // <editor-fold defaultstate="collapsed" desc="- Coordinates of Tokens related methods">
+
     /**
-     * Convert the token list to a compiled token list
+     * Connected particles sorted by first particle index (including reverse
+     * sequences, i.e. if sequence {A, B} is in the list the sequence {B, A}
+     * is also included)
+     *
+     * @return Connected particles (zero-based number of two connected
+     * particles) or null if there are no neighbor particles
      */
-    private String[] getSpicesCompilerTokenList() {
-        if (this.getInnerStructureTokens() == null || this.getInnerStructureTokens().length == 0) {
+    private LinkedList<int[]> getConnectedParticlesList() {
+        if (this.particleGraph == null) {
             return null;
         }
-        // <editor-fold defaultstate="collapsed" desc="- Initial settings">
-        ArrayDeque<String> tmpTokenList1 = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        ArrayDeque<String> tmpTokenList2 = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        ArrayDeque<String> tmpHelperList = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        int tmpFrequencyNumber = 0;
-        int tmpIndex = 0;
-        boolean tmpIsAfterNumber = false;
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="- Numbers prior particle">
-        if (this.getInnerStructureTokens().length == 1) {
-            return this.getInnerStructureTokens();
-        }
-        if (spicesUtility.isMonomer(this.getInnerStructureTokens()[0])) {
-            tmpTokenList1.add(this.getInnerStructureTokens()[0]);
-        }
-        for (int i = 1; i < this.getInnerStructureTokens().length; i++) {
-            if (spicesUtility.isIntegerNumber(this.getInnerStructureTokens()[i - 1])) {
-                if (spicesUtility.isParticle(this.getInnerStructureTokens()[i])) {
-                    tmpFrequencyNumber = Integer.parseInt(this.getInnerStructureTokens()[i - 1]);
-                    for (int j = 0; j < tmpFrequencyNumber; j++) {
-                        tmpTokenList1.add("1");
-                        tmpTokenList1.add(this.getInnerStructureTokens()[i]);
-                        if (j + 1 < tmpFrequencyNumber) {
-                            tmpTokenList1.add("-");
-                        }
-                    }
-                } else {
-                    tmpTokenList1.add(this.getInnerStructureTokens()[i - 1]);
-                    tmpTokenList1.add(this.getInnerStructureTokens()[i]);
-                }
-            } else if (spicesUtility.isIntegerNumber(this.getInnerStructureTokens()[i])) {
-                if (i == 1) {
-                    tmpTokenList1.add(this.getInnerStructureTokens()[0]);
-                }
-            } else {
-                tmpTokenList1.add(this.getInnerStructureTokens()[i]);
+        int[] tmpOffsets = this.particleGraph.getOffsets();
+        int[] tmpNeighbors = this.particleGraph.getNeighbors();
+        LinkedList<int[]> tmpResult = new LinkedList<>();
+        for (int i = 0; i < this.particleGraph.getNumberOfParticles(); i++) {
+            for (int j = tmpOffsets[i]; j < tmpOffsets[i + 1]; j++) {
+                tmpResult.add(new int[] {i, tmpNeighbors[j]});
             }
         }
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="- Numbers prior curly bracket">
-        String[] tmpTokenArray1 = tmpTokenList1.toArray(new String[0]);
-        if (spicesUtility.hasCurlyBracket(this.inputStructure)) {
-            while (tmpIndex < tmpTokenArray1.length - 1) {
-                if (spicesUtility.isIntegerNumber(tmpTokenArray1[tmpIndex])
-                        && spicesUtility.isCurlyBracketOpen(tmpTokenArray1[tmpIndex + 1])) {
-                    tmpFrequencyNumber = Integer.parseInt(tmpTokenArray1[tmpIndex]);
-                    tmpIsAfterNumber = true;
-                } else {
-                    if (tmpIsAfterNumber) {
-                        while (!tmpTokenArray1[tmpIndex].equals("}")) {
-                            tmpHelperList.add(tmpTokenArray1[tmpIndex]);
-                            tmpIndex++;
-                        }
-                        for (int i = 0; i < tmpFrequencyNumber; i++) {
-                            tmpTokenList2.addAll(tmpHelperList);
-                            tmpTokenList2.add("}");
-                        }
-                        tmpIsAfterNumber = false;
-                    } else {
-                        tmpTokenList2.add(tmpTokenArray1[tmpIndex]);
-                    }
-                }
-                tmpIndex++;
-            }
-            if (tmpIndex < tmpTokenArray1.length) {
-                tmpTokenList2.add(tmpTokenArray1[tmpTokenArray1.length - 1]);
-            }
-        } else {
-            return tmpTokenList1.toArray(new String[0]);
-        }
-
-        // </editor-fold>
-        return tmpTokenList2.toArray(new String[0]);
+        return tmpResult;
     }
     // </editor-fold>
     //
-    // <editor-fold defaultstate="collapsed" desc="- Other methods">
+    // <editor-fold defaultstate="collapsed" desc="- Coordinates of Tokens related methods">
     /**
-     * Determines the index positions (zero-based) of particles in
-     * structureTokens
-     *
-     * @return Array of indices: Length of array = total number of
-     * particles, returnArray[i] is the index of the i-th particle of the
-     * structure in aTokens
+     * Compiles the syntax tree of the part structure to token runs. NOTE:
+     * Particle series (e.g. 5A) are NOT expanded to single tokens but kept
+     * as a single run. Repeated curly bracket blocks (e.g. 4{...}) are NOT
+     * expanded but stored once as repeat groups.
      *
+     * @param aPartNode Root node of syntax tree
+     * @return Compiled token list as runs or null if there are no tokens
      */
-    private int[] determineInnerParticleIndices() {
-        // <editor-fold defaultstate="collapsed" desc="Checks">
-        if (this.getInnerStructureTokens() == null || this.getInnerStructureTokens().length == 0) {
+    private SpicesTokenRuns getSpicesCompilerTokenRuns(SpicesNode aPartNode) {
+        if (aPartNode == null || aPartNode.getNumberOfChildren() == 0) {
             return null;
         }
-
-        // </editor-fold>
-        // <editor-fold defaultstate="collapsed" desc="Local variables">
-        int tmpTotalParticleCount = this.getInnerTotalNumberOfParticles();
-        int[] tmpParticleIndices = new int[tmpTotalParticleCount];
-        this.isInnerParticleList = new boolean[tmpTotalParticleCount];
-        int tmpIndex = 0;
-
-        // </editor-fold>
-        int[] tmpTotalNumberOfParticleRepetitions = this.getTotalNumberOfParticleRepetitions(true);
-        for (int i = 0; i < tmpTotalNumberOfParticleRepetitions.length; i++) {
-            if (tmpTotalNumberOfParticleRepetitions[i] > 0) {
-                for (int j = 0; j < tmpTotalNumberOfParticleRepetitions[i]; j++) {
-                    tmpParticleIndices[tmpIndex] = i;
-                    tmpIndex++;
-                }
+        SpicesTokenRuns tmpTokenRuns = new SpicesTokenRuns();
+        // NOTE: Helper runs are NOT cleared, i.e. repeated curly brackets
+        // also repeat all former curly brackets
+        SpicesTokenRuns tmpHelperRuns = new SpicesTokenRuns();
+        int tmpNumberOfChildren = aPartNode.getNumberOfChildren();
+        for (int i = 0; i < tmpNumberOfChildren; i++) {
+            SpicesNode tmpChild = aPartNode.getChild(i);
+            if (i > 0 && i == tmpNumberOfChildren - 1 && tmpChild.getNodeKind() == SpicesConstants.NODE_KIND_TOKEN && tmpChild.getTokenKind() == SpicesConstants.TOKEN_KIND_NUMBER) {
+                // A final number token is not compiled
+                continue;
             }
+            this.addNodeRuns(tmpChild, i == 0 && this.isFirstTokenSkipped(aPartNode), tmpTokenRuns, tmpHelperRuns);
         }
-        return tmpParticleIndices;
+        return tmpTokenRuns;
     }
 
     /**
-     * Determines the total number of particles in aTokens with all possible
-     * repetitions (normal and curly brackets are taken into account).
+     * Adds the token runs of a node and its children
      *
-     * @return Number of particles in aTokens
+     * @param aNode Node
+     * @param anIsFirstTokenSkipped True: First token of node is skipped,
+     * false: Otherwise
+     * @param aTokenRuns Token runs to add to
+     * @param aHelperRuns Accumulated runs of repeated curly bracket blocks
      */
-    private int getInnerTotalNumberOfParticles() {
-
-        // <editor-fold defaultstate="collapsed" desc="Checks">
-        if (this.getInnerStructureTokens() == null) {
-            return 0;
-        }
-
-        // </editor-fold>
-        int result = 0;
-        int[] tmpNumberOfTokenRepeats = this.getTotalNumberOfParticleRepetitions(true);
-        for (int n : tmpNumberOfTokenRepeats) {
-            result += n;
+    private void addNodeRuns(SpicesNode aNode, boolean anIsFirstTokenSkipped, SpicesTokenRuns aTokenRuns, SpicesTokenRuns aHelperRuns) {
+        switch (aNode.getNodeKind()) {
+            case SpicesConstants.NODE_KIND_PARTICLE:
+                if (aNode.hasNumberToken()) {
+                    if (aNode.getNumber() > 0) {
+                        aTokenRuns.addSeries(aNode.getToken(), aNode.getNumber());
+                    }
+                } else if (!anIsFirstTokenSkipped) {
+                    aTokenRuns.addToken(aNode.getTokenKind(), aNode.getToken(), 0);
+                }
+                break;
+            case SpicesConstants.NODE_KIND_BRANCH:
+            case SpicesConstants.NODE_KIND_MONOMER_BLOCK:
+                if (!anIsFirstTokenSkipped) {
+                    aTokenRuns.addToken(aNode.getTokenKind(), aNode.getToken(), 0);
+                }
+                for (int i = 0; i < aNode.getNumberOfChildren(); i++) {
+                    this.addNodeRuns(aNode.getChild(i), false, aTokenRuns, aHelperRuns);
+                }
+                if (aNode.getNodeKind() == SpicesConstants.NODE_KIND_BRANCH) {
+                    aTokenRuns.addToken(SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE, ")", 0);
+                } else {
+                    aTokenRuns.addToken(SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE, "}", 0);
+                }
+                break;
+            case SpicesConstants.NODE_KIND_REPEAT:
+                aHelperRuns.addToken(aNode.getTokenKind(), aNode.getToken(), 0);
+                for (int i = 0; i < aNode.getNumberOfChildren(); i++) {
+                    this.addNodeRuns(aNode.getChild(i), false, aHelperRuns, aHelperRuns);
+                }
+                if (aNode.getNumber() > 0) {
+                    // Only the first copy is appended: The further copies
+                    // are derived by the repeat group
+                    int tmpFirstRunIndex = aTokenRuns.getNumberOfRuns();
+                    aTokenRuns.addRuns(aHelperRuns);
+                    aTokenRuns.addToken(SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE, "}", 0);
+                    aTokenRuns.addRepeatGroup(tmpFirstRunIndex, aNode.getNumber());
+                }
+                break;
+            default:
+                if (anIsFirstTokenSkipped) {
+                    return;
+                }
+                if (aNode.hasNumberToken()) {
+                    aTokenRuns.addToken(SpicesConstants.TOKEN_KIND_NUMBER, aNode.getNumberToken(), aNode.getNumber());
+                    aTokenRuns.addToken(aNode.getTokenKind(), aNode.getToken(), 0);
+                } else {
+                    aTokenRuns.addToken(aNode.getTokenKind(), aNode.getToken(), aNode.getNumber());
+                }
+                break;
         }
-        return result;
     }
 
     /**
-     * Determines the number of repetitions of each particle in aTokens. If
-     * a single token is not a particle or a monomer a "0" is set in the
-     * return array.
+     * True: The first token of the part structure is skipped by the
+     * compiler, i.e. it is neither a monomer nor followed by a number token
+     * (as the original token compiler does), false: Otherwise
      *
-     * @param aHasRepetitiveParticle True: Structure has repetitive
-     * particles, e.g. 5A, false: Otherwise
-     * @return Array with the number of total repetitions of each particle.
-     * If aTokens[i] is NOT a particle or a monomer returnArray[i] is 0.
-     * This method takes normal and curly brackets into account.
+     * @param aPartNode Root node of syntax tree
+     * @return True: First token is skipped, false: Otherwise
      */
-    private int[] getTotalNumberOfParticleRepetitions(boolean aHasRepetitiveParticle) {
-
-        // <editor-fold defaultstate="collapsed" desc="Checks">
-        if (this.getInnerStructureTokens() == null) {
-            return null;
-        }
-
-        // </editor-fold>
-        int tmpNumberOfTokens = this.getInnerStructureTokens().length;
-        int tmpNumberOfCurrentRepetitions = 1;
-        int[] tmpNumberOfTokenRepetitions = new int[tmpNumberOfTokens];
-        boolean[] tmpIsNumberFlags = new boolean[tmpNumberOfTokens];
-        Arrays.fill(tmpIsNumberFlags, false);
-
-        for (int i = 0; i < tmpNumberOfTokens; i++) {
-            if (spicesUtility.isParticle(this.getInnerStructureTokens()[i]) || spicesUtility.isMonomer(this.getInnerStructureTokens()[i])) {
-                tmpNumberOfTokenRepetitions[i] = 1;
-            }
-            if (spicesUtility.isIntegerNumber(this.getInnerStructureTokens()[i])) {
-                tmpIsNumberFlags[i] = true;
-            }
+    private boolean isFirstTokenSkipped(SpicesNode aPartNode) {
+        SpicesNode tmpFirstNode = aPartNode.getChild(0);
+        if (this.isStartingWithNumberToken(tmpFirstNode)) {
+            return false;
         }
-        for (int i = 0; i < tmpNumberOfTokens; i++) {
-            if (tmpIsNumberFlags[i]) {
-                i++;
-                if (i == tmpNumberOfTokens) {
-                    break;
-                }
-                if (tmpNumberOfTokenRepetitions[i] > 0) {
-                    // Repeat size of series of particle
-                    if (aHasRepetitiveParticle) {
-                        tmpNumberOfTokenRepetitions[i] = tmpNumberOfCurrentRepetitions;
-                        continue;
-                    }
-                } else if (spicesUtility.isCurlyBracketOpen(this.getInnerStructureTokens()[i])) {
-                    int j = i + 1;
-                    while (!spicesUtility.isCurlyBracketClose(this.getInnerStructureTokens()[j])) {
-                        if (j >= tmpNumberOfTokens) {
-                            break;
-                        }
-                        tmpNumberOfTokenRepetitions[j] = tmpNumberOfCurrentRepetitions;
-                        j++;
-                    }
+        switch (tmpFirstNode.getNodeKind()) {
+            case SpicesConstants.NODE_KIND_MONOMER:
+                return false;
+            case SpicesConstants.NODE_KIND_BRANCH:
+            case SpicesConstants.NODE_KIND_MONOMER_BLOCK:
+                return tmpFirstNode.getNumberOfChildren() == 0 || !this.isStartingWithNumberToken(tmpFirstNode.getChild(0));
+            default:
+                if (aPartNode.getNumberOfChildren() == 1) {
+                    // Single token
+                    return false;
                 }
-            }
+                return !this.isStartingWithNumberToken(aPartNode.getChild(1));
         }
-        return tmpNumberOfTokenRepetitions;
     }
 
+    /**
+     * True: First token of node is a number token, false: Otherwise
+     *
+     * @param aNode Node
+     * @return True: First token of node is a number token, false: Otherwise
+     */
+    private boolean isStartingWithNumberToken(SpicesNode aNode) {
+        return aNode.hasNumberToken() || aNode.getTokenKind() == SpicesConstants.TOKEN_KIND_NUMBER;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="- Other methods">
     /**
      * Set (zero-based) inner particles
      */
     private void setInnerParticles() {
-        if (this.getInnerStructureTokens() != null && this.getInnerStructureTokens().length > 0) {
-            this.isInnerParticleList = new boolean[this.getInnerStructureTokens().length];
-            Arrays.fill(this.isInnerParticleList, false);
+        if (this.innerTokenRuns != null && this.innerTokenRuns.getNumberOfTokens() > 0) {
             int totalNumberOfParticles = this.innerParticleIndices.length;
             this.innerParticles = new String[totalNumberOfParticles];
-            for (int i = 0; i < totalNumberOfParticles; i++) {
-                this.innerParticles[i] = this.getInnerStructureTokens()[this.innerParticleIndices[i]];
-                this.isInnerParticleList[this.innerParticleIndices[i]] = true;
+            this.innerParticleIds = new int[totalNumberOfParticles];
+            for (int i = 0; i < this.innerTokenRuns.getNumberOfRuns(); i++) {
+                if (this.innerTokenRuns.isParticle(i)) {
+                    // NOTE: Particle id is determined only once for all
+                    // particles of a particle series
+                    int tmpParticleId = SpicesParticleTable.getParticleId(this.innerTokenRuns.getToken(i));
+                    String tmpParticle = SpicesParticleTable.getParticle(tmpParticleId);
+                    int tmpFirstParticleIndex = this.innerTokenRuns.getParticleOffset(i);
+                    int tmpNumberOfParticles = Math.max(this.innerTokenRuns.getSeriesLength(i), 1);
+                    for (int j = tmpFirstParticleIndex; j < tmpFirstParticleIndex + tmpNumberOfParticles; j++) {
+                        this.innerParticleIds[j] = tmpParticleId;
+                        this.innerParticles[j] = tmpParticle;
+                    }
+                }
             }
         }
     }
@@ -1672,7 +1385,7 @@ public class SpicesInner {
      * @return 0-based index number of particle with "START"-tag
      */
     private int getStartTagParticleIndex() {
-        return this.getStartEndParticleIndex("[START]");
+        return this.getStartEndParticleIndex(SpicesConstants.TOKEN_KIND_START);
     }
     
     /**
@@ -1681,31 +1394,24 @@ public class SpicesInner {
      * @return 0-based index number of particle with "END"-tag
      */
     private int getEndTagParticleIndex() {
-        return this.getStartEndParticleIndex("[END]");
+        return this.getStartEndParticleIndex(SpicesConstants.TOKEN_KIND_END);
     }
 
     /**
      * Determine the particle position with "START"- or "END"-tag
-     * @param aTokenName
-     * @return 
+     * @param aTokenKind Token kind (SpicesConstants.TOKEN_KIND_START or
+     * SpicesConstants.TOKEN_KIND_END)
+     * @return 0-based index number of particle with tag
      */
-    private int getStartEndParticleIndex(String aTokenName) {
+    private int getStartEndParticleIndex(byte aTokenKind) {
         int indexOfResult = 0;
-        int indexOfEndToken = 0;
         if (!this.hasStartEndAttribute) {
             return -1;
         } else {
-            for (int i = 0; i < this.getInnerStructureTokens().length; i++) {
-                if (this.getInnerStructureTokens()[i].equals(aTokenName)) {
-                    indexOfEndToken = i;
-                    break;
-                }
-            }
-            for (int i = this.innerParticleIndices.length - 1; i >= 0; i--) {
-                if (indexOfEndToken > this.innerParticleIndices[i]) {
-                    indexOfResult = i;
-                    break;
-                }
+            int tmpRunIndex = this.innerTokenRuns.getNextRunIndexOfKind(aTokenKind, 0);
+            // Last particle before tag token
+            if (tmpRunIndex >= 0 && this.innerTokenRuns.getParticleOffset(tmpRunIndex) > 0) {
+                indexOfResult = this.innerTokenRuns.getParticleOffset(tmpRunIndex) - 1;
             }
         }
         return indexOfResult;
@@ -1718,9 +1424,9 @@ public class SpicesInner {
      */
     private String[] getMonomerList() {
         HashSet<String> tmpMonomersHashSet = new HashSet<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
-        for (String tmpSingleToken : this.getInnerStructureTokens()) {
-            if (!tmpMonomersHashSet.contains(tmpSingleToken) && spicesUtility.isMonomer(tmpSingleToken)) {
-                tmpMonomersHashSet.add(tmpSingleToken);
+        for (int i = 0; i < this.innerTokenRuns.getNumberOfRuns(); i++) {
+            if (this.innerTokenRuns.getKind(i) == SpicesConstants.TOKEN_KIND_MONOMER) {
+                tmpMonomersHashSet.add(this.innerTokenRuns.getToken(i));
             }
         }
         if (tmpMonomersHashSet.isEmpty()) {
@@ -1743,8 +1449,8 @@ public class SpicesInner {
         int[] tmpResults = new int[tmpPartLength];
         int[] tmpInterimResults = new int[tmpPartLength];
 
-        for (int[] tmpConnectedParticlesListItem : this.connectedParticlesList) {
-            tmpInterimResults[tmpConnectedParticlesListItem[0]]++;
+        for (int i = 0; i < tmpPartLength; i++) {
+            tmpInterimResults[i] = this.particleGraph.getDegree(i);
         }
         System.arraycopy(tmpInterimResults, 0, tmpResults, tmpTargetIndexPosition, tmpInterimResults.length);
         tmpTargetIndexPosition += tmpPartLength;
@@ -1753,48 +1459,47 @@ public class SpicesInner {
     }
 
     /**
-     * Determine the index position of a particle with related pattern
+     * Determine the index position of the particle with related token kind
      *
-     * @param aPattern A Pattern
-     * @param aStartIndex Start index of token list
-     * @return Index positions of all particles with related pattern
+     * @param aTokenKind Token kind (e.g. SpicesConstants.TOKEN_KIND_HEAD)
+     * @param aStartRunIndex Start index of token runs
+     * @return Index position of first particle with related token kind or
+     * -1 if none is found
      */
-    private int[] getIndexOfParticles(String aPattern, int aStartIndex) {
+    private int getTagParticleIndex(byte aTokenKind, int aStartRunIndex) {
 
         // <editor-fold defaultstate="collapsed" desc="Simple checks">
-        if (aPattern == null || aPattern.isEmpty()) {
-            return null;
-        }
-        if (aStartIndex < 0 || aStartIndex > this.getInnerStructureTokens().length - 1) {
-            return null;
+        if (aStartRunIndex < 0 || aStartRunIndex > this.innerTokenRuns.getNumberOfRuns() - 1) {
+            return -1;
         }
 
         // </editor-fold>
-        ArrayDeque<Integer> tmpParticleIndex = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        int tmpSearchIndex = 0;
-        int tmpRepeat = 1;
-        for (int i = aStartIndex; i < this.getInnerStructureTokens().length; i++) {
-            if (this.isInnerParticleList[i]) {
-                if (i > 0 && spicesUtility.isIntegerNumber(this.getInnerStructureTokens()[i - 1])) {
-                    tmpRepeat = Integer.parseInt(this.getInnerStructureTokens()[i - 1]);
-                } else {
-                    tmpRepeat = 1;
+        // NOTE: The particle before a tag token is the last particle run
+        // between aStartRunIndex and the tag token or the first token if it
+        // is a single particle or monomer token
+        int[] tmpTagRunIndices = this.innerTokenRuns.getRunIndicesOfKind(aTokenKind);
+        int tmpPosition = Arrays.binarySearch(tmpTagRunIndices, aStartRunIndex);
+        if (tmpPosition < 0) {
+            tmpPosition = -tmpPosition - 1;
+        }
+        for (int i = tmpPosition; i < tmpTagRunIndices.length; i++) {
+            int tmpParticleRunIndex = this.innerTokenRuns.getPreviousParticleRunIndex(tmpTagRunIndices[i]);
+            if (tmpParticleRunIndex >= aStartRunIndex) {
+                if (this.innerTokenRuns.isSeries(tmpParticleRunIndex)) {
+                    // Last particle of series (after number token "1")
+                    return this.innerTokenRuns.getParticleOffset(tmpParticleRunIndex) + this.innerTokenRuns.getSeriesLength(tmpParticleRunIndex) - 1;
                 }
-                tmpSearchIndex = i;
-            }
-            if (this.getInnerStructureTokens()[i].equals(aPattern)) {
-                for (int j = 0; j < this.innerParticleIndices.length; j++) {
-                    if (this.innerParticleIndices[j] == tmpSearchIndex) {
-                        tmpParticleIndex.add(j + tmpRepeat - 1);
-                        j += tmpRepeat - 1;
-                    }
+                int tmpRepeat = 1;
+                if (tmpParticleRunIndex > 0 && !this.innerTokenRuns.isSeries(tmpParticleRunIndex - 1) && this.innerTokenRuns.getKind(tmpParticleRunIndex - 1) == SpicesConstants.TOKEN_KIND_NUMBER) {
+                    tmpRepeat = this.innerTokenRuns.getNumber(tmpParticleRunIndex - 1);
                 }
+                return this.innerTokenRuns.getParticleOffset(tmpParticleRunIndex) + tmpRepeat - 1;
+            }
+            if (!this.innerTokenRuns.isSeries(0) && this.innerTokenRuns.isParticle(0)) {
+                return 0;
             }
         }
-        int[] tmpResults = tmpParticleIndex.stream()
-                .mapToInt(Integer::intValue)
-                .toArray();
-        return tmpResults;
+        return -1;
     }
 
     /**
@@ -1802,59 +1507,25 @@ public class SpicesInner {
      * particle. The path is not necessarely the longest possible.
      *
      * @ param aPart: A part of Spices
-     * @return Array of particles from START-particle to END-particle.
+     * @param aBreadthFirstPath: Breadth-first path finder (work arrays are
+     * reused)
+     * @return Array of particles from START-particle to END-particle. If
+     * END-particle is not reachable or START-particle and END-particle are
+     * the same particle the array contains START-particle and END-particle
+     * only (e.g. [0, 0] for "X[START][END]").
      */
-    private int[] getPathStartToEnd(SpicesInner aPart) {
-        ArrayDeque<Integer> tmpPath = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        ArrayDeque<Integer> tmpResultPath = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        int[] tmpNextVertice = new int[aPart.innerParticleIndices.length];
-        int[] tmpResult;
-        int tmpActualVertice = 0;
-        int tmpParticleLength = aPart.innerParticleIndices.length;
-        boolean[] tmpVisitedParticleFlag = new boolean[tmpParticleLength];
-        boolean tmpPointerAtEnd;
-
-        // Traverse the graph from [START] to [END] and fit the vertices
-        // together to the path.
-        // Simple breadth-first search algorithm is used.
-        Arrays.fill(tmpVisitedParticleFlag, false);
-        Queue<Integer> tmpQueue = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
-        tmpQueue.add(aPart.startParticleIndex);
-        tmpNextVertice[0] = 0;
-        tmpVisitedParticleFlag[aPart.startParticleIndex] = true;
-        while (!tmpQueue.isEmpty()) {
-            tmpActualVertice = tmpQueue.remove();
-            if (tmpActualVertice == aPart.endParticleIndex) {
-                tmpQueue.remove(tmpActualVertice);
-                tmpVisitedParticleFlag[tmpActualVertice] = true;
-                break;
-            }
-            for (int tmpNextParticleItem : aPart.adjacentArray[tmpActualVertice]) {
-                if (!tmpVisitedParticleFlag[tmpNextParticleItem]) {
-                    tmpNextVertice[tmpNextParticleItem] = tmpActualVertice;
-                    tmpVisitedParticleFlag[tmpNextParticleItem] = true;
-                    tmpQueue.add(tmpNextParticleItem);
-                }
-            }
+    private int[] getPathStartToEnd(SpicesInner aPart, BreadthFirstPath aBreadthFirstPath) {
+        int tmpStartParticleIndex = aPart.getStartParticleIndex();
+        int tmpEndParticleIndex = aPart.getEndParticleIndex();
+        if (tmpStartParticleIndex == tmpEndParticleIndex) {
+            return new int[] {tmpStartParticleIndex, tmpEndParticleIndex};
+        }
+        // Traverse the graph from [START] to [END] with a breadth-first
+        // search
+        int[] tmpResult = aBreadthFirstPath.getPath(aPart.particleGraph, tmpStartParticleIndex, tmpEndParticleIndex);
+        if (tmpResult == null) {
+            return new int[] {tmpStartParticleIndex, tmpEndParticleIndex};
         }
-        tmpPointerAtEnd = false;
-        tmpActualVertice = aPart.endParticleIndex;
-        tmpPath.add(tmpActualVertice);
-        while (!tmpPointerAtEnd) {
-            tmpActualVertice = tmpNextVertice[tmpActualVertice];
-            tmpPath.add(tmpActualVertice);
-            if (tmpActualVertice == aPart.startParticleIndex) {
-                tmpPointerAtEnd = true;
-            }
-        }
-        Iterator tmpIterator = tmpPath.descendingIterator();
-        while(tmpIterator.hasNext())
-            {
-                tmpResultPath.add((Integer)tmpIterator.next());
-            }
-        tmpResult = tmpResultPath.stream()
-                .mapToInt(Integer::intValue)
-                .toArray();
         return tmpResult;
     }
 
@@ -1874,9 +1545,9 @@ public class SpicesInner {
     private int[] getHeuristicDiameter(SpicesInner aPart) {
         int tmpStartParticleIndex = 0;
 
-        DepthFirstPath dfs = new DepthFirstPath(aPart.adjacentArray, tmpStartParticleIndex);
-        tmpStartParticleIndex = dfs.getEndParticleIndex();
-        dfs = new DepthFirstPath(aPart.adjacentArray, tmpStartParticleIndex);
+        DepthFirstPath dfs = new DepthFirstPath(aPart.particleGraph, tmpStartParticleIndex);
+        // NOTE: The second sweep reuses the work arrays of the first sweep
+        dfs.search(dfs.getEndParticleIndex());
         return dfs.getDiameterPath();
     }
 
@@ -1884,51 +1555,93 @@ public class SpicesInner {
      * Determine the particle index position which is connected with tail
      * particle
      *
-     * @param aStartIndex The token start index position
+     * @param aStartRunIndex The token run start index position
      * @return The particle index position which is connected with tail
      * particle If nothing is found -1 will be return.
      */
-    private int getNextParticleConnectWithTailIndex(int aStartIndex) {
-
-        int tmpCursorIndex = aStartIndex;
-        int tmpBranchLevel = 0;
-        while (!spicesUtility.isCurlyBracketClose(this.getInnerStructureTokens()[tmpCursorIndex])) {
-            tmpCursorIndex++;
-        }
-        for (int i = tmpCursorIndex; i < this.getInnerStructureTokens().length; i++) {
-            if (spicesUtility.isNormalBracketOpen(this.getInnerStructureTokens()[i])) {
-                tmpBranchLevel++;
-            } else if (spicesUtility.isNormalBracketClose(this.getInnerStructureTokens()[i])) {
-                tmpBranchLevel--;
-            } else if (tmpBranchLevel == 0 && (this.isInnerParticleList[i] || spicesUtility.isMonomer(this.getInnerStructureTokens()[i]))) {
-                for (int j = 0; j < this.innerParticleIndices.length; j++) {
-                    if (this.innerParticleIndices[j] == i) {
-                        return j;
-                    }
+    private int getNextParticleConnectWithTailIndex(int aStartRunIndex) {
+
+        int tmpCursorIndex = this.innerTokenRuns.getNextRunIndexOfKind(SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE, aStartRunIndex);
+        if (tmpCursorIndex < 0) {
+            return -1;
+        }
+        // Next particle on the branch level of the closing curly bracket or
+        // HEAD particle of the next curly bracket block (whichever is first)
+        int tmpParticleRunIndex = this.innerTokenRuns.getNextLevelParticleRunIndex(tmpCursorIndex);
+        int tmpCurlyBracketOpenIndex = this.innerTokenRuns.getNextRunIndexOfKind(SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN, tmpCursorIndex);
+        if (tmpParticleRunIndex >= 0 && (tmpCurlyBracketOpenIndex < 0 || tmpParticleRunIndex < tmpCurlyBracketOpenIndex)) {
+            return this.innerTokenRuns.getParticleOffset(tmpParticleRunIndex);
+        }
+        if (tmpCurlyBracketOpenIndex >= 0) {
+            return this.getTagParticleIndex(SpicesConstants.TOKEN_KIND_HEAD, tmpCurlyBracketOpenIndex);
+        }
+        return -1;
+    }
+
+    /**
+     * Determine the particle index positions which are connected with tail
+     * particle: The first particles of the branches directly after the
+     * closing curly bracket (e.g. F in "{A[HEAD]-B[TAIL]}(F)-G") followed by
+     * the next particle (see getNextParticleConnectWithTailIndex())
+     *
+     * @param aStartRunIndex The token run start index position
+     * @return The particle index positions which are connected with tail
+     * particle (may be empty)
+     */
+    private int[] getParticlesConnectWithTailIndices(int aStartRunIndex) {
+        SpicesTokenRuns tmpRuns = this.innerTokenRuns;
+        int tmpNumberOfRuns = tmpRuns.getNumberOfRuns();
+        int tmpCursorIndex = tmpRuns.getNextRunIndexOfKind(SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE, aStartRunIndex);
+        int[] tmpResult = new int[0];
+        if (tmpCursorIndex >= 0) {
+            int j = tmpCursorIndex + 1;
+            while (j < tmpNumberOfRuns && tmpRuns.getKind(j) == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN) {
+                int k = j + 1;
+                while (k < tmpNumberOfRuns && !tmpRuns.isSeries(k) && tmpRuns.getKind(k) == SpicesConstants.TOKEN_KIND_NUMBER) {
+                    k++;
+                }
+                if (k < tmpNumberOfRuns && tmpRuns.isParticle(k)) {
+                    tmpResult = Arrays.copyOf(tmpResult, tmpResult.length + 1);
+                    tmpResult[tmpResult.length - 1] = tmpRuns.getParticleOffset(k);
+                }
+                // Skip branch
+                int tmpBranchLevel = tmpRuns.getBranchLevel(j);
+                j++;
+                while (j < tmpNumberOfRuns && tmpRuns.getBranchLevel(j) > tmpBranchLevel) {
+                    j++;
                 }
-            } else if (spicesUtility.isCurlyBracketOpen(this.getInnerStructureTokens()[i])) {
-                return getIndexOfParticles("[HEAD]", i)[0];
             }
         }
-        return -1;
+        int tmpParticleToTailIndex = this.getNextParticleConnectWithTailIndex(aStartRunIndex);
+        if (tmpParticleToTailIndex != -1) {
+            tmpResult = Arrays.copyOf(tmpResult, tmpResult.length + 1);
+            tmpResult[tmpResult.length - 1] = tmpParticleToTailIndex;
+        }
+        return tmpResult;
     }
 
     /**
-     * Determine whether the token is directly after a normal opening
-     * bracket (true) or not (false)
+     * Determine whether the (first particle) token of a run is directly
+     * after a normal opening bracket (true) or not (false)
      *
-     * @param aPosition The position of the token
+     * @param aRunIndex The index of the token run
      * @return Is the token directly after a normal opening bracket or not
      */
-    private boolean isTokenAfterNormalBracketOpen(int aPosition) {
-        if (aPosition > this.getInnerStructureTokens().length - 1) {
+    private boolean isTokenAfterNormalBracketOpen(int aRunIndex) {
+        if (aRunIndex > this.innerTokenRuns.getNumberOfRuns() - 1) {
             return false;
         }
-        for (int i = aPosition - 1; i >= 0; i--) {
-            if (spicesUtility.isIntegerNumber(this.getInnerStructureTokens()[i])) {
+        // NOTE: The first particle of a particle series is preceded by the
+        // number token "1" which is skipped like all number tokens
+        for (int i = aRunIndex - 1; i >= 0; i--) {
+            if (this.innerTokenRuns.isSeries(i)) {
+                // Last token of particle series is a particle
+                return false;
+            }
+            if (this.innerTokenRuns.getKind(i) == SpicesConstants.TOKEN_KIND_NUMBER) {
                 continue;
             }
-            return spicesUtility.isNormalBracketOpen(this.getInnerStructureTokens()[i]);
+            return this.innerTokenRuns.getKind(i) == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN;
         }
         return false;
     }
@@ -1941,9 +1654,10 @@ public class SpicesInner {
      */
     private boolean[] isTerminalParticle() {
         boolean[] tmpResult = new boolean[this.innerParticleIndices.length];
+        int[] tmpNumberOfConnects = this.getNumberOfConnectsArray();
         int tmpNumberOfTerminalParticles = 0;
         for (int i = 0; i < this.innerParticleIndices.length; i++) {
-            if (this.numberOfConnects[i] == 1) {
+            if (tmpNumberOfConnects[i] == 1) {
                 tmpResult[i] = true;
                 tmpNumberOfTerminalParticles++;
             } else {
@@ -1954,41 +1668,6 @@ public class SpicesInner {
         return tmpResult;
     }
 
-    /**
-     * Determine whther the structure is out of only one part (true) or not
-     * (false)
-     *
-     * @param aPartConnectionMarker ConnectionMarker between parts: 1st
-     * index stands for Partnumber 2nd index for connectionmarker index
-     * @return Information about a structure is out of only one part (true)
-     * or not (false)
-     */
-    private boolean isOnePart(int[][] aPartConnectionMarker) {
-        if (aPartConnectionMarker[0].length == 0) {
-            return false;
-        }
-        HashSet<Integer> tmpPartOfStructure = new HashSet<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
-        tmpPartOfStructure.add(0);
-        int tmpActualMarkerNumber = 0;
-        for (int i = 0; i < aPartConnectionMarker.length - 1; i++) {
-            for (int ii = 0; ii < aPartConnectionMarker[i].length; ii++) {
-                tmpActualMarkerNumber = aPartConnectionMarker[i][ii];
-                for (int j = i + 1; j < aPartConnectionMarker.length; j++) {
-                    for (int jj = 0; jj < aPartConnectionMarker[j].length; jj++) {
-                        if (tmpActualMarkerNumber == aPartConnectionMarker[j][jj]) {
-                            if (!tmpPartOfStructure.contains(j)) {
-                                tmpPartOfStructure.add(j);
-                                j = aPartConnectionMarker[i].length;
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return (tmpPartOfStructure.size() == aPartConnectionMarker.length);
-    }
-
     /**
      * Determine particle index positions of particles with ringclosure tags
      * @param aInputStructure
@@ -2002,7 +1681,6 @@ public class SpicesInner {
         int tmpNumberOfOpeningAngularBrackets = spicesUtility.getFrequencyOfCharacterInString(this.inputStructure, "[");
         int tmpNumberOfRingClosures = 0;
         String tmpStringBetweenAngularBrackets;
-        String[] tmpTokens = this.getInnerStructureTokens();
         ArrayDeque<Integer> tmpRingClosureNumbersList = new ArrayDeque<>(SpicesConstants.DEFAULT_ARRAYDEQUE_INITIAL_CAPACITY);
         int[] tmpRingClosureNumbersArray;
 
@@ -2028,36 +1706,106 @@ public class SpicesInner {
                .mapToInt(Integer::intValue)
                .sorted()
                .toArray();
+        // First two ring closure token runs "[n]" (without leading zeros) of
+        // every ring closure number n: Index 0 is the number of token runs
+        HashMap<Integer, int[]> tmpRingClosureRunsMap = new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+        for (int j : this.innerTokenRuns.getRunIndicesOfKind(SpicesConstants.TOKEN_KIND_RING_CLOSURE)) {
+            if (this.innerTokenRuns.getToken(j).length() == String.valueOf(this.innerTokenRuns.getNumber(j)).length() + 2) {
+                int[] tmpRingClosureRuns = tmpRingClosureRunsMap.get(this.innerTokenRuns.getNumber(j));
+                if (tmpRingClosureRuns == null) {
+                    tmpRingClosureRuns = new int[3];
+                    tmpRingClosureRunsMap.put(this.innerTokenRuns.getNumber(j), tmpRingClosureRuns);
+                }
+                if (tmpRingClosureRuns[0] < 2) {
+                    tmpRingClosureRuns[0]++;
+                    tmpRingClosureRuns[tmpRingClosureRuns[0]] = j;
+                }
+            }
+        }
         LinkedList<int[]>tmpHelpingList = new LinkedList<>();
         int tmpMatchNumber = 0;
-        String tmpMatchString;
         for (int i = 0; i < tmpRingClosureNumbersArray.length; i += 2) {
-            tmpMatchString = "[" + tmpRingClosureNumbersArray[i] + "]";
-            for (int j = 0; j < tmpTokens.length; j++) {
-                if (tmpMatchString.equals(tmpTokens[j])) {
-                    tmpRingIndex[0] = tmpRingClosureNumbersArray[i]; 
-                    tmpRingIndex[1] = j;
-                    tmpHelpingList.add(tmpRingIndex.clone());
-                    tmpMatchNumber++;
-                    if (tmpMatchNumber == 2) {
-                        tmpMatchNumber = 0;
-                        break;
-                    }
+            int[] tmpRingClosureRuns = tmpRingClosureRunsMap.get(tmpRingClosureNumbersArray[i]);
+            if (tmpRingClosureRuns == null) {
+                continue;
+            }
+            for (int j = 1; j <= tmpRingClosureRuns[0]; j++) {
+                tmpRingIndex[0] = tmpRingClosureNumbersArray[i]; 
+                tmpRingIndex[1] = tmpRingClosureRuns[j];
+                tmpHelpingList.add(tmpRingIndex.clone());
+                tmpMatchNumber++;
+                if (tmpMatchNumber == 2) {
+                    tmpMatchNumber = 0;
+                    break;
                 }
             }
         }
         tmpHelpingList.sort(new ComparatorFirstIndex());
         tmpResult = tmpHelpingList.toArray(new int[0][]);
         for (int[] tmpResultItem : tmpResult) {
-            for (int j = innerParticleIndices.length - 1; j >= 0; j--) {
-                if (tmpResultItem[1] > this.innerParticleIndices[j]) {
-                    tmpResultItem[1] = j;
-                    break;
-                }
+            // Last particle before ring closure token (token index if there
+            // is none)
+            if (this.innerTokenRuns.getParticleOffset(tmpResultItem[1]) > 0) {
+                tmpResultItem[1] = this.innerTokenRuns.getParticleOffset(tmpResultItem[1]) - 1;
+            } else {
+                tmpResultItem[1] = this.innerTokenRuns.getTokenOffset(tmpResultItem[1]);
             }
         }
         return tmpResult;
     }
+
+    /**
+     * Returns a key of a bond of two particle indices
+     *
+     * @param aFirstParticleIndex First particle index
+     * @param aSecondParticleIndex Second particle index
+     * @return Key of bond
+     */
+    private long getBondKey(int aFirstParticleIndex, int aSecondParticleIndex) {
+        return ((long) aFirstParticleIndex << 32) | (aSecondParticleIndex & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Adds a template event of a repeat group to template events
+     *
+     * @param anEvents Template events as triples of event kind (see
+     * TEMPLATE_EVENT_...) and two event values
+     * @param anEventIndex Index of template event to add
+     * @param anEventKind Event kind
+     * @param aFirstValue First event value (particle or run index)
+     * @param aSecondValue Second event value (particle or run index)
+     * @return Template events (a grown copy of anEvents if anEvents is too
+     * small)
+     */
+    private int[] addTemplateEvent(int[] anEvents, int anEventIndex, int anEventKind, int aFirstValue, int aSecondValue) {
+        int[] tmpEvents = anEvents;
+        if (3 * anEventIndex + 2 >= tmpEvents.length) {
+            tmpEvents = Arrays.copyOf(tmpEvents, 2 * tmpEvents.length + 3);
+        }
+        tmpEvents[3 * anEventIndex] = anEventKind;
+        tmpEvents[3 * anEventIndex + 1] = aFirstValue;
+        tmpEvents[3 * anEventIndex + 2] = aSecondValue;
+        return tmpEvents;
+    }
+
+    /**
+     * Adds a bond to bonds
+     *
+     * @param aBonds Bonds as pairs of particle indices
+     * @param aBondIndex Index of bond to add
+     * @param aFirstParticleIndex First particle index
+     * @param aSecondParticleIndex Second particle index
+     * @return Bonds (a grown copy of aBonds if aBonds is too small)
+     */
+    private int[] addBond(int[] aBonds, int aBondIndex, int aFirstParticleIndex, int aSecondParticleIndex) {
+        int[] tmpBonds = aBonds;
+        if (2 * aBondIndex + 1 >= tmpBonds.length) {
+            tmpBonds = Arrays.copyOf(tmpBonds, 2 * tmpBonds.length + 2);
+        }
+        tmpBonds[2 * aBondIndex] = aFirstParticleIndex;
+        tmpBonds[2 * aBondIndex + 1] = aSecondParticleIndex;
+        return tmpBonds;
+    }
     // </editor-fold>
     // </editor-fold>
 
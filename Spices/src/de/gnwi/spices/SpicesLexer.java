@@ -0,0 +1,596 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+/**
+ * Single pass lexer for Spices structures. The token boundaries (offset and
+ * length into the structure) and the kind of each token (see
+ * SpicesConstants.TOKEN_KIND_...) are determined in one linear scan. Token
+ * strings are only created on demand.
+ * NOTE: A particle without frequency gets an implicit frequency token "1",
+ * e.g. "A-2B" is lexed to the tokens "1", "A", "-", "2", "B". An implicit
+ * frequency token has no characters of its own in the structure (length 0).
+ *
+ * @author agent
+ */
+public class SpicesLexer {
+
+    // <editor-fold defaultstate="collapsed" desc="Private static final class variables">
+    /**
+     * Initial token capacity
+     */
+    private static final int INITIAL_TOKEN_CAPACITY = 16;
+
+    /**
+     * Token strings of single characters (index is character)
+     */
+    private static final String[] SINGLE_CHARACTER_TOKENS = new String[128];
+
+    static {
+        for (char i = 0; i < SINGLE_CHARACTER_TOKENS.length; i++) {
+            SINGLE_CHARACTER_TOKENS[i] = String.valueOf(i).intern();
+        }
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Structure
+     */
+    private final CharSequence structure;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class variables">
+    /**
+     * True: Structure is not empty and only consists of allowed characters,
+     * false: Otherwise
+     */
+    private boolean isValid;
+
+    /**
+     * Number of tokens
+     */
+    private int numberOfTokens;
+
+    /**
+     * Offsets of tokens in structure
+     */
+    private int[] tokenOffsets;
+
+    /**
+     * Lengths of tokens (number of characters in structure)
+     */
+    private int[] tokenLengths;
+
+    /**
+     * Kinds of tokens (see SpicesConstants.TOKEN_KIND_...)
+     */
+    private byte[] tokenKinds;
+
+    /**
+     * True: Token ends with an implicit frequency "1" that has no character
+     * in the structure, false: Otherwise
+     */
+    private boolean[] implicitFrequencyFlags;
+
+    /**
+     * Offset of the current token in structure
+     */
+    private int currentOffset;
+
+    /**
+     * Length of the current token
+     */
+    private int currentLength;
+
+    /**
+     * True: Current token ends with an implicit frequency, false: Otherwise
+     */
+    private boolean hasCurrentImplicitFrequency;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructor">
+    /**
+     * Constructor: Lexes aStructure
+     *
+     * @param aStructure Structure (may be null)
+     */
+    public SpicesLexer(CharSequence aStructure) {
+        this.structure = aStructure;
+        this.lex();
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public static methods">
+    /**
+     * Returns if aCharacter is an allowed character of a structure (see
+     * SpicesConstants.INPUTSTRUCTURE_ALLOWED_CHARACTERS_REGEX_STRING)
+     *
+     * @param aCharacter Character
+     * @return True: aCharacter is allowed, false: Otherwise
+     */
+    public static boolean isAllowedCharacter(char aCharacter) {
+        if (aCharacter >= 'a' && aCharacter <= 'z'
+                || aCharacter >= 'A' && aCharacter <= 'Z'
+                || aCharacter >= '0' && aCharacter <= '9') {
+            return true;
+        }
+        switch (aCharacter) {
+            case '{':
+            case '}':
+            case '#':
+            case '(':
+            case ')':
+            case '[':
+            case ']':
+            case '<':
+            case '>':
+            case '-':
+            case '\'':
+                return true;
+            default:
+                return SpicesLexer.isWhiteSpace(aCharacter);
+        }
+    }
+
+    /**
+     * Returns if aCharacter is a white space character (see regex character
+     * class \s)
+     *
+     * @param aCharacter Character
+     * @return True: aCharacter is a white space character, false: Otherwise
+     */
+    public static boolean isWhiteSpace(char aCharacter) {
+        return aCharacter == ' ' || aCharacter >= '\t' && aCharacter <= '\r';
+    }
+
+    /**
+     * Returns the token kind of the specified region of aSequence. NOTE: No
+     * checks are performed.
+     *
+     * @param aSequence Character sequence
+     * @param anOffset Offset of token in aSequence
+     * @param aLength Length of token (greater 0)
+     * @return Token kind (see SpicesConstants.TOKEN_KIND_...)
+     */
+    public static byte getTokenKind(CharSequence aSequence, int anOffset, int aLength) {
+        char tmpFirstCharacter = aSequence.charAt(anOffset);
+        char tmpLastCharacter = aSequence.charAt(anOffset + aLength - 1);
+        if (aLength == 1) {
+            switch (tmpFirstCharacter) {
+                case '-':
+                    return SpicesConstants.TOKEN_KIND_CONNECTION;
+                case '(':
+                    return SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN;
+                case ')':
+                    return SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE;
+                case '{':
+                    return SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN;
+                case '}':
+                    return SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE;
+                case '<':
+                    return SpicesConstants.TOKEN_KIND_ANGLE_BRACKET_OPEN;
+                case '>':
+                    return SpicesConstants.TOKEN_KIND_ANGLE_BRACKET_CLOSE;
+                default:
+                    break;
+            }
+        }
+        if (tmpFirstCharacter >= 'A' && tmpFirstCharacter <= 'Z') {
+            if (aLength > 10) {
+                return SpicesConstants.TOKEN_KIND_UNKNOWN;
+            }
+            for (int i = anOffset + 1; i < anOffset + aLength; i++) {
+                if (!SpicesLexer.isLetterOrDigit(aSequence.charAt(i))) {
+                    return SpicesConstants.TOKEN_KIND_UNKNOWN;
+                }
+            }
+            return SpicesConstants.TOKEN_KIND_PARTICLE;
+        }
+        if (tmpFirstCharacter >= '0' && tmpFirstCharacter <= '9') {
+            return SpicesLexer.isDigitRegion(aSequence, anOffset + 1, anOffset + aLength) ? SpicesConstants.TOKEN_KIND_NUMBER : SpicesConstants.TOKEN_KIND_UNKNOWN;
+        }
+        if (tmpFirstCharacter == '#') {
+            return aLength > 1 && Character.isUpperCase(aSequence.charAt(anOffset + 1)) ? SpicesConstants.TOKEN_KIND_MONOMER : SpicesConstants.TOKEN_KIND_UNKNOWN;
+        }
+        if (tmpFirstCharacter == '\'' && tmpLastCharacter == '\'') {
+            return SpicesLexer.isDigitRegion(aSequence, anOffset + 1, anOffset + aLength - 1) ? SpicesConstants.TOKEN_KIND_BACKBONE_INDEX : SpicesConstants.TOKEN_KIND_UNKNOWN;
+        }
+        if (tmpFirstCharacter == '[' && tmpLastCharacter == ']') {
+            if (SpicesLexer.isDigitRegion(aSequence, anOffset + 1, anOffset + aLength - 1)) {
+                return SpicesConstants.TOKEN_KIND_RING_CLOSURE;
+            }
+            switch (aLength) {
+                case 5:
+                    return SpicesLexer.regionEquals(aSequence, anOffset, "[END]") ? SpicesConstants.TOKEN_KIND_END : SpicesConstants.TOKEN_KIND_UNKNOWN;
+                case 6:
+                    if (SpicesLexer.regionEquals(aSequence, anOffset, "[HEAD]")) {
+                        return SpicesConstants.TOKEN_KIND_HEAD;
+                    } else if (SpicesLexer.regionEquals(aSequence, anOffset, "[TAIL]")) {
+                        return SpicesConstants.TOKEN_KIND_TAIL;
+                    }
+                    return SpicesConstants.TOKEN_KIND_UNKNOWN;
+                case 7:
+                    return SpicesLexer.regionEquals(aSequence, anOffset, "[START]") ? SpicesConstants.TOKEN_KIND_START : SpicesConstants.TOKEN_KIND_UNKNOWN;
+                default:
+                    return SpicesConstants.TOKEN_KIND_UNKNOWN;
+            }
+        }
+        return SpicesConstants.TOKEN_KIND_UNKNOWN;
+    }
+
+    /**
+     * Returns the token kind of aToken
+     *
+     * @param aToken Token
+     * @return Token kind (see SpicesConstants.TOKEN_KIND_...)
+     */
+    public static byte getTokenKind(String aToken) {
+        if (aToken == null || aToken.isEmpty()) {
+            return SpicesConstants.TOKEN_KIND_UNKNOWN;
+        }
+        return SpicesLexer.getTokenKind(aToken, 0, aToken.length());
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Structure
+     *
+     * @return Structure
+     */
+    public CharSequence getStructure() {
+        return this.structure;
+    }
+
+    /**
+     * True: Structure is not empty and only consists of allowed characters,
+     * false: Otherwise (no tokens are available)
+     *
+     * @return True: Structure is valid for lexing, false: Otherwise
+     */
+    public boolean isValid() {
+        return this.isValid;
+    }
+
+    /**
+     * Number of tokens
+     *
+     * @return Number of tokens
+     */
+    public int getNumberOfTokens() {
+        return this.numberOfTokens;
+    }
+
+    /**
+     * Offset of token in structure
+     *
+     * @param anIndex Token index
+     * @return Offset of token in structure
+     */
+    public int getTokenOffset(int anIndex) {
+        return this.tokenOffsets[anIndex];
+    }
+
+    /**
+     * Length of token in structure. NOTE: An implicit frequency "1" is not
+     * taken into account.
+     *
+     * @param anIndex Token index
+     * @return Length of token in structure
+     */
+    public int getTokenLength(int anIndex) {
+        return this.tokenLengths[anIndex];
+    }
+
+    /**
+     * Kind of token
+     *
+     * @param anIndex Token index
+     * @return Kind of token (see SpicesConstants.TOKEN_KIND_...)
+     */
+    public byte getTokenKind(int anIndex) {
+        return this.tokenKinds[anIndex];
+    }
+
+    /**
+     * Kinds of all tokens
+     *
+     * @return Kinds of all tokens (see SpicesConstants.TOKEN_KIND_...)
+     */
+    public byte[] getTokenKinds() {
+        byte[] tmpResult = new byte[this.numberOfTokens];
+        if (this.numberOfTokens > 0) {
+            System.arraycopy(this.tokenKinds, 0, tmpResult, 0, this.numberOfTokens);
+        }
+        return tmpResult;
+    }
+
+    /**
+     * True: Token ends with an implicit frequency "1" that has no character
+     * in the structure, false: Otherwise
+     *
+     * @param anIndex Token index
+     * @return True: Token ends with an implicit frequency, false: Otherwise
+     */
+    public boolean hasImplicitFrequency(int anIndex) {
+        return this.implicitFrequencyFlags[anIndex];
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Token string
+     *
+     * @param anIndex Token index
+     * @return Token string
+     */
+    public String getToken(int anIndex) {
+        int tmpOffset = this.tokenOffsets[anIndex];
+        int tmpLength = this.tokenLengths[anIndex];
+        if (this.implicitFrequencyFlags[anIndex]) {
+            if (tmpLength == 0) {
+                return SINGLE_CHARACTER_TOKENS['1'];
+            }
+            return new StringBuilder(tmpLength + 1).append(this.structure, tmpOffset, tmpOffset + tmpLength).append('1').toString();
+        }
+        if (tmpLength == 1) {
+            char tmpCharacter = this.structure.charAt(tmpOffset);
+            if (tmpCharacter < SINGLE_CHARACTER_TOKENS.length) {
+                return SINGLE_CHARACTER_TOKENS[tmpCharacter];
+            }
+        }
+        return this.structure.subSequence(tmpOffset, tmpOffset + tmpLength).toString();
+    }
+
+    /**
+     * Token strings of all tokens
+     *
+     * @return Token strings of all tokens
+     */
+    public String[] getTokens() {
+        String[] tmpResult = new String[this.numberOfTokens];
+        for (int i = 0; i < this.numberOfTokens; i++) {
+            tmpResult[i] = this.getToken(i);
+        }
+        return tmpResult;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private methods">
+    /**
+     * Lexes structure in a single pass. A token boundary is set before and
+     * after {, }, (, ), &lt;, &gt;, -, before [, # and opening backbone
+     * apostrophe, after ] and closing backbone apostrophe and before each
+     * particle (that starts with an upper case letter).
+     */
+    private void lex() {
+        this.numberOfTokens = 0;
+        this.isValid = false;
+        if (this.structure == null || this.structure.length() == 0) {
+            return;
+        }
+        // <editor-fold defaultstate="collapsed" desc="Local variables">
+        int tmpLength = this.structure.length();
+        int tmpCapacity = Math.max(INITIAL_TOKEN_CAPACITY, tmpLength / 2);
+        boolean tmpIsParticleCharacter = false;
+        boolean tmpIsBetweenSquareBrackets = false;
+        boolean tmpIsAfterFrequency = false;
+        boolean tmpIsMonomerCharacter = false;
+        boolean tmpIsBackboneCharacter = false;
+        char tmpCharacter;
+        // </editor-fold>
+        this.tokenOffsets = new int[tmpCapacity];
+        this.tokenLengths = new int[tmpCapacity];
+        this.tokenKinds = new byte[tmpCapacity];
+        this.implicitFrequencyFlags = new boolean[tmpCapacity];
+        this.currentLength = 0;
+        this.hasCurrentImplicitFrequency = false;
+        for (int i = 0; i < tmpLength; i++) {
+            tmpCharacter = this.structure.charAt(i);
+            if (!SpicesLexer.isAllowedCharacter(tmpCharacter)) {
+                this.numberOfTokens = 0;
+                return;
+            }
+            if (tmpCharacter == '[') {
+                tmpIsParticleCharacter = false;
+                tmpIsBetweenSquareBrackets = true;
+                this.appendCharacter(i, tmpCharacter);
+            } else if (tmpCharacter == ']') {
+                tmpIsBetweenSquareBrackets = false;
+                this.appendCharacter(i, tmpCharacter);
+            } else if (tmpCharacter == '#') {
+                tmpIsMonomerCharacter = true;
+                this.appendCharacter(i, tmpCharacter);
+            } else if (tmpCharacter == '\'') {
+                if (tmpIsBackboneCharacter) {
+                    tmpIsBackboneCharacter = false;
+                    this.appendCharacter(i, tmpCharacter);
+                    this.finishToken();
+                } else {
+                    tmpIsBackboneCharacter = true;
+                    this.finishToken();
+                    this.appendCharacter(i, tmpCharacter);
+                }
+            } else if (tmpIsBetweenSquareBrackets || tmpIsBackboneCharacter) {
+                this.appendCharacter(i, tmpCharacter);
+            } else if (!tmpIsParticleCharacter && SpicesLexer.isDigit(tmpCharacter)) {
+                tmpIsAfterFrequency = true;
+                this.appendCharacter(i, tmpCharacter);
+            } else if (!tmpIsMonomerCharacter && !tmpIsParticleCharacter && tmpCharacter >= 'A' && tmpCharacter <= 'Z') {
+                if (!tmpIsAfterFrequency) {
+                    // Implicit frequency 1
+                    if (this.currentLength == 0) {
+                        this.currentOffset = i;
+                    }
+                    this.hasCurrentImplicitFrequency = true;
+                }
+                this.finishToken();
+                this.appendCharacter(i, tmpCharacter);
+                tmpIsParticleCharacter = true;
+                tmpIsAfterFrequency = false;
+                tmpIsMonomerCharacter = false;
+            } else if ((tmpIsParticleCharacter || tmpIsMonomerCharacter) && SpicesLexer.isLetterOrDigit(tmpCharacter)) {
+                tmpIsAfterFrequency = false;
+                this.appendCharacter(i, tmpCharacter);
+            } else {
+                tmpIsParticleCharacter = false;
+                tmpIsAfterFrequency = false;
+                tmpIsMonomerCharacter = false;
+                this.appendCharacter(i, tmpCharacter);
+            }
+        }
+        this.finishToken();
+        this.isValid = true;
+    }
+
+    /**
+     * Appends character at anIndex to current token and sets the token
+     * boundaries around bracket, connection and monomer characters
+     *
+     * @param anIndex Index of character in structure
+     * @param aCharacter Character
+     */
+    private void appendCharacter(int anIndex, char aCharacter) {
+        switch (aCharacter) {
+            case '{':
+            case '}':
+            case '(':
+            case ')':
+            case '<':
+            case '>':
+            case '-':
+                this.finishToken();
+                this.currentOffset = anIndex;
+                this.currentLength = 1;
+                this.finishToken();
+                break;
+            case '[':
+            case '#':
+                this.finishToken();
+                this.currentOffset = anIndex;
+                this.currentLength = 1;
+                break;
+            case ']':
+                if (this.currentLength == 0 && !this.hasCurrentImplicitFrequency) {
+                    this.currentOffset = anIndex;
+                }
+                this.currentLength++;
+                this.finishToken();
+                break;
+            default:
+                if (this.currentLength == 0 && !this.hasCurrentImplicitFrequency) {
+                    this.currentOffset = anIndex;
+                }
+                this.currentLength++;
+                break;
+        }
+    }
+
+    /**
+     * Finishes current token (if any)
+     */
+    private void finishToken() {
+        if (this.currentLength == 0 && !this.hasCurrentImplicitFrequency) {
+            return;
+        }
+        if (this.numberOfTokens == this.tokenOffsets.length) {
+            int tmpNewCapacity = 2 * this.tokenOffsets.length;
+            this.tokenOffsets = java.util.Arrays.copyOf(this.tokenOffsets, tmpNewCapacity);
+            this.tokenLengths = java.util.Arrays.copyOf(this.tokenLengths, tmpNewCapacity);
+            this.tokenKinds = java.util.Arrays.copyOf(this.tokenKinds, tmpNewCapacity);
+            this.implicitFrequencyFlags = java.util.Arrays.copyOf(this.implicitFrequencyFlags, tmpNewCapacity);
+        }
+        this.tokenOffsets[this.numberOfTokens] = this.currentOffset;
+        this.tokenLengths[this.numberOfTokens] = this.currentLength;
+        this.implicitFrequencyFlags[this.numberOfTokens] = this.hasCurrentImplicitFrequency;
+        if (!this.hasCurrentImplicitFrequency) {
+            this.tokenKinds[this.numberOfTokens] = SpicesLexer.getTokenKind(this.structure, this.currentOffset, this.currentLength);
+        } else if (this.currentLength == 0) {
+            this.tokenKinds[this.numberOfTokens] = SpicesConstants.TOKEN_KIND_NUMBER;
+        } else {
+            // Characters prior to an implicit frequency (only possible for an illegal structure)
+            this.tokenKinds[this.numberOfTokens] = SpicesLexer.getTokenKind(
+                    new StringBuilder(this.currentLength + 1).append(this.structure, this.currentOffset, this.currentOffset + this.currentLength).append('1'),
+                    0, this.currentLength + 1);
+        }
+        this.numberOfTokens++;
+        this.currentLength = 0;
+        this.hasCurrentImplicitFrequency = false;
+    }
+
+    /**
+     * Returns if aCharacter is a digit
+     *
+     * @param aCharacter Character
+     * @return True: aCharacter is a digit, false: Otherwise
+     */
+    private static boolean isDigit(char aCharacter) {
+        return aCharacter >= '0' && aCharacter <= '9';
+    }
+
+    /**
+     * Returns if aCharacter is a letter (a-z, A-Z) or a digit
+     *
+     * @param aCharacter Character
+     * @return True: aCharacter is a letter or a digit, false: Otherwise
+     */
+    private static boolean isLetterOrDigit(char aCharacter) {
+        return aCharacter >= 'a' && aCharacter <= 'z' || aCharacter >= 'A' && aCharacter <= 'Z' || aCharacter >= '0' && aCharacter <= '9';
+    }
+
+    /**
+     * Returns if all characters of the specified region are digits
+     *
+     * @param aSequence Character sequence
+     * @param aBeginIndex Begin index (inclusive)
+     * @param anEndIndex End index (exclusive)
+     * @return True: All characters are digits (or region is empty), false:
+     * Otherwise
+     */
+    private static boolean isDigitRegion(CharSequence aSequence, int aBeginIndex, int anEndIndex) {
+        for (int i = aBeginIndex; i < anEndIndex; i++) {
+            if (!SpicesLexer.isDigit(aSequence.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns if the region of aSequence that starts at anOffset equals
+     * aString
+     *
+     * @param aSequence Character sequence
+     * @param anOffset Offset
+     * @param aString String
+     * @return True: Region equals aString, false: Otherwise
+     */
+    private static boolean regionEquals(CharSequence aSequence, int anOffset, String aString) {
+        for (int i = 0; i < aString.length(); i++) {
+            if (aSequence.charAt(anOffset + i) != aString.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    // </editor-fold>
+
+}
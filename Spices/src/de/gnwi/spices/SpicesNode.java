@@ -0,0 +1,375 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable node of the abstract syntax tree of a part structure (see
+ * SpicesParser). A node is a part, branch, repeat or monomer block with
+ * child nodes in token order or a leaf node (particle, monomer, connection,
+ * ring closure, tag or any other token). Nodes are hash-consed with a
+ * bounded process-wide pool (see getNode()) so that identical subtrees of
+ * different structures are shared instances.
+ *
+ * @author agent
+ */
+public final class SpicesNode {
+
+    // <editor-fold defaultstate="collapsed" desc="Private static final class variables">
+    /**
+     * Empty children array of leaf nodes
+     */
+    private static final SpicesNode[] NO_CHILDREN = new SpicesNode[0];
+
+    /**
+     * Pool of shared nodes
+     */
+    private static final ConcurrentHashMap<SpicesNode, SpicesNode> NODE_POOL = new ConcurrentHashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Kind of node (see SpicesConstants.NODE_KIND_...)
+     */
+    private final byte nodeKind;
+
+    /**
+     * Kind of (first) token (see SpicesConstants.TOKEN_KIND_...)
+     */
+    private final byte tokenKind;
+
+    /**
+     * (First) token, e.g. "A", "[HEAD]" or "(" for a branch
+     */
+    private final String token;
+
+    /**
+     * Preceding number token, e.g. "5" of "5A", or null
+     */
+    private final String numberToken;
+
+    /**
+     * Pre-parsed number
+     */
+    private final int number;
+
+    /**
+     * Child nodes in token order (must NOT be modified)
+     */
+    private final SpicesNode[] children;
+
+    /**
+     * Number of nodes of the (sub) tree of this node
+     */
+    private final int numberOfNodes;
+
+    /**
+     * Hash code
+     */
+    private final int hashCode;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private constructor">
+    /**
+     * Constructor
+     *
+     * @param aNodeKind Kind of node
+     * @param aTokenKind Kind of (first) token
+     * @param aToken (First) token
+     * @param aNumberToken Preceding number token or null
+     * @param aNumber Pre-parsed number
+     * @param aChildren Child nodes (NOT copied)
+     */
+    private SpicesNode(byte aNodeKind, byte aTokenKind, String aToken, String aNumberToken, int aNumber, SpicesNode[] aChildren) {
+        this.nodeKind = aNodeKind;
+        this.tokenKind = aTokenKind;
+        this.token = aToken;
+        this.numberToken = aNumberToken;
+        this.number = aNumber;
+        this.children = aChildren;
+        int tmpNumberOfNodes = 1;
+        int tmpHashCode = 31 * aNodeKind + aTokenKind;
+        tmpHashCode = 31 * tmpHashCode + aToken.hashCode();
+        tmpHashCode = 31 * tmpHashCode + (aNumberToken == null ? 0 : aNumberToken.hashCode());
+        tmpHashCode = 31 * tmpHashCode + aNumber;
+        for (SpicesNode tmpChild : aChildren) {
+            tmpNumberOfNodes += tmpChild.numberOfNodes;
+            tmpHashCode = 31 * tmpHashCode + tmpChild.hashCode;
+        }
+        this.numberOfNodes = tmpNumberOfNodes;
+        this.hashCode = tmpHashCode;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public static methods">
+    /**
+     * Returns a shared leaf node
+     *
+     * @param aNodeKind Kind of node (see SpicesConstants.NODE_KIND_...)
+     * @param aTokenKind Kind of token (see SpicesConstants.TOKEN_KIND_...)
+     * @param aToken Token
+     * @param aNumberToken Preceding number token or null
+     * @param aNumber Pre-parsed number
+     * @return Shared leaf node
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    public static SpicesNode getNode(byte aNodeKind, byte aTokenKind, String aToken, String aNumberToken, int aNumber) throws IllegalArgumentException {
+        return SpicesNode.getNode(aNodeKind, aTokenKind, aToken, aNumberToken, aNumber, SpicesNode.NO_CHILDREN);
+    }
+
+    /**
+     * Returns a shared node
+     *
+     * @param aNodeKind Kind of node (see SpicesConstants.NODE_KIND_...)
+     * @param aTokenKind Kind of (first) token (see
+     * SpicesConstants.TOKEN_KIND_...)
+     * @param aToken (First) token
+     * @param aNumberToken Preceding number token or null
+     * @param aNumber Pre-parsed number
+     * @param aChildren Child nodes in token order (array is copied)
+     * @return Shared node
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    public static SpicesNode getNode(byte aNodeKind, byte aTokenKind, String aToken, String aNumberToken, int aNumber, SpicesNode[] aChildren) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aNodeKind < SpicesConstants.NODE_KIND_PART || aNodeKind > SpicesConstants.NODE_KIND_TOKEN || aToken == null || aChildren == null) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        for (SpicesNode tmpChild : aChildren) {
+            if (tmpChild == null) {
+                throw new IllegalArgumentException("An argument is illegal.");
+            }
+        }
+        // </editor-fold>
+        SpicesNode[] tmpChildren = aChildren.length == 0 ? SpicesNode.NO_CHILDREN : aChildren.clone();
+        SpicesNode tmpNode = new SpicesNode(aNodeKind, aTokenKind, aToken, aNumberToken, aNumber, tmpChildren);
+        if (SpicesNode.NODE_POOL.size() >= SpicesConstants.DEFAULT_NODE_POOL_MAXIMUM_NUMBER_OF_NODES) {
+            // NOTE: Shared nodes remain valid, they are just no longer pooled
+            SpicesNode.NODE_POOL.clear();
+        }
+        SpicesNode tmpPooledNode = SpicesNode.NODE_POOL.putIfAbsent(tmpNode, tmpNode);
+        if (tmpPooledNode != null) {
+            return tmpPooledNode;
+        }
+        return tmpNode;
+    }
+
+    /**
+     * Number of pooled nodes
+     *
+     * @return Number of pooled nodes
+     */
+    public static int getNumberOfPooledNodes() {
+        return SpicesNode.NODE_POOL.size();
+    }
+
+    /**
+     * Removes all pooled nodes
+     */
+    public static void clearNodePool() {
+        SpicesNode.NODE_POOL.clear();
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Hash code
+     *
+     * @return Hash code
+     */
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    /**
+     * Structural equality
+     *
+     * @param anObject Object
+     * @return True: anObject is a node with equal (sub) tree, false:
+     * Otherwise
+     */
+    @Override
+    public boolean equals(Object anObject) {
+        if (this == anObject) {
+            return true;
+        }
+        if (!(anObject instanceof SpicesNode)) {
+            return false;
+        }
+        SpicesNode tmpNode = (SpicesNode) anObject;
+        return this.hashCode == tmpNode.hashCode
+                && this.nodeKind == tmpNode.nodeKind
+                && this.tokenKind == tmpNode.tokenKind
+                && this.number == tmpNode.number
+                && this.token.equals(tmpNode.token)
+                && (this.numberToken == null ? tmpNode.numberToken == null : this.numberToken.equals(tmpNode.numberToken))
+                && Arrays.equals(this.children, tmpNode.children);
+    }
+
+    /**
+     * Structure string of (sub) tree of this node, i.e. concatenation of its
+     * tokens
+     *
+     * @return Structure string
+     */
+    @Override
+    public String toString() {
+        StringBuilder tmpBuilder = new StringBuilder();
+        this.appendTokens(tmpBuilder);
+        return tmpBuilder.toString();
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Kind of node
+     *
+     * @return Kind of node (see SpicesConstants.NODE_KIND_...)
+     */
+    public byte getNodeKind() {
+        return this.nodeKind;
+    }
+
+    /**
+     * Kind of (first) token
+     *
+     * @return Kind of (first) token (see SpicesConstants.TOKEN_KIND_...)
+     */
+    public byte getTokenKind() {
+        return this.tokenKind;
+    }
+
+    /**
+     * (First) token, e.g. "A" for "5A", "[HEAD]" or "{" for a repeat
+     *
+     * @return (First) token
+     */
+    public String getToken() {
+        return this.token;
+    }
+
+    /**
+     * Preceding number token, e.g. "5" for "5A" or "3" for "3{...}"
+     *
+     * @return Preceding number token or null if there is none
+     */
+    public String getNumberToken() {
+        return this.numberToken;
+    }
+
+    /**
+     * True: Node has a preceding number token, false: Otherwise
+     *
+     * @return True: Node has a preceding number token, false: Otherwise
+     */
+    public boolean hasNumberToken() {
+        return this.numberToken != null;
+    }
+
+    /**
+     * Pre-parsed number: Frequency of a node with preceding number token,
+     * number of a number token, ring closure number, backbone index and 0
+     * otherwise
+     *
+     * @return Pre-parsed number
+     */
+    public int getNumber() {
+        return this.number;
+    }
+
+    /**
+     * Number of child nodes
+     *
+     * @return Number of child nodes
+     */
+    public int getNumberOfChildren() {
+        return this.children.length;
+    }
+
+    /**
+     * Child node
+     *
+     * @param anIndex Index of child node
+     * @return Child node
+     */
+    public SpicesNode getChild(int anIndex) {
+        return this.children[anIndex];
+    }
+
+    /**
+     * Number of nodes of the (sub) tree of this node (shared nodes are
+     * counted for each occurrence)
+     *
+     * @return Number of nodes
+     */
+    public int getNumberOfNodes() {
+        return this.numberOfNodes;
+    }
+
+    /**
+     * True: Leaf node, false: Part, branch, repeat or monomer block
+     *
+     * @return True: Leaf node, false: Otherwise
+     */
+    public boolean isLeaf() {
+        switch (this.nodeKind) {
+            case SpicesConstants.NODE_KIND_PART:
+            case SpicesConstants.NODE_KIND_BRANCH:
+            case SpicesConstants.NODE_KIND_REPEAT:
+            case SpicesConstants.NODE_KIND_MONOMER_BLOCK:
+                return false;
+            default:
+                return true;
+        }
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private methods">
+    /**
+     * Appends tokens of (sub) tree of this node
+     *
+     * @param aBuilder StringBuilder
+     */
+    private void appendTokens(StringBuilder aBuilder) {
+        if (this.numberToken != null) {
+            aBuilder.append(this.numberToken);
+        }
+        if (this.nodeKind != SpicesConstants.NODE_KIND_PART) {
+            aBuilder.append(this.token);
+        }
+        for (SpicesNode tmpChild : this.children) {
+            tmpChild.appendTokens(aBuilder);
+        }
+        switch (this.nodeKind) {
+            case SpicesConstants.NODE_KIND_BRANCH:
+                aBuilder.append(')');
+                break;
+            case SpicesConstants.NODE_KIND_REPEAT:
+            case SpicesConstants.NODE_KIND_MONOMER_BLOCK:
+                aBuilder.append('}');
+                break;
+        }
+    }
+    // </editor-fold>
+
+}
@@ -0,0 +1,277 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.ArrayList;
+
+/**
+ * Recursive descent parser for the tokens of a part structure (see
+ * SpicesLexer) with grammar
+ * <pre>
+ * part     = element*
+ * element  = branch | repeat | block | particle | monomer | leaf
+ * branch   = "(" element* ")"
+ * repeat   = NUMBER "{" element* "}"
+ * block    = "{" element* "}"
+ * particle = [NUMBER] PARTICLE
+ * monomer  = [NUMBER] MONOMER
+ * leaf     = "-" | ring closure | tag | any other token
+ * </pre>
+ * The parser returns the immutable (shared) root node of the abstract
+ * syntax tree (see SpicesNode). NOTE: Open brackets are kept on an explicit
+ * stack so that deeply nested branches can not overflow the call stack.
+ *
+ * @author agent
+ */
+public final class SpicesParser {
+
+    // <editor-fold defaultstate="collapsed" desc="Private constructor">
+    /**
+     * Private constructor (static methods only)
+     */
+    private SpicesParser() {
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public static methods">
+    /**
+     * Parses the tokens of a part structure
+     *
+     * @param aTokens Tokens of part structure (see SpicesLexer)
+     * @return Root node of kind SpicesConstants.NODE_KIND_PART
+     * @throws IllegalArgumentException Thrown if aTokens is null/empty or
+     * if brackets are not closed
+     */
+    public static SpicesNode parse(String[] aTokens) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aTokens == null || aTokens.length == 0) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        byte[] tmpTokenKinds = new byte[aTokens.length];
+        for (int i = 0; i < aTokens.length; i++) {
+            tmpTokenKinds[i] = SpicesLexer.getTokenKind(aTokens[i]);
+        }
+        ArrayList<OpenNode> tmpStack = new ArrayList<>();
+        OpenNode tmpOpenNode = new OpenNode(SpicesConstants.NODE_KIND_PART, SpicesConstants.TOKEN_KIND_UNKNOWN, "", null, 0);
+        int i = 0;
+        while (i < aTokens.length) {
+            byte tmpTokenKind = tmpTokenKinds[i];
+            byte tmpNextTokenKind = i + 1 < aTokens.length ? tmpTokenKinds[i + 1] : SpicesConstants.TOKEN_KIND_UNKNOWN;
+            switch (tmpTokenKind) {
+                case SpicesConstants.TOKEN_KIND_NUMBER:
+                    if (tmpNextTokenKind == SpicesConstants.TOKEN_KIND_PARTICLE) {
+                        tmpOpenNode.children.add(SpicesNode.getNode(SpicesConstants.NODE_KIND_PARTICLE, tmpNextTokenKind, aTokens[i + 1], aTokens[i], Integer.parseInt(aTokens[i])));
+                        i += 2;
+                    } else if (tmpNextTokenKind == SpicesConstants.TOKEN_KIND_MONOMER) {
+                        tmpOpenNode.children.add(SpicesNode.getNode(SpicesConstants.NODE_KIND_MONOMER, tmpNextTokenKind, aTokens[i + 1], aTokens[i], Integer.parseInt(aTokens[i])));
+                        i += 2;
+                    } else if (tmpNextTokenKind == SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN) {
+                        tmpStack.add(tmpOpenNode);
+                        tmpOpenNode = new OpenNode(SpicesConstants.NODE_KIND_REPEAT, tmpNextTokenKind, aTokens[i + 1], aTokens[i], Integer.parseInt(aTokens[i]));
+                        i += 2;
+                    } else {
+                        tmpOpenNode.children.add(SpicesParser.getLeafNode(SpicesConstants.NODE_KIND_TOKEN, tmpTokenKind, aTokens[i]));
+                        i++;
+                    }
+                    break;
+                case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN:
+                    tmpStack.add(tmpOpenNode);
+                    tmpOpenNode = new OpenNode(SpicesConstants.NODE_KIND_BRANCH, tmpTokenKind, aTokens[i], null, 0);
+                    i++;
+                    break;
+                case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN:
+                    tmpStack.add(tmpOpenNode);
+                    tmpOpenNode = new OpenNode(SpicesConstants.NODE_KIND_MONOMER_BLOCK, tmpTokenKind, aTokens[i], null, 0);
+                    i++;
+                    break;
+                case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE:
+                case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE:
+                    if (tmpOpenNode.isClosedBy(tmpTokenKind)) {
+                        SpicesNode tmpNode = tmpOpenNode.getNode();
+                        tmpOpenNode = tmpStack.remove(tmpStack.size() - 1);
+                        tmpOpenNode.children.add(tmpNode);
+                    } else {
+                        tmpOpenNode.children.add(SpicesParser.getLeafNode(SpicesConstants.NODE_KIND_TOKEN, tmpTokenKind, aTokens[i]));
+                    }
+                    i++;
+                    break;
+                case SpicesConstants.TOKEN_KIND_PARTICLE:
+                    tmpOpenNode.children.add(SpicesParser.getLeafNode(SpicesConstants.NODE_KIND_PARTICLE, tmpTokenKind, aTokens[i]));
+                    i++;
+                    break;
+                case SpicesConstants.TOKEN_KIND_MONOMER:
+                    tmpOpenNode.children.add(SpicesParser.getLeafNode(SpicesConstants.NODE_KIND_MONOMER, tmpTokenKind, aTokens[i]));
+                    i++;
+                    break;
+                case SpicesConstants.TOKEN_KIND_CONNECTION:
+                    tmpOpenNode.children.add(SpicesParser.getLeafNode(SpicesConstants.NODE_KIND_CONNECTION, tmpTokenKind, aTokens[i]));
+                    i++;
+                    break;
+                case SpicesConstants.TOKEN_KIND_RING_CLOSURE:
+                    tmpOpenNode.children.add(SpicesParser.getLeafNode(SpicesConstants.NODE_KIND_RING_CLOSURE, tmpTokenKind, aTokens[i]));
+                    i++;
+                    break;
+                case SpicesConstants.TOKEN_KIND_HEAD:
+                case SpicesConstants.TOKEN_KIND_TAIL:
+                case SpicesConstants.TOKEN_KIND_START:
+                case SpicesConstants.TOKEN_KIND_END:
+                case SpicesConstants.TOKEN_KIND_BACKBONE_INDEX:
+                    tmpOpenNode.children.add(SpicesParser.getLeafNode(SpicesConstants.NODE_KIND_TAG, tmpTokenKind, aTokens[i]));
+                    i++;
+                    break;
+                default:
+                    tmpOpenNode.children.add(SpicesParser.getLeafNode(SpicesConstants.NODE_KIND_TOKEN, tmpTokenKind, aTokens[i]));
+                    i++;
+                    break;
+            }
+        }
+        if (!tmpStack.isEmpty()) {
+            throw new IllegalArgumentException("Bracket is not closed.");
+        }
+        return tmpOpenNode.getNode();
+    }
+
+    /**
+     * Determines the pre-parsed number of a token: Number of number token,
+     * ring closure number of ring closure token, backbone index of backbone
+     * index token and 0 for all other tokens
+     *
+     * @param aToken Token
+     * @param aTokenKind Kind of token
+     * @return Pre-parsed number of token
+     */
+    public static int getTokenNumber(String aToken, byte aTokenKind) {
+        switch (aTokenKind) {
+            case SpicesConstants.TOKEN_KIND_NUMBER:
+                return Integer.parseInt(aToken);
+            case SpicesConstants.TOKEN_KIND_RING_CLOSURE:
+            case SpicesConstants.TOKEN_KIND_BACKBONE_INDEX:
+                if (aToken.length() > 2) {
+                    return Integer.parseInt(aToken.substring(1, aToken.length() - 1));
+                }
+                return 0;
+            default:
+                return 0;
+        }
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private static methods">
+    /**
+     * Returns shared leaf node without preceding number token
+     *
+     * @param aNodeKind Kind of node
+     * @param aTokenKind Kind of token
+     * @param aToken Token
+     * @return Shared leaf node
+     */
+    private static SpicesNode getLeafNode(byte aNodeKind, byte aTokenKind, String aToken) {
+        return SpicesNode.getNode(aNodeKind, aTokenKind, aToken, null, SpicesParser.getTokenNumber(aToken, aTokenKind));
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class OpenNode">
+    /**
+     * Part, branch, repeat or monomer block node whose closing bracket is
+     * not yet parsed
+     */
+    private static final class OpenNode {
+
+        /**
+         * Kind of node
+         */
+        final byte nodeKind;
+
+        /**
+         * Kind of opening token
+         */
+        final byte tokenKind;
+
+        /**
+         * Opening token
+         */
+        final String token;
+
+        /**
+         * Preceding number token or null
+         */
+        final String numberToken;
+
+        /**
+         * Pre-parsed number
+         */
+        final int number;
+
+        /**
+         * Child nodes parsed so far
+         */
+        final ArrayList<SpicesNode> children;
+
+        /**
+         * Constructor
+         *
+         * @param aNodeKind Kind of node
+         * @param aTokenKind Kind of opening token
+         * @param aToken Opening token
+         * @param aNumberToken Preceding number token or null
+         * @param aNumber Pre-parsed number
+         */
+        OpenNode(byte aNodeKind, byte aTokenKind, String aToken, String aNumberToken, int aNumber) {
+            this.nodeKind = aNodeKind;
+            this.tokenKind = aTokenKind;
+            this.token = aToken;
+            this.numberToken = aNumberToken;
+            this.number = aNumber;
+            this.children = new ArrayList<>();
+        }
+
+        /**
+         * True: Node is closed by token of specified kind, false: Otherwise
+         *
+         * @param aTokenKind Kind of closing token
+         * @return True: Node is closed by token of specified kind, false:
+         * Otherwise
+         */
+        boolean isClosedBy(byte aTokenKind) {
+            switch (this.nodeKind) {
+                case SpicesConstants.NODE_KIND_BRANCH:
+                    return aTokenKind == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE;
+                case SpicesConstants.NODE_KIND_REPEAT:
+                case SpicesConstants.NODE_KIND_MONOMER_BLOCK:
+                    return aTokenKind == SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Returns shared node
+         *
+         * @return Shared node
+         */
+        SpicesNode getNode() {
+            return SpicesNode.getNode(this.nodeKind, this.tokenKind, this.token, this.numberToken, this.number, this.children.toArray(new SpicesNode[this.children.size()]));
+        }
+
+    }
+    // </editor-fold>
+
+}
@@ -0,0 +1,497 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe and bounded flyweight pool of compiled parts (see SpicesInner)
+ * with part structure, monomer flag and set of available particles as key.
+ * A set of available particles is interned to a particle set id (see
+ * getParticleSetId()) so that a pool lookup does not depend on the number
+ * of available particles. The number of interned sets is bounded.
+ * A single shared instance is used by all Spices instances of the process
+ * (see getSharedInstance()) so that a part that occurs in several
+ * structures is compiled only once. Only valid parts are pooled. The pool is
+ * bounded by a maximum number of parts. Parts are evicted with a second
+ * chance (clock) strategy: Parts that were accessed since the last eviction
+ * sweep are retained once.
+ * NOTE: Pooled parts are shared and must NOT be modified.
+ *
+ * @author agent
+ */
+public final class SpicesPartPool {
+
+    // <editor-fold defaultstate="collapsed" desc="Private static final class variables">
+    /**
+     * Shared instance
+     */
+    private static final SpicesPartPool SHARED_INSTANCE = new SpicesPartPool(SpicesConstants.DEFAULT_PART_POOL_MAXIMUM_NUMBER_OF_PARTS);
+
+    /**
+     * Set of available particles to particle set id map. NOTE: The empty set
+     * (i.e. all particles are available) has particle set id 0 and is not
+     * contained. The map is bounded by
+     * SpicesConstants.PARTICLE_SET_MAXIMUM_NUMBER_OF_SETS (see
+     * getParticleSetId()).
+     */
+    private static final ConcurrentHashMap<Set<String>, Integer> PARTICLE_SET_TO_ID_MAP = new ConcurrentHashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+
+    /**
+     * Next particle set id
+     */
+    private static final AtomicInteger NEXT_PARTICLE_SET_ID = new AtomicInteger(1);
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private static class variables">
+    /**
+     * Last determined particle set (see getParticleSetId())
+     */
+    private static volatile ParticleSet lastParticleSet = null;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Part key to pool entry map
+     */
+    private final ConcurrentHashMap<PartKey, PoolEntry> keyToEntryMap;
+
+    /**
+     * Clock queue of pool entries for eviction
+     */
+    private final ConcurrentLinkedQueue<PoolEntry> evictionQueue;
+
+    /**
+     * Number of pool hits
+     */
+    private final AtomicLong numberOfHits;
+
+    /**
+     * Number of pool misses
+     */
+    private final AtomicLong numberOfMisses;
+
+    /**
+     * Number of evicted parts
+     */
+    private final AtomicLong numberOfEvictions;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class variables">
+    /**
+     * Maximum number of pooled parts
+     */
+    private volatile int maximumNumberOfParts;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructor">
+    /**
+     * Constructor
+     *
+     * @param aMaximumNumberOfParts Maximum number of pooled parts (0
+     * disables pooling)
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    public SpicesPartPool(int aMaximumNumberOfParts) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aMaximumNumberOfParts < 0) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        this.keyToEntryMap = new ConcurrentHashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+        this.evictionQueue = new ConcurrentLinkedQueue<>();
+        this.numberOfHits = new AtomicLong();
+        this.numberOfMisses = new AtomicLong();
+        this.numberOfEvictions = new AtomicLong();
+        this.maximumNumberOfParts = aMaximumNumberOfParts;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public static methods">
+    /**
+     * Shared instance that is used by all Spices instances
+     *
+     * @return Shared instance
+     */
+    public static SpicesPartPool getSharedInstance() {
+        return SpicesPartPool.SHARED_INSTANCE;
+    }
+
+    /**
+     * Returns the particle set id of the set of available particles: Equal
+     * sets have the same particle set id. NOTE: The particle set id should
+     * be determined once for a set of available particles and then be
+     * passed to getPart() for every part since this method depends on the
+     * number of available particles.
+     *
+     * @param anAvailableParticles Available particles (only the particles,
+     * i.e. the keys, are regarded)
+     * @return Particle set id (0: Empty set, i.e. all particles are
+     * available) or -1 if anAvailableParticles is null
+     */
+    public static int getParticleSetId(HashMap<String, String> anAvailableParticles) {
+        if (anAvailableParticles == null) {
+            return -1;
+        }
+        if (anAvailableParticles.isEmpty()) {
+            return 0;
+        }
+        // NOTE: The same available particles are usually passed again and
+        // again: A comparison with the last particle set does not hash the
+        // whole set (the hash codes of the particle strings are cached)
+        ParticleSet tmpLastParticleSet = SpicesPartPool.lastParticleSet;
+        if (tmpLastParticleSet != null && tmpLastParticleSet.particles.equals(anAvailableParticles.keySet())) {
+            return tmpLastParticleSet.id;
+        }
+        // NOTE: Lookup refers to the available particles of the caller (no
+        // copy)
+        Integer tmpParticleSetId = PARTICLE_SET_TO_ID_MAP.get(anAvailableParticles.keySet());
+        HashSet<String> tmpParticles = new HashSet<>(anAvailableParticles.keySet());
+        if (tmpParticleSetId == null) {
+            if (PARTICLE_SET_TO_ID_MAP.size() >= SpicesConstants.PARTICLE_SET_MAXIMUM_NUMBER_OF_SETS) {
+                // NOTE: Particle set ids are never reused, i.e. a set that is
+                // interned again gets a new id and pooled parts with the old
+                // id are evicted in time
+                PARTICLE_SET_TO_ID_MAP.clear();
+            }
+            tmpParticleSetId = PARTICLE_SET_TO_ID_MAP.computeIfAbsent(tmpParticles, aKey -> NEXT_PARTICLE_SET_ID.getAndIncrement());
+        }
+        SpicesPartPool.lastParticleSet = new ParticleSet(tmpParticles, tmpParticleSetId);
+        return tmpParticleSetId;
+    }
+
+    /**
+     * Number of interned sets of available particles
+     *
+     * @return Number of interned sets of available particles
+     */
+    public static int getNumberOfParticleSets() {
+        return PARTICLE_SET_TO_ID_MAP.size();
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Returns pooled compiled part or compiles (and pools) the part
+     *
+     * @param aPartStructure Part structure (without whitespaces)
+     * @param anAvailableParticles Available particles (only the particles,
+     * i.e. the keys, are regarded)
+     * @param anIsMonomer True: aPartStructure is a monomer, false: Otherwise
+     * @return Compiled part (must NOT be modified)
+     */
+    public SpicesInner getPart(String aPartStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer) {
+        return this.getPart(aPartStructure, anAvailableParticles, SpicesPartPool.getParticleSetId(anAvailableParticles), anIsMonomer);
+    }
+
+    /**
+     * Returns pooled compiled part or compiles (and pools) the part
+     *
+     * @param aPartStructure Part structure (without whitespaces)
+     * @param anAvailableParticles Available particles (only the particles,
+     * i.e. the keys, are regarded)
+     * @param aParticleSetId Particle set id of anAvailableParticles (see
+     * getParticleSetId())
+     * @param anIsMonomer True: aPartStructure is a monomer, false: Otherwise
+     * @return Compiled part (must NOT be modified)
+     */
+    public SpicesInner getPart(String aPartStructure, HashMap<String, String> anAvailableParticles, int aParticleSetId, boolean anIsMonomer) {
+        if (aPartStructure == null || anAvailableParticles == null || aParticleSetId < 0 || this.maximumNumberOfParts == 0) {
+            return SpicesPartPool.compilePart(aPartStructure, anAvailableParticles, anIsMonomer);
+        }
+        PartKey tmpKey = new PartKey(aPartStructure, aParticleSetId, anIsMonomer);
+        PoolEntry tmpEntry = this.keyToEntryMap.get(tmpKey);
+        if (tmpEntry != null) {
+            tmpEntry.isReferenced = true;
+            this.numberOfHits.incrementAndGet();
+            return tmpEntry.part;
+        }
+        this.numberOfMisses.incrementAndGet();
+        SpicesInner tmpPart = SpicesPartPool.compilePart(aPartStructure, anAvailableParticles, anIsMonomer);
+        if (tmpPart.getErrorMessage() != null) {
+            return tmpPart;
+        }
+        PoolEntry tmpNewEntry = new PoolEntry(tmpKey, tmpPart);
+        tmpEntry = this.keyToEntryMap.putIfAbsent(tmpNewEntry.key, tmpNewEntry);
+        if (tmpEntry != null) {
+            // Part was pooled concurrently
+            return tmpEntry.part;
+        }
+        this.evictionQueue.offer(tmpNewEntry);
+        this.evict();
+        return tmpPart;
+    }
+
+    /**
+     * Removes all pooled parts. NOTE: Counters are not reset.
+     */
+    public void clear() {
+        this.keyToEntryMap.clear();
+        this.evictionQueue.clear();
+    }
+
+    /**
+     * Resets hit, miss and eviction counters
+     */
+    public void resetCounters() {
+        this.numberOfHits.set(0L);
+        this.numberOfMisses.set(0L);
+        this.numberOfEvictions.set(0L);
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Maximum number of pooled parts
+     *
+     * @return Maximum number of pooled parts
+     */
+    public int getMaximumNumberOfParts() {
+        return this.maximumNumberOfParts;
+    }
+
+    /**
+     * Maximum number of pooled parts. NOTE: Surplus parts are evicted.
+     *
+     * @param aValue Maximum number of pooled parts (0 disables pooling)
+     * @throws IllegalArgumentException Thrown if aValue is negative
+     */
+    public void setMaximumNumberOfParts(int aValue) throws IllegalArgumentException {
+        if (aValue < 0) {
+            throw new IllegalArgumentException("aValue is negative.");
+        }
+        this.maximumNumberOfParts = aValue;
+        this.evict();
+    }
+
+    /**
+     * Number of pooled parts
+     *
+     * @return Number of pooled parts
+     */
+    public int getNumberOfParts() {
+        return this.keyToEntryMap.size();
+    }
+
+    /**
+     * Number of pool hits
+     *
+     * @return Number of pool hits
+     */
+    public long getNumberOfHits() {
+        return this.numberOfHits.get();
+    }
+
+    /**
+     * Number of pool misses
+     *
+     * @return Number of pool misses
+     */
+    public long getNumberOfMisses() {
+        return this.numberOfMisses.get();
+    }
+
+    /**
+     * Number of evicted parts
+     *
+     * @return Number of evicted parts
+     */
+    public long getNumberOfEvictions() {
+        return this.numberOfEvictions.get();
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private methods">
+    /**
+     * Evicts pooled parts until pool bound is met. Parts that were accessed
+     * since last sweep get a second chance.
+     */
+    private void evict() {
+        // Each entry is visited at most twice (second chance)
+        int tmpMaximumNumberOfVisits = 2 * this.keyToEntryMap.size() + 1;
+        for (int i = 0; i < tmpMaximumNumberOfVisits; i++) {
+            if (this.keyToEntryMap.size() <= this.maximumNumberOfParts) {
+                return;
+            }
+            PoolEntry tmpEntry = this.evictionQueue.poll();
+            if (tmpEntry == null) {
+                return;
+            }
+            if (tmpEntry.isReferenced) {
+                tmpEntry.isReferenced = false;
+                this.evictionQueue.offer(tmpEntry);
+            } else if (this.keyToEntryMap.remove(tmpEntry.key, tmpEntry)) {
+                this.numberOfEvictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Compiles part
+     *
+     * @param aPartStructure Part structure
+     * @param anAvailableParticles Available particles
+     * @param anIsMonomer True: aPartStructure is a monomer, false: Otherwise
+     * @return Compiled part
+     */
+    private static SpicesInner compilePart(String aPartStructure, HashMap<String, String> anAvailableParticles, boolean anIsMonomer) {
+        // NOTE: Start index and particle positions do not affect the
+        // compiled part
+        return new SpicesInner(aPartStructure, anAvailableParticles, anIsMonomer, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0);
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class ParticleSet">
+    /**
+     * Interned set of available particles with its particle set id
+     */
+    private static final class ParticleSet {
+
+        /**
+         * Particles (NOT allowed to be changed)
+         */
+        final Set<String> particles;
+
+        /**
+         * Particle set id
+         */
+        final int id;
+
+        /**
+         * Constructor
+         *
+         * @param aParticles Particles (NOT allowed to be changed afterwards)
+         * @param anId Particle set id
+         */
+        ParticleSet(Set<String> aParticles, int anId) {
+            this.particles = aParticles;
+            this.id = anId;
+        }
+
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class PartKey">
+    /**
+     * Pool key
+     */
+    private static final class PartKey {
+
+        /**
+         * Part structure
+         */
+        final String partStructure;
+
+        /**
+         * Particle set id of available particles
+         */
+        final int particleSetId;
+
+        /**
+         * True: Part structure is a monomer, false: Otherwise
+         */
+        final boolean isMonomer;
+
+        /**
+         * Hash code
+         */
+        final int hashCode;
+
+        /**
+         * Constructor
+         *
+         * @param aPartStructure Part structure
+         * @param aParticleSetId Particle set id of available particles
+         * @param anIsMonomer True: Part structure is a monomer, false:
+         * Otherwise
+         */
+        PartKey(String aPartStructure, int aParticleSetId, boolean anIsMonomer) {
+            this.partStructure = aPartStructure;
+            this.particleSetId = aParticleSetId;
+            this.isMonomer = anIsMonomer;
+            this.hashCode = 31 * (31 * aPartStructure.hashCode() + aParticleSetId) + (anIsMonomer ? 1 : 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object anObject) {
+            if (this == anObject) {
+                return true;
+            }
+            if (!(anObject instanceof PartKey)) {
+                return false;
+            }
+            PartKey tmpOther = (PartKey) anObject;
+            return this.hashCode == tmpOther.hashCode
+                && this.particleSetId == tmpOther.particleSetId
+                && this.isMonomer == tmpOther.isMonomer
+                && this.partStructure.equals(tmpOther.partStructure);
+        }
+
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class PoolEntry">
+    /**
+     * Pool entry
+     */
+    private static final class PoolEntry {
+
+        /**
+         * Part key
+         */
+        final PartKey key;
+
+        /**
+         * Compiled part
+         */
+        final SpicesInner part;
+
+        /**
+         * True: Entry was accessed since last eviction sweep, false:
+         * Otherwise
+         */
+        volatile boolean isReferenced;
+
+        /**
+         * Constructor
+         *
+         * @param aKey Part key
+         * @param aPart Compiled part
+         */
+        PoolEntry(PartKey aKey, SpicesInner aPart) {
+            this.key = aKey;
+            this.part = aPart;
+        }
+
+    }
+    // </editor-fold>
+
+}
@@ -0,0 +1,169 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global, thread-safe and append-only symbol table that maps particle names
+ * to dense integer particle ids (0, 1, 2, ...). A particle id is valid for
+ * the lifetime of the process and never changes.
+ *
+ * @author agent
+ */
+public final class SpicesParticleTable {
+
+    // <editor-fold defaultstate="collapsed" desc="Private static final class variables">
+    /**
+     * Particle name to particle id map
+     */
+    private static final ConcurrentHashMap<String, Integer> PARTICLE_TO_ID_MAP = new ConcurrentHashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+
+    /**
+     * Lock for appending particles
+     */
+    private static final Object APPEND_LOCK = new Object();
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private static class variables">
+    /**
+     * Particle names (index is particle id). NOTE: Only the first
+     * numberOfParticles entries are valid.
+     */
+    private static volatile String[] particles = new String[SpicesConstants.DEFAULT_NUMBER_OF_PARTICLES];
+
+    /**
+     * Number of particles
+     */
+    private static volatile int numberOfParticles = 0;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private constructor">
+    /**
+     * Private constructor: Only static methods
+     */
+    private SpicesParticleTable() {
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public static methods">
+    /**
+     * Returns particle id of aParticle. If aParticle is not yet known it is
+     * appended to the table.
+     *
+     * @param aParticle Particle name (not allowed to be null/empty)
+     * @return Particle id
+     * @throws IllegalArgumentException Thrown if aParticle is null/empty
+     */
+    public static int getParticleId(String aParticle) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aParticle == null || aParticle.isEmpty()) {
+            throw new IllegalArgumentException("aParticle is null/empty.");
+        }
+        // </editor-fold>
+        Integer tmpId = PARTICLE_TO_ID_MAP.get(aParticle);
+        if (tmpId != null) {
+            return tmpId;
+        }
+        synchronized (APPEND_LOCK) {
+            tmpId = PARTICLE_TO_ID_MAP.get(aParticle);
+            if (tmpId != null) {
+                return tmpId;
+            }
+            int tmpNewId = SpicesParticleTable.numberOfParticles;
+            String[] tmpParticles = SpicesParticleTable.particles;
+            if (tmpNewId == tmpParticles.length) {
+                tmpParticles = Arrays.copyOf(tmpParticles, 2 * tmpParticles.length);
+            }
+            tmpParticles[tmpNewId] = aParticle;
+            // Publish particle name before id
+            SpicesParticleTable.particles = tmpParticles;
+            SpicesParticleTable.numberOfParticles = tmpNewId + 1;
+            PARTICLE_TO_ID_MAP.put(aParticle, tmpNewId);
+            return tmpNewId;
+        }
+    }
+
+    /**
+     * Returns particle ids of particles
+     *
+     * @param aParticles Particle names (not allowed to be null or to contain
+     * null/empty names)
+     * @return Particle ids
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    public static int[] getParticleIds(String[] aParticles) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aParticles == null) {
+            throw new IllegalArgumentException("aParticles is null.");
+        }
+        // </editor-fold>
+        int[] tmpResult = new int[aParticles.length];
+        for (int i = 0; i < aParticles.length; i++) {
+            tmpResult[i] = SpicesParticleTable.getParticleId(aParticles[i]);
+        }
+        return tmpResult;
+    }
+
+    /**
+     * Returns particle id of aParticle without appending it to the table
+     *
+     * @param aParticle Particle name
+     * @return Particle id or -1 if aParticle is unknown
+     */
+    public static int findParticleId(String aParticle) {
+        if (aParticle == null) {
+            return -1;
+        }
+        Integer tmpId = PARTICLE_TO_ID_MAP.get(aParticle);
+        if (tmpId == null) {
+            return -1;
+        }
+        return tmpId;
+    }
+
+    /**
+     * Returns particle name of particle id
+     *
+     * @param aParticleId Particle id
+     * @return Particle name
+     * @throws IllegalArgumentException Thrown if aParticleId is unknown
+     */
+    public static String getParticle(int aParticleId) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aParticleId < 0 || aParticleId >= SpicesParticleTable.numberOfParticles) {
+            throw new IllegalArgumentException("aParticleId is unknown.");
+        }
+        // </editor-fold>
+        return SpicesParticleTable.particles[aParticleId];
+    }
+
+    /**
+     * Number of particles in table
+     *
+     * @return Number of particles in table
+     */
+    public static int getNumberOfParticles() {
+        return SpicesParticleTable.numberOfParticles;
+    }
+    // </editor-fold>
+
+}
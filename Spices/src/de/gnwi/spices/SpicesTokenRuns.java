@@ -0,0 +1,1201 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.util.Arrays;
+
+/**
+ * Run-length representation of a compiled token list. A run is either a
+ * single token or a particle series (e.g. 1000A) that stands for the
+ * virtual tokens "1", "A", "-", "1", "A", ..., "-", "1", "A" of the
+ * compiled token list without creating them. Every run knows the virtual
+ * token index and the particle index of its first token/particle so that
+ * token and particle indices can be computed arithmetically. Token arrays
+ * are only created on request (see getTokens(), getTokenKinds() and
+ * getTokenNumbers()). A repeated curly bracket block (e.g. 4{...}) is a
+ * repeat group: Only the runs of its first copy are stored and the runs of
+ * the further copies are derived from them by index arithmetic, i.e. a run
+ * index refers to the runs of all copies but the number of stored runs
+ * does not depend on the number of copies. An index of the stored runs of
+ * every token kind (e.g. all [HEAD] runs), of branch levels and of
+ * neighboring particle runs is created on first request so that tag and
+ * particle lookups need no scans.
+ *
+ * @author agent
+ */
+public final class SpicesTokenRuns {
+
+    // <editor-fold defaultstate="collapsed" desc="Private static final class variables">
+    /**
+     * Repeat group: Index of index of first run of first copy
+     */
+    private static final int GROUP_RUN_START = 0;
+
+    /**
+     * Repeat group: Index of index of first stored run
+     */
+    private static final int GROUP_STORED_RUN_START = 1;
+
+    /**
+     * Repeat group: Index of number of runs of a single copy
+     */
+    private static final int GROUP_LENGTH = 2;
+
+    /**
+     * Repeat group: Index of number of copies
+     */
+    private static final int GROUP_COPIES = 3;
+
+    /**
+     * Repeat group: Index of number of virtual tokens of a single copy
+     */
+    private static final int GROUP_NUMBER_OF_TOKENS = 4;
+
+    /**
+     * Repeat group: Index of number of particles of a single copy
+     */
+    private static final int GROUP_NUMBER_OF_PARTICLES = 5;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class variables">
+    /**
+     * Token kinds of stored runs (see SpicesConstants.TOKEN_KIND_...).
+     * NOTE: Particle series have kind SpicesConstants.TOKEN_KIND_PARTICLE.
+     */
+    private byte[] kinds;
+
+    /**
+     * Tokens of stored runs (particle of particle series)
+     */
+    private String[] tokens;
+
+    /**
+     * Pre-parsed numbers of stored runs (see
+     * SpicesInner.getInnerTokenNumbers())
+     */
+    private int[] numbers;
+
+    /**
+     * Number of particles of particle series stored runs (0 for single token
+     * runs)
+     */
+    private int[] seriesLengths;
+
+    /**
+     * Virtual token index of first token of stored runs (of first copy of
+     * repeat group)
+     */
+    private int[] tokenOffsets;
+
+    /**
+     * Particle index of first particle of stored runs (of first copy of
+     * repeat group). For runs without particles: Number of particles before
+     * run.
+     */
+    private int[] particleOffsets;
+
+    /**
+     * Number of stored runs
+     */
+    private int numberOfStoredRuns;
+
+    /**
+     * Number of runs (including the runs of all copies of repeat groups)
+     */
+    private int numberOfRuns;
+
+    /**
+     * Number of virtual tokens
+     */
+    private int numberOfTokens;
+
+    /**
+     * Number of particles
+     */
+    private int numberOfParticles;
+
+    /**
+     * Repeat groups: Index of first run of first copy, index of first stored
+     * run, number of runs of a single copy, number of copies, number of
+     * virtual tokens and number of particles of a single copy (see GROUP_...)
+     */
+    private int[][] repeatGroups;
+
+    /**
+     * Number of repeat groups
+     */
+    private int numberOfRepeatGroups;
+    //
+    // <editor-fold defaultstate="collapsed" desc="- Index (created on request)">
+    /**
+     * Ascending indices of single token stored runs of every token kind
+     * (index is token kind) or null if index is not created
+     */
+    private int[][] storedRunIndicesOfKinds;
+
+    /**
+     * Ascending indices of single token runs of every token kind (index is
+     * token kind, created on request)
+     */
+    private int[][] runIndicesOfKinds;
+
+    /**
+     * Branch level (number of normal opening brackets minus number of
+     * normal closing brackets) before stored run
+     */
+    private int[] branchLevels;
+
+    /**
+     * Index of last particle stored run before stored run (-1 if there is
+     * none)
+     */
+    private int[] previousParticleRunIndices;
+
+    /**
+     * Index of next particle stored run after stored run on the same branch
+     * level (-1 if there is none)
+     */
+    private int[] nextLevelParticleRunIndices;
+
+    /**
+     * Index of first particle stored run of first copy of repeat group on
+     * branch level (-1 if there is none): First index is index of repeat
+     * group, second index is branch level minus minimum branch level of
+     * first copy
+     */
+    private int[][] firstLevelParticleRunIndicesOfGroups;
+
+    /**
+     * Minimum branch level of first copy of repeat group
+     */
+    private int[] minimumBranchLevelsOfGroups;
+    // </editor-fold>
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructor">
+    /**
+     * Constructor
+     */
+    public SpicesTokenRuns() {
+        this.kinds = new byte[SpicesConstants.DEFAULT_NUMBER_OF_PARTICLES];
+        this.tokens = new String[SpicesConstants.DEFAULT_NUMBER_OF_PARTICLES];
+        this.numbers = new int[SpicesConstants.DEFAULT_NUMBER_OF_PARTICLES];
+        this.seriesLengths = new int[SpicesConstants.DEFAULT_NUMBER_OF_PARTICLES];
+        this.tokenOffsets = new int[SpicesConstants.DEFAULT_NUMBER_OF_PARTICLES];
+        this.particleOffsets = new int[SpicesConstants.DEFAULT_NUMBER_OF_PARTICLES];
+        this.numberOfStoredRuns = 0;
+        this.numberOfRuns = 0;
+        this.numberOfTokens = 0;
+        this.numberOfParticles = 0;
+        this.repeatGroups = new int[0][];
+        this.numberOfRepeatGroups = 0;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Appends a single token run
+     *
+     * @param aKind Token kind (see SpicesConstants.TOKEN_KIND_...)
+     * @param aToken Token
+     * @param aNumber Pre-parsed number of token
+     */
+    public void addToken(byte aKind, String aToken, int aNumber) {
+        this.appendRun(aKind, aToken, aNumber, 0);
+    }
+
+    /**
+     * Appends a particle series run, i.e. the virtual tokens "1", aParticle,
+     * "-", ..., "-", "1", aParticle with aLength particles
+     *
+     * @param aParticle Particle
+     * @param aLength Number of particles (greater 0)
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    public void addSeries(String aParticle, int aLength) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aParticle == null || aLength < 1) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        this.appendRun(SpicesConstants.TOKEN_KIND_PARTICLE, aParticle, 0, aLength);
+    }
+
+    /**
+     * Appends run of other runs
+     *
+     * @param aRuns Runs
+     * @param anIndex Index of run in aRuns
+     */
+    public void addRun(SpicesTokenRuns aRuns, int anIndex) {
+        int tmpStoredIndex = aRuns.getStoredRunIndex(anIndex);
+        this.appendRun(aRuns.kinds[tmpStoredIndex], aRuns.tokens[tmpStoredIndex], aRuns.numbers[tmpStoredIndex], aRuns.seriesLengths[tmpStoredIndex]);
+    }
+
+    /**
+     * Appends all runs of other runs. NOTE: Repeat groups of aRuns are
+     * appended as single runs of every copy.
+     *
+     * @param aRuns Runs
+     */
+    public void addRuns(SpicesTokenRuns aRuns) {
+        for (int i = 0; i < aRuns.numberOfRuns; i++) {
+            this.addRun(aRuns, i);
+        }
+    }
+
+    /**
+     * Registers the last appended runs as the first copy of a repeat group:
+     * The further copies are NOT appended but derived from the first copy by
+     * index arithmetic. NOTE: A copy must not change the branch level.
+     *
+     * @param aFirstRunIndex Index of first run of first copy (the first copy
+     * comprises all runs from this index to the last run and must not
+     * overlap a former repeat group)
+     * @param aNumberOfCopies Number of copies
+     * @throws IllegalArgumentException Thrown if an argument is illegal
+     */
+    public void addRepeatGroup(int aFirstRunIndex, int aNumberOfCopies) throws IllegalArgumentException {
+        int tmpNumberOfRunsPerCopy = this.numberOfRuns - aFirstRunIndex;
+        int tmpFirstStoredRunIndex = this.numberOfStoredRuns - tmpNumberOfRunsPerCopy;
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (tmpNumberOfRunsPerCopy < 1 || aNumberOfCopies < 1 || tmpFirstStoredRunIndex < 0
+                || this.numberOfRepeatGroups > 0 && tmpFirstStoredRunIndex < this.getStoredRunEnd(this.numberOfRepeatGroups - 1)) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        int tmpBranchLevel = 0;
+        for (int i = tmpFirstStoredRunIndex; i < this.numberOfStoredRuns; i++) {
+            if (this.kinds[i] == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN) {
+                tmpBranchLevel++;
+            } else if (this.kinds[i] == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE) {
+                tmpBranchLevel--;
+            }
+        }
+        if (tmpBranchLevel != 0) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        int tmpNumberOfTokensPerCopy = this.numberOfTokens - this.tokenOffsets[tmpFirstStoredRunIndex];
+        int tmpNumberOfParticlesPerCopy = this.numberOfParticles - this.particleOffsets[tmpFirstStoredRunIndex];
+        if (this.numberOfRepeatGroups == this.repeatGroups.length) {
+            this.repeatGroups = Arrays.copyOf(this.repeatGroups, Math.max(4, 2 * this.repeatGroups.length));
+        }
+        this.repeatGroups[this.numberOfRepeatGroups++] = new int[] {aFirstRunIndex, tmpFirstStoredRunIndex, tmpNumberOfRunsPerCopy, aNumberOfCopies,
+            tmpNumberOfTokensPerCopy, tmpNumberOfParticlesPerCopy};
+        this.numberOfRuns += (aNumberOfCopies - 1) * tmpNumberOfRunsPerCopy;
+        this.numberOfTokens += (aNumberOfCopies - 1) * tmpNumberOfTokensPerCopy;
+        this.numberOfParticles += (aNumberOfCopies - 1) * tmpNumberOfParticlesPerCopy;
+        this.storedRunIndicesOfKinds = null;
+        this.runIndicesOfKinds = null;
+    }
+
+    /**
+     * Creates compiled tokens
+     *
+     * @return Compiled tokens
+     */
+    public String[] getTokens() {
+        String[] tmpResult = new String[this.numberOfTokens];
+        for (int i = 0; i < this.numberOfStoredRuns; i++) {
+            int tmpIndex = this.tokenOffsets[i];
+            if (this.seriesLengths[i] > 0) {
+                for (int j = 0; j < this.seriesLengths[i]; j++) {
+                    if (j > 0) {
+                        tmpResult[tmpIndex++] = "-";
+                    }
+                    tmpResult[tmpIndex++] = "1";
+                    tmpResult[tmpIndex++] = this.tokens[i];
+                }
+            } else {
+                tmpResult[tmpIndex] = this.tokens[i];
+            }
+        }
+        this.copyTokensOfRepeatGroups(tmpResult);
+        return tmpResult;
+    }
+
+    /**
+     * Creates kinds of compiled tokens
+     *
+     * @return Kinds of compiled tokens (see SpicesConstants.TOKEN_KIND_...)
+     */
+    public byte[] getTokenKinds() {
+        byte[] tmpResult = new byte[this.numberOfTokens];
+        for (int i = 0; i < this.numberOfStoredRuns; i++) {
+            int tmpIndex = this.tokenOffsets[i];
+            if (this.seriesLengths[i] > 0) {
+                for (int j = 0; j < this.seriesLengths[i]; j++) {
+                    if (j > 0) {
+                        tmpResult[tmpIndex++] = SpicesConstants.TOKEN_KIND_CONNECTION;
+                    }
+                    tmpResult[tmpIndex++] = SpicesConstants.TOKEN_KIND_NUMBER;
+                    tmpResult[tmpIndex++] = SpicesConstants.TOKEN_KIND_PARTICLE;
+                }
+            } else {
+                tmpResult[tmpIndex] = this.kinds[i];
+            }
+        }
+        this.copyTokensOfRepeatGroups(tmpResult);
+        return tmpResult;
+    }
+
+    /**
+     * Creates pre-parsed numbers of compiled tokens
+     *
+     * @return Pre-parsed numbers of compiled tokens
+     */
+    public int[] getTokenNumbers() {
+        int[] tmpResult = new int[this.numberOfTokens];
+        for (int i = 0; i < this.numberOfStoredRuns; i++) {
+            if (this.seriesLengths[i] > 0) {
+                // Number token "1" before every particle of series
+                for (int j = 0; j < this.seriesLengths[i]; j++) {
+                    tmpResult[this.tokenOffsets[i] + 3 * j] = 1;
+                }
+            } else {
+                tmpResult[this.tokenOffsets[i]] = this.numbers[i];
+            }
+        }
+        this.copyTokensOfRepeatGroups(tmpResult);
+        return tmpResult;
+    }
+
+    /**
+     * Creates (zero-based) indices of particles in compiled tokens
+     *
+     * @return Indices of particles in compiled tokens
+     */
+    public int[] getParticleTokenIndices() {
+        int[] tmpResult = new int[this.numberOfParticles];
+        for (int i = 0; i < this.numberOfStoredRuns; i++) {
+            if (this.seriesLengths[i] > 0) {
+                for (int j = 0; j < this.seriesLengths[i]; j++) {
+                    tmpResult[this.particleOffsets[i] + j] = this.tokenOffsets[i] + 3 * j + 1;
+                }
+            } else if (this.isStoredParticle(i)) {
+                tmpResult[this.particleOffsets[i]] = this.tokenOffsets[i];
+            }
+        }
+        // Particles of further copies of repeat groups: Token indices of the
+        // first copy shifted by the number of tokens of the preceding copies
+        for (int i = 0; i < this.numberOfRepeatGroups; i++) {
+            int[] tmpGroup = this.repeatGroups[i];
+            int tmpFirstParticleIndex = this.particleOffsets[tmpGroup[GROUP_STORED_RUN_START]];
+            int tmpNumberOfParticlesPerCopy = tmpGroup[GROUP_NUMBER_OF_PARTICLES];
+            for (int j = 1; j < tmpGroup[GROUP_COPIES]; j++) {
+                int tmpTokenShift = j * tmpGroup[GROUP_NUMBER_OF_TOKENS];
+                int tmpParticleShift = j * tmpNumberOfParticlesPerCopy;
+                for (int k = tmpFirstParticleIndex; k < tmpFirstParticleIndex + tmpNumberOfParticlesPerCopy; k++) {
+                    tmpResult[k + tmpParticleShift] = tmpResult[k] + tmpTokenShift;
+                }
+            }
+        }
+        return tmpResult;
+    }
+
+    /**
+     * Ascending indices of single token runs of a token kind (e.g. all
+     * [HEAD] runs). NOTE: The array is created on first request (the runs of
+     * all copies of repeat groups are included). Returned array is NOT
+     * allowed to be changed.
+     *
+     * @param aKind Token kind (see SpicesConstants.TOKEN_KIND_...)
+     * @return Ascending indices of single token runs of token kind
+     */
+    public int[] getRunIndicesOfKind(byte aKind) {
+        this.createIndex();
+        int[][] tmpRunIndicesOfKinds = this.runIndicesOfKinds;
+        if (tmpRunIndicesOfKinds == null) {
+            tmpRunIndicesOfKinds = new int[this.storedRunIndicesOfKinds.length][];
+            this.runIndicesOfKinds = tmpRunIndicesOfKinds;
+        }
+        int[] tmpResult = tmpRunIndicesOfKinds[aKind];
+        if (tmpResult == null) {
+            tmpResult = this.createRunIndicesOfKind(aKind);
+            tmpRunIndicesOfKinds[aKind] = tmpResult;
+        }
+        return tmpResult;
+    }
+
+    /**
+     * Index of first single token run of a token kind at or after a run
+     *
+     * @param aKind Token kind (see SpicesConstants.TOKEN_KIND_...)
+     * @param aStartIndex Index of start run
+     * @return Index of first single token run of token kind with index
+     * greater or equal aStartIndex or -1 if there is none
+     */
+    public int getNextRunIndexOfKind(byte aKind, int aStartIndex) {
+        this.createIndex();
+        int[] tmpStoredRunIndices = this.storedRunIndicesOfKinds[aKind];
+        int tmpGroupIndex = this.getRepeatGroupIndexOfRun(aStartIndex);
+        int tmpPosition = SpicesTokenRuns.getLowerBound(tmpStoredRunIndices, this.getStoredRunIndex(aStartIndex, tmpGroupIndex));
+        if (this.isInRepeatGroup(aStartIndex, tmpGroupIndex)) {
+            int[] tmpGroup = this.repeatGroups[tmpGroupIndex];
+            int tmpStoredRunStart = tmpGroup[GROUP_STORED_RUN_START];
+            int tmpStoredRunEnd = tmpStoredRunStart + tmpGroup[GROUP_LENGTH];
+            int tmpCopy = this.getCopyIndex(aStartIndex, tmpGroupIndex);
+            if (tmpPosition < tmpStoredRunIndices.length && tmpStoredRunIndices[tmpPosition] < tmpStoredRunEnd) {
+                // Same copy
+                return this.getRunIndexOfCopy(tmpGroupIndex, tmpCopy, tmpStoredRunIndices[tmpPosition]);
+            }
+            if (tmpCopy < tmpGroup[GROUP_COPIES] - 1) {
+                int tmpFirstPosition = SpicesTokenRuns.getLowerBound(tmpStoredRunIndices, tmpStoredRunStart);
+                if (tmpFirstPosition < tmpStoredRunIndices.length && tmpStoredRunIndices[tmpFirstPosition] < tmpStoredRunEnd) {
+                    // Next copy
+                    return this.getRunIndexOfCopy(tmpGroupIndex, tmpCopy + 1, tmpStoredRunIndices[tmpFirstPosition]);
+                }
+            }
+        }
+        return tmpPosition < tmpStoredRunIndices.length ? this.getRunIndex(tmpStoredRunIndices[tmpPosition]) : -1;
+    }
+
+    /**
+     * Branch level before run, i.e. number of normal opening brackets minus
+     * number of normal closing brackets before run
+     *
+     * @param anIndex Index of run (numberOfRuns is allowed)
+     * @return Branch level before run
+     */
+    public int getBranchLevel(int anIndex) {
+        this.createIndex();
+        // NOTE: A copy of a repeat group does not change the branch level
+        return this.branchLevels[this.getStoredRunIndex(anIndex)];
+    }
+
+    /**
+     * Index of last particle run before run
+     *
+     * @param anIndex Index of run (numberOfRuns is allowed)
+     * @return Index of last particle run before run or -1 if there is none
+     */
+    public int getPreviousParticleRunIndex(int anIndex) {
+        this.createIndex();
+        int tmpGroupIndex = this.getRepeatGroupIndexOfRun(anIndex);
+        int tmpStoredIndex = this.getStoredRunIndex(anIndex, tmpGroupIndex);
+        int tmpPreviousStoredIndex = this.previousParticleRunIndices[tmpStoredIndex];
+        if (this.isInRepeatGroup(anIndex, tmpGroupIndex)) {
+            int[] tmpGroup = this.repeatGroups[tmpGroupIndex];
+            int tmpStoredRunStart = tmpGroup[GROUP_STORED_RUN_START];
+            int tmpCopy = this.getCopyIndex(anIndex, tmpGroupIndex);
+            if (tmpPreviousStoredIndex >= tmpStoredRunStart) {
+                // Same copy
+                return this.getRunIndexOfCopy(tmpGroupIndex, tmpCopy, tmpPreviousStoredIndex);
+            }
+            if (tmpCopy > 0) {
+                int tmpLastStoredIndex = this.previousParticleRunIndices[tmpStoredRunStart + tmpGroup[GROUP_LENGTH]];
+                if (tmpLastStoredIndex >= tmpStoredRunStart) {
+                    // Last particle run of previous copy
+                    return this.getRunIndexOfCopy(tmpGroupIndex, tmpCopy - 1, tmpLastStoredIndex);
+                }
+            }
+        }
+        return tmpPreviousStoredIndex < 0 ? -1 : this.getLastCopyRunIndex(tmpPreviousStoredIndex);
+    }
+
+    /**
+     * Index of next particle run after run on the same branch level
+     *
+     * @param anIndex Index of run
+     * @return Index of next particle run after run on the same branch level
+     * or -1 if there is none
+     */
+    public int getNextLevelParticleRunIndex(int anIndex) {
+        this.createIndex();
+        int tmpGroupIndex = this.getRepeatGroupIndexOfRun(anIndex);
+        int tmpStoredIndex = this.getStoredRunIndex(anIndex, tmpGroupIndex);
+        int tmpNextStoredIndex = this.nextLevelParticleRunIndices[tmpStoredIndex];
+        if (this.isInRepeatGroup(anIndex, tmpGroupIndex)) {
+            int[] tmpGroup = this.repeatGroups[tmpGroupIndex];
+            int tmpStoredRunEnd = this.getStoredRunEnd(tmpGroupIndex);
+            int tmpCopy = this.getCopyIndex(anIndex, tmpGroupIndex);
+            if (tmpNextStoredIndex >= 0 && tmpNextStoredIndex < tmpStoredRunEnd) {
+                // Same copy
+                return this.getRunIndexOfCopy(tmpGroupIndex, tmpCopy, tmpNextStoredIndex);
+            }
+            if (tmpCopy < tmpGroup[GROUP_COPIES] - 1) {
+                int tmpFirstStoredIndex = this.firstLevelParticleRunIndicesOfGroups[tmpGroupIndex][this.branchLevels[tmpStoredIndex] - this.minimumBranchLevelsOfGroups[tmpGroupIndex]];
+                if (tmpFirstStoredIndex >= 0) {
+                    // Next copy
+                    return this.getRunIndexOfCopy(tmpGroupIndex, tmpCopy + 1, tmpFirstStoredIndex);
+                }
+            }
+        }
+        return tmpNextStoredIndex < 0 ? -1 : this.getRunIndex(tmpNextStoredIndex);
+    }
+
+    /**
+     * Index of run that contains particle
+     *
+     * @param aParticleIndex Particle index
+     * @return Index of run that contains particle
+     * @throws IllegalArgumentException Thrown if aParticleIndex is out of
+     * range
+     */
+    public int getParticleRunIndex(int aParticleIndex) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aParticleIndex < 0 || aParticleIndex >= this.numberOfParticles) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Repeat group">
+        // Last repeat group with first particle less or equal aParticleIndex
+        int tmpLow = 0;
+        int tmpHigh = this.numberOfRepeatGroups - 1;
+        while (tmpLow <= tmpHigh) {
+            int tmpMiddle = (tmpLow + tmpHigh) >>> 1;
+            if (this.particleOffsets[this.repeatGroups[tmpMiddle][GROUP_STORED_RUN_START]] <= aParticleIndex) {
+                tmpLow = tmpMiddle + 1;
+            } else {
+                tmpHigh = tmpMiddle - 1;
+            }
+        }
+        int tmpGroupIndex = tmpHigh;
+        if (tmpGroupIndex >= 0) {
+            int[] tmpGroup = this.repeatGroups[tmpGroupIndex];
+            int tmpParticleOffset = aParticleIndex - this.particleOffsets[tmpGroup[GROUP_STORED_RUN_START]];
+            if (tmpGroup[GROUP_NUMBER_OF_PARTICLES] > 0 && tmpParticleOffset < tmpGroup[GROUP_COPIES] * tmpGroup[GROUP_NUMBER_OF_PARTICLES]) {
+                // Particle of a copy: Corresponding particle of first copy
+                int tmpCopy = tmpParticleOffset / tmpGroup[GROUP_NUMBER_OF_PARTICLES];
+                int tmpStoredIndex = this.getLastStoredRunIndexOfParticle(aParticleIndex - tmpCopy * tmpGroup[GROUP_NUMBER_OF_PARTICLES],
+                        tmpGroup[GROUP_STORED_RUN_START], this.getStoredRunEnd(tmpGroupIndex) - 1);
+                return this.getRunIndexOfCopy(tmpGroupIndex, tmpCopy, tmpStoredIndex);
+            }
+        }
+        // </editor-fold>
+        return this.getRunIndex(this.getLastStoredRunIndexOfParticle(aParticleIndex, 0, this.numberOfStoredRuns - 1));
+    }
+
+    /**
+     * Virtual token index of particle
+     *
+     * @param aParticleIndex Particle index
+     * @return Virtual token index of particle
+     * @throws IllegalArgumentException Thrown if aParticleIndex is out of
+     * range
+     */
+    public int getParticleTokenIndex(int aParticleIndex) throws IllegalArgumentException {
+        int tmpRunIndex = this.getParticleRunIndex(aParticleIndex);
+        if (this.isSeries(tmpRunIndex)) {
+            return this.getTokenOffset(tmpRunIndex) + 3 * (aParticleIndex - this.getParticleOffset(tmpRunIndex)) + 1;
+        } else {
+            return this.getTokenOffset(tmpRunIndex);
+        }
+    }
+
+    /**
+     * Index of stored run of run, i.e. the run of a further copy of a repeat
+     * group is mapped to the corresponding run of the first copy
+     *
+     * @param anIndex Index of run (numberOfRuns is allowed)
+     * @return Index of stored run (numberOfStoredRuns for numberOfRuns)
+     */
+    public int getStoredRunIndex(int anIndex) {
+        return this.getStoredRunIndex(anIndex, this.getRepeatGroupIndexOfRun(anIndex));
+    }
+
+    /**
+     * Index of run of stored run (the run of the first copy for a stored run
+     * of a repeat group)
+     *
+     * @param aStoredIndex Index of stored run (numberOfStoredRuns is allowed)
+     * @return Index of run
+     */
+    public int getRunIndex(int aStoredIndex) {
+        return this.getRunIndex(aStoredIndex, false);
+    }
+
+    /**
+     * Index of run of stored run. If the stored run belongs to the first copy
+     * of a repeat group the corresponding run of the copy that contains the
+     * reference run is returned if the reference run belongs to the same
+     * repeat group, otherwise the run of the first copy.
+     *
+     * @param aStoredIndex Index of stored run (numberOfStoredRuns is allowed)
+     * @param aReferenceIndex Index of reference run
+     * @return Index of run
+     */
+    public int getRunIndex(int aStoredIndex, int aReferenceIndex) {
+        int tmpGroupIndex = this.getRepeatGroupIndexOfRun(aReferenceIndex);
+        if (this.isInRepeatGroup(aReferenceIndex, tmpGroupIndex)
+                && aStoredIndex >= this.repeatGroups[tmpGroupIndex][GROUP_STORED_RUN_START] && aStoredIndex < this.getStoredRunEnd(tmpGroupIndex)) {
+            return this.getRunIndexOfCopy(tmpGroupIndex, this.getCopyIndex(aReferenceIndex, tmpGroupIndex), aStoredIndex);
+        }
+        return this.getRunIndex(aStoredIndex);
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Number of runs (including the runs of all copies of repeat groups)
+     *
+     * @return Number of runs
+     */
+    public int getNumberOfRuns() {
+        return this.numberOfRuns;
+    }
+
+    /**
+     * Number of stored runs (the runs of the first copy of a repeat group
+     * are stored only)
+     *
+     * @return Number of stored runs
+     */
+    public int getNumberOfStoredRuns() {
+        return this.numberOfStoredRuns;
+    }
+
+    /**
+     * Number of (virtual) compiled tokens
+     *
+     * @return Number of compiled tokens
+     */
+    public int getNumberOfTokens() {
+        return this.numberOfTokens;
+    }
+
+    /**
+     * Number of particles
+     *
+     * @return Number of particles
+     */
+    public int getNumberOfParticles() {
+        return this.numberOfParticles;
+    }
+
+    /**
+     * Number of repeat groups
+     *
+     * @return Number of repeat groups
+     */
+    public int getNumberOfRepeatGroups() {
+        return this.numberOfRepeatGroups;
+    }
+
+    /**
+     * Index of first run of first copy of repeat group
+     *
+     * @param aGroupIndex Index of repeat group
+     * @return Index of first run of first copy of repeat group
+     */
+    public int getRepeatGroupStart(int aGroupIndex) {
+        return this.repeatGroups[aGroupIndex][GROUP_RUN_START];
+    }
+
+    /**
+     * Number of runs of a single copy of repeat group
+     *
+     * @param aGroupIndex Index of repeat group
+     * @return Number of runs of a single copy of repeat group
+     */
+    public int getRepeatGroupLength(int aGroupIndex) {
+        return this.repeatGroups[aGroupIndex][GROUP_LENGTH];
+    }
+
+    /**
+     * Number of copies of repeat group
+     *
+     * @param aGroupIndex Index of repeat group
+     * @return Number of copies of repeat group
+     */
+    public int getRepeatGroupCopies(int aGroupIndex) {
+        return this.repeatGroups[aGroupIndex][GROUP_COPIES];
+    }
+
+    /**
+     * Number of particles of a single copy of repeat group
+     *
+     * @param aGroupIndex Index of repeat group
+     * @return Number of particles of a single copy of repeat group
+     */
+    public int getRepeatGroupParticles(int aGroupIndex) {
+        return this.repeatGroups[aGroupIndex][GROUP_NUMBER_OF_PARTICLES];
+    }
+
+    /**
+     * Token kind of run
+     *
+     * @param anIndex Index of run
+     * @return Token kind of run (SpicesConstants.TOKEN_KIND_PARTICLE for
+     * particle series)
+     */
+    public byte getKind(int anIndex) {
+        return this.kinds[this.getStoredRunIndex(anIndex)];
+    }
+
+    /**
+     * Token of run
+     *
+     * @param anIndex Index of run
+     * @return Token of run (particle for particle series)
+     */
+    public String getToken(int anIndex) {
+        return this.tokens[this.getStoredRunIndex(anIndex)];
+    }
+
+    /**
+     * Pre-parsed number of single token run
+     *
+     * @param anIndex Index of run
+     * @return Pre-parsed number of single token run (0 for particle series)
+     */
+    public int getNumber(int anIndex) {
+        return this.numbers[this.getStoredRunIndex(anIndex)];
+    }
+
+    /**
+     * Number of particles of particle series run
+     *
+     * @param anIndex Index of run
+     * @return Number of particles of particle series run or 0 for single
+     * token run
+     */
+    public int getSeriesLength(int anIndex) {
+        return this.seriesLengths[this.getStoredRunIndex(anIndex)];
+    }
+
+    /**
+     * True if run is a particle series, false: Otherwise
+     *
+     * @param anIndex Index of run
+     * @return True if run is a particle series, false: Otherwise
+     */
+    public boolean isSeries(int anIndex) {
+        return this.seriesLengths[this.getStoredRunIndex(anIndex)] > 0;
+    }
+
+    /**
+     * True if run contains particles (particle series, particle or
+     * monomer), false: Otherwise
+     *
+     * @param anIndex Index of run
+     * @return True if run contains particles, false: Otherwise
+     */
+    public boolean isParticle(int anIndex) {
+        return this.isStoredParticle(this.getStoredRunIndex(anIndex));
+    }
+
+    /**
+     * Virtual token index of first token of run
+     *
+     * @param anIndex Index of run
+     * @return Virtual token index of first token of run
+     */
+    public int getTokenOffset(int anIndex) {
+        int tmpGroupIndex = this.getRepeatGroupIndexOfRun(anIndex);
+        int tmpTokenOffset = this.tokenOffsets[this.getStoredRunIndex(anIndex, tmpGroupIndex)];
+        if (tmpGroupIndex >= 0) {
+            tmpTokenOffset += this.getCopyIndex(anIndex, tmpGroupIndex) * this.repeatGroups[tmpGroupIndex][GROUP_NUMBER_OF_TOKENS];
+        }
+        return tmpTokenOffset;
+    }
+
+    /**
+     * Particle index of first particle of run. For runs without particles
+     * this is the number of particles before the run.
+     *
+     * @param anIndex Index of run
+     * @return Particle index of first particle of run
+     */
+    public int getParticleOffset(int anIndex) {
+        int tmpGroupIndex = this.getRepeatGroupIndexOfRun(anIndex);
+        int tmpParticleOffset = this.particleOffsets[this.getStoredRunIndex(anIndex, tmpGroupIndex)];
+        if (tmpGroupIndex >= 0) {
+            tmpParticleOffset += this.getCopyIndex(anIndex, tmpGroupIndex) * this.repeatGroups[tmpGroupIndex][GROUP_NUMBER_OF_PARTICLES];
+        }
+        return tmpParticleOffset;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private methods">
+    /**
+     * Appends run
+     *
+     * @param aKind Token kind
+     * @param aToken Token
+     * @param aNumber Pre-parsed number
+     * @param aSeriesLength Number of particles of particle series or 0
+     */
+    private void appendRun(byte aKind, String aToken, int aNumber, int aSeriesLength) {
+        if (this.numberOfStoredRuns == this.kinds.length) {
+            int tmpCapacity = 2 * this.kinds.length;
+            this.kinds = Arrays.copyOf(this.kinds, tmpCapacity);
+            this.tokens = Arrays.copyOf(this.tokens, tmpCapacity);
+            this.numbers = Arrays.copyOf(this.numbers, tmpCapacity);
+            this.seriesLengths = Arrays.copyOf(this.seriesLengths, tmpCapacity);
+            this.tokenOffsets = Arrays.copyOf(this.tokenOffsets, tmpCapacity);
+            this.particleOffsets = Arrays.copyOf(this.particleOffsets, tmpCapacity);
+        }
+        this.storedRunIndicesOfKinds = null;
+        this.runIndicesOfKinds = null;
+        this.kinds[this.numberOfStoredRuns] = aKind;
+        this.tokens[this.numberOfStoredRuns] = aToken;
+        this.numbers[this.numberOfStoredRuns] = aNumber;
+        this.seriesLengths[this.numberOfStoredRuns] = aSeriesLength;
+        this.tokenOffsets[this.numberOfStoredRuns] = this.numberOfTokens;
+        this.particleOffsets[this.numberOfStoredRuns] = this.numberOfParticles;
+        this.numberOfStoredRuns++;
+        this.numberOfRuns++;
+        if (aSeriesLength > 0) {
+            this.numberOfTokens += 3 * aSeriesLength - 1;
+            this.numberOfParticles += aSeriesLength;
+        } else {
+            this.numberOfTokens++;
+            if (aKind == SpicesConstants.TOKEN_KIND_PARTICLE || aKind == SpicesConstants.TOKEN_KIND_MONOMER) {
+                this.numberOfParticles++;
+            }
+        }
+    }
+
+    /**
+     * True if stored run contains particles, false: Otherwise
+     *
+     * @param aStoredIndex Index of stored run
+     * @return True if stored run contains particles, false: Otherwise
+     */
+    private boolean isStoredParticle(int aStoredIndex) {
+        return this.kinds[aStoredIndex] == SpicesConstants.TOKEN_KIND_PARTICLE || this.kinds[aStoredIndex] == SpicesConstants.TOKEN_KIND_MONOMER;
+    }
+
+    /**
+     * Index of last repeat group that starts at or before run
+     *
+     * @param anIndex Index of run
+     * @return Index of repeat group or -1 if there is none
+     */
+    private int getRepeatGroupIndexOfRun(int anIndex) {
+        int tmpLow = 0;
+        int tmpHigh = this.numberOfRepeatGroups - 1;
+        while (tmpLow <= tmpHigh) {
+            int tmpMiddle = (tmpLow + tmpHigh) >>> 1;
+            if (this.repeatGroups[tmpMiddle][GROUP_RUN_START] <= anIndex) {
+                tmpLow = tmpMiddle + 1;
+            } else {
+                tmpHigh = tmpMiddle - 1;
+            }
+        }
+        return tmpHigh;
+    }
+
+    /**
+     * True if run belongs to a copy of repeat group, false: Otherwise
+     *
+     * @param anIndex Index of run
+     * @param aGroupIndex Index of last repeat group that starts at or before
+     * run (-1 if there is none)
+     * @return True if run belongs to a copy of repeat group, false: Otherwise
+     */
+    private boolean isInRepeatGroup(int anIndex, int aGroupIndex) {
+        if (aGroupIndex < 0) {
+            return false;
+        }
+        int[] tmpGroup = this.repeatGroups[aGroupIndex];
+        return anIndex - tmpGroup[GROUP_RUN_START] < tmpGroup[GROUP_LENGTH] * tmpGroup[GROUP_COPIES];
+    }
+
+    /**
+     * Index of copy of repeat group that contains run
+     *
+     * @param anIndex Index of run
+     * @param aGroupIndex Index of last repeat group that starts at or before
+     * run (-1 if there is none)
+     * @return Index of copy or 0 if run does not belong to a repeat group
+     */
+    private int getCopyIndex(int anIndex, int aGroupIndex) {
+        if (!this.isInRepeatGroup(anIndex, aGroupIndex)) {
+            return 0;
+        }
+        int[] tmpGroup = this.repeatGroups[aGroupIndex];
+        return (anIndex - tmpGroup[GROUP_RUN_START]) / tmpGroup[GROUP_LENGTH];
+    }
+
+    /**
+     * Index of stored run of run
+     *
+     * @param anIndex Index of run (numberOfRuns is allowed)
+     * @param aGroupIndex Index of last repeat group that starts at or before
+     * run (-1 if there is none)
+     * @return Index of stored run
+     */
+    private int getStoredRunIndex(int anIndex, int aGroupIndex) {
+        if (aGroupIndex < 0) {
+            return anIndex;
+        }
+        int[] tmpGroup = this.repeatGroups[aGroupIndex];
+        int tmpOffset = anIndex - tmpGroup[GROUP_RUN_START];
+        int tmpNumberOfRunsOfCopies = tmpGroup[GROUP_LENGTH] * tmpGroup[GROUP_COPIES];
+        if (tmpOffset < tmpNumberOfRunsOfCopies) {
+            return tmpGroup[GROUP_STORED_RUN_START] + tmpOffset % tmpGroup[GROUP_LENGTH];
+        }
+        return tmpGroup[GROUP_STORED_RUN_START] + tmpGroup[GROUP_LENGTH] + tmpOffset - tmpNumberOfRunsOfCopies;
+    }
+
+    /**
+     * Index of first stored run after the first copy of repeat group
+     *
+     * @param aGroupIndex Index of repeat group
+     * @return Index of first stored run after the first copy of repeat group
+     */
+    private int getStoredRunEnd(int aGroupIndex) {
+        return this.repeatGroups[aGroupIndex][GROUP_STORED_RUN_START] + this.repeatGroups[aGroupIndex][GROUP_LENGTH];
+    }
+
+    /**
+     * Index of last repeat group that starts at or before stored run
+     *
+     * @param aStoredIndex Index of stored run
+     * @return Index of repeat group or -1 if there is none
+     */
+    private int getRepeatGroupIndexOfStoredRun(int aStoredIndex) {
+        int tmpLow = 0;
+        int tmpHigh = this.numberOfRepeatGroups - 1;
+        while (tmpLow <= tmpHigh) {
+            int tmpMiddle = (tmpLow + tmpHigh) >>> 1;
+            if (this.repeatGroups[tmpMiddle][GROUP_STORED_RUN_START] <= aStoredIndex) {
+                tmpLow = tmpMiddle + 1;
+            } else {
+                tmpHigh = tmpMiddle - 1;
+            }
+        }
+        return tmpHigh;
+    }
+
+    /**
+     * Index of run of stored run (the run of the last copy for a stored run
+     * of a repeat group)
+     *
+     * @param aStoredIndex Index of stored run
+     * @return Index of run
+     */
+    private int getLastCopyRunIndex(int aStoredIndex) {
+        return this.getRunIndex(aStoredIndex, true);
+    }
+
+    /**
+     * Index of run of stored run
+     *
+     * @param aStoredIndex Index of stored run (numberOfStoredRuns is allowed)
+     * @param anIsLastCopy True: The run of the last copy is returned for a
+     * stored run of a repeat group, false: The run of the first copy
+     * @return Index of run
+     */
+    private int getRunIndex(int aStoredIndex, boolean anIsLastCopy) {
+        int tmpGroupIndex = this.getRepeatGroupIndexOfStoredRun(aStoredIndex);
+        if (tmpGroupIndex < 0) {
+            return aStoredIndex;
+        }
+        int[] tmpGroup = this.repeatGroups[tmpGroupIndex];
+        int tmpOffset = aStoredIndex - tmpGroup[GROUP_STORED_RUN_START];
+        if (tmpOffset < tmpGroup[GROUP_LENGTH]) {
+            return this.getRunIndexOfCopy(tmpGroupIndex, anIsLastCopy ? tmpGroup[GROUP_COPIES] - 1 : 0, aStoredIndex);
+        }
+        return tmpGroup[GROUP_RUN_START] + (tmpGroup[GROUP_COPIES] - 1) * tmpGroup[GROUP_LENGTH] + tmpOffset;
+    }
+
+    /**
+     * Index of run of a stored run of the first copy of repeat group in a
+     * copy
+     *
+     * @param aGroupIndex Index of repeat group
+     * @param aCopy Index of copy
+     * @param aStoredIndex Index of stored run of first copy
+     * @return Index of run
+     */
+    private int getRunIndexOfCopy(int aGroupIndex, int aCopy, int aStoredIndex) {
+        int[] tmpGroup = this.repeatGroups[aGroupIndex];
+        return tmpGroup[GROUP_RUN_START] + aCopy * tmpGroup[GROUP_LENGTH] + aStoredIndex - tmpGroup[GROUP_STORED_RUN_START];
+    }
+
+    /**
+     * Index of last stored run in range with particle offset less or equal
+     * particle index (this is always a particle run since runs without
+     * particles have the particle offset of the next particle run)
+     *
+     * @param aParticleIndex Particle index
+     * @param aLowIndex Lowest index of stored run
+     * @param aHighIndex Highest index of stored run
+     * @return Index of stored run
+     */
+    private int getLastStoredRunIndexOfParticle(int aParticleIndex, int aLowIndex, int aHighIndex) {
+        int tmpLow = aLowIndex;
+        int tmpHigh = aHighIndex;
+        while (tmpLow < tmpHigh) {
+            int tmpMiddle = (tmpLow + tmpHigh + 1) >>> 1;
+            if (this.particleOffsets[tmpMiddle] <= aParticleIndex) {
+                tmpLow = tmpMiddle;
+            } else {
+                tmpHigh = tmpMiddle - 1;
+            }
+        }
+        return tmpLow;
+    }
+
+    /**
+     * Copies the tokens of the first copy of every repeat group to the
+     * further copies
+     *
+     * @param anArray Array with an entry for every virtual token
+     */
+    private void copyTokensOfRepeatGroups(Object anArray) {
+        for (int i = 0; i < this.numberOfRepeatGroups; i++) {
+            int[] tmpGroup = this.repeatGroups[i];
+            int tmpFirstTokenIndex = this.tokenOffsets[tmpGroup[GROUP_STORED_RUN_START]];
+            int tmpNumberOfTokensPerCopy = tmpGroup[GROUP_NUMBER_OF_TOKENS];
+            for (int j = 1; j < tmpGroup[GROUP_COPIES]; j++) {
+                System.arraycopy(anArray, tmpFirstTokenIndex, anArray, tmpFirstTokenIndex + j * tmpNumberOfTokensPerCopy, tmpNumberOfTokensPerCopy);
+            }
+        }
+    }
+
+    /**
+     * Creates ascending indices of single token runs of a token kind
+     * (including the runs of all copies of repeat groups)
+     *
+     * @param aKind Token kind
+     * @return Ascending indices of single token runs of token kind
+     */
+    private int[] createRunIndicesOfKind(byte aKind) {
+        int[] tmpStoredRunIndices = this.storedRunIndicesOfKinds[aKind];
+        int tmpNumberOfRunIndices = tmpStoredRunIndices.length;
+        for (int i = 0; i < this.numberOfRepeatGroups; i++) {
+            int tmpNumberOfCopyRunIndices = SpicesTokenRuns.getLowerBound(tmpStoredRunIndices, this.getStoredRunEnd(i))
+                    - SpicesTokenRuns.getLowerBound(tmpStoredRunIndices, this.repeatGroups[i][GROUP_STORED_RUN_START]);
+            tmpNumberOfRunIndices += (this.repeatGroups[i][GROUP_COPIES] - 1) * tmpNumberOfCopyRunIndices;
+        }
+        int[] tmpResult = new int[tmpNumberOfRunIndices];
+        int tmpIndex = 0;
+        int tmpPosition = 0;
+        for (int i = 0; i < this.numberOfRepeatGroups; i++) {
+            int tmpFirstPosition = SpicesTokenRuns.getLowerBound(tmpStoredRunIndices, this.repeatGroups[i][GROUP_STORED_RUN_START]);
+            int tmpEndPosition = SpicesTokenRuns.getLowerBound(tmpStoredRunIndices, this.getStoredRunEnd(i));
+            for (; tmpPosition < tmpFirstPosition; tmpPosition++) {
+                tmpResult[tmpIndex++] = this.getRunIndex(tmpStoredRunIndices[tmpPosition]);
+            }
+            for (int j = 0; j < this.repeatGroups[i][GROUP_COPIES]; j++) {
+                for (int k = tmpFirstPosition; k < tmpEndPosition; k++) {
+                    tmpResult[tmpIndex++] = this.getRunIndexOfCopy(i, j, tmpStoredRunIndices[k]);
+                }
+            }
+            tmpPosition = tmpEndPosition;
+        }
+        for (; tmpPosition < tmpStoredRunIndices.length; tmpPosition++) {
+            tmpResult[tmpIndex++] = this.getRunIndex(tmpStoredRunIndices[tmpPosition]);
+        }
+        return tmpResult;
+    }
+
+    /**
+     * Creates index of stored runs if it does not exist
+     */
+    private void createIndex() {
+        if (this.storedRunIndicesOfKinds != null) {
+            return;
+        }
+        // <editor-fold defaultstate="collapsed" desc="Runs of token kinds">
+        int[] tmpNumberOfRunsOfKinds = new int[SpicesConstants.TOKEN_KIND_BACKBONE_INDEX + 1];
+        for (int i = 0; i < this.numberOfStoredRuns; i++) {
+            if (this.seriesLengths[i] == 0) {
+                tmpNumberOfRunsOfKinds[this.kinds[i]]++;
+            }
+        }
+        int[][] tmpStoredRunIndicesOfKinds = new int[tmpNumberOfRunsOfKinds.length][];
+        for (int i = 0; i < tmpStoredRunIndicesOfKinds.length; i++) {
+            tmpStoredRunIndicesOfKinds[i] = new int[tmpNumberOfRunsOfKinds[i]];
+            tmpNumberOfRunsOfKinds[i] = 0;
+        }
+        for (int i = 0; i < this.numberOfStoredRuns; i++) {
+            if (this.seriesLengths[i] == 0) {
+                tmpStoredRunIndicesOfKinds[this.kinds[i]][tmpNumberOfRunsOfKinds[this.kinds[i]]++] = i;
+            }
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Branch levels and previous particle runs">
+        this.branchLevels = new int[this.numberOfStoredRuns + 1];
+        this.previousParticleRunIndices = new int[this.numberOfStoredRuns + 1];
+        int tmpMinimumBranchLevel = 0;
+        int tmpMaximumBranchLevel = 0;
+        this.previousParticleRunIndices[0] = -1;
+        for (int i = 0; i < this.numberOfStoredRuns; i++) {
+            this.branchLevels[i + 1] = this.branchLevels[i];
+            if (this.kinds[i] == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN) {
+                this.branchLevels[i + 1]++;
+            } else if (this.kinds[i] == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE) {
+                this.branchLevels[i + 1]--;
+            }
+            tmpMinimumBranchLevel = Math.min(tmpMinimumBranchLevel, this.branchLevels[i + 1]);
+            tmpMaximumBranchLevel = Math.max(tmpMaximumBranchLevel, this.branchLevels[i + 1]);
+            this.previousParticleRunIndices[i + 1] = this.isStoredParticle(i) ? i : this.previousParticleRunIndices[i];
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Next particle runs on same branch level">
+        this.nextLevelParticleRunIndices = new int[this.numberOfStoredRuns];
+        int[] tmpNextParticleRunIndicesOfLevels = new int[tmpMaximumBranchLevel - tmpMinimumBranchLevel + 1];
+        Arrays.fill(tmpNextParticleRunIndicesOfLevels, -1);
+        for (int i = this.numberOfStoredRuns - 1; i >= 0; i--) {
+            int tmpLevel = this.branchLevels[i] - tmpMinimumBranchLevel;
+            this.nextLevelParticleRunIndices[i] = tmpNextParticleRunIndicesOfLevels[tmpLevel];
+            if (this.isStoredParticle(i)) {
+                tmpNextParticleRunIndicesOfLevels[tmpLevel] = i;
+            }
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="First particle runs of first copy of repeat groups on branch levels">
+        this.firstLevelParticleRunIndicesOfGroups = new int[this.numberOfRepeatGroups][];
+        this.minimumBranchLevelsOfGroups = new int[this.numberOfRepeatGroups];
+        for (int i = 0; i < this.numberOfRepeatGroups; i++) {
+            int tmpStoredRunStart = this.repeatGroups[i][GROUP_STORED_RUN_START];
+            int tmpStoredRunEnd = this.getStoredRunEnd(i);
+            int tmpMinimumGroupLevel = this.branchLevels[tmpStoredRunStart];
+            int tmpMaximumGroupLevel = this.branchLevels[tmpStoredRunStart];
+            for (int j = tmpStoredRunStart; j < tmpStoredRunEnd; j++) {
+                tmpMinimumGroupLevel = Math.min(tmpMinimumGroupLevel, this.branchLevels[j]);
+                tmpMaximumGroupLevel = Math.max(tmpMaximumGroupLevel, this.branchLevels[j]);
+            }
+            int[] tmpFirstParticleRunIndices = new int[tmpMaximumGroupLevel - tmpMinimumGroupLevel + 1];
+            Arrays.fill(tmpFirstParticleRunIndices, -1);
+            for (int j = tmpStoredRunEnd - 1; j >= tmpStoredRunStart; j--) {
+                if (this.isStoredParticle(j)) {
+                    tmpFirstParticleRunIndices[this.branchLevels[j] - tmpMinimumGroupLevel] = j;
+                }
+            }
+            this.firstLevelParticleRunIndicesOfGroups[i] = tmpFirstParticleRunIndices;
+            this.minimumBranchLevelsOfGroups[i] = tmpMinimumGroupLevel;
+        }
+        // </editor-fold>
+        this.storedRunIndicesOfKinds = tmpStoredRunIndicesOfKinds;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private static methods">
+    /**
+     * Position of first value greater or equal aValue in ascending values
+     *
+     * @param aValues Ascending values
+     * @param aValue Value
+     * @return Position of first value greater or equal aValue (length of
+     * aValues if there is none)
+     */
+    private static int getLowerBound(int[] aValues, int aValue) {
+        int tmpPosition = Arrays.binarySearch(aValues, aValue);
+        return tmpPosition < 0 ? -tmpPosition - 1 : tmpPosition;
+    }
+    // </editor-fold>
+
+}
@@ -19,11 +19,9 @@
  */
 package de.gnwi.spices;
 
-import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
-import java.util.Queue;
-import java.util.regex.Pattern;
 
 /**
  * Spices utility
@@ -31,28 +29,12 @@ import java.util.regex.Pattern;
  * @author Mirco Daniel
  */
 public class SpicesUtility {
-    // <editor-fold defaultstate="collapsed" desc="Private variables">
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
     /**
-     * Pattern for input structure to match
+     * Shared structure cache for structure tokens, syntax trees and adjacent
+     * arrays
      */
-    private final Pattern inputStructurePattern = Pattern.compile(SpicesConstants.INPUTSTRUCTURE_ALLOWED_CHARACTERS_REGEX_STRING);
-
-    /**
-    * Structure tokens as HashMap
-    */
-    private final HashMap<String, String> outerStructureTokensHashMap = new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
-    
-    /**
-     * Innerstructure tokens as HashMap
-     * key: input structure, value: tokens
-     */
-    private final HashMap<String, String[]> structureTokensHashMap = new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
-        
-    /**
-     * Adjacentarray as HashMap
-     */
-    private final HashMap<String, int[][]> adjacentArrayHashMap = new HashMap<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
-    
+    private final SpicesCache structureCache = SpicesCache.getSharedInstance();
     // </editor-fold>
     //
     // <editor-fold defaultstate="collapsed" desc="Public methods">
@@ -357,6 +339,27 @@ public class SpicesUtility {
     }
     // </editor-fold>
     // <editor-fold defaultstate="collapsed" desc="- Token related methods">
+    /**
+     * Determine the adjacent array (all particles connected with particle i
+     * in a row)
+     *
+     * @param aPartStructureString Part structure string
+     * @param aParticleGraph Particle graph of part structure
+     * @return New adjacent array (copy of the cached adjacent array)
+     */
+    public int[][] getAdjacentArray(String aPartStructureString, ParticleGraph aParticleGraph) {
+        int[][] tmpAdjacentArray = this.getSharedAdjacentArray(aPartStructureString, aParticleGraph);
+        if (tmpAdjacentArray == null) {
+            return null;
+        }
+        int[][] tmpResult = new int[tmpAdjacentArray.length][];
+        for (int i = 0; i < tmpAdjacentArray.length; i++) {
+            if (tmpAdjacentArray[i] != null) {
+                tmpResult[i] = tmpAdjacentArray[i].clone();
+            }
+        }
+        return tmpResult;
+    }
     /**
      * Determine the adjacent array (all particles connected with particle i
      * in a row)
@@ -365,89 +368,60 @@ public class SpicesUtility {
      * @param aConnectedParticleList Connected particle list
      * @param aInnerParticleIndicesLength Inner particle indices length
      * @return Adjacent array
+     * @deprecated The connections of a part are held in a ParticleGraph: Use
+     * getAdjacentArray(String, ParticleGraph)
      */
+    @Deprecated
     public int[][] getAdjacentArray(String aPartStructureString, LinkedList<int[]> aConnectedParticleList, int aInnerParticleIndicesLength) {
-        // <editor-fold defaultstate="collapsed" desc="Local variables">
-        int tmpEdgeLength = aConnectedParticleList.size();
-        int tmpConnectionLength;
-        int tmpFirstParticleIndex = 0;
-        int tmpLastParticleIndex;
-        Queue<Integer> tmpQueue = new ArrayDeque<>();
-        
-        // </editor-fold>
         if (aInnerParticleIndicesLength == 1 || aPartStructureString == null || aPartStructureString.isEmpty() || aConnectedParticleList.isEmpty()) {
             return null;
         }
-        int[][] tmpConnectedParticleArray = aConnectedParticleList.toArray(new int[0][]);
-        int[][] tmpResult = new int[aInnerParticleIndicesLength][];
-        if (this.adjacentArrayHashMap.containsKey(aPartStructureString)) {
-            return this.adjacentArrayHashMap.get(aPartStructureString);
-        }
-        for (int i = 0; i < tmpEdgeLength; i++) {
-            if (tmpFirstParticleIndex == tmpConnectedParticleArray[i][0]) {
-                tmpQueue.add(tmpConnectedParticleArray[i][1]);
-            } else {
-                tmpConnectionLength = tmpQueue.size();
-                tmpResult[tmpFirstParticleIndex] = new int[tmpConnectionLength];
-                tmpLastParticleIndex = 0;
-                while (!tmpQueue.isEmpty()) {
-                    tmpResult[tmpFirstParticleIndex][tmpLastParticleIndex] = tmpQueue.remove();
-                    tmpLastParticleIndex++;
-                }
-                tmpFirstParticleIndex++;
-                tmpQueue.add(tmpConnectedParticleArray[i][1]);
-            }
+        // <editor-fold defaultstate="collapsed" desc="Local variables">
+        int[] tmpOffsets = new int[aInnerParticleIndicesLength + 1];
+        int[] tmpNeighbors = new int[aConnectedParticleList.size()];
+        int[] tmpPositions;
+        // </editor-fold>
+        // NOTE: Counting sort of the connections with respect to their first
+        // particle (stable, i.e. the order of the neighbors is retained)
+        for (int[] tmpConnection : aConnectedParticleList) {
+            tmpOffsets[tmpConnection[0] + 1]++;
         }
-        if (!tmpQueue.isEmpty()) {
-            tmpConnectionLength = tmpQueue.size();
-            tmpResult[tmpFirstParticleIndex] = new int[tmpConnectionLength];
-            tmpLastParticleIndex = 0;
-            while (!tmpQueue.isEmpty()) {
-                tmpResult[tmpFirstParticleIndex][tmpLastParticleIndex] = tmpQueue.remove();
-                tmpLastParticleIndex++;
-            }
+        for (int i = 0; i < aInnerParticleIndicesLength; i++) {
+            tmpOffsets[i + 1] += tmpOffsets[i];
         }
-        this.adjacentArrayHashMap.put(aPartStructureString, tmpResult);
-        return tmpResult;
+        tmpPositions = Arrays.copyOf(tmpOffsets, aInnerParticleIndicesLength);
+        for (int[] tmpConnection : aConnectedParticleList) {
+            tmpNeighbors[tmpPositions[tmpConnection[0]]++] = tmpConnection[1];
+        }
+        return this.getAdjacentArray(aPartStructureString, ParticleGraph.wrap(tmpOffsets, tmpNeighbors));
     }
+
     /**
-     * Tokenizes molecular structure. NOTE: Molecular structure string may only
-     * consist of characters 0-9, a-z, A-Z, {}, (), [], -, #
+     * Tokenizes molecular structure with a single pass of SpicesLexer. NOTE:
+     * Molecular structure string may only consist of characters 0-9, a-z,
+     * A-Z, {}, (), [], &lt;&gt;, -, #, ' and whitespace characters.
      *
      * @param aMolecularStructureString Molecular structure string
-     * @return Tokens or null
+     * @return New tokens array (a single token "null" if molecular structure
+     * string contains illegal characters)
      */
     public String[] getStructureTokens(String aMolecularStructureString) {
-        // <editor-fold defaultstate="collapsed" desc="Local variables">
-        int tmpFrequencyOfSplitToken = 0;
-        int tmpCurrentTokenNumber = 0;
-        int tmpBeginIndexOfSubString = 0;
-        int tmpEndIndexOfSubString = -1;
-        String tmpCurrentToken = "";
-        String tmpSeparatedTokens = "";
-        String[] tmpResult = null;
-        
-        // </editor-fold>
-        if (aMolecularStructureString == null && aMolecularStructureString.isEmpty()) {
-            return new String[]{};
-        }
-        if (this.structureTokensHashMap.containsKey(aMolecularStructureString)) {
-            return this.structureTokensHashMap.get(aMolecularStructureString);
-        } else {
-            tmpSeparatedTokens = this.prepareTokenizedStructure(aMolecularStructureString) + "_";
-            tmpFrequencyOfSplitToken = this.getFrequencyOfCharacterInString(tmpSeparatedTokens, "_");
-        tmpResult = new String[tmpFrequencyOfSplitToken];
-        do {
-            tmpEndIndexOfSubString = tmpSeparatedTokens.indexOf("_", tmpEndIndexOfSubString + 1);
-            tmpCurrentToken = tmpSeparatedTokens.substring(tmpBeginIndexOfSubString, tmpEndIndexOfSubString);
-            tmpBeginIndexOfSubString = tmpEndIndexOfSubString + 1;
-            this.outerStructureTokensHashMap.putIfAbsent(tmpCurrentToken, tmpCurrentToken);
-            tmpResult[tmpCurrentTokenNumber] = this.outerStructureTokensHashMap.get(tmpCurrentToken);
-            tmpCurrentTokenNumber++;
-        } while(tmpCurrentTokenNumber < tmpFrequencyOfSplitToken); 
-        this.structureTokensHashMap.put(aMolecularStructureString, tmpResult);
-        return tmpResult;
-        }
+        return this.getSharedStructureTokens(aMolecularStructureString).clone();
+    }
+
+    /**
+     * Returns the root node of the syntax tree of a part structure (see
+     * SpicesParser). NOTE: Syntax tree nodes are immutable, i.e. the cached
+     * root node is returned without copy.
+     *
+     * @param aPartStructure Part structure
+     * @return Root node of syntax tree or null if aPartStructure is
+     * null/empty
+     * @throws IllegalArgumentException Thrown if brackets of aPartStructure
+     * are not closed
+     */
+    public SpicesNode getStructureNode(String aPartStructure) throws IllegalArgumentException {
+        return this.getSharedStructureNode(aPartStructure);
     }
 
     /**
@@ -473,25 +447,49 @@ public class SpicesUtility {
     }
            
     /**
-     * Eliminate all Whitespaces in String
+     * Eliminate all Whitespaces in a molecular structure. NOTE: If the
+     * molecular structure is a String without whitespaces it is returned
+     * without copy, otherwise the characters are copied only once.
      * 
-     * @param aMolecularStructureString Molecular structure string
+     * @param aMolecularStructure Molecular structure (e.g. String, CharBuffer
+     * or SpicesAsciiSequence)
      * @return String without whitespaces
      */
-    public String eliminateWhiteSpaces(String aMolecularStructureString) {
-        if (aMolecularStructureString == null) {
+    public String eliminateWhiteSpaces(CharSequence aMolecularStructure) {
+        if (aMolecularStructure == null) {
             return null;
         }
-        String tmpResult= aMolecularStructureString;
-        char[] tmpStructureCharArray = aMolecularStructureString.toCharArray();
+        int tmpLength = aMolecularStructure.length();
+        int tmpNumberOfWhiteSpaces = 0;
+        for (int i = 0; i < tmpLength; i++) {
+            if (Character.isWhitespace(aMolecularStructure.charAt(i))) {
+                tmpNumberOfWhiteSpaces++;
+            }
+        }
+        if (tmpNumberOfWhiteSpaces == 0 && aMolecularStructure instanceof String) {
+            return (String) aMolecularStructure;
+        }
+        char[] tmpStructureCharArray = new char[tmpLength - tmpNumberOfWhiteSpaces];
         int tmpPosition = 0;
-        for (int i = 0; i < tmpStructureCharArray.length; i++) {
-            if (!Character.isWhitespace(tmpStructureCharArray[i])) {
-                tmpStructureCharArray[tmpPosition++] = tmpStructureCharArray[i];
+        for (int i = 0; i < tmpLength; i++) {
+            char tmpCharacter = aMolecularStructure.charAt(i);
+            if (!Character.isWhitespace(tmpCharacter)) {
+                tmpStructureCharArray[tmpPosition++] = tmpCharacter;
             }
         }
-        tmpResult = new String(tmpStructureCharArray, 0, tmpPosition);    
-        return tmpResult;
+        return new String(tmpStructureCharArray);
+    }
+
+    /**
+     * Eliminate all Whitespaces in String. NOTE: If the molecular structure
+     * string contains no whitespaces it is returned without copy (see
+     * eliminateWhiteSpaces(CharSequence)).
+     *
+     * @param aMolecularStructureString Molecular structure string
+     * @return String without whitespaces
+     */
+    public String eliminateWhiteSpaces(String aMolecularStructureString) {
+        return this.eliminateWhiteSpaces((CharSequence) aMolecularStructureString);
     }
     // </editor-fold>
     // <editor-fold defaultstate="collapsed" desc="- Miscellaneous methods">
@@ -518,181 +516,107 @@ public class SpicesUtility {
     // </editor-fold>
     // </editor-fold>
     //
-    // <editor-fold defaultstate="collapsed" desc="Private methods">
+    // <editor-fold defaultstate="collapsed" desc="Package-private methods">
     /**
-     * Prepares tokenized molecular structure. NOTE: Molecular structure may
-     * only consist of characters 0-9, a-z, A-Z, {}, (), [], -, #
+     * Determine the adjacent array (all particles connected with particle i
+     * in a row)
      *
-     * @param aMolecularStructureString Molecular structure string
-     * @return Prepared tokenized structure or null
+     * @param aPartStructureString Part structure string
+     * @param aParticleGraph Particle graph of part structure
+     * @return Adjacent array (shared by all callers, see SpicesCache: NOT
+     * allowed to be changed)
      */
-    private String prepareTokenizedStructure(String aMolecularStructureString) {
-        // <editor-fold defaultstate="collapsed" desc="Checks">
-        if (aMolecularStructureString == null || aMolecularStructureString.length() == 0) {
+    int[][] getSharedAdjacentArray(String aPartStructureString, ParticleGraph aParticleGraph) {
+        // <editor-fold defaultstate="collapsed" desc="Local variables">
+        int[] tmpOffsets = aParticleGraph.getOffsets();
+        int[] tmpNeighborIndices = aParticleGraph.getNeighbors();
+        int tmpNumberOfParticles = aParticleGraph.getNumberOfParticles();
+        int tmpFirstParticleIndex = 0;
+        int[] tmpNeighbors = new int[tmpNeighborIndices.length];
+        int tmpNumberOfNeighbors = 0;
+        // </editor-fold>
+        if (tmpNumberOfParticles == 1 || aPartStructureString == null || aPartStructureString.isEmpty() || tmpNeighborIndices.length == 0) {
             return null;
         }
-        if (!this.inputStructurePattern.matcher(aMolecularStructureString).matches()) {
-            return null;
+        int[][] tmpResult = this.structureCache.getAdjacentArray(aPartStructureString);
+        if (tmpResult != null) {
+            return tmpResult;
         }
+        tmpResult = new int[tmpNumberOfParticles][];
+        // NOTE: The neighbors are grouped in the order of the particles: A
+        // group is closed whenever the particle changes
+        for (int i = 0; i < tmpNumberOfParticles; i++) {
+            for (int j = tmpOffsets[i]; j < tmpOffsets[i + 1]; j++) {
+                if (tmpFirstParticleIndex != i) {
+                    tmpResult[tmpFirstParticleIndex] = Arrays.copyOf(tmpNeighbors, tmpNumberOfNeighbors);
+                    tmpFirstParticleIndex++;
+                    tmpNumberOfNeighbors = 0;
+                }
+                tmpNeighbors[tmpNumberOfNeighbors++] = tmpNeighborIndices[j];
+            }
+        }
+        if (tmpNumberOfNeighbors > 0) {
+            tmpResult[tmpFirstParticleIndex] = Arrays.copyOf(tmpNeighbors, tmpNumberOfNeighbors);
+        }
+        this.structureCache.putAdjacentArray(aPartStructureString, tmpResult);
+        return tmpResult;
+    }
 
-        // </editor-fold>
+    /**
+     * Tokenizes molecular structure with a single pass of SpicesLexer. NOTE:
+     * Molecular structure string may only consist of characters 0-9, a-z,
+     * A-Z, {}, (), [], &lt;&gt;, -, #, ' and whitespace characters.
+     *
+     * @param aMolecularStructureString Molecular structure string
+     * @return Tokens (a single token "null" if molecular structure string
+     * contains illegal characters, shared by all callers, see SpicesCache:
+     * NOT allowed to be changed)
+     */
+    String[] getSharedStructureTokens(String aMolecularStructureString) {
         // <editor-fold defaultstate="collapsed" desc="Local variables">
-        String tmpSeparatedTokens = "";
-        int tmpPosition = 0;
-        int tmpEstimatedLength = 3 * aMolecularStructureString.length();
-        boolean tmpIsParticleCharacter = false;
-        boolean tmpIsBetweenSquareBrackets = false;
-        boolean tmpIsAfterFrequency = false;
-        boolean tmpIsMonomerCharacter = false;
-        boolean tmpIsBackboneCharacter = false;
-        char[] tmpTokensCharArray = aMolecularStructureString.toCharArray();
-        char[] tmpResultArray = new char[tmpEstimatedLength];
+        String[] tmpResult;
+        SpicesLexer tmpLexer;
         // </editor-fold>
-        // Remove all spaces
-        // Set frequency 1 to all particles without a frequency attribute
-        for (int i = 0; i < tmpTokensCharArray.length; i++) {
-            if (tmpTokensCharArray[i] == '[') {
-                tmpIsParticleCharacter = false;
-                tmpIsBetweenSquareBrackets = true;
-                tmpResultArray[tmpPosition++] = tmpTokensCharArray[i];
-            } else if (tmpTokensCharArray[i] == ']') {
-                tmpIsBetweenSquareBrackets = false;
-                tmpResultArray[tmpPosition++] = tmpTokensCharArray[i];
-            } else if (tmpTokensCharArray[i] == '#') {
-                tmpIsMonomerCharacter = true;
-                tmpResultArray[tmpPosition++] = tmpTokensCharArray[i];
-            } else if (tmpTokensCharArray[i] == '\'') {
-                if (tmpIsBackboneCharacter) {
-                    tmpIsBackboneCharacter = false;
-                    tmpResultArray[tmpPosition++] = tmpTokensCharArray[i];
-                    tmpResultArray[tmpPosition++] = '_';
-                } else {
-                    tmpIsBackboneCharacter = true;
-                    tmpResultArray[tmpPosition++] = '_';
-                    tmpResultArray[tmpPosition++] = tmpTokensCharArray[i];
-                }
-            } else if (tmpIsBetweenSquareBrackets || tmpIsBackboneCharacter) {
-                tmpResultArray[tmpPosition++] = tmpTokensCharArray[i];
-            } else if (!tmpIsParticleCharacter && Character.isDigit(tmpTokensCharArray[i])) {
-                tmpIsAfterFrequency = true;
-                tmpResultArray[tmpPosition++] = tmpTokensCharArray[i];
-            } else if (!tmpIsMonomerCharacter && !tmpIsParticleCharacter && Character.isUpperCase(tmpTokensCharArray[i])) {
-                if (!tmpIsAfterFrequency) {
-                    tmpResultArray[tmpPosition++] = '1';
-                }
-                tmpResultArray[tmpPosition++] = '_';
-                tmpResultArray[tmpPosition++] = tmpTokensCharArray[i];
-                tmpIsParticleCharacter = true;
-                tmpIsAfterFrequency = false;
-                tmpIsMonomerCharacter = false;
-            } else if ((tmpIsParticleCharacter || tmpIsMonomerCharacter) && Character.isLetterOrDigit(tmpTokensCharArray[i])) {
-                tmpIsAfterFrequency = false;
-                tmpResultArray[tmpPosition++] = tmpTokensCharArray[i];
-            } else {
-                tmpIsParticleCharacter = false;
-                tmpIsAfterFrequency = false;
-                tmpIsMonomerCharacter = false;
-                tmpResultArray[tmpPosition++] = tmpTokensCharArray[i];
-            }
+        if (aMolecularStructureString == null || aMolecularStructureString.isEmpty()) {
+            return new String[]{};
         }
-        tmpSeparatedTokens = new String(tmpResultArray, 0, tmpPosition);
-        tmpTokensCharArray = tmpSeparatedTokens.toCharArray();
-        tmpPosition = 0;
-        int tmpNumberOfNewCharacters = tmpTokensCharArray.length;
-        tmpNumberOfNewCharacters += 2 * this.getFrequencyOfCharacterInString(tmpSeparatedTokens, "{");
-        tmpNumberOfNewCharacters += 2 * this.getFrequencyOfCharacterInString(tmpSeparatedTokens, "}");
-        tmpNumberOfNewCharacters += 2 * this.getFrequencyOfCharacterInString(tmpSeparatedTokens, "(");
-        tmpNumberOfNewCharacters += 2 * this.getFrequencyOfCharacterInString(tmpSeparatedTokens, ")");
-        tmpNumberOfNewCharacters += this.getFrequencyOfCharacterInString(tmpSeparatedTokens, "[");
-        tmpNumberOfNewCharacters += this.getFrequencyOfCharacterInString(tmpSeparatedTokens, "]");
-        tmpNumberOfNewCharacters += 2 * this.getFrequencyOfCharacterInString(tmpSeparatedTokens, "<");
-        tmpNumberOfNewCharacters += 2 * this.getFrequencyOfCharacterInString(tmpSeparatedTokens, ">");
-        tmpNumberOfNewCharacters += 2 * this.getFrequencyOfCharacterInString(tmpSeparatedTokens, "-");
-        tmpNumberOfNewCharacters += this.getFrequencyOfCharacterInString(tmpSeparatedTokens, "#");
-        char[] tmpTokensResult = new char[tmpNumberOfNewCharacters];
-        for (int i = 0; i < tmpTokensCharArray.length; i++) {
-            switch (tmpTokensCharArray[i]) {
-                case '{':
-                    tmpTokensResult[tmpPosition++] = '_';
-                    tmpTokensResult[tmpPosition++] = '{';
-                    tmpTokensResult[tmpPosition++] = '_';
-                    break;
-                case '}':
-                    tmpTokensResult[tmpPosition++] = '_';
-                    tmpTokensResult[tmpPosition++] = '}';
-                    tmpTokensResult[tmpPosition++] = '_';
-                    break;
-                case '(':
-                    tmpTokensResult[tmpPosition++] = '_';
-                    tmpTokensResult[tmpPosition++] = '(';
-                    tmpTokensResult[tmpPosition++] = '_';
-                    break;
-                case ')':
-                    tmpTokensResult[tmpPosition++] = '_';
-                    tmpTokensResult[tmpPosition++] = ')';
-                    tmpTokensResult[tmpPosition++] = '_';
-                    break;
-                case '[':
-                    tmpTokensResult[tmpPosition++] = '_';
-                    tmpTokensResult[tmpPosition++] = '[';
-                    break;
-                case ']':
-                    tmpTokensResult[tmpPosition++] = ']';
-                    tmpTokensResult[tmpPosition++] = '_';
-                    break;
-                case '<':
-                    tmpTokensResult[tmpPosition++] = '_';
-                    tmpTokensResult[tmpPosition++] = '<';
-                    tmpTokensResult[tmpPosition++] = '_';
-                    break;
-                case '>':
-                    tmpTokensResult[tmpPosition++] = '_';
-                    tmpTokensResult[tmpPosition++] = '>';
-                    tmpTokensResult[tmpPosition++] = '_';
-                    break;
-                case '-':
-                    tmpTokensResult[tmpPosition++] = '_';
-                    tmpTokensResult[tmpPosition++] = '-';
-                    tmpTokensResult[tmpPosition++] = '_';
-                    break;
-                case '#':
-                    tmpTokensResult[tmpPosition++] = '_';
-                    tmpTokensResult[tmpPosition++] = '#';
-                    break;
-                default:
-                    tmpTokensResult[tmpPosition++] = tmpTokensCharArray[i];
-                    break;
-            }
+        tmpResult = this.structureCache.getStructureTokens(aMolecularStructureString);
+        if (tmpResult != null) {
+            return tmpResult;
         }
-        // Remove multiple separators
-        tmpPosition = 0;
-        boolean tmpHasUnderScore = false;
-        int tmpFirstIndexOfCharArray = 0;
-        int tmpLengthOfCharArray = 0;
-        for (int i = 0; i < tmpTokensResult.length; i++) {
-            if (tmpTokensResult[i] == '_') {
-                if (!tmpHasUnderScore) {
-                    tmpHasUnderScore = true;
-                    tmpTokensResult[tmpPosition++] = tmpTokensResult[i];
-                }
-            } else {
-                if (tmpHasUnderScore) {
-                    tmpHasUnderScore = false;
-                }
-                tmpTokensResult[tmpPosition++] = tmpTokensResult[i];
-            }
+        tmpLexer = new SpicesLexer(aMolecularStructureString);
+        if (!tmpLexer.isValid()) {
+            // Illegal characters: Single token "null" (evaluated as invalid by structure checks)
+            tmpResult = new String[]{"null"};
+        } else {
+            tmpResult = tmpLexer.getTokens();
         }
-        tmpLengthOfCharArray = tmpPosition;
-        if (tmpTokensResult[0] == '_') {
-            tmpFirstIndexOfCharArray = 1;
-            tmpLengthOfCharArray--;
+        this.structureCache.putStructureTokens(aMolecularStructureString, tmpResult);
+        return tmpResult;
+    }
+
+    /**
+     * Returns the (shared) root node of the syntax tree of a part structure
+     * (see SpicesParser). NOTE: The syntax tree is parsed once per part
+     * structure and cached.
+     *
+     * @param aPartStructure Part structure
+     * @return Root node of syntax tree or null if aPartStructure is
+     * null/empty
+     * @throws IllegalArgumentException Thrown if brackets of aPartStructure
+     * are not closed
+     */
+    SpicesNode getSharedStructureNode(String aPartStructure) throws IllegalArgumentException {
+        if (aPartStructure == null || aPartStructure.isEmpty()) {
+            return null;
         }
-        if (tmpTokensResult[tmpFirstIndexOfCharArray + tmpLengthOfCharArray - 1] == '_') {
-            tmpLengthOfCharArray--;
+        SpicesNode tmpResult = this.structureCache.getStructureNode(aPartStructure);
+        if (tmpResult != null) {
+            return tmpResult;
         }
-        tmpSeparatedTokens = new String(tmpTokensResult, tmpFirstIndexOfCharArray, tmpLengthOfCharArray);
-        // Return tokens
-        return tmpSeparatedTokens;
+        tmpResult = SpicesParser.parse(this.getSharedStructureTokens(aPartStructure));
+        this.structureCache.putStructureNode(aPartStructure, tmpResult);
+        return tmpResult;
     }
     // </editor-fold>
 
@@ -0,0 +1,117 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+/**
+ * Immutable result of Spices.validate()
+ *
+ * @author agent
+ */
+public final class SpicesValidationResult {
+
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Error key (see MessageSpices) or null if structure is valid
+     */
+    private final String errorKey;
+
+    /**
+     * Position of error in input structure or -1 if structure is valid
+     */
+    private final int errorPosition;
+
+    /**
+     * Total number of particles or 0 if structure is not valid
+     */
+    private final long numberOfParticles;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructor">
+    /**
+     * Constructor
+     *
+     * @param anErrorKey Error key (see MessageSpices) or null if structure
+     * is valid
+     * @param anErrorPosition Position of error in input structure or -1 if
+     * structure is valid
+     * @param aNumberOfParticles Total number of particles or 0 if structure
+     * is not valid
+     */
+    SpicesValidationResult(String anErrorKey, int anErrorPosition, long aNumberOfParticles) {
+        this.errorKey = anErrorKey;
+        this.errorPosition = anErrorPosition;
+        this.numberOfParticles = aNumberOfParticles;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * True: Structure is valid, false: Otherwise
+     *
+     * @return True: Structure is valid, false: Otherwise
+     */
+    public boolean isValid() {
+        return this.errorKey == null;
+    }
+
+    /**
+     * Error key (see MessageSpices)
+     *
+     * @return Error key or null if structure is valid
+     */
+    public String getErrorKey() {
+        return this.errorKey;
+    }
+
+    /**
+     * Error message (as returned by Spices.getErrorMessage())
+     *
+     * @return Error message or null if structure is valid
+     */
+    public String getErrorMessage() {
+        if (this.errorKey == null) {
+            return null;
+        }
+        return MessageSpices.getString(this.errorKey);
+    }
+
+    /**
+     * (0-based) Position of error in input structure (including whitespace
+     * characters)
+     *
+     * @return Position of error in input structure or -1 if structure is
+     * valid
+     */
+    public int getErrorPosition() {
+        return this.errorPosition;
+    }
+
+    /**
+     * Total number of particles (as returned by
+     * Spices.getTotalNumberOfParticles())
+     *
+     * @return Total number of particles or 0 if structure is not valid
+     */
+    public long getNumberOfParticles() {
+        return this.numberOfParticles;
+    }
+    // </editor-fold>
+
+}
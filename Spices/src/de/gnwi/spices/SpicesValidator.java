@@ -0,0 +1,1656 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Deterministic validator for Spices structures. Every (sub) structure is
+ * checked with a single linear scan of its characters and a single linear
+ * scan of its tokens (see SpicesLexer): No regular expressions, no repeated
+ * character counting and no substrings between brackets are used. The
+ * error keys (see MessageSpices) and the precedence of the checks are
+ * identical to the former checks of Spices and SpicesInner (except for a
+ * monomer shortcut directly after a particle which is rejected). In addition
+ * the (0-based) position of the error in the checked structure is
+ * determined.
+ * NOTE: A SpicesValidator instance is NOT thread-safe.
+ *
+ * @author agent
+ */
+public final class SpicesValidator {
+
+    // <editor-fold defaultstate="collapsed" desc="Private class variables">
+    /**
+     * Error key (see MessageSpices) or null if no error occurred
+     */
+    private String errorKey;
+
+    /**
+     * Position of error in checked structure or -1
+     */
+    private int errorPosition;
+
+    /**
+     * Part structure that is checked
+     */
+    private String partStructure;
+
+    /**
+     * Lexer of part structure (created on demand)
+     */
+    private SpicesLexer partLexer;
+
+    /**
+     * True: Monomer frequencies are expanded by particle counter, false:
+     * Otherwise
+     */
+    private boolean isMonomerExpansion;
+
+    /**
+     * True: Particle counter is inside of a monomer with frequency, false:
+     * Otherwise
+     */
+    private boolean isInsideMonomer;
+
+    /**
+     * Number of the last counted token if it is a number token, otherwise
+     * -1
+     */
+    private long pendingNumber;
+
+    /**
+     * Frequency of the current monomer
+     */
+    private long monomerFrequency;
+
+    /**
+     * Number of particles of all monomers with frequency so far. NOTE:
+     * SpicesInner does not clear the tokens of preceding monomers when a
+     * monomer is repeated, this is reproduced.
+     */
+    private long numberOfMonomerParticles;
+
+    /**
+     * Number of counted particles
+     */
+    private long numberOfCountedParticles;
+
+    /**
+     * Open addressing hash table of the ring closure numbers of the checked
+     * sub structure: Slot contains ring closure index + 1 (0: Empty slot).
+     * NOTE: The length is a power of 2 and at least twice the capacity of
+     * the ring closure arrays (created on demand).
+     */
+    private int[] ringClosureTable;
+
+    /**
+     * Begin index (inclusive) of the digits of ring closure i in the checked
+     * sub structure
+     */
+    private int[] ringClosureBeginIndices;
+
+    /**
+     * End index (exclusive) of the digits of ring closure i in the checked
+     * sub structure
+     */
+    private int[] ringClosureEndIndices;
+
+    /**
+     * Frequency of ring closure i
+     */
+    private int[] ringClosureFrequencies;
+
+    /**
+     * Position of the opening angular bracket of the first occurrence of
+     * ring closure i
+     */
+    private int[] ringClosurePositions;
+
+    /**
+     * Outermost normal bracket region of the first occurrence of ring
+     * closure i (-1: Outside of outermost normal brackets)
+     */
+    private int[] ringClosureRegions;
+
+    /**
+     * Number of ring closures (i.e. of different ring closure numbers)
+     */
+    private int numberOfRingClosures;
+
+    /**
+     * Pairs of outermost normal bracket regions that are connected by a
+     * common connection marker: Region 2*i is connected with region 2*i+1
+     * (created on demand)
+     */
+    private int[] regionConnections;
+
+    /**
+     * Number of values in regionConnections
+     */
+    private int numberOfRegionConnectionValues;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructor">
+    /**
+     * Constructor
+     */
+    public SpicesValidator() {
+        this.reset();
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Error key (see MessageSpices) of last check
+     *
+     * @return Error key of last check or null if last check was successful
+     */
+    public String getErrorKey() {
+        return this.errorKey;
+    }
+
+    /**
+     * Error message of last check
+     *
+     * @return Error message of last check or null if last check was
+     * successful
+     */
+    public String getErrorMessage() {
+        if (this.errorKey == null) {
+            return null;
+        }
+        return MessageSpices.getString(this.errorKey);
+    }
+
+    /**
+     * (0-based) Position of the error of the last check in the checked
+     * structure
+     *
+     * @return Position of the error of the last check or -1 if last check
+     * was successful
+     */
+    public int getErrorPosition() {
+        return this.errorPosition;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Checks whether a whitespace character separates two letters or digits
+     * in a (raw) structure
+     *
+     * @param aStructure Structure (may contain whitespace characters)
+     * @return True: Check was successful, false: Otherwise (see getErrorKey()
+     * and getErrorPosition())
+     */
+    public boolean checkWhiteSpaces(CharSequence aStructure) {
+        this.reset();
+        if (aStructure == null || aStructure.length() < 3) {
+            return true;
+        }
+        int tmpLength = aStructure.length();
+        for (int i = 1; i < tmpLength - 1; i++) {
+            if (Character.isWhitespace(aStructure.charAt(i))
+                    && Character.isLetterOrDigit(aStructure.charAt(i - 1))
+                    && Character.isLetterOrDigit(aStructure.charAt(i + 1))) {
+                return this.setError("StructureCheck.InvalidWhiteSpace", i);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the outer parts (angle brackets with preceding frequencies) of
+     * a structure without whitespace characters
+     *
+     * @param aStructure Structure without whitespace characters
+     * @return True: Check was successful, false: Otherwise (see getErrorKey()
+     * and getErrorPosition())
+     */
+    public boolean checkOuterStructure(String aStructure) {
+        this.reset();
+        if (aStructure == null || aStructure.isEmpty()) {
+            return this.setError("StructureCheck.NoTokens", 0);
+        }
+        // <editor-fold defaultstate="collapsed" desc="Single scan">
+        int tmpLength = aStructure.length();
+        boolean tmpHasAngleBracket = false;
+        boolean tmpIsInsideAngleBrackets = false;
+        int tmpLastOpeningPosition = -1;
+        int tmpLastClosingPosition = -1;
+        String tmpDelimiterErrorKey = null;
+        int tmpDelimiterErrorPosition = -1;
+        int tmpEmptyAngleBracketsPosition = -1;
+        int tmpNonDigitPosition = -1;
+        int tmpPriorAngleBracketErrorPosition = -1;
+        for (int i = 0; i < tmpLength; i++) {
+            char tmpCharacter = aStructure.charAt(i);
+            if (tmpCharacter == '<') {
+                tmpHasAngleBracket = true;
+                if (tmpIsInsideAngleBrackets) {
+                    if (tmpDelimiterErrorKey == null) {
+                        tmpDelimiterErrorKey = "StructureCheck.MissingClosingAngleBracket";
+                        tmpDelimiterErrorPosition = i;
+                    }
+                } else {
+                    tmpIsInsideAngleBrackets = true;
+                    tmpLastOpeningPosition = i;
+                    if (tmpNonDigitPosition > -1 && tmpPriorAngleBracketErrorPosition == -1) {
+                        tmpPriorAngleBracketErrorPosition = tmpNonDigitPosition;
+                    }
+                    tmpNonDigitPosition = -1;
+                }
+            } else if (tmpCharacter == '>') {
+                tmpHasAngleBracket = true;
+                if (tmpIsInsideAngleBrackets) {
+                    tmpIsInsideAngleBrackets = false;
+                    if (tmpEmptyAngleBracketsPosition == -1 && aStructure.charAt(i - 1) == '<') {
+                        tmpEmptyAngleBracketsPosition = i - 1;
+                    }
+                } else if (tmpDelimiterErrorKey == null) {
+                    tmpDelimiterErrorKey = "StructureCheck.MissingOpeningAngleBracket";
+                    tmpDelimiterErrorPosition = i;
+                }
+                tmpLastClosingPosition = i;
+            } else if (!tmpIsInsideAngleBrackets && tmpNonDigitPosition == -1 && !Character.isDigit(tmpCharacter)) {
+                tmpNonDigitPosition = i;
+            }
+        }
+        // </editor-fold>
+        if (!tmpHasAngleBracket) {
+            return true;
+        }
+        if (tmpDelimiterErrorKey != null) {
+            return this.setError(tmpDelimiterErrorKey, tmpDelimiterErrorPosition);
+        }
+        if (tmpIsInsideAngleBrackets) {
+            return this.setError("StructureCheck.MissingClosingAngleBracket", tmpLastOpeningPosition);
+        }
+        if (tmpEmptyAngleBracketsPosition > -1) {
+            return this.setError("StructureCheck.EmptyAngleBrackets", tmpEmptyAngleBracketsPosition);
+        }
+        if (tmpPriorAngleBracketErrorPosition > -1) {
+            return this.setError("StructureCheck.InvalidCharacterPriorAngularBracket", tmpPriorAngleBracketErrorPosition);
+        }
+        if (tmpLastClosingPosition + 1 < tmpLength) {
+            return this.setError("StructureCheck.InvalidParticleAfterAngleClosingBracket", tmpLastClosingPosition + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Checks a part structure (the structure between angle brackets or the
+     * complete structure without angle brackets)
+     *
+     * @param aPartStructure Part structure
+     * @param anIsMonomer True: Part structure is a monomer, false: Otherwise
+     * @param anAvailableParticles Available particles (all particles are
+     * available if empty)
+     * @return True: Check was successful, false: Otherwise (see getErrorKey()
+     * and getErrorPosition())
+     */
+    public boolean checkPartStructure(String aPartStructure, boolean anIsMonomer, HashMap<String, String> anAvailableParticles) {
+        this.reset();
+        // <editor-fold defaultstate="collapsed" desc="Checks monomer">
+        if (anIsMonomer) {
+            if (!(aPartStructure.startsWith("{") && aPartStructure.endsWith("}"))) {
+                return this.setError("StructureCheck.NoMonomer", 0);
+            }
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Simple checks">
+        if (aPartStructure == null || aPartStructure.isEmpty()) {
+            return this.setError("StructureCheck.NoTokens", 0);
+        }
+        this.partStructure = aPartStructure;
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Single scan: Characters and curly brackets">
+        int tmpLength = aPartStructure.length();
+        boolean tmpHasCurlyBracket = false;
+        boolean tmpIsInsideCurlyBrackets = false;
+        int tmpLastOpeningPosition = -1;
+        String tmpDelimiterErrorKey = null;
+        int tmpDelimiterErrorPosition = -1;
+        int tmpEmptyCurlyBracketsPosition = -1;
+        for (int i = 0; i < tmpLength; i++) {
+            char tmpCharacter = aPartStructure.charAt(i);
+            if (!SpicesLexer.isAllowedCharacter(tmpCharacter)) {
+                return this.setError("StructureCheck.InvalidCharacter", i);
+            }
+            if (tmpCharacter == '{') {
+                tmpHasCurlyBracket = true;
+                if (tmpIsInsideCurlyBrackets) {
+                    if (tmpDelimiterErrorKey == null) {
+                        tmpDelimiterErrorKey = "StructureCheck.MissingClosingCurlyBracket";
+                        tmpDelimiterErrorPosition = i;
+                    }
+                } else {
+                    tmpIsInsideCurlyBrackets = true;
+                    tmpLastOpeningPosition = i;
+                }
+            } else if (tmpCharacter == '}') {
+                tmpHasCurlyBracket = true;
+                if (tmpIsInsideCurlyBrackets) {
+                    tmpIsInsideCurlyBrackets = false;
+                    if (tmpEmptyCurlyBracketsPosition == -1 && aPartStructure.charAt(i - 1) == '{') {
+                        tmpEmptyCurlyBracketsPosition = i - 1;
+                    }
+                } else if (tmpDelimiterErrorKey == null) {
+                    tmpDelimiterErrorKey = "StructureCheck.MissingOpeningCurlyBracket";
+                    tmpDelimiterErrorPosition = i;
+                }
+            }
+        }
+        if (tmpHasCurlyBracket) {
+            if (tmpDelimiterErrorKey != null) {
+                return this.setError(tmpDelimiterErrorKey, tmpDelimiterErrorPosition);
+            }
+            if (tmpIsInsideCurlyBrackets) {
+                return this.setError("StructureCheck.MissingClosingCurlyBracket", tmpLastOpeningPosition);
+            }
+            if (tmpEmptyCurlyBracketsPosition > -1) {
+                return this.setError("StructureCheck.EmptyCurlyBrackets", tmpEmptyCurlyBracketsPosition);
+            }
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Check monomers and body">
+        if (!tmpHasCurlyBracket) {
+            if (SpicesLexer.getTokenKind(aPartStructure) == SpicesConstants.TOKEN_KIND_PARTICLE
+                    && this.isAvailableParticle(aPartStructure, anAvailableParticles)) {
+                return true;
+            }
+            return this.checkSubStructure(aPartStructure, false, anAvailableParticles, 0, null);
+        }
+        // The body is the part structure where the monomers are replaced by
+        // "{}". NOTE: The body is composed exactly as before so that the
+        // same errors are found.
+        StringBuilder tmpBody = new StringBuilder(tmpLength + 2);
+        int[] tmpBodyPositions = new int[tmpLength + 2];
+        int tmpIndexOfLeftLimit = 0;
+        int tmpIndexOfRightLimit = 0;
+        boolean tmpHasReached = false;
+        while (!tmpHasReached) {
+            tmpIndexOfLeftLimit = aPartStructure.indexOf('{', tmpIndexOfLeftLimit);
+            if (tmpIndexOfLeftLimit == -1) {
+                tmpHasReached = true;
+                tmpBodyPositions = this.appendToBody(tmpBody, tmpBodyPositions, aPartStructure, tmpIndexOfRightLimit - 1, tmpLength, -1);
+            } else if (tmpIndexOfLeftLimit == 0) {
+                tmpBody.setLength(0);
+                tmpBodyPositions = this.appendToBody(tmpBody, tmpBodyPositions, "{}", 0, 2, 0);
+            } else {
+                tmpBodyPositions = this.appendToBody(tmpBody, tmpBodyPositions, aPartStructure, tmpIndexOfRightLimit, tmpIndexOfLeftLimit + 1, -1);
+                tmpBodyPositions = this.appendToBody(tmpBody, tmpBodyPositions, "}", 0, 1, tmpIndexOfLeftLimit);
+            }
+            if (!tmpHasReached) {
+                tmpIndexOfRightLimit = aPartStructure.indexOf('}', tmpIndexOfLeftLimit);
+                if (!this.checkSubStructure(CharBuffer.wrap(aPartStructure, tmpIndexOfLeftLimit + 1, tmpIndexOfRightLimit), true, anAvailableParticles,
+                        tmpIndexOfLeftLimit + 1, null)) {
+                    return false;
+                }
+                tmpIndexOfLeftLimit = tmpIndexOfRightLimit + 1;
+                tmpIndexOfRightLimit = tmpIndexOfLeftLimit;
+                if (tmpIndexOfRightLimit >= tmpLength - 1) {
+                    tmpHasReached = true;
+                }
+            }
+        }
+        return this.checkSubStructure(tmpBody.toString(), false, anAvailableParticles, 0, tmpBodyPositions);
+        // </editor-fold>
+    }
+
+    /**
+     * Returns the number of particles of the part structure of the last
+     * successful checkPartStructure() call without compiling the part
+     * structure: The expansion of particle frequencies and of monomer
+     * frequencies by SpicesInner is counted in a single scan of the part
+     * tokens (i.e. the number equals the length of
+     * SpicesInner.getInnerParticles()).
+     *
+     * @return Number of particles of part structure or -1 if last check was
+     * not a successful checkPartStructure() call
+     */
+    public long getNumberOfParticles() {
+        if (this.errorKey != null || this.partStructure == null) {
+            return -1L;
+        }
+        SpicesLexer tmpLexer = this.getPartLexer();
+        int tmpNumberOfTokens = tmpLexer.getNumberOfTokens();
+        if (tmpNumberOfTokens == 1) {
+            return SpicesValidator.isParticleOrMonomer(tmpLexer.getTokenKind(0)) ? 1L : 0L;
+        }
+        this.resetParticleCounter(this.partStructure.indexOf('{') > -1);
+        // <editor-fold defaultstate="collapsed" desc="Numbers prior particle (see SpicesInner.getSpicesCompilerTokenList())">
+        if (tmpLexer.getTokenKind(0) == SpicesConstants.TOKEN_KIND_MONOMER) {
+            this.countToken(SpicesConstants.TOKEN_KIND_MONOMER, 0);
+        }
+        for (int i = 1; i < tmpNumberOfTokens; i++) {
+            byte tmpPreviousTokenKind = tmpLexer.getTokenKind(i - 1);
+            byte tmpTokenKind = tmpLexer.getTokenKind(i);
+            if (tmpPreviousTokenKind == SpicesConstants.TOKEN_KIND_NUMBER) {
+                if (tmpTokenKind == SpicesConstants.TOKEN_KIND_PARTICLE) {
+                    // Particle series, e.g. 3A = A-A-A
+                    this.countParticles(this.getNumber(tmpLexer, i - 1, 0));
+                } else {
+                    this.countToken(tmpPreviousTokenKind, this.getNumber(tmpLexer, i - 1, 0));
+                    this.countToken(tmpTokenKind, 0);
+                }
+            } else if (tmpTokenKind == SpicesConstants.TOKEN_KIND_NUMBER) {
+                if (i == 1) {
+                    this.countToken(tmpLexer.getTokenKind(0), 0);
+                }
+            } else {
+                this.countToken(tmpTokenKind, 0);
+            }
+        }
+        // </editor-fold>
+        return this.numberOfCountedParticles;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private methods">
+    /**
+     * Resets error
+     */
+    private void reset() {
+        this.errorKey = null;
+        this.errorPosition = -1;
+        this.partStructure = null;
+        this.partLexer = null;
+    }
+
+    /**
+     * Sets error
+     *
+     * @param anErrorKey Error key
+     * @param aPosition Position of error
+     * @return False
+     */
+    private boolean setError(String anErrorKey, int aPosition) {
+        this.errorKey = anErrorKey;
+        this.errorPosition = aPosition;
+        return false;
+    }
+
+    /**
+     * Lexer of part structure (created on demand)
+     *
+     * @return Lexer of part structure
+     */
+    private SpicesLexer getPartLexer() {
+        if (this.partLexer == null) {
+            this.partLexer = new SpicesLexer(this.partStructure);
+        }
+        return this.partLexer;
+    }
+
+    /**
+     * Resets particle counter
+     *
+     * @param anIsMonomerExpansion True: Monomer frequencies are expanded,
+     * false: Otherwise
+     */
+    private void resetParticleCounter(boolean anIsMonomerExpansion) {
+        this.isMonomerExpansion = anIsMonomerExpansion;
+        this.isInsideMonomer = false;
+        this.pendingNumber = -1L;
+        this.monomerFrequency = 0L;
+        this.numberOfMonomerParticles = 0L;
+        this.numberOfCountedParticles = 0L;
+    }
+
+    /**
+     * Counts a token of the expanded token list of SpicesInner (see
+     * SpicesInner.getSpicesCompilerTokenList(), "Numbers prior curly
+     * bracket")
+     *
+     * @param aTokenKind Token kind
+     * @param aNumber Number (for number token only)
+     */
+    private void countToken(byte aTokenKind, long aNumber) {
+        boolean tmpIsParticle = SpicesValidator.isParticleOrMonomer(aTokenKind);
+        if (!this.isMonomerExpansion) {
+            if (tmpIsParticle) {
+                this.numberOfCountedParticles++;
+            }
+            return;
+        }
+        if (this.isInsideMonomer) {
+            if (aTokenKind == SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE) {
+                this.numberOfCountedParticles += this.monomerFrequency * this.numberOfMonomerParticles;
+                this.isInsideMonomer = false;
+            } else if (tmpIsParticle) {
+                this.numberOfMonomerParticles++;
+            }
+            this.pendingNumber = -1L;
+            return;
+        }
+        if (aTokenKind == SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN && this.pendingNumber > -1L) {
+            this.isInsideMonomer = true;
+            this.monomerFrequency = this.pendingNumber;
+            this.pendingNumber = -1L;
+            return;
+        }
+        this.pendingNumber = aTokenKind == SpicesConstants.TOKEN_KIND_NUMBER ? aNumber : -1L;
+        if (tmpIsParticle) {
+            this.numberOfCountedParticles++;
+        }
+    }
+
+    /**
+     * Counts a particle series of the expanded token list of SpicesInner
+     * (e.g. 3A = 1A-1A-1A)
+     *
+     * @param aNumberOfParticles Number of particles of series
+     */
+    private void countParticles(long aNumberOfParticles) {
+        if (this.isInsideMonomer) {
+            this.numberOfMonomerParticles += aNumberOfParticles;
+        } else {
+            this.numberOfCountedParticles += aNumberOfParticles;
+        }
+        this.pendingNumber = -1L;
+    }
+
+    /**
+     * Appends region of aSource to body and the corresponding positions in
+     * the part structure to body positions
+     *
+     * @param aBody Body
+     * @param aBodyPositions Body positions
+     * @param aSource Source
+     * @param aBeginIndex Begin index in aSource (inclusive)
+     * @param anEndIndex End index in aSource (exclusive)
+     * @param aPosition Position in part structure for all appended
+     * characters or -1 if the position is the index in aSource
+     * @return Body positions (may be enlarged)
+     */
+    private int[] appendToBody(StringBuilder aBody, int[] aBodyPositions, String aSource, int aBeginIndex, int anEndIndex, int aPosition) {
+        int[] tmpBodyPositions = aBodyPositions;
+        int tmpNewLength = aBody.length() + anEndIndex - aBeginIndex;
+        if (tmpNewLength > tmpBodyPositions.length) {
+            tmpBodyPositions = Arrays.copyOf(tmpBodyPositions, Math.max(tmpNewLength, 2 * tmpBodyPositions.length));
+        }
+        for (int i = aBeginIndex; i < anEndIndex; i++) {
+            tmpBodyPositions[aBody.length()] = aPosition == -1 ? i : aPosition;
+            aBody.append(aSource.charAt(i));
+        }
+        return tmpBodyPositions;
+    }
+
+    /**
+     * Checks a sub structure (a monomer or the body of a part structure)
+     *
+     * @param aSubStructure Sub structure
+     * @param anIsMonomer True: Sub structure is a monomer, false: Otherwise
+     * @param anAvailableParticles Available particles
+     * @param aPositionOffset Position of sub structure in part structure
+     * @param aPositions Positions of the characters of the sub structure in
+     * the part structure (null: aPositionOffset is used)
+     * @return True: Check was successful, false: Otherwise
+     */
+    private boolean checkSubStructure(CharSequence aSubStructure, boolean anIsMonomer, HashMap<String, String> anAvailableParticles,
+            int aPositionOffset, int[] aPositions) {
+        int tmpLength = aSubStructure.length();
+        // <editor-fold defaultstate="collapsed" desc="Single scan: Angular brackets, normal brackets and backbone indices">
+        int tmpNumberOfOpeningAngularBrackets = 0;
+        int tmpNumberOfClosingAngularBrackets = 0;
+        int tmpNumberOfOpeningNormalBrackets = 0;
+        int tmpNumberOfClosingNormalBrackets = 0;
+        int tmpNumberOfApostrophes = 0;
+        boolean tmpIsInsideAngularBrackets = false;
+        int tmpLastOpeningAngularBracketPosition = -1;
+        String tmpAngularDelimiterErrorKey = null;
+        int tmpAngularDelimiterErrorPosition = -1;
+        String tmpAngularContentErrorKey = null;
+        int tmpAngularContentErrorPosition = -1;
+        int tmpNumberOfHead = 0;
+        int tmpNumberOfTail = 0;
+        int tmpNumberOfStartTag = 0;
+        int tmpNumberOfEndTag = 0;
+        int tmpTooManyHeadPosition = -1;
+        int tmpTooManyTailPosition = -1;
+        int tmpTooManyStartTagPosition = -1;
+        int tmpTooManyEndTagPosition = -1;
+        int tmpStartTagPosition = -1;
+        int tmpEndTagPosition = -1;
+        this.clearRingClosures();
+        // Regions between outermost normal brackets of a structure that
+        // begins with a normal opening bracket (see one part check below)
+        boolean tmpIsRegionStructure = aSubStructure.charAt(0) == '(';
+        int tmpNumberOfRegions = 0;
+        int tmpRegion = -1;
+        boolean tmpHasRegionConnection = false;
+        boolean tmpIsRegionWithoutConnection = false;
+        // NOTE: All attributes form a common connection marker
+        int tmpFirstAttributeRegion = -1;
+        int tmpBranchLevel = 0;
+        int tmpNegativeBranchLevelPosition = -1;
+        int tmpLastOpeningNormalBracketPosition = -1;
+        int tmpFirstApostrophePosition = -1;
+        int tmpLastApostrophePosition = -1;
+        int tmpDoubleApostrophePosition = -1;
+        boolean tmpIsBackboneIndexOn = false;
+        int tmpIllegalBackboneIndexPosition = -1;
+        for (int i = 0; i < tmpLength; i++) {
+            char tmpCharacter = aSubStructure.charAt(i);
+            switch (tmpCharacter) {
+                case '[':
+                    tmpNumberOfOpeningAngularBrackets++;
+                    tmpHasRegionConnection = true;
+                    if (tmpIsInsideAngularBrackets) {
+                        if (tmpAngularDelimiterErrorKey == null) {
+                            tmpAngularDelimiterErrorKey = "StructureCheck.MissingClosingAngularBracket";
+                            tmpAngularDelimiterErrorPosition = i;
+                        }
+                    } else {
+                        tmpIsInsideAngularBrackets = true;
+                        tmpLastOpeningAngularBracketPosition = i;
+                    }
+                    break;
+                case ']':
+                    tmpNumberOfClosingAngularBrackets++;
+                    if (tmpIsInsideAngularBrackets) {
+                        tmpIsInsideAngularBrackets = false;
+                        if (tmpAngularDelimiterErrorKey == null && tmpAngularContentErrorKey == null) {
+                            // <editor-fold defaultstate="collapsed" desc="Content between angular brackets">
+                            int tmpBeginIndex = tmpLastOpeningAngularBracketPosition + 1;
+                            boolean tmpIsRingClosure = false;
+                            if (SpicesValidator.regionEquals(aSubStructure, tmpBeginIndex, i, "HEAD")) {
+                                if (anIsMonomer) {
+                                    if (++tmpNumberOfHead == 2) {
+                                        tmpTooManyHeadPosition = tmpLastOpeningAngularBracketPosition;
+                                    }
+                                } else {
+                                    tmpAngularContentErrorKey = "StructureCheck.IllegalUsingOfHeadOrTail";
+                                }
+                            } else if (SpicesValidator.regionEquals(aSubStructure, tmpBeginIndex, i, "TAIL")) {
+                                if (anIsMonomer) {
+                                    if (++tmpNumberOfTail == 2) {
+                                        tmpTooManyTailPosition = tmpLastOpeningAngularBracketPosition;
+                                    }
+                                } else {
+                                    tmpAngularContentErrorKey = "StructureCheck.IllegalUsingOfHeadOrTail";
+                                }
+                            } else if (SpicesValidator.isDigitRegion(aSubStructure, tmpBeginIndex, i)) {
+                                this.addRingClosure(aSubStructure, tmpBeginIndex, i, tmpLastOpeningAngularBracketPosition, tmpRegion);
+                                tmpIsRingClosure = true;
+                            } else if (SpicesValidator.regionEquals(aSubStructure, tmpBeginIndex, i, "START")) {
+                                if (anIsMonomer) {
+                                    tmpAngularContentErrorKey = "StructureCheck.StartAttributeInMonomer";
+                                } else {
+                                    if (++tmpNumberOfStartTag == 2) {
+                                        tmpTooManyStartTagPosition = tmpLastOpeningAngularBracketPosition;
+                                    }
+                                    tmpStartTagPosition = tmpLastOpeningAngularBracketPosition;
+                                }
+                            } else if (SpicesValidator.regionEquals(aSubStructure, tmpBeginIndex, i, "END")) {
+                                if (anIsMonomer) {
+                                    tmpAngularContentErrorKey = "StructureCheck.EndAttributeInMonomer";
+                                } else {
+                                    if (++tmpNumberOfEndTag == 2) {
+                                        tmpTooManyEndTagPosition = tmpLastOpeningAngularBracketPosition;
+                                    }
+                                    tmpEndTagPosition = tmpLastOpeningAngularBracketPosition;
+                                }
+                            } else {
+                                tmpAngularContentErrorKey = "StructureCheck.InvalidCharacterBetweenAngularBrackets";
+                            }
+                            if (tmpAngularContentErrorKey != null) {
+                                tmpAngularContentErrorPosition = tmpLastOpeningAngularBracketPosition;
+                            } else if (!tmpIsRingClosure && tmpRegion > -1) {
+                                if (tmpFirstAttributeRegion == -1) {
+                                    tmpFirstAttributeRegion = tmpRegion;
+                                } else if (tmpFirstAttributeRegion != tmpRegion) {
+                                    this.addRegionConnection(tmpFirstAttributeRegion, tmpRegion);
+                                }
+                            }
+                            // </editor-fold>
+                        }
+                    } else if (tmpAngularDelimiterErrorKey == null) {
+                        tmpAngularDelimiterErrorKey = "StructureCheck.MissingOpeningAngularBracket";
+                        tmpAngularDelimiterErrorPosition = i;
+                    }
+                    break;
+                case '(':
+                    tmpNumberOfOpeningNormalBrackets++;
+                    if (tmpBranchLevel == 0 && tmpIsRegionStructure) {
+                        tmpRegion = tmpNumberOfRegions++;
+                        tmpHasRegionConnection = false;
+                    }
+                    tmpBranchLevel++;
+                    tmpLastOpeningNormalBracketPosition = i;
+                    break;
+                case ')':
+                    tmpNumberOfClosingNormalBrackets++;
+                    tmpBranchLevel--;
+                    if (tmpBranchLevel < 0 && tmpNegativeBranchLevelPosition == -1) {
+                        tmpNegativeBranchLevelPosition = i;
+                    }
+                    if (tmpBranchLevel == 0 && tmpRegion > -1) {
+                        if (!tmpHasRegionConnection) {
+                            tmpIsRegionWithoutConnection = true;
+                        }
+                        tmpRegion = -1;
+                    }
+                    break;
+                case '\'':
+                    tmpNumberOfApostrophes++;
+                    if (tmpFirstApostrophePosition == -1) {
+                        tmpFirstApostrophePosition = i;
+                    }
+                    if (tmpDoubleApostrophePosition == -1 && tmpLastApostrophePosition == i - 1) {
+                        tmpDoubleApostrophePosition = i - 1;
+                    }
+                    tmpLastApostrophePosition = i;
+                    tmpIsBackboneIndexOn = !tmpIsBackboneIndexOn;
+                    break;
+                default:
+                    break;
+            }
+            if (tmpIsBackboneIndexOn && tmpCharacter != '\'' && tmpIllegalBackboneIndexPosition == -1 && !Character.isDigit(tmpCharacter)) {
+                tmpIllegalBackboneIndexPosition = i;
+            }
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Checks whether the first character is not valid">
+        switch (aSubStructure.charAt(0)) {
+            case '0':
+            case '[':
+            case ']':
+            case '-':
+            case ')':
+            case '\'':
+                if (anIsMonomer) {
+                    return this.setSubStructureError("StructureCheck.InvalidFirstCharacterOfMonomer", 0, aPositionOffset, aPositions);
+                } else {
+                    return this.setSubStructureError("StructureCheck.InvalidFirstCharacterOfStructure", 0, aPositionOffset, aPositions);
+                }
+            default:
+                break;
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Checks whether the last character is not valid">
+        switch (aSubStructure.charAt(tmpLength - 1)) {
+            case '[':
+            case '-':
+            case '(':
+                if (anIsMonomer) {
+                    return this.setSubStructureError("StructureCheck.InvalidLastCharacterOfMonomer", tmpLength - 1, aPositionOffset, aPositions);
+                } else {
+                    return this.setSubStructureError("StructureCheck.InvalidLastCharacterOfStructure", tmpLength - 1, aPositionOffset, aPositions);
+                }
+            default:
+                break;
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Checks whether the structure is like (A-B)A and (A-B)-">
+        if (aSubStructure.charAt(0) == '(') {
+            int tmpPosition = SpicesValidator.getParticleAfterNormalClosingBracketPosition(aSubStructure);
+            if (tmpPosition > -1) {
+                return this.setSubStructureError("StructureCheck.InvalidParticleAfterNormalClosingBracket", tmpPosition, aPositionOffset, aPositions);
+            }
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Checks whether there is a backbone index in monomer structure">
+        if (anIsMonomer && tmpNumberOfApostrophes > 0) {
+            return this.setSubStructureError("StructureCheck.BackboneIndexInMonomer", tmpFirstApostrophePosition, aPositionOffset, aPositions);
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Checks of legal using of angular brackets">
+        if (tmpNumberOfOpeningAngularBrackets + tmpNumberOfClosingAngularBrackets > 0) {
+            if (tmpAngularDelimiterErrorKey != null) {
+                return this.setSubStructureError(tmpAngularDelimiterErrorKey, tmpAngularDelimiterErrorPosition, aPositionOffset, aPositions);
+            }
+            if (tmpIsInsideAngularBrackets) {
+                return this.setSubStructureError("StructureCheck.MissingClosingAngularBracket", tmpLastOpeningAngularBracketPosition, aPositionOffset, aPositions);
+            }
+            if (tmpAngularContentErrorKey != null) {
+                return this.setSubStructureError(tmpAngularContentErrorKey, tmpAngularContentErrorPosition, aPositionOffset, aPositions);
+            }
+            if (tmpNumberOfStartTag > 1) {
+                return this.setSubStructureError("StructureCheck.TooManyStartTag", tmpTooManyStartTagPosition, aPositionOffset, aPositions);
+            }
+            if (tmpNumberOfEndTag > 1) {
+                return this.setSubStructureError("StructureCheck.TooManyEndTag", tmpTooManyEndTagPosition, aPositionOffset, aPositions);
+            }
+            if (tmpNumberOfStartTag == 1 && tmpNumberOfEndTag == 0) {
+                return this.setSubStructureError("StructureCheck.MissingEndAttribute", tmpStartTagPosition, aPositionOffset, aPositions);
+            }
+            if (tmpNumberOfStartTag == 0 && tmpNumberOfEndTag == 1) {
+                return this.setSubStructureError("StructureCheck.MissingStartAttribute", tmpEndTagPosition, aPositionOffset, aPositions);
+            }
+            if (anIsMonomer) {
+                if (tmpNumberOfHead == 0) {
+                    return this.setSubStructureError("StructureCheck.MissingHeadAttribute", 0, aPositionOffset, aPositions);
+                } else if (tmpNumberOfHead > 1) {
+                    return this.setSubStructureError("StructureCheck.TooManyHead", tmpTooManyHeadPosition, aPositionOffset, aPositions);
+                }
+                if (tmpNumberOfTail == 0) {
+                    return this.setSubStructureError("StructureCheck.MissingTailAttribute", 0, aPositionOffset, aPositions);
+                } else if (tmpNumberOfTail > 1) {
+                    return this.setSubStructureError("StructureCheck.TooManyTail", tmpTooManyTailPosition, aPositionOffset, aPositions);
+                }
+            }
+        } else {
+            if (anIsMonomer) {
+                return this.setSubStructureError("StructureCheck.MissingHeadOrTailAttribute", 0, aPositionOffset, aPositions);
+            }
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Checks whether every ring closure number occurs exactly twice">
+        int tmpRingClosureErrorIndex = this.getRingClosureErrorIndex(aSubStructure);
+        if (tmpRingClosureErrorIndex > -1) {
+            if (this.ringClosureFrequencies[tmpRingClosureErrorIndex] == 1) {
+                return this.setSubStructureError("StructureCheck.MissingRingClosure", this.ringClosurePositions[tmpRingClosureErrorIndex], aPositionOffset, aPositions);
+            } else {
+                return this.setSubStructureError("StructureCheck.TooManyRingClosures", this.ringClosurePositions[tmpRingClosureErrorIndex], aPositionOffset, aPositions);
+            }
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Checks of legal using of normal brackets">
+        if (tmpNumberOfOpeningNormalBrackets + tmpNumberOfClosingNormalBrackets > 0) {
+            if (tmpNumberOfOpeningNormalBrackets > tmpNumberOfClosingNormalBrackets) {
+                return this.setSubStructureError("StructureCheck.MissingClosingNormalBracket", tmpLastOpeningNormalBracketPosition, aPositionOffset, aPositions);
+            }
+            if (tmpNegativeBranchLevelPosition > -1) {
+                return this.setSubStructureError("StructureCheck.MissingOpeningNormalBracket", tmpNegativeBranchLevelPosition, aPositionOffset, aPositions);
+            }
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Checks of legal using of backbone index">
+        if (tmpDoubleApostrophePosition > -1) {
+            return this.setSubStructureError("StructureCheck.IllegalBackboneIndexFormat", tmpDoubleApostrophePosition, aPositionOffset, aPositions);
+        }
+        if (tmpNumberOfApostrophes % 2 != 0) {
+            return this.setSubStructureError("StructureCheck.MissingBackboneIndex", tmpLastApostrophePosition, aPositionOffset, aPositions);
+        }
+        if (tmpNumberOfApostrophes == 2) {
+            return this.setSubStructureError("StructureCheck.TooLessBackboneindex", tmpFirstApostrophePosition, aPositionOffset, aPositions);
+        }
+        if (tmpIllegalBackboneIndexPosition > -1) {
+            return this.setSubStructureError("StructureCheck.IllegalBackboneIndexFormat", tmpIllegalBackboneIndexPosition, aPositionOffset, aPositions);
+        }
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Checks tokens">
+        SpicesLexer tmpLexer = new SpicesLexer(aSubStructure);
+        if (!tmpLexer.isValid()) {
+            return this.setSubStructureError("StructureCheck.InvalidParticlename", 0, aPositionOffset, aPositions);
+        }
+        int tmpNumberOfTokens = tmpLexer.getNumberOfTokens();
+        if (tmpNumberOfTokens == 1) {
+            byte tmpTokenKind = tmpLexer.getTokenKind(0);
+            if (tmpTokenKind == SpicesConstants.TOKEN_KIND_MONOMER || tmpTokenKind == SpicesConstants.TOKEN_KIND_PARTICLE) {
+                return true;
+            }
+            return this.setSubStructureError("StructureCheck.InvalidParticlename", 0, aPositionOffset, aPositions);
+        }
+        HashSet<Integer> tmpBackboneIndices = null;
+        int tmpMaximumBackboneIndex = 0;
+        for (int i = 0; i < tmpNumberOfTokens - 1; i++) {
+            byte tmpCurrentTokenKind = tmpLexer.getTokenKind(i);
+            byte tmpNextTokenKind = tmpLexer.getTokenKind(i + 1);
+            if (tmpCurrentTokenKind == SpicesConstants.TOKEN_KIND_PARTICLE && !this.isAvailableParticle(tmpLexer, i, anAvailableParticles)) {
+                // Particle that is not available
+                tmpCurrentTokenKind = SpicesConstants.TOKEN_KIND_UNKNOWN;
+            }
+            if (tmpNextTokenKind == SpicesConstants.TOKEN_KIND_PARTICLE && !this.isAvailableParticle(tmpLexer, i + 1, anAvailableParticles)
+                    && tmpCurrentTokenKind != SpicesConstants.TOKEN_KIND_BACKBONE_INDEX) {
+                // Particle that is not available (NOTE: Availability is not
+                // checked after backbone index)
+                tmpNextTokenKind = SpicesConstants.TOKEN_KIND_UNKNOWN;
+            }
+            String tmpErrorKey = null;
+            int tmpErrorTokenIndex = i + 1;
+            switch (tmpCurrentTokenKind) {
+                // <editor-fold defaultstate="collapsed" desc="Particle">
+                case SpicesConstants.TOKEN_KIND_PARTICLE:
+                    switch (tmpNextTokenKind) {
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN:
+                            tmpErrorKey = "StructureCheck.MissingAConnectionPriorCurlyOpeningBracket";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_PARTICLE:
+                        case SpicesConstants.TOKEN_KIND_ANGLE_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_UNKNOWN:
+                            tmpErrorKey = "StructureCheck.InvalidParticleAfterParticle";
+                            break;
+                        default:
+                            break; // legal expression
+                    }
+                    break;
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="Number">
+                case SpicesConstants.TOKEN_KIND_NUMBER:
+                    if (this.getNumber(tmpLexer, i, 0) == 0) {
+                        tmpErrorKey = "StructureCheck.IllegalFrequency";
+                        tmpErrorTokenIndex = i;
+                        break;
+                    }
+                    switch (tmpNextTokenKind) {
+                        case SpicesConstants.TOKEN_KIND_PARTICLE:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_MONOMER:
+                            break; // legal expression
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN:
+                            tmpErrorKey = "StructureCheck.InvalidParticlePriorNormalBracket";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE:
+                            tmpErrorKey = "StructureCheck.MissingAParticlePriorNormalClosingBracket";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_RING_CLOSURE:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_HEAD:
+                        case SpicesConstants.TOKEN_KIND_TAIL:
+                            tmpErrorKey = "StructureCheck.MissingParticleAfterNumber";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_CONNECTION:
+                            tmpErrorKey = "StructureCheck.MissingParticlePriorConnection";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_BACKBONE_INDEX:
+                            tmpErrorKey = "StructureCheck.InvalidPositionOfBackboneIndex";
+                            break;
+                        default:
+                            tmpErrorKey = "StructureCheck.InvalidParticlename";
+                            break;
+                    }
+                    break;
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="NormalBracketOpen">
+                case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN:
+                    switch (tmpNextTokenKind) {
+                        case SpicesConstants.TOKEN_KIND_NUMBER:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_MONOMER:
+                            break; // legal expression
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN:
+                            tmpErrorKey = "StructureCheck.InSeriesOfNormalOpeningBrackets";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE:
+                            tmpErrorKey = "StructureCheck.EmptyNormalBrackets";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_RING_CLOSURE:
+                            tmpErrorKey = "StructureCheck.MissingAParticlePriorRingClosure";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_CONNECTION:
+                            tmpErrorKey = "StructureCheck.MissingAParticlePriorConnection";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_HEAD:
+                        case SpicesConstants.TOKEN_KIND_TAIL:
+                            tmpErrorKey = "StructureCheck.MissingAParticlePriorHeadOrTail";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_BACKBONE_INDEX:
+                            tmpErrorKey = "StructureCheck.InvalidPositionOfBackboneIndex";
+                            break;
+                        default:
+                            tmpErrorKey = "StructureCheck.InvalidParticleAfterNormalOpeningBracket";
+                            break;
+                    }
+                    break;
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="NormalBracketClose">
+                case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE:
+                    switch (tmpNextTokenKind) {
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_CONNECTION:
+                        case SpicesConstants.TOKEN_KIND_ANGLE_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_BACKBONE_INDEX:
+                            break; // legal expression
+                        case SpicesConstants.TOKEN_KIND_RING_CLOSURE:
+                            tmpErrorKey = "StructureCheck.MissingAParticlePriorRingClosure";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_MONOMER:
+                            tmpErrorKey = "StructureCheck.MissingAConnectionAfterNormalClosingBracket";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_HEAD:
+                        case SpicesConstants.TOKEN_KIND_TAIL:
+                            tmpErrorKey = "StructureCheck.MissingAParticlePriorHeadOrTail";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_NUMBER:
+                            // NOTE: The first tokens of the part structure
+                            // are decisive
+                            SpicesLexer tmpPartLexer = this.getPartLexer();
+                            if (tmpPartLexer.getTokenKind(0) != SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN
+                                    && !(tmpPartLexer.getTokenKind(0) == SpicesConstants.TOKEN_KIND_NUMBER
+                                    && tmpPartLexer.getTokenKind(1) == SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN)) {
+                                tmpErrorKey = "StructureCheck.MissingAConnectionAfterNormalClosingBracket";
+                            }
+                            break;
+                        default:
+                            tmpErrorKey = "StructureCheck.InvalidParticleAfterNormalClosingBracket";
+                            break;
+                    }
+                    break;
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="RingClosure">
+                case SpicesConstants.TOKEN_KIND_RING_CLOSURE:
+                    switch (tmpNextTokenKind) {
+                        case SpicesConstants.TOKEN_KIND_PARTICLE:
+                        case SpicesConstants.TOKEN_KIND_ANGLE_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_UNKNOWN:
+                            tmpErrorKey = "StructureCheck.InvalidParticleAfterRingClosure";
+                            break;
+                        default:
+                            break; // legal expression
+                    }
+                    break;
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="CurlyBracketOpen">
+                case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN:
+                    switch (tmpNextTokenKind) {
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_RING_CLOSURE:
+                        case SpicesConstants.TOKEN_KIND_PARTICLE:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_HEAD:
+                        case SpicesConstants.TOKEN_KIND_TAIL:
+                        case SpicesConstants.TOKEN_KIND_NUMBER:
+                            break; // legal expression or already checked
+                        case SpicesConstants.TOKEN_KIND_CONNECTION:
+                            tmpErrorKey = "StructureCheck.MissingAParticlePriorConnection";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_MONOMER:
+                            tmpErrorKey = "StructureCheck.MonomerInsideOfCurlyBracket";
+                            break;
+                        default:
+                            tmpErrorKey = "StructureCheck.InvalidParticleAfterCurlyOpeningBracket";
+                            break;
+                    }
+                    break;
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="CurlyBracketClose">
+                case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE:
+                    switch (tmpNextTokenKind) {
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_PARTICLE:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_CONNECTION:
+                        case SpicesConstants.TOKEN_KIND_HEAD:
+                        case SpicesConstants.TOKEN_KIND_TAIL:
+                        case SpicesConstants.TOKEN_KIND_NUMBER:
+                        case SpicesConstants.TOKEN_KIND_ANGLE_BRACKET_CLOSE:
+                            break; // legal expression or already checked
+                        case SpicesConstants.TOKEN_KIND_RING_CLOSURE:
+                            tmpErrorKey = "StructureCheck.MissingAParticlePriorRingClosure";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_BACKBONE_INDEX:
+                            tmpErrorKey = "StructureCheck.InvalidPositionOfBackboneIndex";
+                            break;
+                        default:
+                            tmpErrorKey = "StructureCheck.InvalidParticleAfterCurlyClosingBracket";
+                            break;
+                    }
+                    break;
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="Connection">
+                case SpicesConstants.TOKEN_KIND_CONNECTION:
+                    switch (tmpNextTokenKind) {
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_MONOMER:
+                        case SpicesConstants.TOKEN_KIND_NUMBER:
+                            break; // legal expression
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN:
+                            tmpErrorKey = "StructureCheck.MissingParticleBetweenConnectionAndNormalOpeningBracket";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE:
+                            tmpErrorKey = "StructureCheck.MissingParticleBetweenConnectionAndNormalClosingBracket";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_RING_CLOSURE:
+                            tmpErrorKey = "StructureCheck.MissingParticleBetweenConnectionAndRingClosure";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE:
+                            tmpErrorKey = "StructureCheck.InvalidLastCharacter";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_CONNECTION:
+                            tmpErrorKey = "StructureCheck.MissingParticleBetweenTwoConnections";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_HEAD:
+                        case SpicesConstants.TOKEN_KIND_TAIL:
+                            tmpErrorKey = "StructureCheck.MissingParticleBetweenConnectionAndHeadOrTail";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_BACKBONE_INDEX:
+                            tmpErrorKey = "StructureCheck.InvalidPositionOfBackboneIndex";
+                            break;
+                        default:
+                            tmpErrorKey = "StructureCheck.InvalidParticleAfterConnection";
+                            break;
+                    }
+                    break;
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="Head or Tail">
+                case SpicesConstants.TOKEN_KIND_HEAD:
+                case SpicesConstants.TOKEN_KIND_TAIL:
+                    switch (tmpNextTokenKind) {
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_RING_CLOSURE:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_CONNECTION:
+                        case SpicesConstants.TOKEN_KIND_HEAD:
+                        case SpicesConstants.TOKEN_KIND_TAIL:
+                        case SpicesConstants.TOKEN_KIND_BACKBONE_INDEX:
+                            break; // legal expression
+                        case SpicesConstants.TOKEN_KIND_MONOMER:
+                            tmpErrorKey = "StructureCheck.MonomerAfterHeadOrTail";
+                            break;
+                        case SpicesConstants.TOKEN_KIND_NUMBER:
+                            tmpErrorKey = "StructureCheck.MissingAConnectionAfterHeadOrTail";
+                            break;
+                        default:
+                            tmpErrorKey = "StructureCheck.InvalidParticleAfterHeadTail";
+                            break;
+                    }
+                    break;
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="START or END">
+                case SpicesConstants.TOKEN_KIND_START:
+                case SpicesConstants.TOKEN_KIND_END:
+                    switch (tmpNextTokenKind) {
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_RING_CLOSURE:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_CONNECTION:
+                        case SpicesConstants.TOKEN_KIND_HEAD:
+                        case SpicesConstants.TOKEN_KIND_TAIL:
+                        case SpicesConstants.TOKEN_KIND_START:
+                        case SpicesConstants.TOKEN_KIND_END:
+                        case SpicesConstants.TOKEN_KIND_ANGLE_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_BACKBONE_INDEX:
+                            break; // legal expression
+                        default:
+                            tmpErrorKey = "StructureCheck.InvalidParticleAfterStartEnd";
+                            break;
+                    }
+                    break;
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="Monomer">
+                case SpicesConstants.TOKEN_KIND_MONOMER:
+                    if (anIsMonomer) {
+                        tmpErrorKey = "StructureCheck.MonomerInMonomer";
+                        tmpErrorTokenIndex = i;
+                        break;
+                    }
+                    switch (tmpNextTokenKind) {
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_NORMAL_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_RING_CLOSURE:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN:
+                        case SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_CONNECTION:
+                        case SpicesConstants.TOKEN_KIND_NUMBER:
+                        case SpicesConstants.TOKEN_KIND_ANGLE_BRACKET_CLOSE:
+                        case SpicesConstants.TOKEN_KIND_BACKBONE_INDEX:
+                            break; // legal expression
+                        case SpicesConstants.TOKEN_KIND_MONOMER:
+                            tmpErrorKey = "StructureCheck.MonomerAfterMonomer";
+                            break;
+                        default:
+                            tmpErrorKey = "StructureCheck.InvalidParticleAfterMonomer";
+                            break;
+                    }
+                    break;
+                // </editor-fold>
+                // <editor-fold defaultstate="collapsed" desc="Backbone index">
+                case SpicesConstants.TOKEN_KIND_BACKBONE_INDEX:
+                    int tmpBackboneIndex = this.getNumber(tmpLexer, i, 1);
+                    tmpErrorTokenIndex = i;
+                    if (tmpBackboneIndex == 0) {
+                        tmpErrorKey = "StructureCheck.ZeroInBackboneindex";
+                        break;
+                    }
+                    if (tmpBackboneIndices == null) {
+                        tmpBackboneIndices = new HashSet<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+                    }
+                    if (!tmpBackboneIndices.add(tmpBackboneIndex)) {
+                        tmpErrorKey = "StructureCheck.RedundancyOfBackboneIndices";
+                        break;
+                    }
+                    tmpMaximumBackboneIndex = Math.max(tmpMaximumBackboneIndex, tmpBackboneIndex);
+                    if (tmpNextTokenKind == SpicesConstants.TOKEN_KIND_PARTICLE
+                            || tmpNextTokenKind == SpicesConstants.TOKEN_KIND_MONOMER
+                            || tmpNextTokenKind == SpicesConstants.TOKEN_KIND_NUMBER) {
+                        tmpErrorKey = "StructureCheck.MissingAConnectionAfterBackboneIndex";
+                        tmpErrorTokenIndex = i + 1;
+                    }
+                    break;
+                // </editor-fold>
+                default:
+                    tmpErrorKey = "StructureCheck.InvalidParticlename";
+                    tmpErrorTokenIndex = i;
+                    break;
+            }
+            if (tmpErrorKey != null) {
+                return this.setSubStructureError(tmpErrorKey, tmpLexer.getTokenOffset(tmpErrorTokenIndex), aPositionOffset, aPositions);
+            }
+        }
+        // <editor-fold defaultstate="collapsed" desc="Checks last token">
+        int tmpLastTokenIndex = tmpNumberOfTokens - 1;
+        byte tmpLastTokenKind = tmpLexer.getTokenKind(tmpLastTokenIndex);
+        if (tmpLastTokenKind == SpicesConstants.TOKEN_KIND_NUMBER) {
+            return this.setSubStructureError("StructureCheck.MissingParticleAfterNumber", tmpLexer.getTokenOffset(tmpLastTokenIndex), aPositionOffset, aPositions);
+        }
+        if (tmpLastTokenKind == SpicesConstants.TOKEN_KIND_MONOMER && anIsMonomer) {
+            return this.setSubStructureError("StructureCheck.MonomerInMonomer", tmpLexer.getTokenOffset(tmpLastTokenIndex), aPositionOffset, aPositions);
+        }
+        if (tmpLastTokenKind == SpicesConstants.TOKEN_KIND_BACKBONE_INDEX) {
+            // NOTE: A zero backbone index is not checked for the last token
+            int tmpBackboneIndex = this.getNumber(tmpLexer, tmpLastTokenIndex, 1);
+            if (tmpBackboneIndices == null) {
+                tmpBackboneIndices = new HashSet<>(SpicesConstants.DEFAULT_HASHMAP_INITIAL_CAPACITY);
+            }
+            if (!tmpBackboneIndices.add(tmpBackboneIndex)) {
+                return this.setSubStructureError("StructureCheck.RedundancyOfBackboneIndices", tmpLexer.getTokenOffset(tmpLastTokenIndex), aPositionOffset, aPositions);
+            }
+            tmpMaximumBackboneIndex = Math.max(tmpMaximumBackboneIndex, tmpBackboneIndex);
+        }
+        if (tmpBackboneIndices != null && tmpBackboneIndices.size() > 0 && tmpBackboneIndices.size() < tmpMaximumBackboneIndex) {
+            return this.setSubStructureError("StructureCheck.MissingBackboneIndex", tmpFirstApostrophePosition, aPositionOffset, aPositions);
+        }
+        // </editor-fold>
+        // </editor-fold>
+        // <editor-fold defaultstate="collapsed" desc="Checks whether the structure is out of one part">
+        // NOTE: Every region between outermost normal brackets must contain
+        // a connection marker (i.e. a ring closure or an attribute) and the
+        // regions must be connected by common connection markers
+        if (tmpNumberOfRegions > 0) {
+            if (tmpIsRegionWithoutConnection) {
+                return this.setSubStructureError("StructureCheck.MissingConnection", 0, aPositionOffset, aPositions);
+            }
+            if (tmpNumberOfRegions > 1 && !this.isOnePart(tmpNumberOfRegions)) {
+                return this.setSubStructureError("StructureCheck.StructureNotOnePart", 0, aPositionOffset, aPositions);
+            }
+        }
+        // </editor-fold>
+        return true;
+    }
+
+    /**
+     * Sets error of sub structure
+     *
+     * @param anErrorKey Error key
+     * @param aPosition Position of error in sub structure
+     * @param aPositionOffset Position of sub structure in part structure
+     * @param aPositions Positions of the characters of the sub structure in
+     * the part structure (null: aPositionOffset is used)
+     * @return False
+     */
+    private boolean setSubStructureError(String anErrorKey, int aPosition, int aPositionOffset, int[] aPositions) {
+        if (aPositions != null) {
+            return this.setError(anErrorKey, aPositions[aPosition]);
+        } else {
+            return this.setError(anErrorKey, aPositionOffset + aPosition);
+        }
+    }
+
+    /**
+     * Clears the ring closure table and the region connections
+     */
+    private void clearRingClosures() {
+        if (this.numberOfRingClosures > 0) {
+            Arrays.fill(this.ringClosureTable, 0);
+            this.numberOfRingClosures = 0;
+        }
+        this.numberOfRegionConnectionValues = 0;
+    }
+
+    /**
+     * Adds an occurrence of a ring closure number to the ring closure table.
+     * NOTE: Ring closure numbers are compared as strings (i.e. [1] and [01]
+     * are different ring closure numbers).
+     *
+     * @param aSubStructure Sub structure
+     * @param aBeginIndex Begin index (inclusive) of the digits
+     * @param anEndIndex End index (exclusive) of the digits
+     * @param aPosition Position of the opening angular bracket
+     * @param aRegion Outermost normal bracket region of the occurrence (-1:
+     * Outside of outermost normal brackets)
+     */
+    private void addRingClosure(CharSequence aSubStructure, int aBeginIndex, int anEndIndex, int aPosition, int aRegion) {
+        if (this.ringClosureTable == null) {
+            this.ringClosureTable = new int[16];
+            this.ringClosureBeginIndices = new int[8];
+            this.ringClosureEndIndices = new int[8];
+            this.ringClosureFrequencies = new int[8];
+            this.ringClosurePositions = new int[8];
+            this.ringClosureRegions = new int[8];
+        }
+        int tmpMask = this.ringClosureTable.length - 1;
+        int tmpSlot = SpicesValidator.getRegionHashCode(aSubStructure, aBeginIndex, anEndIndex) & tmpMask;
+        while (this.ringClosureTable[tmpSlot] != 0) {
+            int tmpIndex = this.ringClosureTable[tmpSlot] - 1;
+            if (SpicesValidator.compareRegions(aSubStructure, this.ringClosureBeginIndices[tmpIndex], this.ringClosureEndIndices[tmpIndex], aBeginIndex, anEndIndex) == 0) {
+                this.ringClosureFrequencies[tmpIndex]++;
+                if (aRegion > -1 && this.ringClosureRegions[tmpIndex] > -1 && aRegion != this.ringClosureRegions[tmpIndex]) {
+                    this.addRegionConnection(this.ringClosureRegions[tmpIndex], aRegion);
+                }
+                return;
+            }
+            tmpSlot = (tmpSlot + 1) & tmpMask;
+        }
+        int tmpIndex = this.numberOfRingClosures++;
+        this.ringClosureBeginIndices[tmpIndex] = aBeginIndex;
+        this.ringClosureEndIndices[tmpIndex] = anEndIndex;
+        this.ringClosureFrequencies[tmpIndex] = 1;
+        this.ringClosurePositions[tmpIndex] = aPosition;
+        this.ringClosureRegions[tmpIndex] = aRegion;
+        this.ringClosureTable[tmpSlot] = tmpIndex + 1;
+        if (this.numberOfRingClosures == this.ringClosureBeginIndices.length) {
+            this.growRingClosureTable(aSubStructure);
+        }
+    }
+
+    /**
+     * Doubles the capacity of the ring closure table
+     *
+     * @param aSubStructure Sub structure
+     */
+    private void growRingClosureTable(CharSequence aSubStructure) {
+        int tmpNewCapacity = 2 * this.ringClosureBeginIndices.length;
+        this.ringClosureBeginIndices = Arrays.copyOf(this.ringClosureBeginIndices, tmpNewCapacity);
+        this.ringClosureEndIndices = Arrays.copyOf(this.ringClosureEndIndices, tmpNewCapacity);
+        this.ringClosureFrequencies = Arrays.copyOf(this.ringClosureFrequencies, tmpNewCapacity);
+        this.ringClosurePositions = Arrays.copyOf(this.ringClosurePositions, tmpNewCapacity);
+        this.ringClosureRegions = Arrays.copyOf(this.ringClosureRegions, tmpNewCapacity);
+        this.ringClosureTable = new int[2 * tmpNewCapacity];
+        int tmpMask = this.ringClosureTable.length - 1;
+        for (int i = 0; i < this.numberOfRingClosures; i++) {
+            int tmpSlot = SpicesValidator.getRegionHashCode(aSubStructure, this.ringClosureBeginIndices[i], this.ringClosureEndIndices[i]) & tmpMask;
+            while (this.ringClosureTable[tmpSlot] != 0) {
+                tmpSlot = (tmpSlot + 1) & tmpMask;
+            }
+            this.ringClosureTable[tmpSlot] = i + 1;
+        }
+    }
+
+    /**
+     * Returns the index of the ring closure that determines the ring closure
+     * error: The first ring closure number in lexicographic order with a
+     * frequency different from 2.
+     *
+     * @param aSubStructure Sub structure
+     * @return Index of ring closure or -1 if every ring closure number
+     * occurs exactly twice
+     */
+    private int getRingClosureErrorIndex(CharSequence aSubStructure) {
+        int tmpErrorIndex = -1;
+        for (int i = 0; i < this.numberOfRingClosures; i++) {
+            if (this.ringClosureFrequencies[i] != 2) {
+                if (tmpErrorIndex == -1
+                        || SpicesValidator.compareRegions(aSubStructure, this.ringClosureBeginIndices[i], this.ringClosureEndIndices[i],
+                                this.ringClosureBeginIndices[tmpErrorIndex], this.ringClosureEndIndices[tmpErrorIndex]) < 0) {
+                    tmpErrorIndex = i;
+                }
+            }
+        }
+        return tmpErrorIndex;
+    }
+
+    /**
+     * Adds a connection between two outermost normal bracket regions
+     *
+     * @param aFirstRegion First region
+     * @param aSecondRegion Second region
+     */
+    private void addRegionConnection(int aFirstRegion, int aSecondRegion) {
+        if (this.regionConnections == null) {
+            this.regionConnections = new int[16];
+        } else if (this.numberOfRegionConnectionValues == this.regionConnections.length) {
+            this.regionConnections = Arrays.copyOf(this.regionConnections, 2 * this.regionConnections.length);
+        }
+        this.regionConnections[this.numberOfRegionConnectionValues++] = aFirstRegion;
+        this.regionConnections[this.numberOfRegionConnectionValues++] = aSecondRegion;
+    }
+
+    /**
+     * Determines whether the outermost normal bracket regions are out of
+     * only one part (true) or not (false) with the region connections
+     * (union-find, i.e. near-linear time).
+     *
+     * @param aNumberOfRegions Number of regions
+     * @return True: Regions are out of only one part, false: Otherwise
+     */
+    private boolean isOnePart(int aNumberOfRegions) {
+        UnionFind tmpUnionFind = new UnionFind(aNumberOfRegions);
+        for (int i = 0; i < this.numberOfRegionConnectionValues; i += 2) {
+            if (tmpUnionFind.union(this.regionConnections[i], this.regionConnections[i + 1]) && tmpUnionFind.getNumberOfSets() == 1) {
+                return true;
+            }
+        }
+        return tmpUnionFind.getNumberOfSets() == 1;
+    }
+
+    /**
+     * Checks whether particle token of lexer is available
+     *
+     * @param aLexer Lexer
+     * @param aTokenIndex Token index
+     * @param anAvailableParticles Available particles (all particles are
+     * available if empty)
+     * @return True: Particle is available, false: Otherwise
+     */
+    private boolean isAvailableParticle(SpicesLexer aLexer, int aTokenIndex, HashMap<String, String> anAvailableParticles) {
+        if (anAvailableParticles.isEmpty()) {
+            return true;
+        }
+        return anAvailableParticles.containsKey(aLexer.getToken(aTokenIndex));
+    }
+
+    /**
+     * Checks whether particle is available
+     *
+     * @param aParticle Particle
+     * @param anAvailableParticles Available particles (all particles are
+     * available if empty)
+     * @return True: Particle is available, false: Otherwise
+     */
+    private boolean isAvailableParticle(String aParticle, HashMap<String, String> anAvailableParticles) {
+        if (anAvailableParticles.isEmpty()) {
+            return true;
+        }
+        return anAvailableParticles.containsKey(aParticle);
+    }
+
+    /**
+     * Returns the number of a number or backbone index token. NOTE: A
+     * NumberFormatException is thrown for a number that exceeds the integer
+     * range (as Integer.parseInt()).
+     *
+     * @param aLexer Lexer
+     * @param aTokenIndex Token index
+     * @param aNumberOfDelimiters Number of delimiter characters at the
+     * beginning and the end of the token (0: Number, 1: Backbone index)
+     * @return Number
+     * @throws NumberFormatException Thrown if number exceeds the integer
+     * range
+     */
+    private int getNumber(SpicesLexer aLexer, int aTokenIndex, int aNumberOfDelimiters) throws NumberFormatException {
+        if (aLexer.hasImplicitFrequency(aTokenIndex)) {
+            return Integer.parseInt(aLexer.getToken(aTokenIndex));
+        }
+        int tmpBeginIndex = aLexer.getTokenOffset(aTokenIndex) + aNumberOfDelimiters;
+        int tmpEndIndex = aLexer.getTokenOffset(aTokenIndex) + aLexer.getTokenLength(aTokenIndex) - aNumberOfDelimiters;
+        if (tmpEndIndex - tmpBeginIndex > 9) {
+            return Integer.parseInt(aLexer.getStructure().subSequence(tmpBeginIndex, tmpEndIndex).toString());
+        }
+        int tmpNumber = 0;
+        for (int i = tmpBeginIndex; i < tmpEndIndex; i++) {
+            tmpNumber = 10 * tmpNumber + (aLexer.getStructure().charAt(i) - '0');
+        }
+        return tmpNumber;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private static methods">
+    /**
+     * Returns if token kind is a particle or a monomer shortcut
+     *
+     * @param aTokenKind Token kind
+     * @return True: Token kind is a particle or a monomer shortcut, false:
+     * Otherwise
+     */
+    private static boolean isParticleOrMonomer(byte aTokenKind) {
+        return aTokenKind == SpicesConstants.TOKEN_KIND_PARTICLE || aTokenKind == SpicesConstants.TOKEN_KIND_MONOMER;
+    }
+
+    /**
+     * Returns the position of the first character after the normal closing
+     * bracket for a structure like (A-B)A or (A-B)- (i.e. one or more
+     * non-empty normal brackets followed by letters, connections and
+     * angular brackets only) in linear time.
+     *
+     * @param aStructure Structure that begins with a normal opening bracket
+     * @return Position of the first character after the normal closing
+     * bracket or -1 if the structure is not like (A-B)A or (A-B)-
+     */
+    private static int getParticleAfterNormalClosingBracketPosition(CharSequence aStructure) {
+        int tmpLength = aStructure.length();
+        int tmpPosition = tmpLength;
+        while (tmpPosition > 0 && SpicesValidator.isLetterConnectionOrAngularBracket(aStructure.charAt(tmpPosition - 1))) {
+            tmpPosition--;
+        }
+        // tmpPosition is the first character of the maximal suffix that
+        // consists of letters, connections and angular brackets only
+        if (tmpPosition == tmpLength || tmpPosition < 3 || aStructure.charAt(tmpPosition - 1) != ')') {
+            return -1;
+        }
+        for (int i = 1; i < tmpPosition - 1; i++) {
+            char tmpCharacter = aStructure.charAt(i);
+            if (tmpCharacter == '\n' || tmpCharacter == '\r') {
+                // No match for line terminators
+                return -1;
+            }
+        }
+        return tmpPosition;
+    }
+
+    /**
+     * Returns if aCharacter is a letter (a-z, A-Z), a connection or an
+     * angular bracket
+     *
+     * @param aCharacter Character
+     * @return True: aCharacter is a letter, a connection or an angular
+     * bracket, false: Otherwise
+     */
+    private static boolean isLetterConnectionOrAngularBracket(char aCharacter) {
+        return aCharacter >= 'a' && aCharacter <= 'z' || aCharacter >= 'A' && aCharacter <= 'Z'
+                || aCharacter == '-' || aCharacter == '[' || aCharacter == ']';
+    }
+
+    /**
+     * Returns if the region of aSequence is not empty and all characters are
+     * digits
+     *
+     * @param aSequence Character sequence
+     * @param aBeginIndex Begin index (inclusive)
+     * @param anEndIndex End index (exclusive)
+     * @return True: Region is not empty and all characters are digits,
+     * false: Otherwise
+     */
+    private static boolean isDigitRegion(CharSequence aSequence, int aBeginIndex, int anEndIndex) {
+        if (aBeginIndex >= anEndIndex) {
+            return false;
+        }
+        for (int i = aBeginIndex; i < anEndIndex; i++) {
+            if (!Character.isDigit(aSequence.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns if the region of aSequence equals aString
+     *
+     * @param aSequence Character sequence
+     * @param aBeginIndex Begin index (inclusive)
+     * @param anEndIndex End index (exclusive)
+     * @param aString String
+     * @return True: Region equals aString, false: Otherwise
+     */
+    private static boolean regionEquals(CharSequence aSequence, int aBeginIndex, int anEndIndex, String aString) {
+        if (anEndIndex - aBeginIndex != aString.length()) {
+            return false;
+        }
+        for (int i = 0; i < aString.length(); i++) {
+            if (aSequence.charAt(aBeginIndex + i) != aString.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code of the region of aSequence (as String.hashCode())
+     *
+     * @param aSequence Character sequence
+     * @param aBeginIndex Begin index (inclusive)
+     * @param anEndIndex End index (exclusive)
+     * @return Hash code of region
+     */
+    private static int getRegionHashCode(CharSequence aSequence, int aBeginIndex, int anEndIndex) {
+        int tmpHashCode = 0;
+        for (int i = aBeginIndex; i < anEndIndex; i++) {
+            tmpHashCode = 31 * tmpHashCode + aSequence.charAt(i);
+        }
+        // Spread higher bits since the table index uses the lower bits only
+        return tmpHashCode ^ (tmpHashCode >>> 16);
+    }
+
+    /**
+     * Compares two regions of aSequence lexicographically (as
+     * String.compareTo())
+     *
+     * @param aSequence Character sequence
+     * @param aFirstBeginIndex Begin index (inclusive) of first region
+     * @param aFirstEndIndex End index (exclusive) of first region
+     * @param aSecondBeginIndex Begin index (inclusive) of second region
+     * @param aSecondEndIndex End index (exclusive) of second region
+     * @return Negative value, zero or positive value if first region is
+     * less than, equal to or greater than second region
+     */
+    private static int compareRegions(CharSequence aSequence, int aFirstBeginIndex, int aFirstEndIndex, int aSecondBeginIndex, int aSecondEndIndex) {
+        int tmpFirstLength = aFirstEndIndex - aFirstBeginIndex;
+        int tmpSecondLength = aSecondEndIndex - aSecondBeginIndex;
+        int tmpMinimumLength = Math.min(tmpFirstLength, tmpSecondLength);
+        for (int i = 0; i < tmpMinimumLength; i++) {
+            char tmpFirstCharacter = aSequence.charAt(aFirstBeginIndex + i);
+            char tmpSecondCharacter = aSequence.charAt(aSecondBeginIndex + i);
+            if (tmpFirstCharacter != tmpSecondCharacter) {
+                return tmpFirstCharacter - tmpSecondCharacter;
+            }
+        }
+        return tmpFirstLength - tmpSecondLength;
+    }
+    // </editor-fold>
+
+}
@@ -0,0 +1,158 @@
+/**
+ * SPICES (Simplified Particle Input ConnEction Specification)
+ * Copyright (C) 2018  Achim Zielesny (achim.zielesny@googlemail.com)
+ *
+ * Source code is available at <https://github.com/zielesny/SPICES>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.gnwi.spices;
+
+/**
+ * Disjoint sets of the elements 0 to n - 1 (union-find with union by size
+ * and path halving, i.e. near-constant amortized time per operation)
+ * Reference: Robert Sedgewick, Kevin Wayne; Algorithms; Addison-Wesley
+ * Professional; 4th edition (2011)
+ *
+ * @author agent
+ */
+public final class UnionFind {
+
+    // <editor-fold defaultstate="collapsed" desc="Private final class variables">
+    /**
+     * Parent element of element i (root elements are their own parent)
+     */
+    private final int[] parents;
+
+    /**
+     * Number of elements of set with root element i
+     */
+    private final int[] sizes;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Private class variables">
+    /**
+     * Number of disjoint sets
+     */
+    private int numberOfSets;
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Constructor">
+    /**
+     * Constructor: Every element is a set of its own
+     *
+     * @param aNumberOfElements Number of elements
+     * @throws IllegalArgumentException Thrown if aNumberOfElements is
+     * negative
+     */
+    public UnionFind(int aNumberOfElements) throws IllegalArgumentException {
+        // <editor-fold defaultstate="collapsed" desc="Checks">
+        if (aNumberOfElements < 0) {
+            throw new IllegalArgumentException("An argument is illegal.");
+        }
+        // </editor-fold>
+        this.parents = new int[aNumberOfElements];
+        this.sizes = new int[aNumberOfElements];
+        for (int i = 0; i < aNumberOfElements; i++) {
+            this.parents[i] = i;
+            this.sizes[i] = 1;
+        }
+        this.numberOfSets = aNumberOfElements;
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public methods">
+    /**
+     * Root element of the set of element
+     *
+     * @param anElement Element
+     * @return Root element of the set of anElement
+     */
+    public int find(int anElement) {
+        int tmpElement = anElement;
+        while (this.parents[tmpElement] != tmpElement) {
+            this.parents[tmpElement] = this.parents[this.parents[tmpElement]];
+            tmpElement = this.parents[tmpElement];
+        }
+        return tmpElement;
+    }
+
+    /**
+     * Merges the sets of the two elements
+     *
+     * @param aFirstElement First element
+     * @param aSecondElement Second element
+     * @return True: Sets were merged, false: Elements were already in the
+     * same set
+     */
+    public boolean union(int aFirstElement, int aSecondElement) {
+        int tmpFirstRoot = this.find(aFirstElement);
+        int tmpSecondRoot = this.find(aSecondElement);
+        if (tmpFirstRoot == tmpSecondRoot) {
+            return false;
+        }
+        if (this.sizes[tmpFirstRoot] < this.sizes[tmpSecondRoot]) {
+            this.parents[tmpFirstRoot] = tmpSecondRoot;
+            this.sizes[tmpSecondRoot] += this.sizes[tmpFirstRoot];
+        } else {
+            this.parents[tmpSecondRoot] = tmpFirstRoot;
+            this.sizes[tmpFirstRoot] += this.sizes[tmpSecondRoot];
+        }
+        this.numberOfSets--;
+        return true;
+    }
+
+    /**
+     * True: Elements are in the same set, false: Otherwise
+     *
+     * @param aFirstElement First element
+     * @param aSecondElement Second element
+     * @return True: Elements are in the same set, false: Otherwise
+     */
+    public boolean isConnected(int aFirstElement, int aSecondElement) {
+        return this.find(aFirstElement) == this.find(aSecondElement);
+    }
+    // </editor-fold>
+    //
+    // <editor-fold defaultstate="collapsed" desc="Public properties">
+    /**
+     * Number of elements
+     *
+     * @return Number of elements
+     */
+    public int getNumberOfElements() {
+        return this.parents.length;
+    }
+
+    /**
+     * Number of disjoint sets
+     *
+     * @return Number of disjoint sets
+     */
+    public int getNumberOfSets() {
+        return this.numberOfSets;
+    }
+
+    /**
+     * Number of elements of the set of element
+     *
+     * @param anElement Element
+     * @return Number of elements of the set of anElement
+     */
+    public int getSetSize(int anElement) {
+        return this.sizes[this.find(anElement)];
+    }
+    // </editor-fold>
+
+}
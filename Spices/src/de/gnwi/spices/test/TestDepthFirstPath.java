@@ -21,6 +21,7 @@ package de.gnwi.spices.test;
 
 import junit.framework.TestCase;
 import de.gnwi.spices.DepthFirstPath;
+import de.gnwi.spices.ParticleGraph;
 
 /**
  * Test class for class DepthFirstPath
@@ -91,4 +92,32 @@ public class TestDepthFirstPath extends TestCase {
     	assertEquals(6, tmpResultPath.length);
     }
     
+    /**
+     * Test of method search with a very long chain
+     */
+    public void testSearchLongChain() {
+    	int tmpNumberOfParticles = 1000000;
+    	int[] tmpOffsets = new int[tmpNumberOfParticles + 1];
+    	int[] tmpNeighbors = new int[2 * (tmpNumberOfParticles - 1)];
+    	int tmpIndex = 0;
+    	for (int i = 0; i < tmpNumberOfParticles; i++) {
+    		if (i > 0) {
+    			tmpNeighbors[tmpIndex++] = i - 1;
+    		}
+    		if (i < tmpNumberOfParticles - 1) {
+    			tmpNeighbors[tmpIndex++] = i + 1;
+    		}
+    		tmpOffsets[i + 1] = tmpIndex;
+    	}
+    	DepthFirstPath tmpDFP = new DepthFirstPath(new ParticleGraph(tmpOffsets, tmpNeighbors), tmpNumberOfParticles / 2);
+    	int tmpEndIndex = tmpDFP.getEndParticleIndex();
+    	assertTrue(tmpEndIndex == 0 || tmpEndIndex == tmpNumberOfParticles - 1);
+    	tmpDFP.search(tmpEndIndex);
+    	assertEquals(tmpNumberOfParticles - 1 - tmpEndIndex, tmpDFP.getEndParticleIndex());
+    	int[] tmpResultPath = tmpDFP.getDiameterPath();
+    	assertEquals(tmpNumberOfParticles, tmpResultPath.length);
+    	assertEquals(tmpEndIndex, tmpResultPath[0]);
+    	assertEquals(tmpNumberOfParticles - 1 - tmpEndIndex, tmpResultPath[tmpNumberOfParticles - 1]);
+    }
+
 }
@@ -19,18 +19,46 @@
  */
 package de.gnwi.spices.test;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import junit.framework.TestCase;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import de.gnwi.spices.CompiledSpices;
 import de.gnwi.spices.IPointInSpace;
 import de.gnwi.spices.SpicesInner;
+import de.gnwi.spices.SpicesPartPool;
 import de.gnwi.spices.Spices;
 import de.gnwi.spices.MessageSpices;
+import de.gnwi.spices.SpicesArena;
+import de.gnwi.spices.SpicesAsciiSequence;
+import de.gnwi.spices.SpicesCache;
+import de.gnwi.spices.SpicesConstants;
+import de.gnwi.spices.SpicesLexer;
+import de.gnwi.spices.SpicesParticleTable;
+import de.gnwi.spices.SpicesUtility;
+import de.gnwi.spices.SpicesNode;
+import de.gnwi.spices.SpicesParser;
+import de.gnwi.spices.SpicesTokenRuns;
+import de.gnwi.spices.SpicesValidationResult;
+import de.gnwi.spices.SpicesValidator;
+import de.gnwi.spices.UnionFind;
 import de.gnwi.spices.ParticleFrequency;
+import de.gnwi.spices.ParticleIndexMap;
+import de.gnwi.spices.ParticleComponents;
+import de.gnwi.spices.BreadthFirstPath;
+import de.gnwi.spices.GraphDiameter;
+import de.gnwi.spices.ParticleGraph;
+import de.gnwi.spices.ParticleRings;
 import de.gnwi.spices.PointInSpace;
 
 /**
@@ -1027,6 +1055,791 @@ public class TestSpices extends TestCase {
         assertEquals("Test4.8.2b", tmpTokens[1], "1");
     }
 
+    /**
+     * Test of class SpicesLexer
+     */
+    public void testSpicesLexer() {
+        SpicesLexer tmpLexer = new SpicesLexer("3A[1]-B'2'");
+        assertTrue("Test4.9.1", tmpLexer.isValid());
+        assertTrue("Test4.9.2", Arrays.equals(tmpLexer.getTokens(), new String[] {"3", "A", "[1]", "-", "1", "B", "'2'"}));
+        assertTrue("Test4.9.3", Arrays.equals(tmpLexer.getTokens(), new Spices("3A[1]-B'2'").getStructureTokens()));
+        assertEquals("Test4.9.4", tmpLexer.getTokenKind(0), SpicesConstants.TOKEN_KIND_NUMBER);
+        assertEquals("Test4.9.5", tmpLexer.getTokenKind(1), SpicesConstants.TOKEN_KIND_PARTICLE);
+        assertEquals("Test4.9.6", tmpLexer.getTokenKind(2), SpicesConstants.TOKEN_KIND_RING_CLOSURE);
+        assertEquals("Test4.9.7", tmpLexer.getTokenKind(3), SpicesConstants.TOKEN_KIND_CONNECTION);
+        assertEquals("Test4.9.8", tmpLexer.getTokenKind(6), SpicesConstants.TOKEN_KIND_BACKBONE_INDEX);
+        assertEquals("Test4.9.9", tmpLexer.getTokenOffset(2), 2);
+        assertEquals("Test4.9.10", tmpLexer.getTokenLength(2), 3);
+        // Implicit frequency
+        assertTrue("Test4.9.11", tmpLexer.hasImplicitFrequency(4));
+        assertEquals("Test4.9.12", tmpLexer.getTokenLength(4), 0);
+        assertEquals("Test4.9.13", tmpLexer.getTokenOffset(5), 6);
+
+        tmpLexer = new SpicesLexer("{A[HEAD]-B[TAIL]}-#Hugo");
+        assertEquals("Test4.10.1", tmpLexer.getTokenKind(0), SpicesConstants.TOKEN_KIND_CURLY_BRACKET_OPEN);
+        assertEquals("Test4.10.2", tmpLexer.getTokenKind(3), SpicesConstants.TOKEN_KIND_HEAD);
+        assertEquals("Test4.10.3", tmpLexer.getTokenKind(7), SpicesConstants.TOKEN_KIND_TAIL);
+        assertEquals("Test4.10.4", tmpLexer.getTokenKind(8), SpicesConstants.TOKEN_KIND_CURLY_BRACKET_CLOSE);
+        assertEquals("Test4.10.5", tmpLexer.getTokenKind(10), SpicesConstants.TOKEN_KIND_MONOMER);
+
+        // Illegal character
+        tmpLexer = new SpicesLexer("A-B*");
+        assertFalse("Test4.11.1", tmpLexer.isValid());
+        assertEquals("Test4.11.2", tmpLexer.getNumberOfTokens(), 0);
+        assertTrue("Test4.11.3", Arrays.equals(new Spices("A-B*").getStructureTokens(), new String[] {"null"}));
+
+        // Token kinds and pre-parsed numbers of compiled token list
+        SpicesInner tmpPart = new Spices("A[12]'1'-2B-C'2'[12]").getPartsOfSpices()[0];
+        byte[] tmpKinds = tmpPart.getInnerTokenKinds();
+        int[] tmpNumbers = tmpPart.getInnerTokenNumbers();
+        assertEquals("Test4.12.1", tmpKinds.length, tmpPart.getInnerStructureTokens().length);
+        assertEquals("Test4.12.2", tmpKinds[2], SpicesConstants.TOKEN_KIND_RING_CLOSURE);
+        assertEquals("Test4.12.3", tmpNumbers[2], 12);
+        assertEquals("Test4.12.4", tmpKinds[3], SpicesConstants.TOKEN_KIND_BACKBONE_INDEX);
+        assertEquals("Test4.12.5", tmpNumbers[3], 1);
+        assertEquals("Test4.12.6", tmpKinds[5], SpicesConstants.TOKEN_KIND_NUMBER);
+        assertEquals("Test4.12.7", tmpNumbers[5], 1);
+    }
+
+    /**
+     * Test of class SpicesCache
+     */
+    public void testSpicesCache() {
+        SpicesCache tmpCache = new SpicesCache(2, 1000000L);
+        assertNull("Test4.13.1", tmpCache.getStructureTokens("A-B"));
+        assertEquals("Test4.13.2", tmpCache.getNumberOfMisses(), 1L);
+        String[] tmpTokens = new String[] {"1", "A", "-", "1", "B"};
+        tmpCache.putStructureTokens("A-B", tmpTokens);
+        assertSame("Test4.13.3", tmpCache.getStructureTokens("A-B"), tmpTokens);
+        assertEquals("Test4.13.4", tmpCache.getNumberOfHits(), 1L);
+        assertTrue("Test4.13.5", tmpCache.getNumberOfBytes() > 0L);
+        // "A-B" was accessed and gets a second chance, "A-C" is evicted
+        tmpCache.putStructureTokens("A-C", new String[] {"1", "A", "-", "1", "C"});
+        tmpCache.putStructureTokens("A-D", new String[] {"1", "A", "-", "1", "D"});
+        assertEquals("Test4.13.6", tmpCache.getNumberOfEntries(), 2);
+        assertEquals("Test4.13.7", tmpCache.getNumberOfEvictions(), 1L);
+        assertNotNull("Test4.13.8", tmpCache.getStructureTokens("A-B"));
+        assertNull("Test4.13.9", tmpCache.getStructureTokens("A-C"));
+        // Byte bound
+        tmpCache.setMaximumNumberOfBytes(1L);
+        assertEquals("Test4.13.10", tmpCache.getNumberOfEntries(), 0);
+        assertEquals("Test4.13.11", tmpCache.getNumberOfBytes(), 0L);
+        // Shared instance is used by Spices
+        SpicesCache tmpSharedCache = SpicesCache.getSharedInstance();
+        new Spices("A-B-C-D-E-F-G-H");
+        long tmpNumberOfHits = tmpSharedCache.getNumberOfHits();
+        new Spices("A-B-C-D-E-F-G-H");
+        assertTrue("Test4.13.12", tmpSharedCache.getNumberOfHits() > tmpNumberOfHits);
+        // Public methods of SpicesUtility return copies of cached arrays
+        SpicesUtility tmpSpicesUtility = new SpicesUtility();
+        tmpSpicesUtility.getStructureTokens("A-B-C-D-E-F-G-H")[1] = "X";
+        assertEquals("Test4.13.13", tmpSpicesUtility.getStructureTokens("A-B-C-D-E-F-G-H")[1], "A");
+        Spices tmpSpices = new Spices("A-B-C-D-E-F-G-H");
+        tmpSpicesUtility.getAdjacentArray("A-B-C-D-E-F-G-H", tmpSpices.getParticleGraph(0))[0][0] = 7;
+        assertEquals("Test4.13.14", tmpSpices.getPartsOfSpices()[0].getAdjacentArray()[0][0], 1);
+        // Clear removes all entries with their bytes
+        tmpCache = new SpicesCache(10, 1000000L);
+        tmpCache.putStructureTokens("A-B", new String[] {"1", "A", "-", "1", "B"});
+        tmpCache.putStructureTokens("A-C", new String[] {"1", "A", "-", "1", "C"});
+        tmpCache.clear();
+        assertEquals("Test4.13.15", tmpCache.getNumberOfEntries(), 0);
+        assertEquals("Test4.13.16", tmpCache.getNumberOfBytes(), 0L);
+        tmpCache.putStructureTokens("A-B", new String[] {"1", "A", "-", "1", "B"});
+        assertEquals("Test4.13.17", tmpCache.getNumberOfEntries(), 1);
+        assertTrue("Test4.13.18", tmpCache.getNumberOfBytes() > 0L);
+    }
+
+    /**
+     * Test of class SpicesPartPool
+     */
+    public void testSpicesPartPool() {
+        SpicesPartPool tmpPool = new SpicesPartPool(2);
+        HashMap<String, String> tmpAvailableParticles = new HashMap<>();
+        SpicesInner tmpPart = tmpPool.getPart("A-B", tmpAvailableParticles, false);
+        assertEquals("Test4.25.1", tmpPool.getNumberOfMisses(), 1L);
+        assertSame("Test4.25.2", tmpPool.getPart("A-B", new HashMap<>(), false), tmpPart);
+        assertEquals("Test4.25.3", tmpPool.getNumberOfHits(), 1L);
+        assertNotSame("Test4.25.4", tmpPool.getPart("A-C", tmpAvailableParticles, false), tmpPart);
+        // Available particles are part of the key
+        tmpAvailableParticles.put("A", "A");
+        tmpAvailableParticles.put("B", "B");
+        assertNotSame("Test4.25.5", tmpPool.getPart("A-B", tmpAvailableParticles, false), tmpPart);
+        // "A-B" was accessed and gets a second chance, "A-C" is evicted
+        assertEquals("Test4.25.6", tmpPool.getNumberOfParts(), 2);
+        assertEquals("Test4.25.7", tmpPool.getNumberOfEvictions(), 1L);
+        assertSame("Test4.25.8", tmpPool.getPart("A-B", new HashMap<>(), false), tmpPart);
+        // Invalid parts are not pooled
+        assertNotNull("Test4.25.9", tmpPool.getPart("A-C", tmpAvailableParticles, false).getErrorMessage());
+        assertEquals("Test4.25.10", tmpPool.getNumberOfParts(), 2);
+        tmpPool.setMaximumNumberOfParts(0);
+        assertEquals("Test4.25.11", tmpPool.getNumberOfParts(), 0);
+        // Shared instance is used by Spices
+        Spices tmpFirstSpices = new Spices("<W>2<A-B(C)-D><W>");
+        Spices tmpSecondSpices = new Spices("<A-B(C)-D>10<W>");
+        assertSame("Test4.25.12", tmpFirstSpices.getPartsOfSpices()[1], tmpSecondSpices.getPartsOfSpices()[0]);
+        assertSame("Test4.25.13", tmpFirstSpices.getPartsOfSpices()[0], tmpSecondSpices.getPartsOfSpices()[5]);
+        assertEquals("Test4.25.14", tmpSecondSpices.getMaximumNumberOfConnectionsOfSingleParticle(), 3);
+        // Equal sets of available particles have the same particle set id
+        HashMap<String, String> tmpOtherAvailableParticles = new HashMap<>();
+        tmpOtherAvailableParticles.put("B", "X");
+        tmpOtherAvailableParticles.put("A", "Y");
+        assertEquals("Test4.25.15", SpicesPartPool.getParticleSetId(tmpOtherAvailableParticles), SpicesPartPool.getParticleSetId(tmpAvailableParticles));
+        assertEquals("Test4.25.16", SpicesPartPool.getParticleSetId(new HashMap<>()), 0);
+        assertEquals("Test4.25.17", SpicesPartPool.getParticleSetId(null), -1);
+        tmpOtherAvailableParticles.put("C", "C");
+        assertTrue("Test4.25.18", SpicesPartPool.getParticleSetId(tmpOtherAvailableParticles) != SpicesPartPool.getParticleSetId(tmpAvailableParticles));
+        tmpPool.setMaximumNumberOfParts(2);
+        int tmpParticleSetId = SpicesPartPool.getParticleSetId(tmpOtherAvailableParticles);
+        tmpPart = tmpPool.getPart("A-C", tmpOtherAvailableParticles, tmpParticleSetId, false);
+        assertSame("Test4.25.19", tmpPool.getPart("A-C", tmpOtherAvailableParticles, false), tmpPart);
+        assertNotSame("Test4.25.20", tmpPool.getPart("A-C", new HashMap<>(), 0, false), tmpPart);
+        // Interned sets of available particles are bounded
+        for (int i = 0; i <= SpicesConstants.PARTICLE_SET_MAXIMUM_NUMBER_OF_SETS; i++) {
+            HashMap<String, String> tmpSingleAvailableParticle = new HashMap<>();
+            tmpSingleAvailableParticle.put("P" + String.valueOf(i), "P");
+            SpicesPartPool.getParticleSetId(tmpSingleAvailableParticle);
+        }
+        assertTrue("Test4.25.21", SpicesPartPool.getNumberOfParticleSets() <= SpicesConstants.PARTICLE_SET_MAXIMUM_NUMBER_OF_SETS);
+        assertEquals("Test4.25.22", SpicesPartPool.getParticleSetId(tmpAvailableParticles), SpicesPartPool.getParticleSetId(tmpAvailableParticles));
+    }
+
+    /**
+     * Test of class SpicesValidator
+     */
+    public void testSpicesValidator() {
+        SpicesValidator tmpValidator = new SpicesValidator();
+        HashMap<String, String> tmpAvailableParticles = new HashMap<>();
+        assertFalse("Test4.14.1", tmpValidator.checkWhiteSpaces("A B"));
+        assertEquals("Test4.14.2", tmpValidator.getErrorKey(), "StructureCheck.InvalidWhiteSpace");
+        assertEquals("Test4.14.3", tmpValidator.getErrorPosition(), 1);
+        assertFalse("Test4.14.4", tmpValidator.checkOuterStructure("2<A>x"));
+        assertEquals("Test4.14.5", tmpValidator.getErrorKey(), "StructureCheck.InvalidParticleAfterAngleClosingBracket");
+        assertEquals("Test4.14.6", tmpValidator.getErrorPosition(), 4);
+        assertFalse("Test4.14.7", tmpValidator.checkOuterStructure("x<A>"));
+        assertEquals("Test4.14.8", tmpValidator.getErrorKey(), "StructureCheck.InvalidCharacterPriorAngularBracket");
+        assertEquals("Test4.14.9", tmpValidator.getErrorPosition(), 0);
+        assertTrue("Test4.14.10", tmpValidator.checkOuterStructure("2<A><B>"));
+        assertNull("Test4.14.11", tmpValidator.getErrorKey());
+        assertNull("Test4.14.12", tmpValidator.getErrorMessage());
+        assertEquals("Test4.14.13", tmpValidator.getErrorPosition(), -1);
+        assertTrue("Test4.14.14", tmpValidator.checkPartStructure("A-2{B[HEAD]-C[TAIL]}-D", false, tmpAvailableParticles));
+        assertFalse("Test4.14.15", tmpValidator.checkPartStructure("A-B-C[1]", false, tmpAvailableParticles));
+        assertEquals("Test4.14.16", tmpValidator.getErrorMessage(), MessageSpices.getString("StructureCheck.MissingRingClosure"));
+        assertEquals("Test4.14.17", tmpValidator.getErrorPosition(), 5);
+        // Position in monomer is relative to part structure
+        assertFalse("Test4.14.18", tmpValidator.checkPartStructure("A-{B[HEAD]-C}", false, tmpAvailableParticles));
+        assertEquals("Test4.14.19", tmpValidator.getErrorKey(), "StructureCheck.MissingTailAttribute");
+        assertEquals("Test4.14.20", tmpValidator.getErrorPosition(), 3);
+        // Position in body is relative to part structure
+        assertFalse("Test4.14.21", tmpValidator.checkPartStructure("{A[HEAD]-B[TAIL]}-C-0D", false, tmpAvailableParticles));
+        assertEquals("Test4.14.22", tmpValidator.getErrorKey(), "StructureCheck.IllegalFrequency");
+        assertEquals("Test4.14.23", tmpValidator.getErrorPosition(), 20);
+        tmpAvailableParticles.put("A", "A");
+        assertFalse("Test4.14.24", tmpValidator.checkPartStructure("A-B", false, tmpAvailableParticles));
+        assertEquals("Test4.14.25", tmpValidator.getErrorKey(), "StructureCheck.InvalidParticlename");
+        assertEquals("Test4.14.26", tmpValidator.getErrorPosition(), 2);
+        tmpAvailableParticles.clear();
+        // Monomer shortcut with and without connection
+        assertTrue("Test4.14.27", tmpValidator.checkPartStructure("H#O", false, tmpAvailableParticles));
+        assertTrue("Test4.14.30", tmpValidator.checkPartStructure("H-#O", false, tmpAvailableParticles));
+        // First ring closure number in lexicographic order
+        assertFalse("Test4.14.31", tmpValidator.checkPartStructure("A[9]-B[10]", false, tmpAvailableParticles));
+        assertEquals("Test4.14.32", tmpValidator.getErrorKey(), "StructureCheck.MissingRingClosure");
+        assertEquals("Test4.14.33", tmpValidator.getErrorPosition(), 6);
+        // Regions between outermost normal brackets
+        assertTrue("Test4.14.34", tmpValidator.checkPartStructure("(A[1])(B[2])(C[1]-D[2])", false, tmpAvailableParticles));
+        assertFalse("Test4.14.35", tmpValidator.checkPartStructure("(A[1]-B[1])(C[2]-D[2])", false, tmpAvailableParticles));
+        assertEquals("Test4.14.36", tmpValidator.getErrorKey(), "StructureCheck.StructureNotOnePart");
+        assertFalse("Test4.14.37", tmpValidator.checkPartStructure("(A[1]-B[1])(C)", false, tmpAvailableParticles));
+        assertEquals("Test4.14.38", tmpValidator.getErrorKey(), "StructureCheck.MissingConnection");
+    }
+
+    /**
+     * Test of static method validate
+     */
+    public void testValidate() {
+        String[] tmpStructures = new String[] {"A-B-C", "2<3A-B>3<C>", "A-2{B[HEAD]-C[TAIL]}-D", "A-B(C[1])-D[1]", "A-B-C[1]", "A B", "<A-B><C-0D>"};
+        for (int i = 0; i < tmpStructures.length; i++) {
+            Spices tmpSpices = new Spices(tmpStructures[i]);
+            SpicesValidationResult tmpResult = Spices.validate(tmpStructures[i]);
+            assertEquals("Test4.15.1." + i, tmpResult.isValid(), tmpSpices.isValid());
+            if (tmpSpices.isValid()) {
+                assertEquals("Test4.15.2." + i, tmpResult.getNumberOfParticles(), (long) tmpSpices.getTotalNumberOfParticles());
+                assertEquals("Test4.15.3." + i, tmpResult.getErrorPosition(), -1);
+            } else {
+                assertEquals("Test4.15.4." + i, tmpResult.getErrorMessage(), tmpSpices.getErrorMessage());
+            }
+        }
+        // Position in input structure with whitespaces
+        SpicesValidationResult tmpResult = Spices.validate("<A-B>< C-D-0E>");
+        assertEquals("Test4.15.5", tmpResult.getErrorKey(), "StructureCheck.IllegalFrequency");
+        assertEquals("Test4.15.6", tmpResult.getErrorPosition(), 11);
+        HashMap<String, String> tmpAvailableParticles = new HashMap<>();
+        tmpAvailableParticles.put("A", "A");
+        tmpResult = Spices.validate("A-B", tmpAvailableParticles);
+        assertFalse("Test4.15.7", tmpResult.isValid());
+        assertEquals("Test4.15.8", tmpResult.getNumberOfParticles(), 0L);
+    }
+
+    /**
+     * Test of class SpicesTokenRuns
+     */
+    public void testSpicesTokenRuns() {
+        SpicesInner tmpPart = new Spices("C-1000A-2{B[HEAD]-3C[TAIL]}").getPartsOfSpices()[0];
+        SpicesTokenRuns tmpTokenRuns = tmpPart.getInnerTokenRuns();
+        // Particle series are single runs
+        assertEquals("Test4.16.1", tmpTokenRuns.getSeriesLength(2), 1000);
+        assertEquals("Test4.16.2", tmpTokenRuns.getNumberOfParticles(), 1009);
+        assertEquals("Test4.16.3", tmpTokenRuns.getNumberOfTokens(), tmpPart.getInnerStructureTokens().length);
+        assertEquals("Test4.16.4", tmpPart.getInnerTokenKinds().length, tmpPart.getInnerStructureTokens().length);
+        String[] tmpTokens = tmpPart.getInnerStructureTokens();
+        int[] tmpParticleIndices = tmpPart.getInnerParticleIndices();
+        for (int i = 0; i < tmpParticleIndices.length; i++) {
+            assertEquals("Test4.16.5", tmpTokens[tmpParticleIndices[i]], tmpPart.getInnerParticles()[i]);
+        }
+        assertEquals("Test4.16.6", tmpTokens[tmpTokenRuns.getTokenOffset(2) + 3 * 999 + 1], "A");
+        assertEquals("Test4.16.7", tmpTokens[tmpTokenRuns.getTokenOffset(3)], "-");
+        // Bonds of particle series are implied
+        int[][] tmpAdjacentArray = tmpPart.getAdjacentArray();
+        assertTrue("Test4.16.8", Arrays.equals(tmpAdjacentArray[0], new int[] {1}));
+        assertTrue("Test4.16.9", Arrays.equals(tmpAdjacentArray[500], new int[] {501, 499}));
+        assertTrue("Test4.16.10", Arrays.equals(tmpAdjacentArray[1000], new int[] {1001, 999}));
+        // Repeat groups of curly brackets
+        tmpPart = new Spices("C-4{A[HEAD]-B(D)-E[TAIL]}-F").getPartsOfSpices()[0];
+        tmpTokenRuns = tmpPart.getInnerTokenRuns();
+        assertEquals("Test4.16.11", tmpTokenRuns.getNumberOfRepeatGroups(), 1);
+        assertEquals("Test4.16.12", tmpTokenRuns.getRepeatGroupCopies(0), 4);
+        tmpAdjacentArray = tmpPart.getAdjacentArray();
+        // Copies are connected tail to head
+        assertTrue("Test4.16.13", Arrays.equals(tmpAdjacentArray[4], new int[] {5, 2}));
+        assertTrue("Test4.16.14", Arrays.equals(tmpAdjacentArray[9], new int[] {10, 8}));
+        assertTrue("Test4.16.15", Arrays.equals(tmpAdjacentArray[16], new int[] {17, 14}));
+        // Runs: 1C - { 1A [HEAD] - 1B ( 1D ) - 1E [TAIL] } (4 copies) - 1F
+        // with stored runs of first copy only
+        assertEquals("Test4.16.16", tmpTokenRuns.getNumberOfRuns(), 52);
+        assertEquals("Test4.16.17", tmpTokenRuns.getNumberOfStoredRuns(), 16);
+        assertEquals("Test4.16.18", tmpTokenRuns.getNumberOfTokens(), tmpPart.getInnerStructureTokens().length);
+        assertTrue("Test4.16.19", Arrays.equals(tmpTokenRuns.getRunIndicesOfKind(SpicesConstants.TOKEN_KIND_HEAD), new int[] {4, 16, 28, 40}));
+        assertEquals("Test4.16.20", tmpTokenRuns.getNextRunIndexOfKind(SpicesConstants.TOKEN_KIND_TAIL, 13), 24);
+        assertEquals("Test4.16.21", tmpTokenRuns.getNextLevelParticleRunIndex(13), 15);
+        assertEquals("Test4.16.22", tmpTokenRuns.getPreviousParticleRunIndex(14), 11);
+        assertEquals("Test4.16.23", tmpTokenRuns.getPreviousParticleRunIndex(52), 51);
+        assertEquals("Test4.16.24", tmpTokenRuns.getParticleRunIndex(7), 20);
+        tmpTokens = tmpPart.getInnerStructureTokens();
+        tmpParticleIndices = tmpPart.getInnerParticleIndices();
+        for (int i = 0; i < tmpParticleIndices.length; i++) {
+            assertEquals("Test4.16.25", tmpTokenRuns.getParticleTokenIndex(i), tmpParticleIndices[i]);
+            assertEquals("Test4.16.26", tmpTokens[tmpParticleIndices[i]], tmpPart.getInnerParticles()[i]);
+        }
+    }
+
+    /**
+     * Test of index of class SpicesTokenRuns
+     */
+    public void testSpicesTokenRunsIndex() {
+        SpicesTokenRuns tmpTokenRuns = new Spices("A[START]-3B(C[1])-D[1][END]").getPartsOfSpices()[0].getInnerTokenRuns();
+        // Runs: 1A [START] - 3B ( 1C [1] ) - 1D [1] [END]
+        assertTrue("Test4.18.1", Arrays.equals(tmpTokenRuns.getRunIndicesOfKind(SpicesConstants.TOKEN_KIND_RING_CLOSURE), new int[] {6, 10}));
+        assertEquals("Test4.18.2", tmpTokenRuns.getNextRunIndexOfKind(SpicesConstants.TOKEN_KIND_END, 0), 11);
+        assertEquals("Test4.18.3", tmpTokenRuns.getNextRunIndexOfKind(SpicesConstants.TOKEN_KIND_HEAD, 0), -1);
+        assertEquals("Test4.18.4", tmpTokenRuns.getBranchLevel(6), 1);
+        assertEquals("Test4.18.5", tmpTokenRuns.getPreviousParticleRunIndex(6), 5);
+        assertEquals("Test4.18.6", tmpTokenRuns.getNextLevelParticleRunIndex(3), 9);
+        assertEquals("Test4.18.7", tmpTokenRuns.getParticleRunIndex(3), 3);
+        assertEquals("Test4.18.8", tmpTokenRuns.getParticleRunIndex(4), 5);
+        int[] tmpParticleTokenIndices = tmpTokenRuns.getParticleTokenIndices();
+        for (int i = 0; i < tmpParticleTokenIndices.length; i++) {
+            assertEquals("Test4.18.9", tmpTokenRuns.getParticleTokenIndex(i), tmpParticleTokenIndices[i]);
+        }
+    }
+
+    /**
+     * Test of neighbor particles of repeat groups: The copies of a repeat
+     * group are stamped and must be connected like the explicitly expanded
+     * structure
+     */
+    public void testRepeatGroupNeighborParticles() {
+        // First ring closure of structure in repeat group. NOTE: Only the
+        // first two ring closure tags of a ring closure number are paired,
+        // i.e. the ring is closed in the first copy only.
+        SpicesInner tmpPart = new Spices("C-3{A[HEAD]-B(D[1]-E)-F[1]-G[TAIL]}-H").getPartsOfSpices()[0];
+        SpicesInner tmpExpandedPart = new Spices("C-A-B(D[1]-E)-F[1]-G-A-B(D-E)-F-G-A-B(D-E)-F-G-H").getPartsOfSpices()[0];
+        assertEquals("Test4.31.1", tmpPart.getInnerTokenRuns().getNumberOfStoredRuns(), tmpPart.getInnerTokenRuns().getNumberOfRuns() - 2 * tmpPart.getInnerTokenRuns().getRepeatGroupLength(0));
+        assertTrue("Test4.31.2", Arrays.equals(tmpPart.getInnerParticles(), tmpExpandedPart.getInnerParticles()));
+        assertTrue("Test4.31.3", Arrays.deepEquals(tmpPart.getAdjacentArray(), tmpExpandedPart.getAdjacentArray()));
+        // Ring closure around repeat group with branches and particle series
+        tmpPart = new Spices("C[1]-4{A[HEAD]-2B(D)(E)-F[TAIL]}-G[1]").getPartsOfSpices()[0];
+        tmpExpandedPart = new Spices("C[1]-A-2B(D)(E)-F-A-2B(D)(E)-F-A-2B(D)(E)-F-A-2B(D)(E)-F-G[1]").getPartsOfSpices()[0];
+        assertTrue("Test4.31.4", Arrays.equals(tmpPart.getInnerParticles(), tmpExpandedPart.getInnerParticles()));
+        assertTrue("Test4.31.5", Arrays.deepEquals(tmpPart.getAdjacentArray(), tmpExpandedPart.getAdjacentArray()));
+        // Branch after repeat group is connected to TAIL particle of last
+        // copy
+        tmpPart = new Spices("1{A[HEAD]-B[TAIL]}(F)-G").getPartsOfSpices()[0];
+        tmpExpandedPart = new Spices("A-B(F)-G").getPartsOfSpices()[0];
+        assertTrue("Test4.31.6", Arrays.deepEquals(tmpPart.getAdjacentArray(), tmpExpandedPart.getAdjacentArray()));
+        tmpPart = new Spices("2{A[HEAD]-B[TAIL]}(F)-G").getPartsOfSpices()[0];
+        tmpExpandedPart = new Spices("A-B-A-B(F)-G").getPartsOfSpices()[0];
+        assertTrue("Test4.31.7", Arrays.deepEquals(tmpPart.getAdjacentArray(), tmpExpandedPart.getAdjacentArray()));
+    }
+
+    /**
+     * Test of syntax tree (see SpicesParser and SpicesNode)
+     */
+    public void testSpicesParser() {
+        SpicesNode tmpPartNode = new Spices("C-2{A[HEAD]-B(D)-E[TAIL]}-F").getPartsOfSpices()[0].getPartNode();
+        assertEquals("Test4.17.1", tmpPartNode.getNodeKind(), SpicesConstants.NODE_KIND_PART);
+        assertEquals("Test4.17.2", tmpPartNode.getNumberOfChildren(), 5);
+        SpicesNode tmpRepeatNode = tmpPartNode.getChild(2);
+        assertEquals("Test4.17.3", tmpRepeatNode.getNodeKind(), SpicesConstants.NODE_KIND_REPEAT);
+        assertEquals("Test4.17.4", tmpRepeatNode.getNumber(), 2);
+        assertEquals("Test4.17.5", tmpRepeatNode.getChild(4).getNodeKind(), SpicesConstants.NODE_KIND_BRANCH);
+        assertEquals("Test4.17.6", tmpRepeatNode.toString(), "2{1A[HEAD]-1B(1D)-1E[TAIL]}");
+        assertEquals("Test4.17.7", tmpPartNode.toString(), "1C-2{1A[HEAD]-1B(1D)-1E[TAIL]}-1F");
+        // Identical subtrees are shared
+        SpicesNode tmpOtherPartNode = SpicesParser.parse(new String[] {"(", "1", "D", ")", "-", "5", "A"});
+        assertSame("Test4.17.8", tmpOtherPartNode.getChild(0), tmpRepeatNode.getChild(4));
+        assertEquals("Test4.17.9", tmpOtherPartNode.getChild(2).getNodeKind(), SpicesConstants.NODE_KIND_PARTICLE);
+        assertEquals("Test4.17.10", tmpOtherPartNode.getChild(2).getNumber(), 5);
+        try {
+            SpicesParser.parse(new String[] {"(", "1", "D"});
+            fail("Test4.17.11");
+        } catch (IllegalArgumentException anException) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test of class ParticleGraph
+     */
+    public void testParticleGraph() {
+        Spices tmpSpices = new Spices("A(B)-C[1]-D-E[1]");
+        ParticleGraph tmpParticleGraph = tmpSpices.getParticleGraph(0);
+        assertSame("Test4.19.1", tmpParticleGraph, tmpSpices.getPartsOfSpices()[0].getParticleGraph());
+        assertEquals("Test4.19.2", tmpParticleGraph.getNumberOfParticles(), 5);
+        assertEquals("Test4.19.3", tmpParticleGraph.getNumberOfBonds(), 5);
+        assertEquals("Test4.19.4", tmpParticleGraph.getDegree(1), 1);
+        assertEquals("Test4.19.5", tmpParticleGraph.getDegree(2), 3);
+        assertEquals("Test4.19.6", tmpParticleGraph.getMaximumDegree(), 3);
+        assertTrue("Test4.19.7", tmpParticleGraph.isNeighbor(2, 4) && tmpParticleGraph.isNeighbor(4, 2));
+        assertFalse("Test4.19.8", tmpParticleGraph.isNeighbor(1, 2));
+        assertTrue("Test4.19.9", Arrays.deepEquals(tmpParticleGraph.getAdjacentArray(), tmpSpices.getPartsOfSpices()[0].getAdjacentArray()));
+        assertTrue("Test4.19.10", Arrays.deepEquals(ParticleGraph.fromAdjacentArray(tmpParticleGraph.getAdjacentArray()).getAdjacentArray(), tmpParticleGraph.getAdjacentArray()));
+        ParticleGraph tmpSmallParticleGraph = ParticleGraph.fromAdjacentArray(new int[][] {{1}, {0}, null});
+        assertTrue("Test4.19.11", tmpSmallParticleGraph.getDegree(0) == 1 && tmpSmallParticleGraph.getNeighbor(0, 0) == 1 && tmpSmallParticleGraph.getDegree(2) == 0);
+        assertEquals("Test4.19.12", new Spices("A").getParticleGraph(0).getNumberOfBonds(), 0);
+        try {
+            new ParticleGraph(new int[] {0, 1}, new int[] {1});
+            fail("Test4.19.13");
+        } catch (IllegalArgumentException anException) {
+            // Expected
+        }
+        // A monomer shortcut directly after a particle is connected to the
+        // particle and to the following particles
+        assertTrue("Test4.19.14", Arrays.deepEquals(new Spices("H#O-Me").getPartsOfSpices()[0].getAdjacentArray(), new Spices("H-#O-Me").getPartsOfSpices()[0].getAdjacentArray()));
+        assertTrue("Test4.19.15", Arrays.deepEquals(new Spices("H2O-2O-H#O-Cc").getPartsOfSpices()[0].getAdjacentArray(), new Spices("H2O-2O-H-#O-Cc").getPartsOfSpices()[0].getAdjacentArray()));
+        assertTrue("Test4.19.16", new Spices("2<A-B><H#O-Me>").isValid());
+        // Public constructor copies its arrays
+        int[] tmpOffsets = new int[] {0, 1, 2};
+        int[] tmpNeighbors = new int[] {1, 0};
+        ParticleGraph tmpCopiedParticleGraph = new ParticleGraph(tmpOffsets, tmpNeighbors);
+        tmpNeighbors[0] = 0;
+        tmpOffsets[1] = 0;
+        assertTrue("Test4.19.17", tmpCopiedParticleGraph.isNeighbor(0, 1) && tmpCopiedParticleGraph.getDegree(0) == 1);
+        try {
+            tmpCopiedParticleGraph.getNeighbor(0, 1);
+            fail("Test4.19.18");
+        } catch (IndexOutOfBoundsException anException) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test of classes UnionFind and ParticleComponents
+     */
+    public void testParticleComponents() {
+        UnionFind tmpUnionFind = new UnionFind(5);
+        assertTrue("Test4.20.1", tmpUnionFind.union(0, 3));
+        assertTrue("Test4.20.2", tmpUnionFind.union(3, 4));
+        assertFalse("Test4.20.3", tmpUnionFind.union(4, 0));
+        assertTrue("Test4.20.4", tmpUnionFind.isConnected(0, 4) && !tmpUnionFind.isConnected(1, 2));
+        assertEquals("Test4.20.5", tmpUnionFind.getNumberOfSets(), 3);
+        assertEquals("Test4.20.6", tmpUnionFind.getSetSize(3), 3);
+        // Isolated particle 2
+        ParticleComponents tmpParticleComponents = new ParticleComponents(ParticleGraph.fromAdjacentArray(new int[][] {{1}, {0, 3}, null, {1}}));
+        assertFalse("Test4.20.7", tmpParticleComponents.isConnected());
+        assertEquals("Test4.20.8", tmpParticleComponents.getNumberOfComponents(), 2);
+        assertTrue("Test4.20.9", Arrays.equals(tmpParticleComponents.getComponentLabels(), new int[] {0, 0, 1, 0}));
+        assertTrue("Test4.20.10", Arrays.equals(tmpParticleComponents.getComponentSizes(), new int[] {3, 1}));
+        assertTrue("Test4.20.11", Arrays.equals(tmpParticleComponents.getParticleIndices(0), new int[] {0, 1, 3}));
+        // Part and multi-part structure
+        Spices tmpSpices = new Spices("<A-B(C)-D><E-F>");
+        assertTrue("Test4.20.12", tmpSpices.getPartsOfSpices()[0].getParticleComponents().isConnected());
+        tmpParticleComponents = tmpSpices.getParticleComponents();
+        assertEquals("Test4.20.13", tmpParticleComponents.getNumberOfParticles(), 6);
+        assertTrue("Test4.20.14", Arrays.equals(tmpParticleComponents.getComponentSizes(), new int[] {4, 2}));
+        assertTrue("Test4.20.15", tmpParticleComponents.isConnected(4, 5) && !tmpParticleComponents.isConnected(3, 4));
+        // Connection markers of regions in one part
+        tmpSpices = new Spices("(A[1])(B[2])(C[1][2])");
+        assertNull("Test4.20.16", tmpSpices.getErrorMessage());
+        assertTrue("Test4.20.17", tmpSpices.getParticleComponents().isConnected());
+    }
+
+    /**
+     * Test of part blocks with multiplicities
+     */
+    public void testPartBlocks() {
+        Spices tmpSpices = new Spices("1000<O-H>2<A-B(C)-D><O-H>");
+        assertEquals("Test4.26.1", tmpSpices.getNumberOfParts(), 1003);
+        assertEquals("Test4.26.2", tmpSpices.getNumberOfPartBlocks(), 3);
+        assertEquals("Test4.26.3", tmpSpices.getPartBlockMultiplicity(0), 1000);
+        assertSame("Test4.26.4", tmpSpices.getPartBlock(0), tmpSpices.getPartBlock(2));
+        assertTrue("Test4.26.5", Arrays.equals(tmpSpices.getPartBlockParticleOffsets(), new int[] {0, 2000, 2008, 2010}));
+        assertEquals("Test4.26.6", tmpSpices.getTotalNumberOfParticles(), 2010);
+        assertEquals("Test4.26.7", tmpSpices.getFrequencyOfSpecifiedParticle("O"), 1001);
+        assertEquals("Test4.26.8", tmpSpices.getNumberOfDisplayParticles(), 2010);
+        assertSame("Test4.26.9", tmpSpices.getPartOfSpices(1001), tmpSpices.getPartBlock(1));
+        assertSame("Test4.26.10", tmpSpices.getPartOfSpices(1002), tmpSpices.getPartBlock(0));
+        assertEquals("Test4.26.11", tmpSpices.getPartsOfSpices().length, 1003);
+        assertSame("Test4.26.12", tmpSpices.getPartsOfSpices()[999], tmpSpices.getPartBlock(0));
+        String[][] tmpMatrix = tmpSpices.getParticlePositionsAndConnections();
+        assertEquals("Test4.26.13", tmpMatrix.length, 2010);
+        assertTrue("Test4.26.14", Arrays.equals(tmpMatrix[1999], new String[] {"2000", "H", "0", "", "", "", "-1"}));
+        assertTrue("Test4.26.15", Arrays.equals(tmpMatrix[2003], new String[] {"2004", "D", "0", "", "", "", "-2"}));
+        assertEquals("Test4.26.16", tmpSpices.getParticleIds().length, 2010);
+        assertEquals("Test4.26.17", tmpSpices.getParticleIndices().length, 2010);
+        assertEquals("Test4.26.18", tmpSpices.getPathsStartToEnd().length, 1003);
+        assertEquals("Test4.26.19", tmpSpices.getStructureTokens().length, 1001 * 5 + 2 * 12);
+        // Destroyed Spices matrix is not created again
+        tmpSpices.destroySpicesMatrix();
+        assertNull("Test4.26.20", tmpSpices.getParticlePositionsAndConnections());
+    }
+
+    /**
+     * Test of compiled Spices shared by several Spices objects and threads
+     */
+    public void testCompiledSpices() throws Exception {
+        String tmpStructure = "<A[START]-B(C)-D[END]>3<E-F[1]-G-H[1]>";
+        CompiledSpices tmpCompiledSpices = CompiledSpices.compile(tmpStructure);
+        Spices tmpSpices = new Spices(tmpStructure);
+        assertTrue("Test4.27.1", tmpCompiledSpices.isValid());
+        assertTrue("Test4.27.2", Arrays.deepEquals(tmpCompiledSpices.getParticlePositionsAndConnections(1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0, false),
+                tmpSpices.getParticlePositionsAndConnections()));
+        assertTrue("Test4.27.3", Arrays.equals(tmpCompiledSpices.getParticleIds(), tmpSpices.getParticleIds()));
+        assertTrue("Test4.27.4", Arrays.equals(tmpCompiledSpices.getStructureTokens(), tmpSpices.getStructureTokens()));
+        // Spices objects with a shared compiled Spices object
+        Spices tmpSharedSpices1 = new Spices(tmpCompiledSpices, 1, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0);
+        Spices tmpSharedSpices2 = new Spices(tmpCompiledSpices, 101, new PointInSpace[]{null}, new PointInSpace[]{null}, 0.0);
+        assertSame("Test4.27.5", tmpSharedSpices1.getCompiledSpices(), tmpSharedSpices2.getCompiledSpices());
+        assertTrue("Test4.27.6", Arrays.deepEquals(tmpSharedSpices1.getParticlePositionsAndConnections(), tmpSpices.getParticlePositionsAndConnections()));
+        assertEquals("Test4.27.7", tmpSharedSpices2.getParticlePositionsAndConnections()[0][0], "101");
+        tmpSharedSpices1.destroySpicesMatrix();
+        assertNull("Test4.27.8", tmpSharedSpices1.getParticlePositionsAndConnections());
+        assertNotNull("Test4.27.9", tmpSharedSpices2.getParticlePositionsAndConnections());
+        // Particle coordinates of a shared compiled Spices object in parallel
+        PointInSpace[] tmpFirst = new PointInSpace[]{new PointInSpace(0.0, 0.0, 0.0)};
+        PointInSpace[] tmpLast = new PointInSpace[]{new PointInSpace(10.0, 0.0, 0.0)};
+        PointInSpace[][] tmpCoordinates = tmpSpices.getParticleCoordinates(tmpFirst, tmpLast, 1.0);
+        ExecutorService tmpExecutorService = Executors.newFixedThreadPool(4);
+        try {
+            ArrayList<Future<PointInSpace[][]>> tmpFutures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tmpFutures.add(tmpExecutorService.submit(() -> tmpCompiledSpices.getParticleCoordinates(tmpFirst, tmpLast, 1.0)));
+            }
+            for (Future<PointInSpace[][]> tmpFuture : tmpFutures) {
+                PointInSpace[][] tmpParallelCoordinates = tmpFuture.get();
+                for (int i = 0; i < tmpCoordinates[0].length; i++) {
+                    assertEquals("Test4.27.10", tmpParallelCoordinates[0][i].getX(), tmpCoordinates[0][i].getX());
+                }
+            }
+        } finally {
+            tmpExecutorService.shutdown();
+        }
+        // Invalid structure
+        CompiledSpices tmpInvalidCompiledSpices = CompiledSpices.compile("<A-B><C-(D>");
+        Spices tmpInvalidSpices = new Spices("<A-B><C-(D>");
+        assertFalse("Test4.27.11", tmpInvalidCompiledSpices.isValid());
+        assertEquals("Test4.27.12", tmpInvalidCompiledSpices.getErrorMessage(), tmpInvalidSpices.getErrorMessage());
+        assertNull("Test4.27.13", tmpInvalidCompiledSpices.getParticlePositionsAndConnections(1, null, null, 0.0, false));
+        assertEquals("Test4.27.14", tmpInvalidCompiledSpices.getPartsOfSpices().length, 2);
+        assertNotNull("Test4.27.15", tmpInvalidCompiledSpices.getPartsOfSpices()[1].getErrorMessage());
+    }
+
+    /**
+     * Test of reuse mode and arena with work buffers
+     */
+    public void testSpicesArena() {
+        StringBuilder tmpManyPartBlocks = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            tmpManyPartBlocks.append(i % 2 == 0 ? "<A-B>" : "2<C-D(E)>");
+        }
+        String[] tmpStructures = new String[] {
+            "A-B-C",
+            "<A[START]-B(C)-D[END]>3<E-F[1]-G-H[1]>",
+            "<A-B><C-(D><E-F>",
+            tmpManyPartBlocks.toString(),
+            "A B",
+            "O-H"
+        };
+        HashMap<String, String> tmpAvailableParticles = new HashMap<>();
+        Spices tmpReusedSpices = new Spices("A");
+        tmpReusedSpices.setReuseMode(true);
+        assertTrue("Test4.28.1", tmpReusedSpices.isReuseMode());
+        SpicesArena tmpArena = new SpicesArena(1);
+        Spices tmpArenaSpices = new Spices("A");
+        for (int k = 0; k < 2; k++) {
+            for (int i = 0; i < tmpStructures.length; i++) {
+                Spices tmpSpices = new Spices(tmpStructures[i], tmpAvailableParticles, false);
+                tmpReusedSpices.setInputStructure(tmpStructures[i], tmpAvailableParticles, false);
+                tmpArenaSpices.setInputStructure(tmpStructures[i], tmpAvailableParticles, false, tmpArena);
+                assertEquals("Test4.28.2." + i, tmpReusedSpices.isValid(), tmpSpices.isValid());
+                assertEquals("Test4.28.3." + i, tmpReusedSpices.getErrorMessage(), tmpSpices.getErrorMessage());
+                assertEquals("Test4.28.4." + i, tmpArenaSpices.getErrorMessage(), tmpSpices.getErrorMessage());
+                assertTrue("Test4.28.5." + i, Arrays.equals(tmpReusedSpices.getStructureTokens(), tmpSpices.getStructureTokens()));
+                if (tmpSpices.isValid()) {
+                    assertTrue("Test4.28.6." + i, Arrays.deepEquals(tmpReusedSpices.getParticlePositionsAndConnections(), tmpSpices.getParticlePositionsAndConnections()));
+                    assertTrue("Test4.28.7." + i, Arrays.deepEquals(tmpArenaSpices.getParticlePositionsAndConnections(), tmpSpices.getParticlePositionsAndConnections()));
+                    assertEquals("Test4.28.8." + i, tmpReusedSpices.getNumberOfPartBlocks(), tmpSpices.getNumberOfPartBlocks());
+                    assertSame("Test4.28.9." + i, tmpReusedSpices.getPartBlock(0), tmpSpices.getPartBlock(0));
+                }
+            }
+        }
+        // Work buffers grow on demand
+        assertTrue("Test4.28.10", tmpArena.getPartStructures().length >= 40);
+        // Compiled Spices object does not refer to work buffers of arena
+        CompiledSpices tmpCompiledSpices = tmpArenaSpices.getCompiledSpices();
+        tmpArenaSpices.setInputStructure(tmpStructures[3], tmpAvailableParticles, false, tmpArena);
+        assertEquals("Test4.28.11", tmpCompiledSpices.getInputStructure(), "O-H");
+        assertEquals("Test4.28.12", tmpCompiledSpices.getTotalNumberOfParticles(), 2);
+        tmpArena.reset();
+        assertEquals("Test4.28.13", tmpArena.getNumberOfPartBlocks(), 0);
+        tmpReusedSpices.setReuseMode(false);
+        assertFalse("Test4.28.14", tmpReusedSpices.isReuseMode());
+        try {
+            tmpArenaSpices.setInputStructure("A-B", tmpAvailableParticles, false, null);
+            fail("Test4.28.15");
+        } catch (IllegalArgumentException anException) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test of map between global particle indices and (part index, local
+     * particle index) pairs
+     */
+    public void testParticleIndexMap() {
+        String[] tmpStructures = new String[] {
+            "1000<O-H>2<A-B(C)-D><O-H>",
+            "<A[START]-B(C)-D[END]>3<E-F[1]-G-H[1]>",
+            "A-B-C"
+        };
+        for (int i = 0; i < tmpStructures.length; i++) {
+            Spices tmpSpices = new Spices(tmpStructures[i]);
+            ParticleIndexMap tmpParticleIndexMap = tmpSpices.getParticleIndexMap();
+            assertSame("Test4.29.1." + i, tmpSpices.getParticleIndexMap(), tmpParticleIndexMap);
+            assertEquals("Test4.29.2." + i, tmpParticleIndexMap.getNumberOfParts(), tmpSpices.getNumberOfParts());
+            assertEquals("Test4.29.3." + i, tmpParticleIndexMap.getNumberOfParticles(), tmpSpices.getTotalNumberOfParticles());
+            assertEquals("Test4.29.4." + i, tmpParticleIndexMap.getNumberOfPartBlocks(), tmpSpices.getNumberOfPartBlocks());
+            // Compare with summation over all parts
+            int tmpParticleIndex = 0;
+            for (int j = 0; j < tmpSpices.getNumberOfParts(); j++) {
+                int tmpNumberOfParticles = tmpSpices.getPartOfSpices(j).getInnerParticles().length;
+                assertEquals("Test4.29.5." + i, tmpParticleIndexMap.getNumberOfParticlesOfPart(j), tmpNumberOfParticles);
+                assertEquals("Test4.29.6." + i, tmpParticleIndexMap.getFirstParticleIndex(j), tmpParticleIndex);
+                for (int k = 0; k < tmpNumberOfParticles; k++) {
+                    assertEquals("Test4.29.7." + i, tmpParticleIndexMap.getPartIndex(tmpParticleIndex), j);
+                    assertEquals("Test4.29.8." + i, tmpParticleIndexMap.getLocalParticleIndex(tmpParticleIndex), k);
+                    assertEquals("Test4.29.9." + i, tmpParticleIndexMap.getParticleIndex(j, k), tmpParticleIndex);
+                    tmpParticleIndex++;
+                }
+            }
+        }
+        ParticleIndexMap tmpParticleIndexMap = new Spices(tmpStructures[0]).getParticleIndexMap();
+        assertEquals("Test4.29.10", tmpParticleIndexMap.getNumberOfPartBlocks(), 3);
+        assertEquals("Test4.29.11", tmpParticleIndexMap.getPartBlockMultiplicity(0), 1000);
+        assertEquals("Test4.29.12", tmpParticleIndexMap.getPartBlockIndexOfParticle(2007), 1);
+        assertEquals("Test4.29.13", tmpParticleIndexMap.getPartBlockIndexOfPart(1002), 2);
+        assertEquals("Test4.29.14", tmpParticleIndexMap.getNumberOfParticlesOfPartBlockPart(1), 4);
+        try {
+            new ParticleIndexMap(new int[] {0, 2}, new int[] {0, 3});
+            fail("Test4.29.15");
+        } catch (IllegalArgumentException anException) {
+            // Expected
+        }
+        try {
+            new ParticleIndexMap(null, new int[] {0});
+            fail("Test4.29.16");
+        } catch (IllegalArgumentException anException) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test of parallel construction of parts
+     */
+    public void testParallelConstruction() {
+        String[] tmpStructures = new String[] {
+            "<A[START]-B(C)-D[END]>3<E-F[1]-G-H[1]><A[START]-B(C)-D[END]>",
+            "<A-B>2<C-D(E)-F><A-B><G>",
+            "<A-B><C-(D><E-F>",
+            "A-B-C"
+        };
+        HashMap<String, String> tmpAvailableParticles = new HashMap<>();
+        for (int i = 0; i < tmpStructures.length; i++) {
+            Spices tmpSequentialSpices = new Spices(tmpStructures[i], tmpAvailableParticles, false, 1, false);
+            Spices tmpParallelSpices = new Spices(tmpStructures[i], tmpAvailableParticles, false, 1, true);
+            assertEquals("Test4.24.1." + i, tmpSequentialSpices.isValid(), tmpParallelSpices.isValid());
+            assertEquals("Test4.24.2." + i, tmpSequentialSpices.getErrorMessage(), tmpParallelSpices.getErrorMessage());
+            if (tmpSequentialSpices.isValid()) {
+                assertTrue("Test4.24.3." + i, Arrays.deepEquals(tmpSequentialSpices.getParticlePositionsAndConnections(), tmpParallelSpices.getParticlePositionsAndConnections()));
+                assertTrue("Test4.24.4." + i, Arrays.equals(tmpSequentialSpices.getParticleIds(), tmpParallelSpices.getParticleIds()));
+                assertTrue("Test4.24.5." + i, Arrays.equals(tmpSequentialSpices.getBackboneIndices(), tmpParallelSpices.getBackboneIndices()));
+                assertEquals("Test4.24.6." + i, tmpSequentialSpices.getMaximumNumberOfConnectionsOfSingleParticle(), tmpParallelSpices.getMaximumNumberOfConnectionsOfSingleParticle());
+                assertEquals("Test4.24.7." + i, tmpSequentialSpices.getPartsOfSpices().length, tmpParallelSpices.getPartsOfSpices().length);
+            }
+        }
+        // Equal parts share the same compiled part
+        Spices tmpSpices = new Spices(tmpStructures[0], tmpAvailableParticles, false, 1, true);
+        assertSame("Test4.24.8", tmpSpices.getPartsOfSpices()[0], tmpSpices.getPartsOfSpices()[4]);
+        assertFalse("Test4.24.9", tmpSpices.isValid() && tmpSpices.getPartsOfSpices()[0] == tmpSpices.getPartsOfSpices()[3]);
+    }
+
+    /**
+     * Test of lazy (memoized) derived properties
+     */
+    public void testLazyProperties() {
+        Spices tmpSpices = new Spices("A[START]-B(C)-D[END]-A");
+        SpicesInner tmpPart = tmpSpices.getPartsOfSpices()[0];
+        assertEquals("Test4.23.1", tmpPart.getStartParticleIndex(), 0);
+        assertEquals("Test4.23.2", tmpPart.getEndParticleIndex(), 3);
+        assertTrue("Test4.23.3", Arrays.equals(tmpPart.getNumberOfConnects(), new int[] {1, 3, 1, 2, 1}));
+        assertTrue("Test4.23.4", Arrays.equals(tmpPart.getTerminalParticleFlags(), new boolean[] {true, false, true, false, true}));
+        assertNull("Test4.23.5", tmpPart.getMonomers());
+        assertEquals("Test4.23.6", tmpSpices.getNumberOfDisplayParticles(), 5);
+        assertEquals("Test4.23.7", tmpSpices.getNumberOfDisplayParticles(), 5);
+        ParticleFrequency[] tmpSortedParticleFrequencies = tmpSpices.getSortedParticleFrequencies();
+        assertNotSame("Test4.23.8", tmpSortedParticleFrequencies, tmpSpices.getSortedParticleFrequencies());
+        for (int i = 0; i < tmpSortedParticleFrequencies.length; i++) {
+            assertEquals("Test4.23.9", tmpSortedParticleFrequencies[i].getParticle(), tmpSpices.getSortedParticleFrequencies()[i].getParticle());
+        }
+        assertEquals("Test4.23.10", tmpSpices.getParticleFrequencies().length, 4);
+        assertNull("Test4.23.11", tmpSpices.getMonomers());
+        assertNull("Test4.23.12", tmpSpices.getMonomerList());
+    }
+
+    /**
+     * Test of returned arrays of shared compiled parts
+     */
+    public void testReturnedArrayCopies() {
+        Spices tmpSpices = new Spices("3<A-B(C)-D[1]-E[1]>");
+        SpicesInner tmpPart = tmpSpices.getPartOfSpices(0);
+        String[] tmpInnerParticles = tmpPart.getInnerParticles();
+        String[] tmpStructureTokens = tmpSpices.getStructureTokens();
+        int[][] tmpAdjacentArray = tmpPart.getAdjacentArray();
+        tmpInnerParticles[0] = "X";
+        tmpPart.getInnerStructureTokens()[1] = "X";
+        tmpPart.getInnerParticleIndices()[0] = -1;
+        tmpPart.getInnerBackboneIndices()[0] = -1;
+        tmpAdjacentArray[0][0] = -1;
+        tmpStructureTokens[1] = "X";
+        tmpSpices.getPartBlockParticleOffsets()[1] = -1;
+        tmpSpices.getParticleToFrequencyMap().get("A").setFrequency(100);
+        // A new Spices object with the same (pooled) compiled part is not
+        // affected
+        Spices tmpOtherSpices = new Spices("3<A-B(C)-D[1]-E[1]>");
+        SpicesInner tmpOtherPart = tmpOtherSpices.getPartOfSpices(0);
+        assertSame("Test4.30.1", tmpOtherPart, tmpPart);
+        assertEquals("Test4.30.2", tmpOtherPart.getInnerParticles()[0], "A");
+        assertEquals("Test4.30.3", tmpOtherPart.getInnerParticle(0), "A");
+        assertEquals("Test4.30.4", tmpOtherPart.getInnerStructureTokens()[1], "A");
+        assertEquals("Test4.30.5", tmpOtherPart.getInnerStructureToken(1), "A");
+        assertEquals("Test4.30.6", tmpOtherPart.getInnerParticleIndices()[0], tmpOtherPart.getInnerParticleIndex(0));
+        assertEquals("Test4.30.7", tmpOtherPart.getInnerBackboneIndex(0), 0);
+        assertEquals("Test4.30.8", tmpOtherPart.getAdjacentArray()[0][0], 1);
+        assertEquals("Test4.30.9", tmpOtherPart.getNumberOfInnerParticles(), 5);
+        assertEquals("Test4.30.10", tmpSpices.getStructureTokens()[1], "A");
+        assertEquals("Test4.30.11", tmpSpices.getPartBlockParticleOffsets()[1], 15);
+        assertEquals("Test4.30.12", tmpSpices.getFrequencyOfSpecifiedParticle("A"), 3);
+    }
+
+    /**
+     * Test of class ParticleRings
+     */
+    public void testParticleRings() {
+        // Chain without rings
+        Spices tmpSpices = new Spices("A-B(C)-D");
+        ParticleRings tmpParticleRings = tmpSpices.getParticleRings(0);
+        assertEquals("Test4.22.1", tmpParticleRings.getNumberOfRings(), 0);
+        assertFalse("Test4.22.2", tmpParticleRings.isRingParticle(1));
+        // Two fused rings of 6 particles with tail
+        tmpSpices = new Spices("A[1]-A-A-A-A[2]-A[1]-A-A-A-A[2]-B-C");
+        tmpParticleRings = tmpSpices.getParticleRings(0);
+        assertSame("Test4.22.3", tmpParticleRings, tmpSpices.getPartsOfSpices()[0].getParticleRings());
+        assertEquals("Test4.22.4", tmpParticleRings.getNumberOfRings(), 2);
+        assertTrue("Test4.22.5", Arrays.equals(tmpParticleRings.getRing(0), new int[] {0, 1, 2, 3, 4, 5}));
+        assertEquals("Test4.22.6", tmpParticleRings.getRingSize(1), 6);
+        assertTrue("Test4.22.7", Arrays.equals(tmpParticleRings.getRingIndices(4), new int[] {0, 1}));
+        assertEquals("Test4.22.8", tmpParticleRings.getNumberOfRings(9), 1);
+        assertTrue("Test4.22.9", Arrays.equals(tmpParticleRings.getSmallestRingSizes(), new int[] {6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 0, 0}));
+        // Cube: 5 rings of 4 particles
+        int[][] tmpAdjacentArray = new int[8][];
+        for (int i = 0; i < 8; i++) {
+            tmpAdjacentArray[i] = new int[] {i ^ 1, i ^ 2, i ^ 4};
+        }
+        tmpParticleRings = new ParticleRings(ParticleGraph.fromAdjacentArray(tmpAdjacentArray));
+        assertEquals("Test4.22.10", tmpParticleRings.getNumberOfRings(), 5);
+        assertEquals("Test4.22.11", tmpParticleRings.getRingParticleIndices().length, 20);
+    }
+
+    /**
+     * Test of class GraphDiameter
+     */
+    public void testGraphDiameter() {
+        // Ring of 4 particles with tail of 2 particles
+        Spices tmpSpices = new Spices("A[1]-B-C-D[1]-E-F");
+        ParticleGraph tmpParticleGraph = tmpSpices.getParticleGraph(0);
+        GraphDiameter tmpGraphDiameter = new GraphDiameter(tmpParticleGraph, 0L, false);
+        assertTrue("Test4.21.1", tmpGraphDiameter.isExact());
+        assertEquals("Test4.21.2", tmpGraphDiameter.getDiameter(), 4);
+        assertTrue("Test4.21.3", Arrays.equals(tmpGraphDiameter.getEccentricities(), new int[] {3, 4, 3, 2, 3, 4}));
+        int[] tmpPath = tmpSpices.getPartsOfSpices()[0].getExactDiameter(0L, false);
+        assertEquals("Test4.21.4", tmpPath.length, 5);
+        for (int i = 1; i < tmpPath.length; i++) {
+            assertTrue("Test4.21.5", tmpParticleGraph.isNeighbor(tmpPath[i - 1], tmpPath[i]));
+        }
+        // Grid of 100 x 100 particles: Serial and parallel
+        int tmpSize = 100;
+        int[][] tmpAdjacentArray = new int[tmpSize * tmpSize][];
+        for (int i = 0; i < tmpSize; i++) {
+            for (int j = 0; j < tmpSize; j++) {
+                int[] tmpNeighbors = new int[4];
+                int tmpNumberOfNeighbors = 0;
+                if (i > 0) {
+                    tmpNeighbors[tmpNumberOfNeighbors++] = (i - 1) * tmpSize + j;
+                }
+                if (i < tmpSize - 1) {
+                    tmpNeighbors[tmpNumberOfNeighbors++] = (i + 1) * tmpSize + j;
+                }
+                if (j > 0) {
+                    tmpNeighbors[tmpNumberOfNeighbors++] = i * tmpSize + j - 1;
+                }
+                if (j < tmpSize - 1) {
+                    tmpNeighbors[tmpNumberOfNeighbors++] = i * tmpSize + j + 1;
+                }
+                tmpAdjacentArray[i * tmpSize + j] = Arrays.copyOf(tmpNeighbors, tmpNumberOfNeighbors);
+            }
+        }
+        tmpParticleGraph = ParticleGraph.fromAdjacentArray(tmpAdjacentArray);
+        tmpGraphDiameter = new GraphDiameter(tmpParticleGraph, 0L, false);
+        GraphDiameter tmpParallelGraphDiameter = new GraphDiameter(tmpParticleGraph, 0L, true);
+        assertEquals("Test4.21.6", tmpGraphDiameter.getDiameter(), 2 * (tmpSize - 1));
+        assertEquals("Test4.21.7", tmpParallelGraphDiameter.getDiameter(), 2 * (tmpSize - 1));
+        assertTrue("Test4.21.8", Arrays.equals(tmpGraphDiameter.getEccentricities(), tmpParallelGraphDiameter.getEccentricities()));
+        // Coordinates with exact diameter as main chain
+        tmpSpices = new Spices("A[1]-B-C-D-E-F[1]");
+        PointInSpace[][] tmpCoordinates = tmpSpices.getParticleCoordinates(new PointInSpace[] {new PointInSpace(0.0, 0.0, 0.0)}, new PointInSpace[] {new PointInSpace(3.0, 0.0, 0.0)}, 1.0, 1000L, false);
+        assertEquals("Test4.21.9", tmpCoordinates[0].length, 6);
+    }
+
     /**
      * Test of property getParticleIndex
      */
@@ -1963,6 +2776,36 @@ public class TestSpices extends TestCase {
         assertTrue("Test9.6.10", tmpValid == false);
     }
 
+    /**
+     * Test of CharSequence, CharBuffer and byte slice input structures
+     */
+    public void testCharSequenceInputStructure() {
+        String tmpStructure = "A-B(C)-D[1]-2{E[HEAD]-F[TAIL]}-G[1]";
+        Spices tmpExpectedSpices = new Spices(tmpStructure);
+        byte[] tmpBytes = ("xx" + tmpStructure + "yy").getBytes(StandardCharsets.US_ASCII);
+        CharSequence[] tmpInputStructures = new CharSequence[] {
+            new StringBuilder(tmpStructure),
+            CharBuffer.wrap(tmpStructure),
+            new SpicesAsciiSequence(tmpBytes, 2, tmpStructure.length()),
+            new SpicesAsciiSequence(ByteBuffer.wrap(tmpBytes), 2, tmpStructure.length())
+        };
+        for (int i = 0; i < tmpInputStructures.length; i++) {
+            Spices tmpSpices = new Spices(tmpInputStructures[i]);
+            assertTrue("Test9.7.1." + i, tmpSpices.isValid());
+            assertTrue("Test9.7.2." + i, tmpSpices.getInputStructure().equals(tmpStructure));
+            assertTrue("Test9.7.3." + i, Arrays.equals(tmpSpices.getParticleIndices(), tmpExpectedSpices.getParticleIndices()));
+            assertTrue("Test9.7.4." + i, Arrays.deepEquals(tmpSpices.getParticlePositionsAndConnections(), tmpExpectedSpices.getParticlePositionsAndConnections()));
+        }
+        Spices tmpSpices = new Spices(new SpicesAsciiSequence(" A - B ".getBytes(StandardCharsets.US_ASCII)));
+        assertTrue("Test9.7.5", tmpSpices.isValid());
+        assertTrue("Test9.7.6", tmpSpices.getInputStructure().equals("A-B"));
+        tmpSpices.setInputStructure(new SpicesAsciiSequence("A B".getBytes(StandardCharsets.US_ASCII)));
+        assertFalse("Test9.7.7", tmpSpices.isValid());
+        assertTrue("Test9.7.8", tmpSpices.getErrorMessage().equals(MessageSpices.getString("StructureCheck.InvalidWhiteSpace")));
+        assertTrue("Test9.7.9", new SpicesAsciiSequence(tmpBytes, 2, 3).toString().equals("A-B"));
+        assertTrue("Test9.7.10", new SpicesAsciiSequence(tmpBytes).subSequence(2, 5).toString().equals("A-B"));
+    }
+
     /**
      * Test of setCoordinates
      */
@@ -2056,6 +2899,10 @@ public class TestSpices extends TestCase {
         tmpSpices = new Spices("A-B(C)-D");
         tmpResult = tmpSpices.getMaximumNumberOfConnectionsOfSingleParticle();
         assertTrue("Test3", tmpResult == 3);
+
+        // Deprecated setter of part does nothing
+        tmpSpices.getPartsOfSpices()[0].setMaximumNumberOfConnectionsOfSingleParticle(10);
+        assertEquals("Test4", tmpSpices.getPartsOfSpices()[0].getMaximumNumberOfConnectionsOfSingleParticle(), 3);
     }
     
     // </editor-fold>
@@ -2566,6 +3413,18 @@ public class TestSpices extends TestCase {
         assertTrue("Test6d", spices.getSortedParticleFrequencies()[3].getFrequency() == 3);
         assertTrue("Test7", spices.hasParticle("A"));
         assertFalse("Test8", spices.hasParticle("F"));
+
+        // Particle ids
+        spices = new Spices("2<A-B><A-B-C>");
+        int[] tmpParticleIds = spices.getParticleIds();
+        assertTrue("Test1003a", tmpParticleIds.length == 7);
+        assertTrue("Test1003b", tmpParticleIds[0] == SpicesParticleTable.findParticleId("A"));
+        assertTrue("Test1003c", tmpParticleIds[0] == tmpParticleIds[2] && tmpParticleIds[0] == tmpParticleIds[4]);
+        assertTrue("Test1003d", tmpParticleIds[1] != tmpParticleIds[0] && tmpParticleIds[6] != tmpParticleIds[1]);
+        assertTrue("Test1003e", SpicesParticleTable.getParticle(tmpParticleIds[6]).equals("C"));
+        assertTrue("Test1003f", SpicesParticleTable.getParticleId("C") == tmpParticleIds[6]);
+        assertTrue("Test1003g", spices.getPartsOfSpices()[2].getInnerParticleIds()[2] == tmpParticleIds[6]);
+        assertTrue("Test1003h", SpicesParticleTable.findParticleId("UnknownParticleOfTest1003") == -1);
     }
 
     /** 
@@ -2580,6 +3439,19 @@ public class TestSpices extends TestCase {
         assertTrue("Test1010b", tmpPath[1] == 3);
         tmpPath = parts[1].getPathStartToEnd();
         assertNull("Test1010c", tmpPath);
+        int[][] tmpPaths = spices.getPathsStartToEnd();
+        assertTrue("Test1010d", Arrays.equals(tmpPaths[0], parts[0].getPathStartToEnd()));
+        assertNull("Test1010e", tmpPaths[1]);
+        // Several source/target pairs with reused work arrays
+        BreadthFirstPath tmpBreadthFirstPath = new BreadthFirstPath();
+        tmpPaths = tmpBreadthFirstPath.getPaths(new Spices("A[1]-B-C-D-E-F[1]").getParticleGraph(0), new int[] {0, 1, 2}, new int[] {3, 5, 2});
+        assertTrue("Test1010f", Arrays.equals(tmpPaths[0], new int[] {0, 1, 2, 3}));
+        assertTrue("Test1010g", Arrays.equals(tmpPaths[1], new int[] {1, 0, 5}));
+        assertTrue("Test1010h", Arrays.equals(tmpPaths[2], new int[] {2}));
+        assertNull("Test1010i", tmpBreadthFirstPath.getPath(ParticleGraph.fromAdjacentArray(new int[][] {{1}, {0}, null}), 0, 2));
+        // START and END at the same particle
+        assertTrue("Test1010j", Arrays.equals(new Spices("X[START][END]").getPartsOfSpices()[0].getPathStartToEnd(), new int[] {0, 0}));
+        assertTrue("Test1010k", Arrays.equals(new Spices("<B>2<B[START][END]>").getPathsStartToEnd()[1], new int[] {0, 0}));
     }
     
     /**
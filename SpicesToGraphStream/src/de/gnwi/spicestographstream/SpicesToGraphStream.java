@@ -23,6 +23,7 @@ package de.gnwi.spicestographstream;
 import org.graphstream.graph.*;
 import org.graphstream.graph.implementations.SingleGraph;
 import org.graphstream.ui.spriteManager.*;
+import de.gnwi.spices.ParticleGraph;
 import de.gnwi.spices.Spices;
 import java.awt.Color;
 import java.io.BufferedReader;
@@ -145,36 +146,6 @@ public class SpicesToGraphStream {
     //</editor-fold>
     
     //<editor-fold defaultstate="collapsed" desc="Private methods">
-    /**
-     * Method to convert an adjacent array to a nonredundant adjacent array
-     * 
-     * @param anAdjacentArray to be converted to a nonredundant adjacent array
-     * @return nonredundant adjacent array
-     * @author Mirco Daniel
-     */
-    private int[][] convertToNoneRedundantAdjacentArray(int[][] anAdjacentArray) {
-        int[][] tmpAdjacentArray = new int[anAdjacentArray.length][];
-        int tmpCountArrayItems;
-        for (int i = 0; i < anAdjacentArray.length; i++) {
-            tmpCountArrayItems = 0;
-            for (int j = 0; j < anAdjacentArray[i].length; j++) {
-                if (anAdjacentArray[i][j] > i) {
-                    tmpCountArrayItems++;
-                }
-            }
-            if (tmpCountArrayItems > 0) {
-                tmpAdjacentArray[i] = new int[tmpCountArrayItems];
-                int tmpCounter = 0;
-                for (int j = 0; j < anAdjacentArray[i].length; j++) {
-                    if (anAdjacentArray[i][j] > i) {
-                        tmpAdjacentArray[i][tmpCounter++] = anAdjacentArray[i][j];
-                    }
-                }
-            }
-        }
-        return tmpAdjacentArray;
-    }
-    
     /**
      * Adds a '.css' stylesheet file and other attributes to the graph. If the 
      * file can not be loaded Constants.DEFAULT_CSS_STYLESHEET is used instead.
@@ -211,7 +182,7 @@ public class SpicesToGraphStream {
         if (aSpices.getErrorMessage() != null) {
             return;
         }
-        int tmpPartsNumber = aSpices.getPartsOfSpices().length;
+        int tmpPartsNumber = aSpices.getNumberOfParts();
         if (aPartNumber > tmpPartsNumber || aPartNumber < 0) {
             throw new IllegalArgumentException("The Spices object has got no "
                     + aPartNumber + "th part!");
@@ -224,11 +195,11 @@ public class SpicesToGraphStream {
         Node tmpNode;
         URL tmpStartFileName = null;
         URL tmpEndFileName = null;
-        tmpParticleNumber = aSpices.getPartsOfSpices()[aPartNumber].getInnerParticles().length;
+        tmpParticleNumber = aSpices.getPartOfSpices(aPartNumber).getNumberOfInnerParticles();
         tmpNodeID[aPartNumber] = new String[tmpParticleNumber];
         for (int j = 0; j < tmpParticleNumber; j++) {
             // Build nodes
-            tmpNodeIDBuilder = new StringBuilder(aSpices.getPartsOfSpices()[aPartNumber].getInnerParticles()[j]);
+            tmpNodeIDBuilder = new StringBuilder(aSpices.getPartOfSpices(aPartNumber).getInnerParticle(j));
             tmpNodeIDBuilder.append('(');
             tmpNodeIDBuilder.append(aPartNumber);
             tmpNodeIDBuilder.append(',');
@@ -237,40 +208,41 @@ public class SpicesToGraphStream {
             tmpNodeID[aPartNumber][j] = tmpNodeIDBuilder.toString();
             aGraph.addNode(tmpNodeID[aPartNumber][j]);
             tmpNode = aGraph.getNode(tmpNodeID[aPartNumber][j]);
-            tmpNode.setAttribute("ui.class", aSpices.getPartsOfSpices()[aPartNumber].getInnerParticles()[j]);
+            tmpNode.setAttribute("ui.class", aSpices.getPartOfSpices(aPartNumber).getInnerParticle(j));
             if (!this.isFullParticleNameDisplay) {
-                if (aSpices.getPartsOfSpices()[aPartNumber].getInnerBackboneIndices()[j] != 0) {
-                    tmpLabel = aSpices.getPartsOfSpices()[aPartNumber].getInnerParticles()[j].replaceAll("([A-Z][a-zA-Z0-9])[a-zA-Z0-9]{2,8}", "$1.");
+                if (aSpices.getPartOfSpices(aPartNumber).getInnerBackboneIndex(j) != 0) {
+                    tmpLabel = aSpices.getPartOfSpices(aPartNumber).getInnerParticle(j).replaceAll("([A-Z][a-zA-Z0-9])[a-zA-Z0-9]{2,8}", "$1.");
                 } else {
-                    tmpLabel =  aSpices.getPartsOfSpices()[aPartNumber].getInnerParticles()[j].replaceAll("([A-Z][a-zA-Z0-9])[a-zA-Z0-9]{2,6}([a-zA-Z0-9][a-zA-Z0-9])", "$1.$2");
+                    tmpLabel =  aSpices.getPartOfSpices(aPartNumber).getInnerParticle(j).replaceAll("([A-Z][a-zA-Z0-9])[a-zA-Z0-9]{2,6}([a-zA-Z0-9][a-zA-Z0-9])", "$1.$2");
                 } 
             } else {
-                tmpLabel = aSpices.getPartsOfSpices()[aPartNumber].getInnerParticles()[j];
+                tmpLabel = aSpices.getPartOfSpices(aPartNumber).getInnerParticle(j);
             }
-            if (aSpices.getPartsOfSpices()[aPartNumber].getInnerBackboneIndices()[j] != 0) {
-                    tmpLabel = tmpLabel + "'" + aSpices.getPartsOfSpices()[aPartNumber].getInnerBackboneIndices()[j] + "'";
+            if (aSpices.getPartOfSpices(aPartNumber).getInnerBackboneIndex(j) != 0) {
+                    tmpLabel = tmpLabel + "'" + aSpices.getPartOfSpices(aPartNumber).getInnerBackboneIndex(j) + "'";
             }
             tmpNode.addAttribute("ui.label", tmpLabel);
         }
         // Build edges
         if (tmpParticleNumber > 1) {
-            int[][] tmpAdjacentArray = this.convertToNoneRedundantAdjacentArray(
-                    aSpices.getPartsOfSpices()[aPartNumber].getAdjacentArray());
-            for (int j = 0; j < tmpAdjacentArray.length; j++) {
-                if (tmpAdjacentArray[j] != null) {
-                    for (int k = 0; k < tmpAdjacentArray[j].length; k++) {
+            // NOTE: Every bond is added once, i.e. for neighbor k > j only
+            ParticleGraph tmpParticleGraph = aSpices.getParticleGraph(aPartNumber);
+            for (int j = 0; j < tmpParticleGraph.getNumberOfParticles(); j++) {
+                for (int k = 0; k < tmpParticleGraph.getDegree(j); k++) {
+                    int tmpNeighbor = tmpParticleGraph.getNeighbor(j, k);
+                    if (tmpNeighbor > j) {
                         tmpEdgeIDBuilder = new StringBuilder(tmpNodeID[aPartNumber][j]);
-                        tmpEdgeIDBuilder.append(tmpNodeID[aPartNumber][tmpAdjacentArray[j][k]]);
+                        tmpEdgeIDBuilder.append(tmpNodeID[aPartNumber][tmpNeighbor]);
                         aGraph.addEdge(tmpEdgeIDBuilder.toString(), tmpNodeID[aPartNumber][j], 
-                                tmpNodeID[aPartNumber][tmpAdjacentArray[j][k]]);
+                                tmpNodeID[aPartNumber][tmpNeighbor]);
                     }
                 }
             }
         }
         // Build nodes for annotations
-        if (aSpices.getPartsOfSpices()[aPartNumber].getStartParticleIndex() > -1) {
-            int tmpStartIndex = aSpices.getPartsOfSpices()[aPartNumber].getStartParticleIndex();
-            int tmpEndIndex = aSpices.getPartsOfSpices()[aPartNumber].getEndParticleIndex();
+        if (aSpices.getPartOfSpices(aPartNumber).getStartParticleIndex() > -1) {
+            int tmpStartIndex = aSpices.getPartOfSpices(aPartNumber).getStartParticleIndex();
+            int tmpEndIndex = aSpices.getPartOfSpices(aPartNumber).getEndParticleIndex();
             
             Node tmpStartNode = aGraph.addNode(tmpNodeID[aPartNumber][tmpStartIndex]+"_START");
             Edge tmpEdgeToStartNode = aGraph.addEdge(tmpNodeID[aPartNumber][tmpStartIndex]+"_START_edge", 
@@ -319,7 +291,7 @@ public class SpicesToGraphStream {
         if (aSpices == null || aSpices.getErrorMessage() != null) {
             return new Graph[0];
         }
-        int tmpPartsNumber = aSpices.getPartsOfSpices().length;
+        int tmpPartsNumber = aSpices.getNumberOfParts();
         int tmpParticleNumber;
         String[][] tmpNodeID = new String[tmpPartsNumber][];
         String tmpLabel;
@@ -346,11 +318,11 @@ public class SpicesToGraphStream {
             tmpGraph[i].addAttribute("ui.stylesheet",  tmpStylesheet);
             tmpGraph[i].addAttribute("ui.quality");
             tmpGraph[i].addAttribute("ui.antialias");
-            tmpParticleNumber = aSpices.getPartsOfSpices()[i].getInnerParticles().length;
+            tmpParticleNumber = aSpices.getPartOfSpices(i).getNumberOfInnerParticles();
             tmpNodeID[i] = new String[tmpParticleNumber];
             for (int j = 0; j < tmpParticleNumber; j++) {
                 // Build nodes
-                tmpNodeIDBuilder = new StringBuilder(aSpices.getPartsOfSpices()[i].getInnerParticles()[j]);
+                tmpNodeIDBuilder = new StringBuilder(aSpices.getPartOfSpices(i).getInnerParticle(j));
                 tmpNodeIDBuilder.append('(');
                 tmpNodeIDBuilder.append(i);
                 tmpNodeIDBuilder.append(',');
@@ -359,26 +331,28 @@ public class SpicesToGraphStream {
                 tmpNodeID[i][j] = tmpNodeIDBuilder.toString();
                 tmpGraph[i].addNode(tmpNodeID[i][j]);
                 tmpNode = tmpGraph[i].getNode(tmpNodeID[i][j]);
-                tmpNode.setAttribute("ui.class", aSpices.getPartsOfSpices()[i].getInnerParticles()[j]);
-                if (aSpices.getPartsOfSpices()[i].getInnerParticles()[j].length() > 5) {
-                    tmpLabel =  aSpices.getPartsOfSpices()[i].getInnerParticles()[j].substring(0, 3) + "..";
+                tmpNode.setAttribute("ui.class", aSpices.getPartOfSpices(i).getInnerParticle(j));
+                if (aSpices.getPartOfSpices(i).getInnerParticle(j).length() > 5) {
+                    tmpLabel =  aSpices.getPartOfSpices(i).getInnerParticle(j).substring(0, 3) + "..";
                 } else {
-                    tmpLabel = aSpices.getPartsOfSpices()[i].getInnerParticles()[j];
+                    tmpLabel = aSpices.getPartOfSpices(i).getInnerParticle(j);
                 }
-                if (aSpices.getPartsOfSpices()[i].getInnerBackboneIndices()[j] != 0) {
-                    tmpLabel = tmpLabel + "'" + aSpices.getPartsOfSpices()[i].getInnerBackboneIndices()[j] + "'";
+                if (aSpices.getPartOfSpices(i).getInnerBackboneIndex(j) != 0) {
+                    tmpLabel = tmpLabel + "'" + aSpices.getPartOfSpices(i).getInnerBackboneIndex(j) + "'";
                 }
                 tmpNode.addAttribute("ui.label", tmpLabel);
             }
             // Build edges
             if (tmpParticleNumber > 1) {
-                int[][] tmpAdjacentArray = this.convertToNoneRedundantAdjacentArray(aSpices.getPartsOfSpices()[i].getAdjacentArray());
-                for (int j = 0; j < tmpAdjacentArray.length; j++) {
-                    if (tmpAdjacentArray[j] != null) {
-                        for (int k = 0; k < tmpAdjacentArray[j].length; k++) {
+                // NOTE: Every bond is added once, i.e. for neighbor k > j only
+                ParticleGraph tmpParticleGraph = aSpices.getParticleGraph(i);
+                for (int j = 0; j < tmpParticleGraph.getNumberOfParticles(); j++) {
+                    for (int k = 0; k < tmpParticleGraph.getDegree(j); k++) {
+                        int tmpNeighbor = tmpParticleGraph.getNeighbor(j, k);
+                        if (tmpNeighbor > j) {
                             tmpEdgeIDBuilder = new StringBuilder(tmpNodeID[i][j]);
-                            tmpEdgeIDBuilder.append(tmpNodeID[i][tmpAdjacentArray[j][k]]);
-                            tmpGraph[i].addEdge(tmpEdgeIDBuilder.toString(), tmpNodeID[i][j], tmpNodeID[i][tmpAdjacentArray[j][k]]);
+                            tmpEdgeIDBuilder.append(tmpNodeID[i][tmpNeighbor]);
+                            tmpGraph[i].addEdge(tmpEdgeIDBuilder.toString(), tmpNodeID[i][j], tmpNodeID[i][tmpNeighbor]);
                         }
                     }
                 }
@@ -386,9 +360,9 @@ public class SpicesToGraphStream {
         }
         // Link START- and END-Tags with corrensponding nodes
         for (int i = 0; i < tmpPartsNumber; i++) {
-            if (aSpices.getPartsOfSpices()[i].getStartParticleIndex() > -1) {
-                int tmpStartIndex = aSpices.getPartsOfSpices()[i].getStartParticleIndex();
-                int tmpEndIndex = aSpices.getPartsOfSpices()[i].getEndParticleIndex();
+            if (aSpices.getPartOfSpices(i).getStartParticleIndex() > -1) {
+                int tmpStartIndex = aSpices.getPartOfSpices(i).getStartParticleIndex();
+                int tmpEndIndex = aSpices.getPartOfSpices(i).getEndParticleIndex();
                 spriteManager = new SpriteManager(tmpGraph[i]);
                 Sprite spriteStart = spriteManager.addSprite("START");
                 spriteStart.attachToNode(tmpNodeID[i][tmpStartIndex]);
@@ -709,7 +683,7 @@ public class SpicesToGraphStream {
         if (aSpices.getErrorMessage() != null) {
             return;
         }
-        int tmpPartsNumber = aSpices.getPartsOfSpices().length;
+        int tmpPartsNumber = aSpices.getNumberOfParts();
         this.addAttributes(aGraph);
         for (int i = 0; i < tmpPartsNumber; i++) {
             this.buildNodesAndEdges(aSpices, aGraph, i);
@@ -769,7 +743,7 @@ public class SpicesToGraphStream {
         if (aSpices.getErrorMessage() != null) {
             return;
         }
-        int tmpPartsNumber = aSpices.getPartsOfSpices().length;
+        int tmpPartsNumber = aSpices.getNumberOfParts();
         if (aPartNumber > tmpPartsNumber || aPartNumber < 0) {
             throw new IllegalArgumentException("The Spices object has got no "
                     + aPartNumber + "th part!");